@@ -0,0 +1,44 @@
+package uk.org.webcompere.lightweightconfig.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Runs the benchmarks with several thread counts and the GC profiler, writing the results of each
+ * thread count to <code>jmh-result-&lt;threads&gt;-threads.json</code>.<br>
+ * Usage: <code>java -jar target/benchmarks.jar [benchmark regex] [thread counts]</code>, where the thread counts
+ * are separated by commas, and default to 1, 4 and the number of processors.
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackage().getName() + ".*";
+
+        Set<Integer> threadCounts = new TreeSet<>();
+        if (args.length > 1) {
+            for (String count : args[1].split(",")) {
+                threadCounts.add(Integer.parseInt(count.trim()));
+            }
+        } else {
+            threadCounts.add(1);
+            threadCounts.add(4);
+            threadCounts.add(Runtime.getRuntime().availableProcessors());
+        }
+
+        for (int threads : threadCounts) {
+            new Runner(new OptionsBuilder()
+                .include(include)
+                .threads(threads)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("jmh-result-" + threads + "-threads.json")
+                .build())
+                .run();
+        }
+    }
+}
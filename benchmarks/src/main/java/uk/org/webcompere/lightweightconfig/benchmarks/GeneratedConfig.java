@@ -0,0 +1,152 @@
+package uk.org.webcompere.lightweightconfig.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Generates the configuration files which the benchmarks load. The documents are built
+ * to a given size, so that the benchmarks can show how the cost scales.
+ */
+final class GeneratedConfig {
+    private GeneratedConfig() {
+    }
+
+    /**
+     * A YAML document which binds to {@link ServiceConfig}, with one placeholder in the header
+     * and one in each server
+     * @param servers the number of servers in the document
+     * @return the document
+     */
+    static String serviceYaml(int servers) {
+        StringBuilder yaml = new StringBuilder()
+            .append("name: ${SERVICE_NAME:-benchmark}\n")
+            .append("port: ${SERVICE_PORT:-8080}\n")
+            .append("servers:\n");
+        for (int i = 0; i < servers; i++) {
+            yaml.append("  - host: host").append(i).append(".example.com\n")
+                .append("    port: ${SERVER_PORT:-900").append(i % 10).append("}\n")
+                .append("    weight: ").append(i % 7).append('\n')
+                .append("    tags: [primary, zone-").append(i % 3).append("]\n");
+        }
+        return yaml.toString();
+    }
+
+    /**
+     * Lines of YAML in which only one line in a hundred has a placeholder
+     * @param lines the number of lines
+     * @param prefix makes the keys unique between the files of an import chain
+     * @return the lines
+     */
+    static String plainYaml(int lines, String prefix) {
+        StringBuilder yaml = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            yaml.append(prefix).append("key").append(i).append(": ");
+            if (i % 100 == 0) {
+                yaml.append("${VALUE_").append(i).append(":-default}");
+            } else {
+                yaml.append("value number ").append(i);
+            }
+            yaml.append('\n');
+        }
+        return yaml.toString();
+    }
+
+    /**
+     * A properties file with a placeholder in every tenth value
+     * @param entries the number of properties
+     * @return the file content
+     */
+    static String properties(int entries) {
+        StringBuilder properties = new StringBuilder();
+        for (int i = 0; i < entries; i++) {
+            properties.append("service.key").append(i).append('=');
+            if (i % 10 == 0) {
+                properties.append("${VALUE_").append(i).append(":-default}");
+            } else {
+                properties.append("value").append(i);
+            }
+            properties.append('\n');
+        }
+        return properties.toString();
+    }
+
+    /**
+     * A YAML document where every value has a custom tag
+     * @param values the number of values
+     * @return the document
+     */
+    static String taggedYaml(int values) {
+        StringBuilder yaml = new StringBuilder();
+        for (int i = 0; i < values; i++) {
+            yaml.append("key").append(i).append(": !upper value").append(i).append('\n');
+        }
+        return yaml.toString();
+    }
+
+    /**
+     * Write a chain of files, each of which imports the next
+     * @param directory where to write the files
+     * @param depth the number of imports - 0 writes a single file
+     * @param linesPerFile the number of lines in each file
+     * @return the file at the top of the chain, whose name is also its resource name if the directory
+     *         is on the classpath
+     */
+    static Path writeImportChain(Path directory, int depth, int linesPerFile) {
+        for (int level = 0; level <= depth; level++) {
+            StringBuilder content = new StringBuilder(plainYaml(linesPerFile, "level" + level + "_"));
+            if (level < depth) {
+                content.append("#import ").append(chainFileName(level + 1)).append('\n');
+            }
+            write(directory.resolve(chainFileName(level)), content.toString());
+        }
+        return directory.resolve(chainFileName(0));
+    }
+
+    static String chainFileName(int level) {
+        return "chain" + level + ".yml";
+    }
+
+    static Path write(Path file, String content) {
+        try {
+            Files.write(file, content.getBytes(UTF_8));
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("lightweight-config-benchmark");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void deleteRecursively(Path directory) {
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
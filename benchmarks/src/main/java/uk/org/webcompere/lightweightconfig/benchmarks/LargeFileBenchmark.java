@@ -0,0 +1,83 @@
+package uk.org.webcompere.lightweightconfig.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.org.webcompere.lightweightconfig.provider.FileProvider;
+import uk.org.webcompere.lightweightconfig.provider.InterpolatingReader;
+import uk.org.webcompere.lightweightconfig.provider.LoadContext;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The cost of streaming a large file through the placeholder processing, as the YAML parser would
+ * read it. The file provider reads large files through a file channel, which is compared with reading
+ * the same file line by line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LargeFileBenchmark {
+    private static final int LINE_LENGTH = 29;
+
+    @Param({"1", "10", "100"})
+    private int megabytes;
+
+    private Path directory;
+    private Path file;
+
+    @Setup
+    public void setup() {
+        directory = GeneratedConfig.createTempDirectory();
+        int lines = megabytes * 1024 * 1024 / LINE_LENGTH;
+        file = GeneratedConfig.write(directory.resolve("large.yml"), GeneratedConfig.plainYaml(lines, ""));
+    }
+
+    @TearDown
+    public void tearDown() {
+        GeneratedConfig.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public long fileProvider() throws IOException {
+        return drain(new FileProvider(file).openReader());
+    }
+
+    @Benchmark
+    public long lineByLine() throws IOException {
+        return drain(new InterpolatingReader(Files.newBufferedReader(file, UTF_8), new LoadContext(),
+            path -> {
+                throw new IllegalStateException("No imports expected");
+            }));
+    }
+
+    private static long drain(Reader reader) throws IOException {
+        try (Reader source = reader) {
+            char[] buffer = new char[8192];
+            long total = 0;
+            int read;
+            while ((read = source.read(buffer)) >= 0) {
+                total += read;
+            }
+            return total;
+        }
+    }
+}
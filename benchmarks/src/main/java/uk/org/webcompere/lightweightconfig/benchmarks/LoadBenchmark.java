@@ -0,0 +1,83 @@
+package uk.org.webcompere.lightweightconfig.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.org.webcompere.lightweightconfig.ConfigLoader;
+import uk.org.webcompere.lightweightconfig.properties.PropertiesLoader;
+import uk.org.webcompere.lightweightconfig.provider.ConfigTemplate;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of a whole load, from reading the file to binding the result. The loader is shared
+ * between the benchmark threads, as it would be in an application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBenchmark {
+    @Param({"10", "1000", "50000"})
+    private int entries;
+
+    private Path directory;
+    private Path yamlFile;
+    private Path propertiesFile;
+    private ConfigLoader loader;
+    private ConfigTemplate template;
+
+    @Setup
+    public void setup() {
+        directory = GeneratedConfig.createTempDirectory();
+        yamlFile = GeneratedConfig.write(directory.resolve("service.yml"), GeneratedConfig.serviceYaml(entries));
+        propertiesFile = GeneratedConfig.write(directory.resolve("service.properties"),
+            GeneratedConfig.properties(entries));
+        loader = new ConfigLoader();
+        template = loader.compile(yamlFile);
+    }
+
+    @TearDown
+    public void tearDown() {
+        GeneratedConfig.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public ServiceConfig loadAsPojo() {
+        return loader.loadAs(yamlFile, ServiceConfig.class);
+    }
+
+    @Benchmark
+    public ServiceConfig loadAsPojoWithNewLoader() {
+        return new ConfigLoader().loadAs(yamlFile, ServiceConfig.class);
+    }
+
+    @Benchmark
+    public Map<String, Object> loadAsMap() {
+        return loader.load(yamlFile);
+    }
+
+    @Benchmark
+    public ServiceConfig loadCompiledTemplate() {
+        return loader.loadAs(template, ServiceConfig.class);
+    }
+
+    @Benchmark
+    public Properties loadProperties() {
+        return PropertiesLoader.load(propertiesFile);
+    }
+}
@@ -0,0 +1,111 @@
+package uk.org.webcompere.lightweightconfig.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.org.webcompere.lightweightconfig.data.PlaceholderParser;
+import uk.org.webcompere.lightweightconfig.data.PlaceholderResolver;
+import uk.org.webcompere.lightweightconfig.regex.Regex;
+import uk.org.webcompere.lightweightconfig.streams.Coalesce;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The cost of interpolating a single line, with the placeholder scanner and with the regular
+ * expression it replaced. The regular expression looks up each value as it did before the scanner, so
+ * compares with <code>scannerWithLiveValues</code>; <code>scanner</code> reads a snapshot of the values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaceholderBenchmark {
+    /**
+     * The placeholder pattern which was used before the scanner
+     */
+    private static final Pattern LEGACY_PATTERN = Pattern.compile("(?x)\\$\\{\n" +
+        "    (?<name>[0-9A-Za-z_.-]*)\n" +
+        "    (:-\n" +
+        "    (?<defaultvalue>[^}]*))?}");
+
+    @Param({"plain", "onePlaceholder", "twoPlaceholders", "nestedDefault"})
+    private String lineType;
+
+    @Param({"0", "200"})
+    private int padding;
+
+    private String line;
+    private PlaceholderResolver resolver;
+
+    @Setup
+    public void setup() {
+        StringBuilder builder = new StringBuilder("key: ");
+        for (int i = 0; i < padding; i++) {
+            builder.append((char) ('a' + i % 26));
+        }
+
+        switch (lineType) {
+            case "onePlaceholder":
+                builder.append("${HOME}");
+                break;
+            case "twoPlaceholders":
+                builder.append("${HOME}/${BENCHMARK_MISSING:-default}");
+                break;
+            case "nestedDefault":
+                builder.append("${BENCHMARK_MISSING:-${HOME}}");
+                break;
+            default:
+                break;
+        }
+        line = builder.toString();
+        resolver = PlaceholderResolver.snapshot();
+    }
+
+    @Benchmark
+    public String scanner() {
+        return PlaceholderParser.applyPlaceholders(line, resolver);
+    }
+
+    @Benchmark
+    public String scannerWithLiveValues() {
+        return PlaceholderParser.applyPlaceholders(line);
+    }
+
+    @Benchmark
+    public String legacyRegex() {
+        return Regex.replaceTokens(line, LEGACY_PATTERN, PlaceholderBenchmark::legacyReplacement);
+    }
+
+    /**
+     * As the placeholders were replaced before the scanner, reading the environment and system properties for
+     * each one
+     */
+    private static String legacyReplacement(Matcher matcher) {
+        String placeholderName = matcher.group("name");
+
+        return Coalesce.getFirstNonEmpty(
+            // map empty placeholder name to "$"
+            () -> Optional.ofNullable(placeholderName)
+                .filter(String::isEmpty)
+                .map(name -> "$"),
+
+            // choose via environment, system, default or blank
+            () -> Optional.ofNullable(System.getenv(placeholderName)),
+            () -> Optional.ofNullable(System.getProperty(placeholderName)),
+            () -> Optional.ofNullable(matcher.group("defaultvalue")))
+            .orElse("");
+    }
+}
@@ -0,0 +1,85 @@
+package uk.org.webcompere.lightweightconfig.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.org.webcompere.lightweightconfig.properties.ConfigProperties;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads of one set of properties, shared between the benchmark threads as it would be on a request path.
+ * On Java 8, every read of {@link Properties} locks it. Run with several thread counts, e.g.
+ * <code>java -jar target/benchmarks.jar PropertiesRead 1,2,4,8,16,32,64</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertiesReadBenchmark {
+    @Param({"10", "1000"})
+    private int entries;
+
+    private Properties properties;
+    private ConfigProperties configProperties;
+    private String[] keys;
+
+    @Setup
+    public void setup() {
+        properties = new Properties();
+        for (int i = 0; i < entries; i++) {
+            properties.setProperty("service.key" + i, String.valueOf(i));
+        }
+        configProperties = ConfigProperties.from(properties);
+
+        keys = new String[entries];
+        for (int i = 0; i < entries; i++) {
+            // built again, so they're not the instances in the table, as a caller's keys wouldn't be
+            keys[i] = "service.key" + i;
+        }
+    }
+
+    /**
+     * The position of each thread in the keys
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        String nextKey(String[] keys) {
+            next = next + 1 < keys.length ? next + 1 : 0;
+            return keys[next];
+        }
+    }
+
+    @Benchmark
+    public String readProperties(Cursor cursor) {
+        return properties.getProperty(cursor.nextKey(keys));
+    }
+
+    @Benchmark
+    public String readConfigProperties(Cursor cursor) {
+        return configProperties.getProperty(cursor.nextKey(keys));
+    }
+
+    @Benchmark
+    public int readIntFromProperties(Cursor cursor) {
+        return Integer.parseInt(properties.getProperty(cursor.nextKey(keys)));
+    }
+
+    @Benchmark
+    public int readIntFromConfigProperties(Cursor cursor) {
+        return configProperties.getInt(cursor.nextKey(keys));
+    }
+}
@@ -0,0 +1,93 @@
+package uk.org.webcompere.lightweightconfig.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.org.webcompere.lightweightconfig.provider.FileProvider;
+import uk.org.webcompere.lightweightconfig.provider.ResourceProvider;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of reading a file or resource and its chain of imports, with placeholders interpolated,
+ * but without parsing
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProviderBenchmark {
+    @Param({"0", "1", "4", "16"})
+    private int importDepth;
+
+    @Param({"100", "10000"})
+    private int linesPerFile;
+
+    private Path directory;
+    private Path topFile;
+
+    @Setup
+    public void setup() {
+        directory = GeneratedConfig.createTempDirectory();
+        topFile = GeneratedConfig.writeImportChain(directory, importDepth, linesPerFile);
+    }
+
+    @TearDown
+    public void tearDown() {
+        GeneratedConfig.deleteRecursively(directory);
+    }
+
+    /**
+     * Puts the generated files on the classpath of each benchmark thread, as resources are found
+     * through the thread's context class loader
+     */
+    @State(Scope.Thread)
+    public static class ResourceClassLoader {
+        private ClassLoader original;
+        private URLClassLoader classLoader;
+
+        @Setup(Level.Trial)
+        public void setup(ProviderBenchmark benchmark) throws IOException {
+            original = Thread.currentThread().getContextClassLoader();
+            classLoader = new URLClassLoader(new URL[] {benchmark.directory.toUri().toURL()}, original);
+            Thread.currentThread().setContextClassLoader(classLoader);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            Thread.currentThread().setContextClassLoader(original);
+            try {
+                classLoader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Benchmark
+    public String file() {
+        return new FileProvider(topFile).readAndProcess();
+    }
+
+    @Benchmark
+    public String resource(ResourceClassLoader classLoader) {
+        return ResourceProvider.readAndProcessResource(GeneratedConfig.chainFileName(0));
+    }
+}
@@ -0,0 +1,78 @@
+package uk.org.webcompere.lightweightconfig.benchmarks;
+
+import java.util.List;
+
+/**
+ * The POJO which the benchmarks bind YAML into
+ */
+public class ServiceConfig {
+    private String name;
+    private int port;
+    private List<Server> servers;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public List<Server> getServers() {
+        return servers;
+    }
+
+    public void setServers(List<Server> servers) {
+        this.servers = servers;
+    }
+
+    /**
+     * One server within the service
+     */
+    public static class Server {
+        private String host;
+        private int port;
+        private int weight;
+        private List<String> tags;
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+    }
+}
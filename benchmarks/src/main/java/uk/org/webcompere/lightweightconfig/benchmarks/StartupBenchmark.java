@@ -0,0 +1,90 @@
+package uk.org.webcompere.lightweightconfig.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.org.webcompere.lightweightconfig.ConfigLoader;
+import uk.org.webcompere.lightweightconfig.properties.PropertiesLoader;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of the first load in a new JVM, including loading the library's classes - and, for YAML,
+ * SnakeYAML's - which is what a short-lived process or a serverless function pays on every start. Each fork
+ * makes a single load, and also reports the number of classes which that load caused to be loaded.
+ * The files are written using only the JDK, so that none of the library is loaded before the measurement.
+ * Run with a single thread - e.g. <code>java -jar target/benchmarks.jar Startup 1</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class StartupBenchmark {
+    private static final int ENTRIES = 10;
+
+    private static final ClassLoadingMXBean CLASS_LOADING = ManagementFactory.getClassLoadingMXBean();
+
+    private Path directory;
+    private Path yamlFile;
+    private Path propertiesFile;
+
+    /**
+     * The classes loaded by the measured load
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class LoadedClasses {
+        public long loadedClasses;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            loadedClasses = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        directory = GeneratedConfig.createTempDirectory();
+        yamlFile = GeneratedConfig.write(directory.resolve("service.yml"), GeneratedConfig.serviceYaml(ENTRIES));
+        propertiesFile = GeneratedConfig.write(directory.resolve("service.properties"),
+            GeneratedConfig.properties(ENTRIES));
+    }
+
+    @TearDown
+    public void tearDown() {
+        GeneratedConfig.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public Properties firstPropertiesLoad(LoadedClasses counters) {
+        long before = CLASS_LOADING.getTotalLoadedClassCount();
+        Properties properties = PropertiesLoader.load(propertiesFile);
+        counters.loadedClasses += CLASS_LOADING.getTotalLoadedClassCount() - before;
+        return properties;
+    }
+
+    @Benchmark
+    public Map<String, Object> firstYamlLoad(LoadedClasses counters) {
+        long before = CLASS_LOADING.getTotalLoadedClassCount();
+        Map<String, Object> config = new ConfigLoader().load(yamlFile);
+        counters.loadedClasses += CLASS_LOADING.getTotalLoadedClassCount() - before;
+        return config;
+    }
+}
@@ -0,0 +1,67 @@
+package uk.org.webcompere.lightweightconfig.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.org.webcompere.lightweightconfig.ConfigLoader;
+
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of documents where every value has a custom tag, and of setting up a loader
+ * with tags, whose YAML engines are then built on its first load
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TagBenchmark {
+    @Param({"10", "1000", "10000"})
+    private int values;
+
+    private Path directory;
+    private Path file;
+    private ConfigLoader loader;
+
+    @Setup
+    public void setup() {
+        directory = GeneratedConfig.createTempDirectory();
+        file = GeneratedConfig.write(directory.resolve("tagged.yml"), GeneratedConfig.taggedYaml(values));
+        loader = newLoader();
+    }
+
+    @TearDown
+    public void tearDown() {
+        GeneratedConfig.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public Map<String, Object> loadTagged() {
+        return loader.load(file);
+    }
+
+    @Benchmark
+    public Map<String, Object> newLoaderWithTags() {
+        return newLoader().load(file);
+    }
+
+    private static ConfigLoader newLoader() {
+        return new ConfigLoader()
+            .withTag("upper", value -> value.toUpperCase(Locale.ROOT))
+            .withTag("lower", value -> value.toLowerCase(Locale.ROOT));
+    }
+}
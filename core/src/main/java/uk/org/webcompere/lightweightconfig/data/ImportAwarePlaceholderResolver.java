@@ -0,0 +1,58 @@
+package uk.org.webcompere.lightweightconfig.data;
+
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static uk.org.webcompere.lightweightconfig.data.PlaceholderParser.applyPlaceholders;
+
+/**
+ * Importing logic
+ */
+public class ImportAwarePlaceholderResolver {
+    private static final String IMPORT_PREFIX = "#import ";
+
+    /**
+     * Process a line to include both placeholders and a recursive function to fetch and process the lines of an import
+     * @param line the line of the current file
+     * @param importOtherResource how to import a resource - a function which takes the trimmed name from the
+     *                            <code>#import</code> statements and recurses into it to load that resource, passing
+     *                            it through this function again to process any nested imports, and to resolve
+     *                            placeholders
+     * @return a {@link Stream} containing either the lines of the import, or the single line into which placeholders
+     *         were interpolated
+     */
+    public static Stream<String> processLine(String line, Function<String, Stream<String>> importOtherResource) {
+        return processLine(line, PlaceholderResolver.live(), importOtherResource);
+    }
+
+    /**
+     * Process a line to include both placeholders and imports, taking placeholder values from a resolver
+     * @param line the line of the current file
+     * @param resolver the source of placeholder values
+     * @param importOtherResource how to import a resource
+     * @return a {@link Stream} containing either the lines of the import, or the single line into which placeholders
+     *         were interpolated
+     * @see #processLine(String, Function)
+     */
+    public static Stream<String> processLine(String line, PlaceholderResolver resolver,
+                                             Function<String, Stream<String>> importOtherResource) {
+        String interpolatedLine = applyPlaceholders(line, resolver);
+        String importPath = getImportPath(interpolatedLine);
+        if (importPath != null) {
+            return importOtherResource.apply(importPath);
+        }
+        return Stream.of(interpolatedLine);
+    }
+
+    /**
+     * Find the resource named by an <code>#import</code> statement
+     * @param interpolatedLine a line into which placeholders have been interpolated
+     * @return the trimmed name of the resource to import, or <code>null</code> if the line is not an import
+     */
+    public static String getImportPath(String interpolatedLine) {
+        if (interpolatedLine.length() > IMPORT_PREFIX.length() && interpolatedLine.startsWith(IMPORT_PREFIX)) {
+            return interpolatedLine.substring(IMPORT_PREFIX.length()).trim();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,132 @@
+package uk.org.webcompere.lightweightconfig.data;
+
+/**
+ * Logic to resolve the placeholders in a single line of YAML
+ */
+public class PlaceholderParser {
+    static final String PLACEHOLDER_START = "${";
+    static final String DEFAULT_SEPARATOR = ":-";
+    private static final char PLACEHOLDER_END = '}';
+
+    /**
+     * Find and interpret placeholders within a line. A placeholder
+     * may refer to a system property or environment variable (in that order)
+     * and may specify a default. If not found, then the interpolation
+     * results in a blank string for the placeholder. The default may itself
+     * contain placeholders - e.g. <code>${A:-${B:-x}}</code> - which are only resolved
+     * if the default is needed.<br>
+     * The line is scanned once, and if it contains no placeholders, it is returned as is.
+     * @param line the line
+     * @return the line with any placeholders filled in
+     */
+    public static String applyPlaceholders(String line) {
+        return applyPlaceholders(line, PlaceholderResolver.live());
+    }
+
+    /**
+     * Find and interpret placeholders within a line, taking their values from a resolver
+     * @param line the line
+     * @param resolver the source of placeholder values
+     * @return the line with any placeholders filled in
+     * @see #applyPlaceholders(String)
+     */
+    public static String applyPlaceholders(String line, PlaceholderResolver resolver) {
+        int dollar = line.indexOf('$');
+        if (dollar < 0) {
+            return line;
+        }
+
+        StringBuilder output = null;
+        int copiedTo = 0;
+        while (dollar >= 0) {
+            int end = findPlaceholderEnd(line, dollar);
+            if (end < 0) {
+                // not a placeholder, so the $ is just a character
+                dollar = line.indexOf('$', dollar + 1);
+                continue;
+            }
+
+            if (output == null) {
+                output = new StringBuilder(line.length() + 16);
+            }
+            output.append(line, copiedTo, dollar)
+                .append(replacePlaceholder(line, dollar, end, resolver));
+
+            copiedTo = end + 1;
+            dollar = line.indexOf('$', copiedTo);
+        }
+
+        if (output == null) {
+            return line;
+        }
+        return output.append(line, copiedTo, line.length()).toString();
+    }
+
+    /**
+     * Find the closing brace of a placeholder
+     * @param line the line
+     * @param start the position of the <code>$</code> which may begin a placeholder
+     * @return the position of the closing <code>}</code>, or -1 if this is not a placeholder
+     */
+    static int findPlaceholderEnd(String line, int start) {
+        if (!line.startsWith(PLACEHOLDER_START, start)) {
+            return -1;
+        }
+
+        int nameEnd = findNameEnd(line, start + PLACEHOLDER_START.length());
+        if (nameEnd < line.length() && line.charAt(nameEnd) == PLACEHOLDER_END) {
+            return nameEnd;
+        }
+        if (!line.startsWith(DEFAULT_SEPARATOR, nameEnd)) {
+            return -1;
+        }
+
+        // the default ends at the first brace which doesn't close a nested placeholder
+        int depth = 0;
+        for (int i = nameEnd + DEFAULT_SEPARATOR.length(); i < line.length(); i++) {
+            char character = line.charAt(i);
+            if (character == PLACEHOLDER_END) {
+                if (depth == 0) {
+                    return i;
+                }
+                depth--;
+            } else if (character == '$' && line.startsWith(PLACEHOLDER_START, i)) {
+                depth++;
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    static int findNameEnd(String line, int nameStart) {
+        int nameEnd = nameStart;
+        while (nameEnd < line.length() && isNameCharacter(line.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        return nameEnd;
+    }
+
+    private static boolean isNameCharacter(char character) {
+        return (character >= 'a' && character <= 'z') ||
+            (character >= 'A' && character <= 'Z') ||
+            (character >= '0' && character <= '9') ||
+            character == '_' || character == '.' || character == '-';
+    }
+
+    private static String replacePlaceholder(String line, int start, int end, PlaceholderResolver resolver) {
+        int nameStart = start + PLACEHOLDER_START.length();
+        int nameEnd = findNameEnd(line, nameStart);
+
+        // map empty placeholder name to "$"
+        if (nameEnd == nameStart) {
+            return "$";
+        }
+
+        // choose via the sources, default or blank
+        String value = resolver.resolve(line.substring(nameStart, nameEnd));
+        if (value == null && nameEnd < end) {
+            value = applyPlaceholders(line.substring(nameEnd + DEFAULT_SEPARATOR.length(), end), resolver);
+        }
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,151 @@
+package uk.org.webcompere.lightweightconfig.data;
+
+import uk.org.webcompere.lightweightconfig.listener.LoadRecorder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves placeholder names against a chain of {@link PlaceholderSource}s. A resolver is
+ * created for each load from a snapshot of the sources, and remembers each name it has resolved, so
+ * a placeholder which is used many times is looked up once and has the same value throughout the load.
+ */
+public class PlaceholderResolver {
+    private static final Object NOT_FOUND = new Object();
+    private static final List<PlaceholderSource> DEFAULT_SOURCES = Collections.unmodifiableList(Arrays.asList(
+        PlaceholderSource.environment(),
+        PlaceholderSource.systemProperties()));
+    private static final PlaceholderResolver LIVE = new PlaceholderResolver(DEFAULT_SOURCES, false, null);
+
+    private final PlaceholderSource[] sources;
+    private final String[] sourceNames;
+    private final Map<String, Object> resolved;
+    private final LoadRecorder recorder;
+
+    private PlaceholderResolver(List<PlaceholderSource> sources, boolean memoize, LoadRecorder recorder) {
+        this.sources = sources.stream()
+            .map(source -> memoize ? source.snapshot() : source)
+            .toArray(PlaceholderSource[]::new);
+        this.sourceNames = sources.stream()
+            .map(PlaceholderSource::getName)
+            .toArray(String[]::new);
+        this.resolved = memoize ? new ConcurrentHashMap<>() : null;
+        this.recorder = recorder;
+    }
+
+    private PlaceholderResolver(PlaceholderResolver recorded) {
+        this.sources = recorded.sources;
+        this.sourceNames = recorded.sourceNames;
+        this.resolved = recorded.resolved == null ? null : new ConcurrentHashMap<>();
+        this.recorder = null;
+    }
+
+    /**
+     * The default sources - environment variables, then system properties
+     * @return the default sources in order of priority
+     */
+    public static List<PlaceholderSource> defaultSources() {
+        return DEFAULT_SOURCES;
+    }
+
+    /**
+     * A resolver which reads the default sources afresh every time it's used
+     * @return the live resolver
+     */
+    public static PlaceholderResolver live() {
+        return LIVE;
+    }
+
+    /**
+     * Create a resolver for a single load from a snapshot of the default sources
+     * @return a new resolver
+     */
+    public static PlaceholderResolver snapshot() {
+        return snapshot(DEFAULT_SOURCES);
+    }
+
+    /**
+     * Create a resolver for a single load from a snapshot of the given sources
+     * @param sources the sources in order of priority
+     * @return a new resolver
+     */
+    public static PlaceholderResolver snapshot(List<PlaceholderSource> sources) {
+        return snapshot(sources, null);
+    }
+
+    /**
+     * Create a resolver for a single load from a snapshot of the given sources, which reports each
+     * placeholder and the source of its value to a recorder
+     * @param sources the sources in order of priority
+     * @param recorder the recorder of the load, or <code>null</code> if it's not being recorded
+     * @return a new resolver
+     */
+    public static PlaceholderResolver snapshot(List<PlaceholderSource> sources, LoadRecorder recorder) {
+        return new PlaceholderResolver(sources, true, recorder);
+    }
+
+    /**
+     * A resolver of the same values, which doesn't report to the recorder - for reading ahead at lines
+     * which the load resolves, and reports, when it reaches them
+     * @return the resolver
+     */
+    public PlaceholderResolver unrecorded() {
+        return recorder == null ? this : new PlaceholderResolver(this);
+    }
+
+    /**
+     * Find the value for a placeholder from the first source that has one
+     * @param name the name of the placeholder
+     * @return the value or <code>null</code> if no source has a value
+     */
+    public String resolve(String name) {
+        if (recorder != null) {
+            recorder.recordPlaceholder();
+        }
+        if (resolved == null) {
+            return lookup(name);
+        }
+
+        Object value = resolved.get(name);
+        if (value == null) {
+            String found = lookup(name);
+            value = found == null ? NOT_FOUND : found;
+            resolved.put(name, value);
+        }
+        return value == NOT_FOUND ? null : (String) value;
+    }
+
+    /**
+     * Get the value of each placeholder this resolver has resolved so far. A live resolver doesn't remember
+     * its values, so has none.
+     * @return the names of the placeholders, in order, with their values, or <code>null</code> where no
+     *     source had a value
+     */
+    public Map<String, String> getResolvedValues() {
+        Map<String, String> values = new TreeMap<>();
+        if (resolved != null) {
+            resolved.forEach((name, value) -> values.put(name, value == NOT_FOUND ? null : (String) value));
+        }
+        return values;
+    }
+
+    private String lookup(String name) {
+        for (int i = 0; i < sources.length; i++) {
+            String value = sources[i].lookup(name);
+            if (value != null) {
+                if (recorder != null) {
+                    recorder.recordPlaceholderSource(name, sourceNames[i]);
+                }
+                return value;
+            }
+        }
+        if (recorder != null) {
+            recorder.recordPlaceholderSource(name, null);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,131 @@
+package uk.org.webcompere.lightweightconfig.data;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.UnaryOperator;
+
+/**
+ * A source of values for placeholders. Sources are consulted in order, and the first
+ * non-null value is used.
+ */
+@FunctionalInterface
+public interface PlaceholderSource {
+    /**
+     * Find the value of a placeholder
+     * @param name the name of the placeholder
+     * @return the value or <code>null</code> if this source doesn't have one
+     */
+    String lookup(String name);
+
+    /**
+     * The name of the source, which is reported to
+     * {@link uk.org.webcompere.lightweightconfig.listener.ConfigLoadListener}s as where a value came from
+     * @return the name - by default <code>custom</code>
+     */
+    default String getName() {
+        return "custom";
+    }
+
+    /**
+     * Take an immutable copy of this source, which is used for the duration of a single load
+     * @return the snapshot - by default the source itself
+     */
+    default PlaceholderSource snapshot() {
+        return this;
+    }
+
+    /**
+     * The environment variables
+     * @return a source of environment variables
+     */
+    static PlaceholderSource environment() {
+        return new PlaceholderSource() {
+            @Override
+            public String lookup(String name) {
+                return System.getenv(name);
+            }
+
+            @Override
+            public String getName() {
+                return "environment";
+            }
+
+            @Override
+            public PlaceholderSource snapshot() {
+                // the environment map is unmodifiable
+                Map<String, String> environment = System.getenv();
+                return environment::get;
+            }
+        };
+    }
+
+    /**
+     * The system properties
+     * @return a source of system properties
+     */
+    static PlaceholderSource systemProperties() {
+        return new PlaceholderSource() {
+            @Override
+            public String lookup(String name) {
+                return System.getProperty(name);
+            }
+
+            @Override
+            public String getName() {
+                return "systemProperties";
+            }
+
+            @Override
+            public PlaceholderSource snapshot() {
+                Properties properties = (Properties) System.getProperties().clone();
+                return properties::getProperty;
+            }
+        };
+    }
+
+    /**
+     * Values from a map, which is copied at the start of each load
+     * @param values the map of placeholder name to value
+     * @return a source which reads from the map
+     */
+    static PlaceholderSource fromMap(Map<String, String> values) {
+        return new PlaceholderSource() {
+            @Override
+            public String lookup(String name) {
+                return values.get(name);
+            }
+
+            @Override
+            public String getName() {
+                return "map";
+            }
+
+            @Override
+            public PlaceholderSource snapshot() {
+                Map<String, String> copy = new HashMap<>(values);
+                return copy::get;
+            }
+        };
+    }
+
+    /**
+     * Values from a custom lookup function - e.g. a remote configuration service. The function is
+     * called at most once per name during each load
+     * @param lookup the function to find a value, which returns <code>null</code> when there is no value
+     * @return a source which calls the function
+     */
+    static PlaceholderSource fromLookup(UnaryOperator<String> lookup) {
+        return new PlaceholderSource() {
+            @Override
+            public String lookup(String name) {
+                return lookup.apply(name);
+            }
+
+            @Override
+            public String getName() {
+                return "lookup";
+            }
+        };
+    }
+}
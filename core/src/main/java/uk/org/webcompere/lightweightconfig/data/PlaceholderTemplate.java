@@ -0,0 +1,135 @@
+package uk.org.webcompere.lightweightconfig.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static uk.org.webcompere.lightweightconfig.data.PlaceholderParser.DEFAULT_SEPARATOR;
+import static uk.org.webcompere.lightweightconfig.data.PlaceholderParser.PLACEHOLDER_START;
+import static uk.org.webcompere.lightweightconfig.data.PlaceholderParser.findNameEnd;
+import static uk.org.webcompere.lightweightconfig.data.PlaceholderParser.findPlaceholderEnd;
+
+/**
+ * A line of text which has been parsed into literal text and placeholders, so that it can be
+ * rendered many times without being scanned again. Rendering gives the same result as
+ * {@link PlaceholderParser#applyPlaceholders(String, PlaceholderResolver)}.
+ */
+public class PlaceholderTemplate {
+    private final Part[] parts;
+
+    private PlaceholderTemplate(List<Part> parts) {
+        this.parts = parts.toArray(new Part[0]);
+    }
+
+    /**
+     * Parse a line into a template
+     * @param line the line
+     * @return the compiled template
+     */
+    public static PlaceholderTemplate compile(String line) {
+        List<Part> parts = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int copiedTo = 0;
+        int dollar = line.indexOf('$');
+        while (dollar >= 0) {
+            int end = findPlaceholderEnd(line, dollar);
+            if (end < 0) {
+                dollar = line.indexOf('$', dollar + 1);
+                continue;
+            }
+
+            literal.append(line, copiedTo, dollar);
+            int nameStart = dollar + PLACEHOLDER_START.length();
+            int nameEnd = findNameEnd(line, nameStart);
+            if (nameEnd == nameStart) {
+                // map empty placeholder name to "$"
+                literal.append('$');
+            } else {
+                addLiteral(parts, literal);
+                parts.add(new Placeholder(line.substring(nameStart, nameEnd),
+                    nameEnd < end ? compile(line.substring(nameEnd + DEFAULT_SEPARATOR.length(), end)) : null));
+            }
+
+            copiedTo = end + 1;
+            dollar = line.indexOf('$', copiedTo);
+        }
+
+        literal.append(line, copiedTo, line.length());
+        addLiteral(parts, literal);
+        return new PlaceholderTemplate(parts);
+    }
+
+    /**
+     * Whether the template contains no placeholders, so always renders the same text
+     * @return true if there are no placeholders
+     */
+    public boolean isLiteral() {
+        return parts.length == 0 || (parts.length == 1 && parts[0] instanceof Literal);
+    }
+
+    /**
+     * Render the template
+     * @param resolver the source of placeholder values
+     * @return the text with the placeholders filled in
+     */
+    public String render(PlaceholderResolver resolver) {
+        if (parts.length == 0) {
+            return "";
+        }
+        if (parts.length == 1 && parts[0] instanceof Literal) {
+            return ((Literal) parts[0]).text;
+        }
+
+        StringBuilder output = new StringBuilder();
+        for (Part part : parts) {
+            part.render(resolver, output);
+        }
+        return output.toString();
+    }
+
+    private static void addLiteral(List<Part> parts, StringBuilder literal) {
+        if (literal.length() > 0) {
+            parts.add(new Literal(literal.toString()));
+            literal.setLength(0);
+        }
+    }
+
+    private interface Part {
+        void render(PlaceholderResolver resolver, StringBuilder output);
+    }
+
+    private static class Literal implements Part {
+        private final String text;
+
+        Literal(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void render(PlaceholderResolver resolver, StringBuilder output) {
+            output.append(text);
+        }
+    }
+
+    private static class Placeholder implements Part {
+        private final String name;
+        private final PlaceholderTemplate defaultValue;
+
+        Placeholder(String name, PlaceholderTemplate defaultValue) {
+            this.name = name;
+            this.defaultValue = defaultValue;
+        }
+
+        @Override
+        public void render(PlaceholderResolver resolver, StringBuilder output) {
+            String value = resolver.resolve(name);
+            if (value != null) {
+                output.append(value);
+            } else if (defaultValue != null) {
+                for (Part part : defaultValue.parts) {
+                    part.render(resolver, output);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package uk.org.webcompere.lightweightconfig.jfr;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted for each <code>#import</code>, from resolving its path to reading the last of its content
+ */
+@SuppressFBWarnings(value = "URF_UNREAD_FIELD", justification = "The fields are read by the flight recorder")
+@Name(ConfigImportEvent.NAME)
+@Label("Config Import")
+@Category(FlightRecorderTracer.CATEGORY)
+@Description("Resolving, reading and interpolating an imported resource or file")
+class ConfigImportEvent extends TracedEvent {
+    static final String NAME = "uk.org.webcompere.lightweightconfig.ConfigImport";
+
+    @Label("Path")
+    @Description("The path in the import statement")
+    String path;
+
+    @Label("Bytes Read")
+    @Description("The bytes read from the import and the imports within it")
+    @DataAmount
+    long bytesRead;
+
+    @Label("Failure")
+    @Description("The reason the import could not be resolved, if it could not")
+    String failure;
+
+    @Override
+    void setBytesRead(long bytesRead) {
+        this.bytesRead = bytesRead;
+    }
+
+    @Override
+    void setFailure(String failure) {
+        this.failure = failure;
+    }
+}
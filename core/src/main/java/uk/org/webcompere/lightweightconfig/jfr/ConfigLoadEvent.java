@@ -0,0 +1,43 @@
+package uk.org.webcompere.lightweightconfig.jfr;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted for each load of a configuration, spanning the reading, interpolation, parsing and binding
+ */
+@SuppressFBWarnings(value = "URF_UNREAD_FIELD", justification = "The fields are read by the flight recorder")
+@Name(ConfigLoadEvent.NAME)
+@Label("Config Load")
+@Category(FlightRecorderTracer.CATEGORY)
+@Description("Loading a configuration resource or file, with its imports")
+class ConfigLoadEvent extends TracedEvent {
+    static final String NAME = "uk.org.webcompere.lightweightconfig.ConfigLoad";
+
+    @Label("Source")
+    @Description("The resource or file loaded")
+    String source;
+
+    @Label("Bytes Read")
+    @Description("The bytes read from the source and its imports")
+    @DataAmount
+    long bytesRead;
+
+    @Label("Failure")
+    @Description("The reason the load failed, if it did")
+    String failure;
+
+    @Override
+    void setBytesRead(long bytesRead) {
+        this.bytesRead = bytesRead;
+    }
+
+    @Override
+    void setFailure(String failure) {
+        this.failure = failure;
+    }
+}
@@ -0,0 +1,73 @@
+package uk.org.webcompere.lightweightconfig.jfr;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import uk.org.webcompere.lightweightconfig.listener.LoadTracer;
+
+/**
+ * Traces loads as Java Flight Recorder events, so they can be seen alongside GC pauses and thread
+ * stalls in JDK Mission Control. The events are in the <code>Lightweight Config</code> category and
+ * are enabled by default whenever a recording is running. This class is only loaded by name, through
+ * {@link LoadTracer#flightRecorder()}, as it needs the <code>jdk.jfr</code> module.
+ */
+public class FlightRecorderTracer implements LoadTracer {
+    static final String CATEGORY = "Lightweight Config";
+
+    private volatile EventType[] eventTypes;
+
+    /**
+     * Whether a recording would record any of the events. Until a recording has been started, the flight
+     * recorder isn't initialized, and the events are not checked, as registering them initializes it,
+     * which would add hundreds of milliseconds to the first load of every process. A runtime on which the flight
+     * recorder isn't available is never initialized. After that, the types of the events are looked up once,
+     * and their settings are read on each call, without creating any events.
+     * @return true if the tracer is recording
+     */
+    @Override
+    public boolean isEnabled() {
+        if (!FlightRecorder.isInitialized()) {
+            return false;
+        }
+        for (EventType eventType : getEventTypes()) {
+            if (eventType.isEnabled()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Span beginLoad(String source) {
+        ConfigLoadEvent event = new ConfigLoadEvent();
+        event.source = source;
+        return event.start();
+    }
+
+    @Override
+    public Span beginImport(String path) {
+        ConfigImportEvent event = new ConfigImportEvent();
+        event.path = path;
+        return event.start();
+    }
+
+    @Override
+    public Span beginTag(String tag) {
+        TagResolutionEvent event = new TagResolutionEvent();
+        event.tag = tag;
+        return event.start();
+    }
+
+    private EventType[] getEventTypes() {
+        EventType[] types = eventTypes;
+        if (types == null) {
+            // a race only looks the types up twice
+            types = new EventType[] {
+                EventType.getEventType(ConfigLoadEvent.class),
+                EventType.getEventType(ConfigImportEvent.class),
+                EventType.getEventType(TagResolutionEvent.class)
+            };
+            eventTypes = types;
+        }
+        return types;
+    }
+}
@@ -0,0 +1,33 @@
+package uk.org.webcompere.lightweightconfig.jfr;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted for each call to a custom tag's resolver. The value passed to it is not recorded, as
+ * it may be the key of a secret.
+ */
+@SuppressFBWarnings(value = "URF_UNREAD_FIELD", justification = "The fields are read by the flight recorder")
+@Name(TagResolutionEvent.NAME)
+@Label("Config Tag Resolution")
+@Category(FlightRecorderTracer.CATEGORY)
+@Description("Resolving the value of a custom tag")
+class TagResolutionEvent extends TracedEvent {
+    static final String NAME = "uk.org.webcompere.lightweightconfig.TagResolution";
+
+    @Label("Tag")
+    @Description("The name of the tag, without its !")
+    String tag;
+
+    @Label("Failure")
+    @Description("The reason the resolver failed, if it did")
+    String failure;
+
+    @Override
+    void setFailure(String failure) {
+        this.failure = failure;
+    }
+}
@@ -0,0 +1,39 @@
+package uk.org.webcompere.lightweightconfig.jfr;
+
+import jdk.jfr.Event;
+import uk.org.webcompere.lightweightconfig.listener.LoadTracer;
+
+/**
+ * An event which is the span of an operation - begun when it starts, and committed when it ends
+ */
+abstract class TracedEvent extends Event implements LoadTracer.Span {
+    /**
+     * Begin the event, if it's being recorded
+     * @return the span of the event, or {@link LoadTracer.Span#NONE} if it's not being recorded
+     */
+    LoadTracer.Span start() {
+        if (!isEnabled()) {
+            return LoadTracer.Span.NONE;
+        }
+        begin();
+        return this;
+    }
+
+    @Override
+    public void end(long bytesRead, Throwable failure) {
+        end();
+        if (shouldCommit()) {
+            setBytesRead(bytesRead);
+            if (failure != null) {
+                setFailure(failure.toString());
+            }
+            commit();
+        }
+    }
+
+    void setBytesRead(long bytesRead) {
+        // not all events count bytes
+    }
+
+    abstract void setFailure(String failure);
+}
@@ -0,0 +1,142 @@
+package uk.org.webcompere.lightweightconfig.listener;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A listener which aggregates the statistics of every load into histograms and counters, which
+ * can be read by, or exported to, a metrics system. All times are in nanoseconds.
+ */
+public class AggregatingLoadListener implements ConfigLoadListener {
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final Histogram totalNanos = new Histogram();
+    private final Map<LoadPhase, Histogram> phaseNanos = new EnumMap<>(LoadPhase.class);
+    private final Histogram bytesRead = new Histogram();
+    private final Histogram linesProcessed = new Histogram();
+    private final Histogram placeholdersResolved = new Histogram();
+    private final Histogram importNanos = new Histogram();
+    private final Histogram tagInvocationNanos = new Histogram();
+    private final Map<String, LongAdder> placeholderSources = new ConcurrentHashMap<>();
+
+    /**
+     * Construct with empty histograms
+     */
+    public AggregatingLoadListener() {
+        for (LoadPhase phase : LoadPhase.values()) {
+            phaseNanos.put(phase, new Histogram());
+        }
+    }
+
+    @Override
+    public void loadCompleted(LoadStatistics statistics) {
+        loads.increment();
+        record(statistics);
+    }
+
+    @Override
+    public void loadFailed(LoadStatistics statistics, RuntimeException error) {
+        loads.increment();
+        failures.increment();
+        record(statistics);
+    }
+
+    /**
+     * Get the number of loads
+     * @return the number of loads, including those which failed
+     */
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    /**
+     * Get the number of loads which failed
+     * @return the number of failures
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Get the histogram of the time of whole loads
+     * @return the histogram
+     */
+    public Histogram getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Get the histogram of the time each load spent in a phase
+     * @param phase the phase
+     * @return the histogram
+     */
+    public Histogram getPhaseNanos(LoadPhase phase) {
+        return phaseNanos.get(phase);
+    }
+
+    /**
+     * Get the histogram of the bytes read by each load
+     * @return the histogram
+     */
+    public Histogram getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Get the histogram of the lines processed by each load
+     * @return the histogram
+     */
+    public Histogram getLinesProcessed() {
+        return linesProcessed;
+    }
+
+    /**
+     * Get the histogram of the number of placeholders filled in by each load
+     * @return the histogram
+     */
+    public Histogram getPlaceholdersResolved() {
+        return placeholdersResolved;
+    }
+
+    /**
+     * Get the histogram of the time to open each import
+     * @return the histogram
+     */
+    public Histogram getImportNanos() {
+        return importNanos;
+    }
+
+    /**
+     * Get the histogram of the time of each call to a tag resolver
+     * @return the histogram
+     */
+    public Histogram getTagInvocationNanos() {
+        return tagInvocationNanos;
+    }
+
+    /**
+     * Get how many distinct placeholders each source has supplied, summed over the loads
+     * @return a map of source name to count, which includes {@link LoadStatistics#UNRESOLVED}
+     */
+    public Map<String, Long> getPlaceholderSourceCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        placeholderSources.forEach((source, count) -> counts.put(source, count.sum()));
+        return Collections.unmodifiableMap(counts);
+    }
+
+    private void record(LoadStatistics statistics) {
+        totalNanos.record(statistics.getTotalNanos());
+        phaseNanos.forEach((phase, histogram) -> histogram.record(statistics.getPhaseNanos(phase)));
+        bytesRead.record(statistics.getBytesRead());
+        linesProcessed.record(statistics.getLinesProcessed());
+        placeholdersResolved.record(statistics.getPlaceholdersResolved());
+        statistics.getImports().forEach(event -> importNanos.record(event.getNanos()));
+        statistics.getTagInvocations().forEach(event -> tagInvocationNanos.record(event.getNanos()));
+        statistics.getPlaceholderSources().values()
+            .forEach(source -> placeholderSources.computeIfAbsent(source, name -> new LongAdder()).increment());
+    }
+}
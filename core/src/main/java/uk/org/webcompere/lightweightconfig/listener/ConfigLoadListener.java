@@ -0,0 +1,23 @@
+package uk.org.webcompere.lightweightconfig.listener;
+
+/**
+ * Receives the statistics of each load from a <code>ConfigLoader</code>
+ * it's registered with. Listeners are called on the loading thread once the load has finished, so should
+ * return quickly and should not throw.
+ */
+public interface ConfigLoadListener {
+    /**
+     * Called when a load succeeds
+     * @param statistics what happened during the load
+     */
+    void loadCompleted(LoadStatistics statistics);
+
+    /**
+     * Called when a load fails
+     * @param statistics what happened during the load, up to the failure
+     * @param error the reason for the failure, which is then thrown to the caller of the load
+     */
+    default void loadFailed(LoadStatistics statistics, RuntimeException error) {
+        // by default, failures are only reported to the caller
+    }
+}
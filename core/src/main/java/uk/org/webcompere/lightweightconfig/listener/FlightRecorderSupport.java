@@ -0,0 +1,23 @@
+package uk.org.webcompere.lightweightconfig.listener;
+
+/**
+ * Loads the Java Flight Recorder tracer by name, so that nothing else refers to <code>jdk.jfr</code>,
+ * which older Java 8 runtimes do not have.
+ */
+final class FlightRecorderSupport {
+    static final String TRACER_CLASS = "uk.org.webcompere.lightweightconfig.jfr.FlightRecorderTracer";
+
+    static final LoadTracer TRACER = loadTracer();
+
+    private FlightRecorderSupport() {
+    }
+
+    private static LoadTracer loadTracer() {
+        try {
+            return (LoadTracer) Class.forName(TRACER_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // no flight recorder on this runtime
+            return LoadTracer.NONE;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package uk.org.webcompere.lightweightconfig.listener;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe histogram of non-negative values, with a bucket for each power of two. Bucket
+ * <code>0</code> holds zeros, and bucket <code>n</code> holds values from <code>2^(n-1)</code> to
+ * <code>2^n - 1</code>, so percentiles are accurate to within a factor of two, which is enough to spot
+ * a regression, in a fixed amount of memory.
+ */
+public class Histogram {
+    /**
+     * The number of buckets
+     */
+    public static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Record a value
+     * @param value the value - negative values are recorded as zero
+     */
+    public void record(long value) {
+        long recorded = Math.max(0, value);
+        buckets.incrementAndGet(getBucket(recorded));
+        count.increment();
+        sum.add(recorded);
+        max.accumulate(recorded);
+    }
+
+    /**
+     * Get the number of values recorded
+     * @return the count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Get the total of the values recorded
+     * @return the sum
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Get the largest value recorded
+     * @return the maximum, or 0 if there are no values
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get the mean of the values
+     * @return the mean, or 0 if there are no values
+     */
+    public double getMean() {
+        long values = getCount();
+        return values == 0 ? 0 : (double) getSum() / values;
+    }
+
+    /**
+     * Estimate a percentile
+     * @param percentile the percentile, from 0 to 100
+     * @return the upper bound of the bucket which holds the percentile, capped at the maximum, or 0 if
+     *         there are no values
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = getBucketCounts();
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return Math.min(getBucketUpperBound(bucket), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Get the number of values in each bucket
+     * @return the counts, indexed by bucket
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            counts[bucket] = buckets.get(bucket);
+        }
+        return counts;
+    }
+
+    /**
+     * Get the largest value which goes in a bucket
+     * @param bucket the bucket
+     * @return the upper bound, inclusive
+     */
+    public static long getBucketUpperBound(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    private static int getBucket(long value) {
+        return Math.min(BUCKETS - 1, BUCKETS - Long.numberOfLeadingZeros(value));
+    }
+}
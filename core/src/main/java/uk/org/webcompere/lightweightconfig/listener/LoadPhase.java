@@ -0,0 +1,32 @@
+package uk.org.webcompere.lightweightconfig.listener;
+
+/**
+ * The phases of a load. The configuration is streamed, so the phases are interleaved, and the time
+ * of each is the total of the time spent in it.
+ */
+public enum LoadPhase {
+    /**
+     * Opening and reading the raw lines of the source and its imports
+     */
+    READ,
+
+    /**
+     * Filling in placeholders, or rendering a compiled template
+     */
+    INTERPOLATE,
+
+    /**
+     * Finding and opening imports
+     */
+    IMPORT,
+
+    /**
+     * Parsing the YAML or properties, not counting the reading which it triggers
+     */
+    PARSE,
+
+    /**
+     * Building the target object from the parsed YAML, including calling tag resolvers
+     */
+    BIND
+}
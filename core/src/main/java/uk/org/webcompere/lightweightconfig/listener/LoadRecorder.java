@@ -0,0 +1,295 @@
+package uk.org.webcompere.lightweightconfig.listener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collects the statistics of a single load and passes them to the listeners when it finishes, and
+ * marks the spans of the load, its imports and its tags for the {@link LoadTracer}. A recorder is only
+ * created when a loader has listeners, or the tracer is enabled, and the loading code skips all
+ * measurement when there isn't one, so loads which nobody is watching pay nothing for it.<br>
+ * Imports may be read on other threads, so the recorder is thread-safe.
+ */
+public class LoadRecorder {
+    private final List<ConfigLoadListener> listeners;
+    private final LoadTracer tracer;
+    private final Map<LoadPhase, LongAdder> phaseNanos = new EnumMap<>(LoadPhase.class);
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder linesProcessed = new LongAdder();
+    private final LongAdder placeholdersResolved = new LongAdder();
+    private final Map<String, String> placeholderSources = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final List<TimedEvent> imports = Collections.synchronizedList(new ArrayList<>());
+    private final List<TimedEvent> tagInvocations = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicReference<Trace> loadTrace = new AtomicReference<>();
+
+    private volatile String source;
+    private volatile long startNanos = System.nanoTime();
+
+    /**
+     * Construct a recorder for one load
+     * @param listeners the listeners to notify at the end of the load
+     */
+    public LoadRecorder(List<ConfigLoadListener> listeners) {
+        this(listeners, LoadTracer.NONE);
+    }
+
+    /**
+     * Construct a recorder for one load
+     * @param listeners the listeners to notify at the end of the load
+     * @param tracer the tracer to mark the spans of the load with
+     */
+    public LoadRecorder(List<ConfigLoadListener> listeners, LoadTracer tracer) {
+        this.listeners = listeners;
+        this.tracer = tracer;
+        for (LoadPhase phase : LoadPhase.values()) {
+            phaseNanos.put(phase, new LongAdder());
+        }
+    }
+
+    /**
+     * Perform a load, recording its statistics, and notify the listeners when it completes or fails
+     * @param loadSource the name of the resource or file being loaded
+     * @param load the load
+     * @param <T> the type of the result
+     * @return the result of the load
+     */
+    public <T> T recordLoad(String loadSource, Supplier<T> load) {
+        beginLoad(loadSource);
+        try {
+            T result = load.get();
+            endLoad(null);
+            return result;
+        } catch (RuntimeException e) {
+            endLoad(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Begin a load which finishes later, such as one which is streamed to the caller
+     * @param loadSource the name of the resource or file being loaded
+     */
+    public void beginLoad(String loadSource) {
+        beginLoad(loadSource, System.nanoTime());
+    }
+
+    /**
+     * Begin a load which started earlier, but was only known to be worth reporting once some of it was done.
+     * Its total time is measured from when it started, though its trace only begins now.
+     * @param loadSource the name of the resource or file being loaded
+     * @param loadStartNanos when the load started, from {@link System#nanoTime()}
+     */
+    public void beginLoad(String loadSource, long loadStartNanos) {
+        source = loadSource;
+        startNanos = loadStartNanos;
+        loadTrace.set(trace(tracer.beginLoad(loadSource)));
+    }
+
+    /**
+     * End the load and notify the listeners. Only the first call has any effect, so a load which fails
+     * part way through a stream is not also reported as completed when the stream is closed.
+     * @param failure the reason the load failed, or <code>null</code> if it completed
+     */
+    public void endLoad(RuntimeException failure) {
+        Trace trace = loadTrace.getAndSet(null);
+        if (trace == null) {
+            return;
+        }
+
+        trace.end(failure);
+        LoadStatistics statistics = getStatistics();
+        if (failure == null) {
+            listeners.forEach(listener -> listener.loadCompleted(statistics));
+        } else {
+            listeners.forEach(listener -> listener.loadFailed(statistics, failure));
+        }
+    }
+
+    /**
+     * Perform an operation and add its duration to a phase
+     * @param phase the phase
+     * @param operation the operation
+     * @param <T> the type of result
+     * @return the result of the operation
+     */
+    public <T> T timed(LoadPhase phase, Supplier<T> operation) {
+        long start = System.nanoTime();
+        try {
+            return operation.get();
+        } finally {
+            addNanos(phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Perform an operation which consumes the content stream, and add its duration to a phase,
+     * less the time spent reading, interpolating and importing the content during it
+     * @param phase the phase
+     * @param operation the operation
+     * @param <T> the type of result
+     * @return the result of the operation
+     */
+    public <T> T timedExcludingStream(LoadPhase phase, Supplier<T> operation) {
+        long streamBefore = getStreamNanos();
+        long start = System.nanoTime();
+        try {
+            return operation.get();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            addNanos(phase, Math.max(0, elapsed - (getStreamNanos() - streamBefore)));
+        }
+    }
+
+    /**
+     * Add to the time spent in a phase
+     * @param phase the phase
+     * @param nanos the time in nanoseconds
+     */
+    public void addNanos(LoadPhase phase, long nanos) {
+        phaseNanos.get(phase).add(nanos);
+    }
+
+    /**
+     * Add to the number of bytes read
+     * @param bytes the number of bytes
+     */
+    public void addBytesRead(long bytes) {
+        bytesRead.add(bytes);
+    }
+
+    /**
+     * Add to the number of lines processed
+     * @param lines the number of lines
+     */
+    public void addLines(long lines) {
+        linesProcessed.add(lines);
+    }
+
+    /**
+     * Record that a placeholder was filled in
+     */
+    public void recordPlaceholder() {
+        placeholdersResolved.increment();
+    }
+
+    /**
+     * Record where the value of a placeholder came from, the first time it's looked up
+     * @param name the name of the placeholder
+     * @param sourceName the name of the source, or <code>null</code> if no source had a value
+     */
+    public void recordPlaceholderSource(String name, String sourceName) {
+        placeholderSources.putIfAbsent(name, sourceName == null ? LoadStatistics.UNRESOLVED : sourceName);
+    }
+
+    /**
+     * Record an import, and add its time to the {@link LoadPhase#IMPORT} phase
+     * @param path the path of the import
+     * @param nanos the time taken to open it
+     */
+    public void recordImport(String path, long nanos) {
+        imports.add(new TimedEvent(path, nanos));
+        addNanos(LoadPhase.IMPORT, nanos);
+    }
+
+    /**
+     * Begin the trace of an import, which should be ended once the import has been read
+     * @param path the path of the import
+     * @return the trace of the import
+     */
+    public Trace traceImport(String path) {
+        return trace(tracer.beginImport(path));
+    }
+
+    /**
+     * Call a tag resolver, tracing and recording the call
+     * @param tag the tag
+     * @param invocation the call to the resolver
+     * @param <T> the type of result
+     * @return the result of the resolver
+     */
+    public <T> T recordTagInvocation(String tag, Supplier<T> invocation) {
+        Trace trace = trace(tracer.beginTag(tag));
+        long start = System.nanoTime();
+        try {
+            T result = invocation.get();
+            trace.end(null);
+            return result;
+        } catch (RuntimeException e) {
+            trace.end(e);
+            throw e;
+        } finally {
+            recordTagInvocation(tag, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Record a call to a tag resolver
+     * @param tag the tag
+     * @param nanos the time the resolver took
+     */
+    public void recordTagInvocation(String tag, long nanos) {
+        tagInvocations.add(new TimedEvent(tag, nanos));
+    }
+
+    /**
+     * Get the statistics so far
+     * @return the statistics
+     */
+    public LoadStatistics getStatistics() {
+        Map<LoadPhase, Long> phases = new EnumMap<>(LoadPhase.class);
+        phaseNanos.forEach((phase, nanos) -> phases.put(phase, nanos.sum()));
+
+        List<TimedEvent> importsCopy;
+        synchronized (imports) {
+            importsCopy = new ArrayList<>(imports);
+        }
+        List<TimedEvent> tagsCopy;
+        synchronized (tagInvocations) {
+            tagsCopy = new ArrayList<>(tagInvocations);
+        }
+        Map<String, String> sourcesCopy;
+        synchronized (placeholderSources) {
+            sourcesCopy = new LinkedHashMap<>(placeholderSources);
+        }
+
+        return new LoadStatistics(source, System.nanoTime() - startNanos, phases, bytesRead.sum(),
+            linesProcessed.sum(), placeholdersResolved.sum(), sourcesCopy, importsCopy, tagsCopy);
+    }
+
+    private Trace trace(LoadTracer.Span span) {
+        if (span == LoadTracer.Span.NONE) {
+            return Trace.NONE;
+        }
+        long bytesBefore = bytesRead.sum();
+        return failure -> span.end(bytesRead.sum() - bytesBefore, failure);
+    }
+
+    private long getStreamNanos() {
+        return phaseNanos.get(LoadPhase.READ).sum() +
+            phaseNanos.get(LoadPhase.INTERPOLATE).sum() +
+            phaseNanos.get(LoadPhase.IMPORT).sum();
+    }
+
+    /**
+     * The trace of an operation which has begun
+     */
+    public interface Trace {
+        /**
+         * A trace which is not recorded
+         */
+        Trace NONE = failure -> { };
+
+        /**
+         * End the trace
+         * @param failure the reason the operation failed, or <code>null</code> if it succeeded
+         */
+        void end(Throwable failure);
+    }
+}
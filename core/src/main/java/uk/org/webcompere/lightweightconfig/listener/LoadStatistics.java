@@ -0,0 +1,128 @@
+package uk.org.webcompere.lightweightconfig.listener;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What happened during a single load - the time spent in each phase, the amount read, and the
+ * placeholders, imports and tags which were processed
+ */
+public class LoadStatistics {
+    /**
+     * The source recorded for a placeholder which no source had a value for, so its default was used
+     */
+    public static final String UNRESOLVED = "unresolved";
+
+    private final String source;
+    private final long totalNanos;
+    private final Map<LoadPhase, Long> phaseNanos;
+    private final long bytesRead;
+    private final long linesProcessed;
+    private final long placeholdersResolved;
+    private final Map<String, String> placeholderSources;
+    private final List<TimedEvent> imports;
+    private final List<TimedEvent> tagInvocations;
+
+    LoadStatistics(String source, long totalNanos, Map<LoadPhase, Long> phaseNanos, long bytesRead,
+                   long linesProcessed, long placeholdersResolved, Map<String, String> placeholderSources,
+                   List<TimedEvent> imports, List<TimedEvent> tagInvocations) {
+        this.source = source;
+        this.totalNanos = totalNanos;
+        this.phaseNanos = Collections.unmodifiableMap(new EnumMap<>(phaseNanos));
+        this.bytesRead = bytesRead;
+        this.linesProcessed = linesProcessed;
+        this.placeholdersResolved = placeholdersResolved;
+        this.placeholderSources = Collections.unmodifiableMap(placeholderSources);
+        this.imports = Collections.unmodifiableList(imports);
+        this.tagInvocations = Collections.unmodifiableList(tagInvocations);
+    }
+
+    /**
+     * Get the source which was loaded
+     * @return the resource name or file path
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Get the time the whole load took
+     * @return the elapsed time in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Get the time spent in a phase
+     * @param phase the phase
+     * @return the time in nanoseconds
+     */
+    public long getPhaseNanos(LoadPhase phase) {
+        return phaseNanos.getOrDefault(phase, 0L);
+    }
+
+    /**
+     * Get the number of bytes read from files and resources. Text served from a
+     * {@link uk.org.webcompere.lightweightconfig.provider.FragmentCache} is not counted.
+     * @return the number of bytes
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Get the number of lines processed, across the source and its imports
+     * @return the number of lines
+     */
+    public long getLinesProcessed() {
+        return linesProcessed;
+    }
+
+    /**
+     * Get the number of placeholders which were filled in, counting each use of the same name
+     * @return the number of placeholders
+     */
+    public long getPlaceholdersResolved() {
+        return placeholdersResolved;
+    }
+
+    /**
+     * Get the name of the source which supplied each placeholder value
+     * @return a map of placeholder name to the name of the
+     *         {@link uk.org.webcompere.lightweightconfig.data.PlaceholderSource}, or {@link #UNRESOLVED}
+     */
+    public Map<String, String> getPlaceholderSources() {
+        return placeholderSources;
+    }
+
+    /**
+     * Get the imports, in the order they were opened
+     * @return the path of each import and the time taken to open it
+     */
+    public List<TimedEvent> getImports() {
+        return imports;
+    }
+
+    /**
+     * Get the calls to tag resolvers
+     * @return the tag of each call and the time the resolver took
+     */
+    public List<TimedEvent> getTagInvocations() {
+        return tagInvocations;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadStatistics{source=" + source +
+            ", totalNanos=" + totalNanos +
+            ", phaseNanos=" + phaseNanos +
+            ", bytesRead=" + bytesRead +
+            ", linesProcessed=" + linesProcessed +
+            ", placeholdersResolved=" + placeholdersResolved +
+            ", imports=" + imports.size() +
+            ", tagInvocations=" + tagInvocations.size() + "}";
+    }
+}
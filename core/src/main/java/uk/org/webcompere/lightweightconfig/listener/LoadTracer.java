@@ -0,0 +1,87 @@
+package uk.org.webcompere.lightweightconfig.listener;
+
+/**
+ * Marks the spans of a load, its imports and its tag invocations as they happen, for tools such as
+ * Java Flight Recorder which place each one on a timeline. Unlike a {@link ConfigLoadListener}, which
+ * hears about a load once it's over, a tracer is told when each span starts.
+ */
+public interface LoadTracer {
+    /**
+     * A tracer which traces nothing
+     */
+    LoadTracer NONE = new LoadTracer() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public Span beginLoad(String source) {
+            return Span.NONE;
+        }
+
+        @Override
+        public Span beginImport(String path) {
+            return Span.NONE;
+        }
+
+        @Override
+        public Span beginTag(String tag) {
+            return Span.NONE;
+        }
+    };
+
+    /**
+     * Get the tracer which emits Java Flight Recorder events. This is only available when the
+     * <code>jdk.jfr</code> module is - on older Java 8 runtimes it's {@link #NONE}.
+     * @return the flight recorder tracer
+     */
+    static LoadTracer flightRecorder() {
+        return FlightRecorderSupport.TRACER;
+    }
+
+    /**
+     * Whether any span would currently be recorded - checked at the start of each load, so that loads
+     * which nobody is tracing are not measured
+     * @return true if the tracer is recording
+     */
+    boolean isEnabled();
+
+    /**
+     * Begin the span of a whole load
+     * @param source the name of the resource or file being loaded
+     * @return the span, to end when the load finishes
+     */
+    Span beginLoad(String source);
+
+    /**
+     * Begin the span of an import - resolving its path, and reading and interpolating its content
+     * @param path the path in the <code>#import</code> statement
+     * @return the span, to end when the import has been read
+     */
+    Span beginImport(String path);
+
+    /**
+     * Begin the span of a call to a custom tag's resolver
+     * @param tag the name of the tag
+     * @return the span, to end when the resolver returns
+     */
+    Span beginTag(String tag);
+
+    /**
+     * A span which has begun
+     */
+    interface Span {
+        /**
+         * A span which records nothing
+         */
+        Span NONE = (bytesRead, failure) -> { };
+
+        /**
+         * End the span
+         * @param bytesRead the bytes read during the span
+         * @param failure the reason the operation failed, or <code>null</code> if it succeeded
+         */
+        void end(long bytesRead, Throwable failure);
+    }
+}
@@ -0,0 +1,40 @@
+package uk.org.webcompere.lightweightconfig.listener;
+
+/**
+ * Something which happened during a load, and how long it took
+ */
+public class TimedEvent {
+    private final String name;
+    private final long nanos;
+
+    /**
+     * Construct the event
+     * @param name what happened - e.g. the path of an import or the name of a tag
+     * @param nanos how long it took in nanoseconds
+     */
+    public TimedEvent(String name, long nanos) {
+        this.name = name;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Get the name
+     * @return what happened - e.g. the path of an import or the name of a tag
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the duration
+     * @return how long it took in nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + nanos + "ns)";
+    }
+}
@@ -0,0 +1,352 @@
+package uk.org.webcompere.lightweightconfig.properties;
+
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * An immutable set of string properties. Unlike {@link Properties}, which is a <code>Hashtable</code>, reading
+ * a value takes no lock, so many threads can read the same properties without contending for them. The keys
+ * are held in an open-addressing table, and the typed getters parse the value each time without boxing it.
+ */
+public final class ConfigProperties {
+    private static final int MINIMUM_CAPACITY = 2;
+
+    // spreads keys with similar hash codes, e.g. server1, server2, across the table, as they'd otherwise
+    // fill runs of neighbouring slots
+    private static final int FIBONACCI_MULTIPLIER = 0x9E37_79B9;
+
+    private final Object[] table;
+    private final int[] hashes;
+    private final int mask;
+    private final int shift;
+    private final int size;
+
+    private ConfigProperties(Map<?, ?> values, UnaryOperator<String> interner) {
+        int capacity = MINIMUM_CAPACITY;
+        while (capacity < values.size() * 2) {
+            capacity <<= 1;
+        }
+        table = new Object[capacity * 2];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(mask);
+
+        int count = 0;
+        for (Map.Entry<?, ?> entry : values.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null &&
+                put(interner.apply(String.valueOf(entry.getKey())),
+                    interner.apply(String.valueOf(entry.getValue())))) {
+                count++;
+            }
+        }
+        size = count;
+    }
+
+    /**
+     * Copy a map of properties - e.g. a {@link Properties} object. Entries with a <code>null</code> key or
+     * value are left out, and keys and values which are not strings are converted to strings.
+     * @param values the properties
+     * @return the immutable copy
+     */
+    public static ConfigProperties from(Map<?, ?> values) {
+        return new ConfigProperties(values, UnaryOperator.identity());
+    }
+
+    /**
+     * Copy a map of properties, passing each key and value through an interner, so that equal strings held by
+     * many sets of properties can be shared
+     * @param values the properties
+     * @param interner returns the copy of each string to hold - e.g. from a pool of strings
+     * @return the immutable copy
+     * @see #from(Map)
+     */
+    public static ConfigProperties from(Map<?, ?> values, UnaryOperator<String> interner) {
+        return new ConfigProperties(values, interner);
+    }
+
+    /**
+     * The number of properties
+     * @return the number of properties
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Whether there are no properties
+     * @return true if there are none
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Whether there's a property
+     * @param key the key of the property
+     * @return true if the property is set
+     */
+    public boolean containsKey(String key) {
+        return getProperty(key) != null;
+    }
+
+    /**
+     * Get the value of a property
+     * @param key the key of the property
+     * @return the value, or <code>null</code> if it's not set
+     */
+    public String getProperty(String key) {
+        int hash = key.hashCode();
+        for (int index = slot(hash); table[index * 2] != null; index = (index + 1) & mask) {
+            if (hashes[index] == hash && key.equals(table[index * 2])) {
+                return (String) table[index * 2 + 1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the value of a property
+     * @param key the key of the property
+     * @param defaultValue the value to use if it's not set
+     * @return the value, or the default if it's not set
+     */
+    public String getProperty(String key, String defaultValue) {
+        String value = getProperty(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Get the value of a property as an <code>int</code>
+     * @param key the key of the property
+     * @return the value
+     * @throws ConfigLoaderException if the property is not set or is not an <code>int</code>
+     */
+    public int getInt(String key) {
+        return parseInt(key, getRequired(key));
+    }
+
+    /**
+     * Get the value of a property as an <code>int</code>
+     * @param key the key of the property
+     * @param defaultValue the value to use if it's not set
+     * @return the value, or the default if it's not set
+     * @throws ConfigLoaderException if the property is not an <code>int</code>
+     */
+    public int getInt(String key, int defaultValue) {
+        String value = getProperty(key);
+        return value == null ? defaultValue : parseInt(key, value);
+    }
+
+    /**
+     * Get the value of a property as a <code>long</code>
+     * @param key the key of the property
+     * @return the value
+     * @throws ConfigLoaderException if the property is not set or is not a <code>long</code>
+     */
+    public long getLong(String key) {
+        return parseLong(key, getRequired(key));
+    }
+
+    /**
+     * Get the value of a property as a <code>long</code>
+     * @param key the key of the property
+     * @param defaultValue the value to use if it's not set
+     * @return the value, or the default if it's not set
+     * @throws ConfigLoaderException if the property is not a <code>long</code>
+     */
+    public long getLong(String key, long defaultValue) {
+        String value = getProperty(key);
+        return value == null ? defaultValue : parseLong(key, value);
+    }
+
+    /**
+     * Get the value of a property as a <code>double</code>
+     * @param key the key of the property
+     * @return the value
+     * @throws ConfigLoaderException if the property is not set or is not a number
+     */
+    public double getDouble(String key) {
+        return parseDouble(key, getRequired(key));
+    }
+
+    /**
+     * Get the value of a property as a <code>double</code>
+     * @param key the key of the property
+     * @param defaultValue the value to use if it's not set
+     * @return the value, or the default if it's not set
+     * @throws ConfigLoaderException if the property is not a number
+     */
+    public double getDouble(String key, double defaultValue) {
+        String value = getProperty(key);
+        return value == null ? defaultValue : parseDouble(key, value);
+    }
+
+    /**
+     * Get the value of a property as a <code>boolean</code>
+     * @param key the key of the property
+     * @return the value
+     * @throws ConfigLoaderException if the property is not set or is not <code>true</code> or <code>false</code>
+     */
+    public boolean getBoolean(String key) {
+        return parseBoolean(key, getRequired(key));
+    }
+
+    /**
+     * Get the value of a property as a <code>boolean</code>
+     * @param key the key of the property
+     * @param defaultValue the value to use if it's not set
+     * @return the value, or the default if it's not set
+     * @throws ConfigLoaderException if the property is not <code>true</code> or <code>false</code>
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = getProperty(key);
+        return value == null ? defaultValue : parseBoolean(key, value);
+    }
+
+    /**
+     * The keys of the properties
+     * @return the keys, in order
+     */
+    public Set<String> stringPropertyNames() {
+        Set<String> names = new TreeSet<>();
+        forEach((key, value) -> names.add(key));
+        return Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Visit every property, in no particular order
+     * @param action receives each key and value
+     */
+    public void forEach(BiConsumer<String, String> action) {
+        for (int index = 0; index < hashes.length; index++) {
+            if (table[index * 2] != null) {
+                action.accept((String) table[index * 2], (String) table[index * 2 + 1]);
+            }
+        }
+    }
+
+    /**
+     * Copy the properties into a new {@link Properties} object, for code which needs one
+     * @return a {@link Properties} object which the caller may modify
+     */
+    public Properties toProperties() {
+        Properties properties = new Properties();
+        forEach(properties::setProperty);
+        return properties;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ConfigProperties) || ((ConfigProperties) other).size != size) {
+            return false;
+        }
+        ConfigProperties that = (ConfigProperties) other;
+        for (int index = 0; index < hashes.length; index++) {
+            Object key = table[index * 2];
+            if (key != null && !table[index * 2 + 1].equals(that.getProperty((String) key))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 0;
+        for (int index = 0; index < hashes.length; index++) {
+            if (table[index * 2] != null) {
+                hashCode += table[index * 2].hashCode() ^ table[index * 2 + 1].hashCode();
+            }
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("{");
+        forEach((key, value) -> {
+            if (result.length() > 1) {
+                result.append(", ");
+            }
+            result.append(key).append('=').append(value);
+        });
+        return result.append('}').toString();
+    }
+
+    private boolean put(String key, String value) {
+        int hash = key.hashCode();
+        int index = slot(hash);
+        while (table[index * 2] != null) {
+            if (hashes[index] == hash && key.equals(table[index * 2])) {
+                table[index * 2 + 1] = value;
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        table[index * 2] = key;
+        table[index * 2 + 1] = value;
+        hashes[index] = hash;
+        return true;
+    }
+
+    private String getRequired(String key) {
+        String value = getProperty(key);
+        if (value == null) {
+            throw new ConfigLoaderException("No property " + key);
+        }
+        return value;
+    }
+
+    private int slot(int hash) {
+        return (hash * FIBONACCI_MULTIPLIER) >>> shift;
+    }
+
+    private static int parseInt(String key, String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw cannotConvert(key, value, "int");
+        }
+    }
+
+    private static long parseLong(String key, String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw cannotConvert(key, value, "long");
+        }
+    }
+
+    private static double parseDouble(String key, String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw cannotConvert(key, value, "double");
+        }
+    }
+
+    private static boolean parseBoolean(String key, String value) {
+        String trimmed = value.trim();
+        if ("true".equalsIgnoreCase(trimmed)) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(trimmed)) {
+            return false;
+        }
+        throw cannotConvert(key, value, "boolean");
+    }
+
+    private static ConfigLoaderException cannotConvert(String key, String value, String type) {
+        return new ConfigLoaderException("Cannot convert " + value + " to " + type + " at " + key);
+    }
+}
@@ -0,0 +1,153 @@
+package uk.org.webcompere.lightweightconfig.properties;
+
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+import uk.org.webcompere.lightweightconfig.listener.LoadPhase;
+import uk.org.webcompere.lightweightconfig.listener.LoadRecorder;
+import uk.org.webcompere.lightweightconfig.provider.FileProvider;
+import uk.org.webcompere.lightweightconfig.provider.LoadContext;
+import uk.org.webcompere.lightweightconfig.provider.ResourceProvider;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of property loading including placeholder interpolation
+ */
+public class PropertiesLoader {
+
+    /**
+     * Load a {@link Properties} object from the text inside a resource file, after interpolating
+     * placeholders and import statements
+     * @param resourceName the resource to load within the classpath
+     * @return a {@link Properties} object, populated with the keys
+     */
+    public static Properties load(String resourceName) {
+        return load(resourceName, new LoadContext());
+    }
+
+    /**
+     * Load a {@link Properties} object from the text inside a resource file, after interpolating
+     * placeholders and import statements
+     * @param resourceName the resource to load within the classpath
+     * @param context the context of the load - e.g. the placeholder values to use, and the recorder for
+     *                any listeners, as created by <code>ConfigLoader.createLoadContext()</code>
+     * @return a {@link Properties} object, populated with the keys
+     */
+    public static Properties load(String resourceName, LoadContext context) {
+        return load(context, resourceName, () -> ResourceProvider.openResource(resourceName, context));
+    }
+
+    /**
+     * Load a {@link Properties} object from the text inside a file, after interpolating
+     * placeholders and import statements
+     * @param path the file to load - import statements are relative to it
+     * @return a {@link Properties} object, populated with the keys
+     */
+    public static Properties load(Path path) {
+        return load(path, new LoadContext());
+    }
+
+    /**
+     * Load a {@link Properties} object from the text inside a file, after interpolating
+     * placeholders and import statements
+     * @param path the file to load - import statements are relative to it
+     * @param context the context of the load - e.g. the placeholder values to use, and the recorder for
+     *                any listeners, as created by <code>ConfigLoader.createLoadContext()</code>
+     * @return a {@link Properties} object, populated with the keys
+     */
+    public static Properties load(Path path, LoadContext context) {
+        return load(context, path.toString(), () -> new FileProvider(path, context).openReader());
+    }
+
+    private static Properties load(LoadContext context, String source, Supplier<Reader> opener) {
+        LoadRecorder recorder = context.getRecorder();
+        if (recorder == null) {
+            return load(opener.get());
+        }
+        return recorder.recordLoad(source, () -> {
+            Reader reader = recorder.timed(LoadPhase.READ, opener);
+            return recorder.timedExcludingStream(LoadPhase.PARSE, () -> load(reader));
+        });
+    }
+
+    private static Properties load(Reader source) {
+        Properties properties = new Properties();
+
+        try (Reader reader = source) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new ConfigLoaderException("Cannot read properties file: " + e.getMessage(), e);
+        }
+        return properties;
+    }
+
+    /**
+     * Load an immutable {@link ConfigProperties} object from the text inside a resource file, after interpolating
+     * placeholders and import statements. Unlike {@link Properties}, it can be read by many threads without them
+     * contending for a lock.
+     * @param resourceName the resource to load within the classpath
+     * @return a {@link ConfigProperties} object, populated with the keys
+     */
+    public static ConfigProperties loadConfigProperties(String resourceName) {
+        return ConfigProperties.from(load(resourceName));
+    }
+
+    /**
+     * Load an immutable {@link ConfigProperties} object from the text inside a resource file, after interpolating
+     * placeholders and import statements
+     * @param resourceName the resource to load within the classpath
+     * @param context the context of the load, as created by <code>ConfigLoader.createLoadContext()</code>
+     * @return a {@link ConfigProperties} object, populated with the keys
+     */
+    public static ConfigProperties loadConfigProperties(String resourceName, LoadContext context) {
+        return ConfigProperties.from(load(resourceName, context));
+    }
+
+    /**
+     * Load an immutable {@link ConfigProperties} object from the text inside a file, after interpolating
+     * placeholders and import statements. Unlike {@link Properties}, it can be read by many threads without them
+     * contending for a lock.
+     * @param path the file to load - import statements are relative to it
+     * @return a {@link ConfigProperties} object, populated with the keys
+     */
+    public static ConfigProperties loadConfigProperties(Path path) {
+        return ConfigProperties.from(load(path));
+    }
+
+    /**
+     * Load an immutable {@link ConfigProperties} object from the text inside a file, after interpolating
+     * placeholders and import statements
+     * @param path the file to load - import statements are relative to it
+     * @param context the context of the load, as created by <code>ConfigLoader.createLoadContext()</code>
+     * @return a {@link ConfigProperties} object, populated with the keys
+     */
+    public static ConfigProperties loadConfigProperties(Path path, LoadContext context) {
+        return ConfigProperties.from(load(path, context));
+    }
+
+    /**
+     * Load a {@link Properties} object from a resource file on an executor, so that independent configurations
+     * can be loaded at the same time
+     * @param resourceName the resource to load within the classpath
+     * @param executor the executor to load on - e.g. <code>ImportExecutors.defaultExecutor()</code>
+     * @return a future of the {@link Properties} object, which completes exceptionally if the load fails
+     */
+    public static CompletableFuture<Properties> loadAsync(String resourceName, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> load(resourceName), executor);
+    }
+
+    /**
+     * Load a {@link Properties} object from a file on an executor
+     * @param path the file to load - import statements are relative to it
+     * @param executor the executor to load on - e.g. <code>ImportExecutors.defaultExecutor()</code>
+     * @return a future of the {@link Properties} object, which completes exceptionally if the load fails
+     */
+    public static CompletableFuture<Properties> loadAsync(Path path, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> load(path), executor);
+    }
+}
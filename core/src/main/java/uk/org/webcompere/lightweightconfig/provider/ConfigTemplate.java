@@ -0,0 +1,221 @@
+package uk.org.webcompere.lightweightconfig.provider;
+
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+import uk.org.webcompere.lightweightconfig.data.PlaceholderResolver;
+import uk.org.webcompere.lightweightconfig.data.PlaceholderTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static uk.org.webcompere.lightweightconfig.data.ImportAwarePlaceholderResolver.getImportPath;
+import static uk.org.webcompere.lightweightconfig.provider.ResourceProvider.LINE_DELIMITER;
+
+/**
+ * A configuration source which has been read and parsed once, so it can be rendered
+ * many times with different placeholder values. Runs of lines without placeholders are held as literal
+ * text, and lines with placeholders are held as {@link PlaceholderTemplate}s. Imports with a fixed path
+ * are spliced in when the template is compiled. Imports whose path depends on a placeholder are compiled
+ * the first time each path is rendered, and reused after that - up to the most recently used
+ * {@value #MAXIMUM_IMPORTS_PER_LINE} paths of each import line. Rendering gives the same result as
+ * reading the source through {@link InterpolatingReader}.
+ * <p>
+ * A template is a snapshot: edits to the source, or to any import it has already compiled, are not seen.
+ * Compile the source again to pick them up.
+ */
+public class ConfigTemplate {
+    /**
+     * The number of rendered paths of a placeholder import which are kept compiled
+     */
+    public static final int MAXIMUM_IMPORTS_PER_LINE = 16;
+
+    private final List<TemplateLine> lines;
+
+    private ConfigTemplate(List<TemplateLine> lines) {
+        this.lines = Collections.unmodifiableList(lines);
+    }
+
+    /**
+     * Compile a resource and its imports
+     * @param resourcePath the path to the resource
+     * @param context the context of the load, which provides the fragment cache if there is one
+     * @return the compiled template
+     */
+    public static ConfigTemplate compileResource(String resourcePath, LoadContext context) {
+        try (BufferedReader source = ResourceProvider.openRawResource(resourcePath, context)) {
+            return compile(source, path -> compileResource(path, context));
+        } catch (IOException e) {
+            throw new ConfigLoaderException("Cannot read stream: " + resourcePath, e);
+        }
+    }
+
+    /**
+     * Compile a file and its imports, which are relative to the file
+     * @param file the file
+     * @param context the context of the load, which provides the fragment cache if there is one
+     * @return the compiled template
+     */
+    public static ConfigTemplate compileFile(Path file, LoadContext context) {
+        return compileFile(new FileProvider(file, context));
+    }
+
+    /**
+     * Render the template
+     * @param resolver the source of placeholder values
+     * @return the content with placeholders filled in and imports spliced in
+     */
+    public String render(PlaceholderResolver resolver) {
+        LineJoiner output = new LineJoiner();
+        render(resolver, output);
+        return output.toString();
+    }
+
+    private void render(PlaceholderResolver resolver, LineJoiner output) {
+        for (TemplateLine line : lines) {
+            line.render(resolver, output);
+        }
+    }
+
+    private static ConfigTemplate compileFile(FileProvider provider) {
+        try (BufferedReader source = provider.openRawFile()) {
+            return compile(source, path -> compileFiles(provider.resolveImport(path)));
+        } catch (IOException e) {
+            throw new ConfigLoaderException("Cannot read stream: " + provider.getCurrentFile().toAbsolutePath(), e);
+        }
+    }
+
+    private static ConfigTemplate compileFiles(List<FileProvider> providers) {
+        List<TemplateLine> lines = new ArrayList<>();
+        for (FileProvider provider : providers) {
+            lines.addAll(compileFile(provider).lines);
+        }
+        return new ConfigTemplate(lines);
+    }
+
+    private static ConfigTemplate compile(BufferedReader source,
+                                          Function<String, ConfigTemplate> importer) throws IOException {
+        List<TemplateLine> lines = new ArrayList<>();
+        LineJoiner literal = new LineJoiner();
+
+        String line;
+        while ((line = source.readLine()) != null) {
+            PlaceholderTemplate template = PlaceholderTemplate.compile(line);
+            if (!template.isLiteral()) {
+                literal.flushTo(lines);
+                lines.add(new InterpolatedLine(template, importer));
+                continue;
+            }
+
+            String text = template.render(PlaceholderResolver.live());
+            String importPath = getImportPath(text);
+            if (importPath == null) {
+                literal.add(text);
+            } else {
+                literal.flushTo(lines);
+                lines.addAll(importer.apply(importPath).lines);
+            }
+        }
+        literal.flushTo(lines);
+
+        return new ConfigTemplate(lines);
+    }
+
+    private interface TemplateLine {
+        void render(PlaceholderResolver resolver, LineJoiner output);
+    }
+
+    /**
+     * One or more lines with no placeholders, joined into a single piece of text
+     */
+    private static class LiteralLines implements TemplateLine {
+        private final String text;
+
+        LiteralLines(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void render(PlaceholderResolver resolver, LineJoiner output) {
+            output.add(text);
+        }
+    }
+
+    /**
+     * A line with placeholders, which may turn out to be an import once they're filled in
+     */
+    private static class InterpolatedLine implements TemplateLine {
+        private final PlaceholderTemplate template;
+        private final Function<String, ConfigTemplate> importer;
+        private final Map<String, ConfigTemplate> imports =
+            new LinkedHashMap<String, ConfigTemplate>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ConfigTemplate> eldest) {
+                    return size() > MAXIMUM_IMPORTS_PER_LINE;
+                }
+            };
+
+        InterpolatedLine(PlaceholderTemplate template, Function<String, ConfigTemplate> importer) {
+            this.template = template;
+            this.importer = importer;
+        }
+
+        @Override
+        public void render(PlaceholderResolver resolver, LineJoiner output) {
+            String text = template.render(resolver);
+            String importPath = getImportPath(text);
+            if (importPath == null) {
+                output.add(text);
+            } else {
+                getImport(importPath).render(resolver, output);
+            }
+        }
+
+        private ConfigTemplate getImport(String importPath) {
+            synchronized (imports) {
+                ConfigTemplate compiled = imports.get(importPath);
+                if (compiled != null) {
+                    return compiled;
+                }
+            }
+
+            // compile outside the lock, so renders of other paths aren't held up by the read
+            ConfigTemplate compiled = importer.apply(importPath);
+            synchronized (imports) {
+                imports.put(importPath, compiled);
+            }
+            return compiled;
+        }
+    }
+
+    private static class LineJoiner {
+        private final StringBuilder builder = new StringBuilder();
+        private boolean empty = true;
+
+        void add(String line) {
+            if (!empty) {
+                builder.append(LINE_DELIMITER);
+            }
+            builder.append(line);
+            empty = false;
+        }
+
+        void flushTo(List<TemplateLine> lines) {
+            if (!empty) {
+                lines.add(new LiteralLines(builder.toString()));
+                builder.setLength(0);
+                empty = true;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package uk.org.webcompere.lightweightconfig.provider;
+
+import uk.org.webcompere.lightweightconfig.listener.LoadRecorder;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reports the bytes read from a stream to the recorder of a load
+ */
+class CountingInputStream extends FilterInputStream {
+    private final LoadRecorder recorder;
+
+    CountingInputStream(InputStream in, LoadRecorder recorder) {
+        super(in);
+        this.recorder = recorder;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int next = super.read();
+        if (next >= 0) {
+            recorder.addBytesRead(1);
+        }
+        return next;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            recorder.addBytesRead(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        long skipped = super.skip(count);
+        recorder.addBytesRead(skipped);
+        return skipped;
+    }
+}
@@ -0,0 +1,222 @@
+package uk.org.webcompere.lightweightconfig.provider;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads a large file through a {@link FileChannel}, memory mapping it if it's very large. The bytes
+ * are scanned for <code>${</code> and <code>#import</code> directly, without decoding each line. Runs of
+ * lines with neither are decoded in bulk, up to {@link #MAXIMUM_RUN_BYTES} at a time, and returned as a
+ * single literal piece of text, so they need no further processing. Lines are split at <code>\n</code>,
+ * <code>\r</code> or <code>\r\n</code>, as with {@link java.io.BufferedReader#readLine()}. The file must be
+ * UTF-8 encoded, and as its delimiters are all ASCII, the scan can work on the raw bytes.<br>
+ * A mapped file can't be unmapped before the mapping is garbage collected, and Windows won't let a mapped
+ * file be edited, replaced or deleted, so on Windows the file is always read onto the heap.
+ */
+class FileChannelLineSource implements LineSource {
+    /**
+     * Files of at least this size are read through this source rather than line by line
+     */
+    static final long MINIMUM_FILE_SIZE = 64 * 1024;
+
+    /**
+     * Files of at least this size are memory mapped rather than read onto the heap
+     */
+    static final long MAPPING_THRESHOLD = 1024 * 1024;
+
+    /**
+     * The most bytes of literal lines which are decoded together
+     */
+    static final int MAXIMUM_RUN_BYTES = 64 * 1024;
+
+    private static final boolean MAPPING_ALLOWED = isMappingAllowed(System.getProperty("os.name", ""));
+
+    private static final byte[] IMPORT_PREFIX = "#import".getBytes(UTF_8);
+
+    private final ByteBuffer bytes;
+    private final CharsetDecoder decoder = UTF_8.newDecoder();
+    private byte[] scratch = new byte[0];
+    private char[] chars = new char[0];
+    private int position;
+    private boolean literal;
+    private boolean lineIsLiteral;
+
+    /**
+     * Construct over the bytes of the source
+     * @param bytes the content, from its position to its limit
+     */
+    FileChannelLineSource(ByteBuffer bytes) {
+        this.bytes = bytes;
+        this.position = bytes.position();
+    }
+
+    /**
+     * Read a file into a line source. The file is closed before returning, as a mapping stays valid without it.
+     * @param file the file to read
+     * @return the line source
+     * @throws IOException on error reading
+     */
+    static FileChannelLineSource open(Path file) throws IOException {
+        return open(file, MAPPING_ALLOWED);
+    }
+
+    /**
+     * Read a file into a line source
+     * @param file the file to read
+     * @param mappingAllowed whether a large file may be memory mapped
+     * @return the line source
+     * @throws IOException on error reading
+     */
+    static FileChannelLineSource open(Path file, boolean mappingAllowed) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (mappingAllowed && size >= MAPPING_THRESHOLD) {
+                return new FileChannelLineSource(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the buffer is full
+            }
+            buffer.flip();
+            return new FileChannelLineSource(buffer);
+        }
+    }
+
+    /**
+     * Whether a file should be read through this source
+     * @param size the size of the file
+     * @return true if the file is large enough to benefit, and small enough to map
+     */
+    static boolean isSuitable(long size) {
+        return size >= MINIMUM_FILE_SIZE && size <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Whether files may be memory mapped on an operating system
+     * @param osName the name of the operating system
+     * @return false on Windows, where a mapping locks the file until it's garbage collected
+     */
+    static boolean isMappingAllowed(String osName) {
+        return !osName.startsWith("Windows");
+    }
+
+    @Override
+    public String readLines() throws IOException {
+        int limit = bytes.limit();
+        if (position >= limit) {
+            return null;
+        }
+
+        int start = position;
+        int end = scanLine(start);
+        literal = lineIsLiteral;
+        position = skipLineEnd(end);
+
+        // a run only continues over plain \n line ends, so that its internal delimiters need no conversion
+        while (literal && end < limit && bytes.get(end) == '\n' && position < limit) {
+            int nextEnd = scanLine(position);
+            if (nextEnd - start > MAXIMUM_RUN_BYTES || !lineIsLiteral) {
+                break;
+            }
+            end = nextEnd;
+            position = skipLineEnd(end);
+        }
+
+        return decode(start, end);
+    }
+
+    @Override
+    public boolean isLiteral() {
+        return literal;
+    }
+
+    @Override
+    public void close() {
+        // the channel is already closed
+    }
+
+    /**
+     * Find the end of a line, noting whether it's literal along the way
+     * @param start the start of the line
+     * @return the position of the line's terminator, or the limit if it has none
+     */
+    private int scanLine(int start) {
+        int limit = bytes.limit();
+        boolean placeholder = false;
+        int i = start;
+        for (; i < limit; i++) {
+            byte next = bytes.get(i);
+            if (next == '\n' || next == '\r') {
+                break;
+            }
+            if (next == '{' && i > start && bytes.get(i - 1) == '$') {
+                placeholder = true;
+            }
+        }
+        lineIsLiteral = !placeholder && !startsWithImport(start, i);
+        return i;
+    }
+
+    private int skipLineEnd(int end) {
+        int limit = bytes.limit();
+        if (end < limit && bytes.get(end) == '\r') {
+            end++;
+        }
+        if (end < limit && bytes.get(end) == '\n') {
+            return end + 1;
+        }
+        return end;
+    }
+
+    private boolean startsWithImport(int start, int end) {
+        if (end - start < IMPORT_PREFIX.length) {
+            return false;
+        }
+        for (int i = 0; i < IMPORT_PREFIX.length; i++) {
+            if (bytes.get(start + i) != IMPORT_PREFIX[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(int start, int end) throws IOException {
+        int length = end - start;
+        if (chars.length < length) {
+            chars = new char[length];
+        }
+
+        // the decoder is much faster on an array than on a direct buffer
+        ByteBuffer input;
+        if (bytes.hasArray()) {
+            input = ByteBuffer.wrap(bytes.array(), bytes.arrayOffset() + start, length);
+        } else {
+            if (scratch.length < length) {
+                scratch = new byte[length];
+            }
+            ByteBuffer slice = bytes.duplicate();
+            slice.position(start);
+            slice.get(scratch, 0, length);
+            input = ByteBuffer.wrap(scratch, 0, length);
+        }
+
+        // UTF-8 never decodes to more characters than it has bytes
+        CharBuffer output = CharBuffer.wrap(chars);
+        decoder.reset();
+        CoderResult result = decoder.decode(input, output, true);
+        if (!result.isUnderflow()) {
+            result.throwException();
+        }
+        decoder.flush(output);
+        return new String(chars, 0, output.position());
+    }
+}
@@ -0,0 +1,305 @@
+package uk.org.webcompere.lightweightconfig.provider;
+
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+import uk.org.webcompere.lightweightconfig.data.PlaceholderResolver;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static uk.org.webcompere.lightweightconfig.data.ImportAwarePlaceholderResolver.getImportPath;
+import static uk.org.webcompere.lightweightconfig.data.PlaceholderParser.applyPlaceholders;
+
+/**
+ * Provide the interpolated contents and imports of a set of files by file path. An import may be a glob,
+ * such as <code>#import conf.d/*.yml</code>, which imports the matching files in order of their paths.
+ * When the {@link LoadContext} has an import executor, each file's imports are read concurrently
+ * as soon as the file has been read, and are spliced in the order they're listed.
+ */
+public class FileProvider {
+    private static final String GLOB_CHARACTERS = "*?[{";
+    private static final String IMPORT_PREFIX = "#import";
+
+    private Path currentFile;
+    private LoadContext context;
+
+    /**
+     * Constructed with the file that's presently being read
+     *
+     * @param currentFile the file to read
+     */
+    public FileProvider(Path currentFile) {
+        this(currentFile, new LoadContext());
+    }
+
+    /**
+     * Constructed with the file that's presently being read and the context of the load
+     *
+     * @param currentFile the file to read
+     * @param context the context of the load, which is also used for the imports
+     */
+    public FileProvider(Path currentFile, LoadContext context) {
+        this.currentFile = currentFile;
+        this.context = context;
+    }
+
+    /**
+     * Read the file, interpolating placeholders and imports
+     *
+     * @return the file, reassembled as lines
+     */
+    public String readAndProcess() {
+        try (InterpolatingReader reader = openReader()) {
+            return reader.readAll();
+        } catch (IOException e) {
+            throw new ConfigLoaderException("Cannot read stream: " + currentFile.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Open the file for streaming, with placeholders and imports processed as it is read
+     *
+     * @return a reader of the processed file, which the caller must close
+     */
+    public InterpolatingReader openReader() {
+        try {
+            return new InterpolatingReader(openLineSource(), context, this::openImport);
+        } catch (IOException e) {
+            throw new ConfigLoaderException("Cannot read stream: " + currentFile.toAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Read the file and its imports as separate fragments, interpolating placeholders, rather than splicing
+     * the imports into the text
+     *
+     * @return the fragment of the file, with the fragments of its imports
+     */
+    public Fragment readFragment() {
+        LineSource lines;
+        try {
+            lines = openLineSource();
+        } catch (IOException e) {
+            throw new ConfigLoaderException("Cannot read stream: " + currentFile.toAbsolutePath(), e);
+        }
+        return Fragment.read(currentFile.toAbsolutePath().normalize().toString(), lines, context,
+            path -> resolveImport(path).stream()
+                .map(FileProvider::readFragment)
+                .collect(Collectors.toList()));
+    }
+
+    BufferedReader openRawFile() throws IOException {
+        String text = readInMemory();
+        if (text != null) {
+            return new BufferedReader(new StringReader(text));
+        }
+        if (context.getRecorder() != null) {
+            context.getRecorder().addBytesRead(Files.size(currentFile));
+        }
+        return Files.newBufferedReader(currentFile, UTF_8);
+    }
+
+    Path getCurrentFile() {
+        return currentFile;
+    }
+
+    /**
+     * Resolve an import, which may be a glob, against the directory of this file
+     * @param file the path from the <code>#import</code> statement
+     * @return the files to import, in order
+     */
+    List<FileProvider> resolveImport(String file) {
+        if (!isGlob(file)) {
+            return Collections.singletonList(resolvePath(file));
+        }
+        return expandGlob(file).stream()
+            .map(path -> new FileProvider(path, context))
+            .collect(Collectors.toList());
+    }
+
+    FileProvider resolvePath(String file) {
+        Path parent = currentFile.getParent();
+        if (parent == null) {
+            throw new ConfigLoaderException("Cannot resolve " + file + " against path " +
+                currentFile.toAbsolutePath() + ": no parent path");
+        }
+        return new FileProvider(parent.resolve(file), context);
+    }
+
+    private LineSource openLineSource() throws IOException {
+        String text = readInMemory();
+        if (text != null) {
+            return new TextLineSource(text);
+        }
+
+        long size = Files.size(currentFile);
+        if (FileChannelLineSource.isSuitable(size)) {
+            if (context.getRecorder() != null) {
+                context.getRecorder().addBytesRead(size);
+            }
+            return FileChannelLineSource.open(currentFile);
+        }
+        return LineSource.of(openRawFile());
+    }
+
+    /**
+     * Get the text of the file if it comes from the import executor or the fragment cache
+     * @return the text, or <code>null</code> if the file is to be read directly
+     * @throws IOException on error reading
+     */
+    private String readInMemory() throws IOException {
+        // recorded before reading, so that a missing file is still a dependency
+        context.recordFile(currentFile);
+        if (context.getImportExecutor() != null) {
+            return awaitPrefetch();
+        }
+        if (context.getFragmentCache() != null) {
+            return context.getFragmentCache().readFile(currentFile);
+        }
+        return null;
+    }
+
+    private InterpolatingReader openImport(String file) {
+        List<FileProvider> imports = resolveImport(file);
+        if (imports.size() == 1) {
+            return imports.get(0).openReader();
+        }
+
+        List<Supplier<InterpolatingReader>> readers = new ArrayList<>();
+        for (FileProvider provider : imports) {
+            readers.add(provider::openReader);
+        }
+        return InterpolatingReader.sequence(readers, context);
+    }
+
+    private static boolean isGlob(String file) {
+        for (int i = 0; i < file.length(); i++) {
+            if (GLOB_CHARACTERS.indexOf(file.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Path> expandGlob(String glob) {
+        // walk from the deepest directory which has no glob in its name
+        int lastFixedSeparator = -1;
+        for (int i = 0; i < glob.length() && GLOB_CHARACTERS.indexOf(glob.charAt(i)) < 0; i++) {
+            if (glob.charAt(i) == '/') {
+                lastFixedSeparator = i;
+            }
+        }
+        Path directory = resolvePath(glob.substring(0, lastFixedSeparator + 1)).getCurrentFile();
+        String pattern = glob.substring(lastFixedSeparator + 1);
+        context.recordGlob(directory, pattern);
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+
+        PathMatcher matcher = directory.getFileSystem().getPathMatcher("glob:" + pattern);
+        int depth = pattern.contains("**") ? Integer.MAX_VALUE : pattern.split("/", -1).length;
+        try (Stream<Path> paths = Files.walk(directory, depth)) {
+            return paths.filter(Files::isRegularFile)
+                .filter(path -> matcher.matches(directory.relativize(path)))
+                .sorted()
+                .collect(Collectors.toList());
+        } catch (IOException | UncheckedIOException e) {
+            throw new ConfigLoaderException("Cannot expand import " + glob + " in " + directory.toAbsolutePath(), e);
+        }
+    }
+
+    private String awaitPrefetch() throws IOException {
+        try {
+            return prefetch().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                // the executor is saturated or shut down, so read on this thread instead
+                return readDirectly();
+            }
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private String readDirectly() throws IOException {
+        try {
+            return readText();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private CompletableFuture<String> prefetch() {
+        return context.prefetch(currentFile, () -> {
+            String text = readText();
+            prefetchImports(text);
+            return text;
+        });
+    }
+
+    private String readText() {
+        try {
+            if (context.getFragmentCache() != null) {
+                return context.getFragmentCache().readFile(currentFile);
+            }
+            byte[] bytes = Files.readAllBytes(currentFile);
+            if (context.getRecorder() != null) {
+                context.getRecorder().addBytesRead(bytes.length);
+            }
+            return new String(bytes, UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void prefetchImports(String text) {
+        // only import statements are interpolated here, without reporting the placeholders, as the load
+        // interpolates and reports every line when it reaches it
+        PlaceholderResolver resolver = context.getResolver().unrecorded();
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf(ResourceProvider.LINE_DELIMITER, start);
+            if (end < 0) {
+                end = text.length();
+            }
+            if (text.startsWith(IMPORT_PREFIX, start)) {
+                prefetchImport(applyPlaceholders(text.substring(start, end), resolver));
+            }
+            start = end + 1;
+        }
+    }
+
+    private void prefetchImport(String line) {
+        String importPath = getImportPath(line);
+        if (importPath == null) {
+            return;
+        }
+        try {
+            resolveImport(importPath).forEach(FileProvider::prefetch);
+        } catch (RuntimeException e) {
+            // the import is resolved again when it's reached, which reports the error
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package uk.org.webcompere.lightweightconfig.provider;
+
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A configuration source whose imports are kept apart from it, rather than spliced into its text, so that each
+ * can be parsed on its own and the parsed trees merged. The text has its placeholders interpolated and its
+ * <code>#import</code> statements removed.
+ */
+public final class Fragment {
+    private final String source;
+    private final String text;
+    private final List<Fragment> imports;
+
+    /**
+     * Construct a fragment
+     * @param source identifies where the fragment was read from - e.g. the absolute path of a file
+     * @param text the interpolated text, without its import statements
+     * @param imports the fragments it imports, in the order they're listed
+     */
+    public Fragment(String source, String text, List<Fragment> imports) {
+        this.source = source;
+        this.text = text;
+        this.imports = Collections.unmodifiableList(new ArrayList<>(imports));
+    }
+
+    /**
+     * Where the fragment was read from - the absolute path of a file, or <code>classpath:</code> followed by
+     * the path of a resource
+     * @return the source
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * The text of the fragment, with placeholders interpolated and import statements removed
+     * @return the text
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * The fragments imported by this one, in the order they're listed - a glob import adds each of its matches
+     * @return the imports
+     */
+    public List<Fragment> getImports() {
+        return imports;
+    }
+
+    /**
+     * Read a fragment, interpolating its lines and collecting its imports rather than splicing them
+     * @param source where the fragment is read from
+     * @param lines the raw lines
+     * @param context the context of the load
+     * @param importer reads the fragments of an import statement
+     * @return the fragment
+     */
+    static Fragment read(String source, LineSource lines, LoadContext context,
+                         Function<String, List<Fragment>> importer) {
+        List<String> importPaths = new ArrayList<>();
+        String text;
+        try (InterpolatingReader reader = new InterpolatingReader(lines, context, path -> {
+            importPaths.add(path);
+            return InterpolatingReader.empty(context);
+        })) {
+            text = reader.readAll();
+        } catch (IOException e) {
+            throw new ConfigLoaderException("Cannot read stream: " + source, e);
+        }
+
+        List<Fragment> imports = new ArrayList<>();
+        for (String path : importPaths) {
+            imports.addAll(importer.apply(path));
+        }
+        return new Fragment(source, text, imports);
+    }
+}
@@ -0,0 +1,243 @@
+package uk.org.webcompere.lightweightconfig.provider;
+
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A least-recently-used cache of the raw text of resources and files, so that fragments which are
+ * imported by many configurations are only read once. The cache holds the text before placeholders are
+ * interpolated, so placeholders are still resolved on every load. File entries are only used while
+ * the file's last modified time and size are unchanged. Resource entries are keyed by the class
+ * loader and resource name, and are used until they're evicted or invalidated.
+ */
+public class FragmentCache {
+    private final long maximumCharacters;
+    private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long characters;
+    private long hits;
+    private long misses;
+
+    /**
+     * Construct a cache with a size limit
+     * @param maximumCharacters the maximum number of characters of text to hold - when exceeded, the least
+     *                          recently used fragments are evicted
+     */
+    public FragmentCache(long maximumCharacters) {
+        this.maximumCharacters = maximumCharacters;
+    }
+
+    /**
+     * Read the raw text of a resource, from the cache if possible
+     * @param classLoader the class loader to read the resource from
+     * @param resourcePath the path of the resource
+     * @return the text of the resource
+     */
+    public String readResource(ClassLoader classLoader, String resourcePath) {
+        ResourceKey key = new ResourceKey(classLoader, resourcePath);
+        String text = get(key, null);
+        if (text != null) {
+            return text;
+        }
+
+        try (InputStream stream = classLoader.getResourceAsStream(resourcePath)) {
+            if (stream == null) {
+                throw new ConfigLoaderException("Cannot read stream: " + resourcePath);
+            }
+            text = readText(stream);
+        } catch (IOException e) {
+            throw new ConfigLoaderException("Cannot read stream: " + resourcePath, e);
+        }
+        put(key, new Entry(text, null));
+        return text;
+    }
+
+    /**
+     * Read the raw text of a file, from the cache if the file is unchanged since it was cached
+     * @param file the file to read
+     * @return the text of the file
+     * @throws IOException on error reading the file
+     */
+    public String readFile(Path file) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        FileStamp stamp = new FileStamp(attributes.lastModifiedTime().toMillis(), attributes.size());
+
+        String text = get(key, stamp);
+        if (text != null) {
+            return text;
+        }
+
+        text = new String(Files.readAllBytes(key), UTF_8);
+        put(key, new Entry(text, stamp));
+        return text;
+    }
+
+    /**
+     * Remove a file from the cache
+     * @param file the file to remove
+     */
+    public synchronized void invalidate(Path file) {
+        remove(file.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Remove a resource from the cache
+     * @param classLoader the class loader the resource was read from
+     * @param resourcePath the path of the resource
+     */
+    public synchronized void invalidateResource(ClassLoader classLoader, String resourcePath) {
+        remove(new ResourceKey(classLoader, resourcePath));
+    }
+
+    /**
+     * Remove all entries from the cache
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        characters = 0;
+    }
+
+    /**
+     * The number of reads served from the cache
+     * @return the hit count
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * The number of reads which had to go to the resource or file
+     * @return the miss count
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * The number of fragments currently cached
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized String get(Object key, FileStamp stamp) {
+        Entry entry = entries.get(key);
+        if (entry != null && Objects.equals(entry.stamp, stamp)) {
+            hits++;
+            return entry.text;
+        }
+        misses++;
+        return null;
+    }
+
+    private synchronized void put(Object key, Entry entry) {
+        remove(key);
+        if (entry.text.length() > maximumCharacters) {
+            return;
+        }
+
+        entries.put(key, entry);
+        characters += entry.text.length();
+
+        Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+        while (characters > maximumCharacters) {
+            characters -= leastRecentlyUsed.next().text.length();
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    private void remove(Object key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            characters -= removed.text.length();
+        }
+    }
+
+    private static String readText(InputStream stream) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+            output.write(buffer, 0, read);
+        }
+        return new String(output.toByteArray(), UTF_8);
+    }
+
+    private static class Entry {
+        private final String text;
+        private final FileStamp stamp;
+
+        Entry(String text, FileStamp stamp) {
+            this.text = text;
+            this.stamp = stamp;
+        }
+    }
+
+    private static class FileStamp {
+        private final long lastModified;
+        private final long size;
+
+        FileStamp(long lastModified, long size) {
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof FileStamp)) {
+                return false;
+            }
+            FileStamp stamp = (FileStamp) other;
+            return lastModified == stamp.lastModified && size == stamp.size;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(lastModified, size);
+        }
+    }
+
+    /**
+     * Identifies a resource by the identity of its class loader, without keeping the class loader alive
+     */
+    private static class ResourceKey {
+        private final WeakReference<ClassLoader> classLoader;
+        private final int classLoaderHash;
+        private final String resourcePath;
+
+        ResourceKey(ClassLoader classLoader, String resourcePath) {
+            this.classLoader = new WeakReference<>(classLoader);
+            this.classLoaderHash = System.identityHashCode(classLoader);
+            this.resourcePath = resourcePath;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof ResourceKey)) {
+                return false;
+            }
+            ResourceKey key = (ResourceKey) other;
+            ClassLoader loader = classLoader.get();
+            return loader != null && loader == key.classLoader.get() && resourcePath.equals(key.resourcePath);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * classLoaderHash + resourcePath.hashCode();
+        }
+    }
+}
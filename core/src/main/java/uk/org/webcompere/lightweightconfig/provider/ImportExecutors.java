@@ -0,0 +1,41 @@
+package uk.org.webcompere.lightweightconfig.provider;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for reading imported files concurrently
+ */
+public final class ImportExecutors {
+    private ImportExecutors() {
+    }
+
+    /**
+     * The default executor for reading imports. On JDK 21 or later this starts a virtual thread per read,
+     * otherwise it uses a shared pool of daemon threads.
+     * @return the default executor
+     */
+    public static Executor defaultExecutor() {
+        return DefaultExecutorHolder.EXECUTOR;
+    }
+
+    private static class DefaultExecutorHolder {
+        private static final Executor EXECUTOR = createDefaultExecutor();
+
+        private static Executor createDefaultExecutor() {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // virtual threads are not available before JDK 21
+                AtomicInteger threadNumber = new AtomicInteger();
+                return Executors.newCachedThreadPool(runnable -> {
+                    Thread thread = new Thread(runnable, "lightweight-config-import-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package uk.org.webcompere.lightweightconfig.provider;
+
+import uk.org.webcompere.lightweightconfig.listener.LoadPhase;
+import uk.org.webcompere.lightweightconfig.listener.LoadRecorder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static uk.org.webcompere.lightweightconfig.data.ImportAwarePlaceholderResolver.getImportPath;
+import static uk.org.webcompere.lightweightconfig.data.PlaceholderParser.applyPlaceholders;
+import static uk.org.webcompere.lightweightconfig.provider.ResourceProvider.LINE_DELIMITER;
+
+/**
+ * A {@link Reader} over a configuration source which interpolates placeholders and splices in
+ * <code>#import</code> statements as the source is read. Only the current line of each open file
+ * is held in memory, so the whole configuration never needs to be assembled as a single string.
+ * The lines are separated by {@link ResourceProvider#LINE_DELIMITER}.
+ */
+public class InterpolatingReader extends Reader {
+    private final LineSource source;
+    private final LoadContext context;
+    private final Function<String, InterpolatingReader> importer;
+
+    private Iterator<Supplier<InterpolatingReader>> queuedImports = Collections.emptyIterator();
+    private LoadRecorder.Trace trace = LoadRecorder.Trace.NONE;
+    private InterpolatingReader currentImport;
+    private String pending;
+    private int position;
+    private String nextLine;
+    private boolean started;
+
+    /**
+     * Construct with the source and a way of opening the imports it refers to
+     * @param source the raw lines of the configuration
+     * @param importer converts the trimmed name from an <code>#import</code> statement into a reader
+     *                 for that import
+     */
+    public InterpolatingReader(BufferedReader source, Function<String, InterpolatingReader> importer) {
+        this(source, new LoadContext(), importer);
+    }
+
+    /**
+     * Construct with the source, the context of the load and a way of opening the imports it refers to
+     * @param source the raw lines of the configuration
+     * @param context the context of the load, which provides the placeholder values
+     * @param importer converts the trimmed name from an <code>#import</code> statement into a reader
+     *                 for that import
+     */
+    public InterpolatingReader(BufferedReader source, LoadContext context,
+                               Function<String, InterpolatingReader> importer) {
+        this(LineSource.of(source), context, importer);
+    }
+
+    InterpolatingReader(LineSource source, LoadContext context, Function<String, InterpolatingReader> importer) {
+        this.source = source;
+        this.context = context;
+        this.importer = importer;
+    }
+
+    /**
+     * Create a reader which reads several imports one after another, opening each when it's reached
+     * @param imports opens each import
+     * @param context the context of the load
+     * @return a reader of all the imports
+     */
+    static InterpolatingReader sequence(List<Supplier<InterpolatingReader>> imports, LoadContext context) {
+        InterpolatingReader reader = empty(context);
+        reader.queuedImports = imports.iterator();
+        return reader;
+    }
+
+    /**
+     * Create a reader with no content, which stands in for an import that isn't spliced
+     * @param context the context of the load
+     * @return a reader with no lines
+     */
+    static InterpolatingReader empty(LoadContext context) {
+        return new InterpolatingReader(new BufferedReader(new StringReader("")), context,
+            path -> {
+                throw new IllegalStateException("An empty reader has no imports of its own");
+            });
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        int count = 0;
+        while (count < length) {
+            if (pending == null || position == pending.length()) {
+                if (!advance()) {
+                    break;
+                }
+                continue;
+            }
+
+            int chunk = Math.min(length - count, pending.length() - position);
+            pending.getChars(position, position + chunk, buffer, offset + count);
+            position += chunk;
+            count += chunk;
+        }
+        return count == 0 && length > 0 ? -1 : count;
+    }
+
+    /**
+     * Read the remainder of the content
+     * @return the remaining content as a string
+     * @throws IOException on error reading
+     */
+    public String readAll() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        char[] buffer = new char[8192];
+        int read;
+        while ((read = read(buffer, 0, buffer.length)) != -1) {
+            builder.append(buffer, 0, read);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (currentImport != null) {
+                currentImport.close();
+            }
+        } finally {
+            source.close();
+            trace.end(null);
+            trace = LoadRecorder.Trace.NONE;
+        }
+    }
+
+    /**
+     * Move on to the next piece of output - either a delimiter or the next line
+     * @return false if the end of the content has been reached
+     */
+    private boolean advance() throws IOException {
+        position = 0;
+        if (nextLine != null) {
+            pending = nextLine;
+            nextLine = null;
+            return true;
+        }
+
+        String line = nextLine();
+        if (line == null) {
+            pending = null;
+            return false;
+        }
+
+        if (started) {
+            pending = LINE_DELIMITER;
+            nextLine = line;
+        } else {
+            pending = line;
+            started = true;
+        }
+        return true;
+    }
+
+    /**
+     * Get the next processed line, reading from the current import if there is one. This may be
+     * several literal lines joined together.
+     * @return the next line or <code>null</code> at the end of the content
+     */
+    private String nextLine() throws IOException {
+        while (true) {
+            if (currentImport != null) {
+                String line = currentImport.nextLine();
+                if (line != null) {
+                    return line;
+                }
+                currentImport.close();
+                currentImport = null;
+            }
+
+            if (queuedImports.hasNext()) {
+                currentImport = queuedImports.next().get();
+                continue;
+            }
+
+            LoadRecorder recorder = context.getRecorder();
+            if (recorder != null) {
+                String line = nextRecordedLine(recorder);
+                if (line != null) {
+                    return line;
+                }
+                if (currentImport == null) {
+                    return null;
+                }
+                continue;
+            }
+
+            String line = source.readLines();
+            if (line == null || source.isLiteral()) {
+                return line;
+            }
+
+            String interpolatedLine = applyPlaceholders(line, context.getResolver());
+            String importPath = getImportPath(interpolatedLine);
+            if (importPath == null) {
+                return interpolatedLine;
+            }
+            currentImport = importer.apply(importPath);
+        }
+    }
+
+    /**
+     * The same as the end of {@link #nextLine()}, but measuring each step
+     * @param recorder the recorder of the load
+     * @return the next line or <code>null</code> if the source is finished or an import was opened
+     */
+    private String nextRecordedLine(LoadRecorder recorder) throws IOException {
+        long start = System.nanoTime();
+        String line = source.readLines();
+        long read = System.nanoTime();
+        recorder.addNanos(LoadPhase.READ, read - start);
+        if (line == null) {
+            return null;
+        }
+        recorder.addLines(countLines(line));
+        if (source.isLiteral()) {
+            return line;
+        }
+
+        String interpolatedLine = applyPlaceholders(line, context.getResolver());
+        long interpolated = System.nanoTime();
+        recorder.addNanos(LoadPhase.INTERPOLATE, interpolated - read);
+        String importPath = getImportPath(interpolatedLine);
+        if (importPath == null) {
+            return interpolatedLine;
+        }
+
+        LoadRecorder.Trace importTrace = recorder.traceImport(importPath);
+        try {
+            currentImport = importer.apply(importPath);
+        } catch (RuntimeException e) {
+            importTrace.end(e);
+            throw e;
+        }
+        currentImport.trace = importTrace;
+        recorder.recordImport(importPath, System.nanoTime() - interpolated);
+        return null;
+    }
+
+    private static int countLines(String text) {
+        int lines = 1;
+        for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', i + 1)) {
+            lines++;
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,49 @@
+package uk.org.webcompere.lightweightconfig.provider;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * The raw lines of a configuration source. A source may return a run of several lines at once,
+ * joined by {@link ResourceProvider#LINE_DELIMITER}, when it knows that they need no processing.
+ */
+interface LineSource extends Closeable {
+    /**
+     * Read the next line, or run of literal lines
+     * @return the text or <code>null</code> at the end of the source
+     * @throws IOException on error reading
+     */
+    String readLines() throws IOException;
+
+    /**
+     * Whether the text last returned by {@link #readLines()} is known to contain no placeholders
+     * or imports, so can be output as it is
+     * @return true if the text is literal
+     */
+    boolean isLiteral();
+
+    /**
+     * A source which reads one line at a time and leaves the checking of each line to the caller
+     * @param reader the reader
+     * @return a line source
+     */
+    static LineSource of(BufferedReader reader) {
+        return new LineSource() {
+            @Override
+            public String readLines() throws IOException {
+                return reader.readLine();
+            }
+
+            @Override
+            public boolean isLiteral() {
+                return false;
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+}
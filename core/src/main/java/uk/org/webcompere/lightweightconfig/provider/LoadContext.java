@@ -0,0 +1,177 @@
+package uk.org.webcompere.lightweightconfig.provider;
+
+import uk.org.webcompere.lightweightconfig.data.PlaceholderResolver;
+import uk.org.webcompere.lightweightconfig.listener.LoadRecorder;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * The state shared by the providers during a single load - the resource or file that's loaded
+ * and all of its imports.
+ */
+public class LoadContext {
+    private final PlaceholderResolver resolver;
+    private final Set<Path> files = ConcurrentHashMap.newKeySet();
+    private final Map<Path, Set<String>> globs = new ConcurrentHashMap<>();
+    private final Map<Path, CompletableFuture<String>> prefetchedFiles = new ConcurrentHashMap<>();
+    private FragmentCache fragmentCache;
+    private Executor importExecutor;
+    private LoadRecorder recorder;
+
+    /**
+     * Construct with a snapshot of the default placeholder sources
+     */
+    public LoadContext() {
+        this(PlaceholderResolver.snapshot());
+    }
+
+    /**
+     * Construct with the placeholder values for this load
+     * @param resolver the source of placeholder values
+     */
+    public LoadContext(PlaceholderResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Fluent setter for a cache of the raw text of imported fragments
+     * @param fragmentCache the cache to use, or <code>null</code> to read every fragment afresh
+     * @return <code>this</code> for fluent use
+     */
+    public LoadContext withFragmentCache(FragmentCache fragmentCache) {
+        this.fragmentCache = fragmentCache;
+        return this;
+    }
+
+    /**
+     * Fluent setter for an executor on which to read imported files concurrently. The imports are
+     * still spliced into the output in the order they're listed.
+     * @param importExecutor the executor, or <code>null</code> to read each import when it's reached
+     * @return <code>this</code> for fluent use
+     */
+    public LoadContext withImportExecutor(Executor importExecutor) {
+        this.importExecutor = importExecutor;
+        return this;
+    }
+
+    /**
+     * Fluent setter for the recorder of the load's statistics. The resolver should report to the same recorder.
+     * @param recorder the recorder, or <code>null</code> if the load is not being recorded
+     * @return <code>this</code> for fluent use
+     */
+    public LoadContext withRecorder(LoadRecorder recorder) {
+        this.recorder = recorder;
+        return this;
+    }
+
+    /**
+     * Get the source of placeholder values
+     * @return the resolver
+     */
+    public PlaceholderResolver getResolver() {
+        return resolver;
+    }
+
+    /**
+     * Get the cache of raw fragments
+     * @return the cache or <code>null</code> if there isn't one
+     */
+    public FragmentCache getFragmentCache() {
+        return fragmentCache;
+    }
+
+    /**
+     * Get the executor for reading imports
+     * @return the executor or <code>null</code> if imports are read when they're reached
+     */
+    public Executor getImportExecutor() {
+        return importExecutor;
+    }
+
+    /**
+     * Get the recorder of the load's statistics
+     * @return the recorder or <code>null</code> if the load is not being recorded
+     */
+    public LoadRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * Record that a file is part of this load
+     * @param file the file which the load depends on
+     */
+    public void recordFile(Path file) {
+        files.add(file.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Get the files which were read, or attempted, during the load - i.e. the file loaded and
+     * all of its imports
+     * @return the absolute paths of the files
+     */
+    public Set<Path> getFiles() {
+        return Collections.unmodifiableSet(new HashSet<>(files));
+    }
+
+    /**
+     * Record that a glob import is part of this load, so that files which come to match it can be noticed
+     * @param directory the directory the glob is matched in
+     * @param pattern the glob, relative to the directory
+     */
+    public void recordGlob(Path directory, String pattern) {
+        globs.computeIfAbsent(directory.toAbsolutePath().normalize(), key -> ConcurrentHashMap.newKeySet())
+            .add(pattern);
+    }
+
+    /**
+     * Get the glob imports of the load, whether or not they matched any files
+     * @return the absolute paths of the directories the globs are matched in, with their patterns
+     */
+    public Map<Path, Set<String>> getGlobs() {
+        Map<Path, Set<String>> copy = new HashMap<>();
+        globs.forEach((directory, patterns) ->
+            copy.put(directory, Collections.unmodifiableSet(new HashSet<>(patterns))));
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Start reading a file on the import executor, unless it's already been started. The future always
+     * completes - if the executor rejects the read, it completes with the {@link RejectedExecutionException}
+     * and is forgotten, so that a later call can try again.
+     * @param file the file
+     * @param reader reads the file
+     * @return the eventual text of the file
+     */
+    CompletableFuture<String> prefetch(Path file, Supplier<String> reader) {
+        Path key = file.toAbsolutePath().normalize();
+        CompletableFuture<String> text = new CompletableFuture<>();
+        CompletableFuture<String> existing = prefetchedFiles.putIfAbsent(key, text);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            importExecutor.execute(() -> {
+                try {
+                    text.complete(reader.get());
+                } catch (Throwable e) {
+                    text.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            prefetchedFiles.remove(key, text);
+            text.completeExceptionally(e);
+        }
+        return text;
+    }
+}
@@ -0,0 +1,92 @@
+package uk.org.webcompere.lightweightconfig.provider;
+
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.util.Collections;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads a resource and puts the lines through processing
+ */
+public class ResourceProvider {
+
+    public static final String LINE_DELIMITER = "\n";
+
+    /**
+     * Read and process a resource
+     * @param resourcePath the path to the resource
+     * @return the lines of the resource, joined back as a single string, after processing
+     */
+    public static String readAndProcessResource(String resourcePath) {
+        return readAndProcessResource(resourcePath, new LoadContext());
+    }
+
+    /**
+     * Read and process a resource
+     * @param resourcePath the path to the resource
+     * @param context the context of the load
+     * @return the lines of the resource, joined back as a single string, after processing
+     */
+    public static String readAndProcessResource(String resourcePath, LoadContext context) {
+        try (InterpolatingReader reader = openResource(resourcePath, context)) {
+            return reader.readAll();
+        } catch (IOException e) {
+            throw new ConfigLoaderException("Cannot read stream: " + resourcePath, e);
+        }
+    }
+
+    /**
+     * Open a resource for streaming, with the lines processed as they are read
+     * @param resourcePath the path to the resource
+     * @return a reader of the processed resource, which the caller must close
+     */
+    public static InterpolatingReader openResource(String resourcePath) {
+        return openResource(resourcePath, new LoadContext());
+    }
+
+    /**
+     * Open a resource for streaming, with the lines processed as they are read
+     * @param resourcePath the path to the resource
+     * @param context the context of the load, which is also used for the imports
+     * @return a reader of the processed resource, which the caller must close
+     */
+    public static InterpolatingReader openResource(String resourcePath, LoadContext context) {
+        return new InterpolatingReader(openRawResource(resourcePath, context), context,
+            path -> openResource(path, context));
+    }
+
+    /**
+     * Read a resource and its imports as separate fragments, interpolating placeholders, rather than splicing
+     * the imports into the text
+     * @param resourcePath the path to the resource
+     * @param context the context of the load, which is also used for the imports
+     * @return the fragment of the resource, with the fragments of its imports
+     */
+    public static Fragment readFragment(String resourcePath, LoadContext context) {
+        return Fragment.read("classpath:" + resourcePath, LineSource.of(openRawResource(resourcePath, context)),
+            context, path -> Collections.singletonList(readFragment(path, context)));
+    }
+
+    static BufferedReader openRawResource(String resourcePath, LoadContext context) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (context.getFragmentCache() != null) {
+            return new BufferedReader(new StringReader(
+                context.getFragmentCache().readResource(classLoader, resourcePath)));
+        }
+
+        InputStream stream = classLoader.getResourceAsStream(resourcePath);
+        if (stream == null) {
+            throw new ConfigLoaderException("Cannot read stream: " + resourcePath);
+        }
+        if (context.getRecorder() != null) {
+            stream = new CountingInputStream(stream, context.getRecorder());
+        }
+        return new BufferedReader(new InputStreamReader(stream, UTF_8));
+    }
+}
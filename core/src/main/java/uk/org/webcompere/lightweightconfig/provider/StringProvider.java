@@ -22,4 +22,17 @@ public class StringProvider {
             .map(PlaceholderParser::applyPlaceholders)
             .collect(Collectors.joining(LINE_DELIMITER));
     }
+
+    /**
+     * Apply the placeholder logic to a string, with the placeholder values of a load
+     * Note: doesn't support <code>#import</code>
+     * @param string the string to convert
+     * @param context the context of the load
+     * @return a placeholder interpolated string
+     */
+    public static String fromString(String string, LoadContext context) {
+        return Arrays.stream(string.split(LINE_DELIMITER))
+            .map(line -> PlaceholderParser.applyPlaceholders(line, context.getResolver()))
+            .collect(Collectors.joining(LINE_DELIMITER));
+    }
 }
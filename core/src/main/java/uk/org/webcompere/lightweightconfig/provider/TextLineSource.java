@@ -0,0 +1,88 @@
+package uk.org.webcompere.lightweightconfig.provider;
+
+/**
+ * The lines of a source which is already in memory - e.g. from the {@link FragmentCache} or read ahead by the
+ * import executor. As with {@link FileChannelLineSource}, runs of lines with neither <code>${</code> nor
+ * <code>#import</code> are returned as a single literal piece of text, up to
+ * {@link FileChannelLineSource#MAXIMUM_RUN_BYTES} characters at a time. Lines are split at <code>\n</code>,
+ * <code>\r</code> or <code>\r\n</code>, as with {@link java.io.BufferedReader#readLine()}.
+ */
+class TextLineSource implements LineSource {
+    private static final String IMPORT_PREFIX = "#import";
+
+    private final String text;
+    private int position;
+    private boolean literal;
+    private boolean lineIsLiteral;
+
+    /**
+     * Construct over some text
+     * @param text the whole content of the source
+     */
+    TextLineSource(String text) {
+        this.text = text;
+    }
+
+    @Override
+    public String readLines() {
+        int limit = text.length();
+        if (position >= limit) {
+            return null;
+        }
+
+        int start = position;
+        int end = scanLine(start);
+        literal = lineIsLiteral;
+        position = skipLineEnd(end);
+
+        // a run only continues over plain \n line ends, so that its internal delimiters need no conversion
+        while (literal && end < limit && text.charAt(end) == '\n' && position < limit) {
+            int nextEnd = scanLine(position);
+            if (nextEnd - start > FileChannelLineSource.MAXIMUM_RUN_BYTES || !lineIsLiteral) {
+                break;
+            }
+            end = nextEnd;
+            position = skipLineEnd(end);
+        }
+
+        return text.substring(start, end);
+    }
+
+    @Override
+    public boolean isLiteral() {
+        return literal;
+    }
+
+    @Override
+    public void close() {
+        // nothing to release
+    }
+
+    private int scanLine(int start) {
+        int limit = text.length();
+        boolean placeholder = false;
+        int i = start;
+        for (; i < limit; i++) {
+            char next = text.charAt(i);
+            if (next == '\n' || next == '\r') {
+                break;
+            }
+            if (next == '{' && i > start && text.charAt(i - 1) == '$') {
+                placeholder = true;
+            }
+        }
+        lineIsLiteral = !placeholder && !text.startsWith(IMPORT_PREFIX, start);
+        return i;
+    }
+
+    private int skipLineEnd(int end) {
+        int limit = text.length();
+        if (end < limit && text.charAt(end) == '\r') {
+            end++;
+        }
+        if (end < limit && text.charAt(end) == '\n') {
+            return end + 1;
+        }
+        return end;
+    }
+}
@@ -92,4 +92,54 @@ class PlaceholderParserTest {
         assertThat(applyPlaceholders("I have ${foo} foos and ${bar} bars"))
             .isEqualTo("I have 123 foos and 345 bars");
     }
+
+    @Test
+    void lineWithNoPlaceholdersIsReturnedAsIs() {
+        String line = "no placeholders at $ all";
+        assertThat(applyPlaceholders(line))
+            .isSameAs(line);
+    }
+
+    @Test
+    void unterminatedPlaceholderIsLeftAlone() {
+        assertThat(applyPlaceholders("This is ${foo"))
+            .isEqualTo("This is ${foo");
+    }
+
+    @Test
+    void placeholderWithInvalidNameIsLeftAlone() {
+        assertThat(applyPlaceholders("This is ${foo bar}"))
+            .isEqualTo("This is ${foo bar}");
+    }
+
+    @Test
+    void nestedDefaultIsUsedWhenNeitherPlaceholderProvided() {
+        assertThat(applyPlaceholders("This is ${A:-${B:-x}}!"))
+            .isEqualTo("This is x!");
+    }
+
+    @Test
+    void nestedDefaultIsResolvedFromPlaceholder(SystemProperties properties) {
+        properties.set("B", "bee");
+
+        assertThat(applyPlaceholders("This is ${A:-${B:-x}-default}!"))
+            .isEqualTo("This is bee-default!");
+    }
+
+    @Test
+    void nestedDefaultIsNotNeededWhenOuterPlaceholderProvided(SystemProperties properties) {
+        properties.set("A", "a")
+            .set("B", "bee");
+
+        assertThat(applyPlaceholders("This is ${A:-${B:-x}}!"))
+            .isEqualTo("This is a!");
+    }
+
+    @Test
+    void resolvedValueIsNotInterpolatedAgain(SystemProperties properties) {
+        properties.set("foo", "${bar:-oops}");
+
+        assertThat(applyPlaceholders("This is ${foo}"))
+            .isEqualTo("This is ${bar:-oops}");
+    }
 }
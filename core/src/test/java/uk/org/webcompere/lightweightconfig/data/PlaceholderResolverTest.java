@@ -0,0 +1,109 @@
+package uk.org.webcompere.lightweightconfig.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+import uk.org.webcompere.systemstubs.properties.SystemProperties;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.org.webcompere.lightweightconfig.data.PlaceholderParser.applyPlaceholders;
+
+@ExtendWith(SystemStubsExtension.class)
+class PlaceholderResolverTest {
+
+    @Test
+    void defaultSourcesPreferEnvironmentToSystemProperties(SystemProperties properties,
+                                                           EnvironmentVariables environmentVariables) {
+        environmentVariables.set("FOO", "env");
+        properties.set("FOO", "system")
+            .set("BAR", "system");
+
+        PlaceholderResolver resolver = PlaceholderResolver.snapshot();
+        assertThat(resolver.resolve("FOO")).isEqualTo("env");
+        assertThat(resolver.resolve("BAR")).isEqualTo("system");
+        assertThat(resolver.resolve("BAZ")).isNull();
+    }
+
+    @Test
+    void sourcesAreConsultedInOrder() {
+        PlaceholderResolver resolver = PlaceholderResolver.snapshot(Arrays.asList(
+            PlaceholderSource.fromMap(singletonMap("a", "first")),
+            PlaceholderSource.fromMap(singletonMap("a", "second")),
+            PlaceholderSource.fromMap(singletonMap("b", "second"))));
+
+        assertThat(resolver.resolve("a")).isEqualTo("first");
+        assertThat(resolver.resolve("b")).isEqualTo("second");
+    }
+
+    @Test
+    void snapshotIsUnaffectedByLaterChanges(SystemProperties properties) {
+        Map<String, String> values = new HashMap<>();
+        values.put("a", "before");
+        properties.set("b", "before");
+
+        PlaceholderResolver resolver = PlaceholderResolver.snapshot(Arrays.asList(
+            PlaceholderSource.fromMap(values),
+            PlaceholderSource.systemProperties()));
+
+        values.put("a", "after");
+        properties.set("b", "after");
+
+        assertThat(resolver.resolve("a")).isEqualTo("before");
+        assertThat(resolver.resolve("b")).isEqualTo("before");
+    }
+
+    @Test
+    void eachNameIsLookedUpOncePerResolver() {
+        AtomicInteger lookups = new AtomicInteger();
+        PlaceholderSource source = PlaceholderSource.fromLookup(name -> {
+            lookups.incrementAndGet();
+            return "a".equals(name) ? "value" : null;
+        });
+
+        PlaceholderResolver resolver = PlaceholderResolver.snapshot(singletonList(source));
+        assertThat(applyPlaceholders("${a} ${a} ${b} ${b:-default}", resolver))
+            .isEqualTo("value value  default");
+        assertThat(lookups).hasValue(2);
+
+        PlaceholderResolver.snapshot(singletonList(source)).resolve("a");
+        assertThat(lookups).hasValue(3);
+    }
+
+    @Test
+    void snapshotRemembersTheValuesItResolved() {
+        PlaceholderResolver resolver = PlaceholderResolver.snapshot(
+            singletonList(PlaceholderSource.fromMap(singletonMap("a", "value"))));
+        resolver.resolve("a");
+        resolver.resolve("b");
+
+        Map<String, String> expected = new HashMap<>();
+        expected.put("a", "value");
+        expected.put("b", null);
+        assertThat(resolver.getResolvedValues()).isEqualTo(expected);
+    }
+
+    @Test
+    void liveResolverRemembersNothing() {
+        PlaceholderResolver resolver = PlaceholderResolver.live();
+        resolver.resolve("a");
+
+        assertThat(resolver.getResolvedValues()).isEmpty();
+    }
+
+    @Test
+    void liveResolverSeesChanges(SystemProperties properties) {
+        properties.set("a", "before");
+        assertThat(PlaceholderResolver.live().resolve("a")).isEqualTo("before");
+
+        properties.set("a", "after");
+        assertThat(PlaceholderResolver.live().resolve("a")).isEqualTo("after");
+    }
+}
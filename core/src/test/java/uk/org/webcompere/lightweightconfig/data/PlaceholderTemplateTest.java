@@ -0,0 +1,70 @@
+package uk.org.webcompere.lightweightconfig.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlaceholderTemplateTest {
+    private Map<String, String> values = new HashMap<>();
+
+    @Test
+    void lineWithoutPlaceholdersIsLiteral() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("foo: $bar");
+        assertThat(template.isLiteral()).isTrue();
+        assertThat(render(template)).isEqualTo("foo: $bar");
+    }
+
+    @Test
+    void escapedPlaceholderIsLiteral() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("foo: ${}{bar}");
+        assertThat(template.isLiteral()).isTrue();
+        assertThat(render(template)).isEqualTo("foo: ${bar}");
+    }
+
+    @Test
+    void placeholdersAreRenderedWithCurrentValues() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("I have ${foo} foos and ${bar:-no} bars");
+        assertThat(template.isLiteral()).isFalse();
+
+        values.put("foo", "123");
+        assertThat(render(template)).isEqualTo("I have 123 foos and no bars");
+
+        values.put("bar", "345");
+        assertThat(render(template)).isEqualTo("I have 123 foos and 345 bars");
+    }
+
+    @Test
+    void nestedDefaultsAreRendered() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("${A:-${B:-x}}!");
+        assertThat(render(template)).isEqualTo("x!");
+
+        values.put("B", "bee");
+        assertThat(render(template)).isEqualTo("bee!");
+    }
+
+    @Test
+    void rendersTheSameAsThePlaceholderParser() {
+        values.put("foo", "FOO");
+        String[] lines = {"", "$", "${", "${}", "${foo", "${foo:-d}", "${bar:d}", "${b ar}", "${bar:-a}b}",
+            "$${foo}", "${:-x}", "x$y${foo}$", "${bar:-{x}}", "${foo}}", "${bar:-$}"};
+
+        PlaceholderResolver resolver = resolver();
+        for (String line : lines) {
+            assertThat(PlaceholderTemplate.compile(line).render(resolver))
+                .describedAs(line)
+                .isEqualTo(PlaceholderParser.applyPlaceholders(line, resolver));
+        }
+    }
+
+    private String render(PlaceholderTemplate template) {
+        return template.render(resolver());
+    }
+
+    private PlaceholderResolver resolver() {
+        return PlaceholderResolver.snapshot(singletonList(PlaceholderSource.fromMap(values)));
+    }
+}
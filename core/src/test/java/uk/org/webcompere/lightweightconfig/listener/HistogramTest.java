@@ -0,0 +1,77 @@
+package uk.org.webcompere.lightweightconfig.listener;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HistogramTest {
+    private Histogram histogram = new Histogram();
+
+    @Test
+    void emptyHistogram() {
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getMean()).isZero();
+        assertThat(histogram.getPercentile(99)).isZero();
+    }
+
+    @Test
+    void countsSumAndMax() {
+        histogram.record(10);
+        histogram.record(30);
+
+        assertThat(histogram.getCount()).isEqualTo(2);
+        assertThat(histogram.getSum()).isEqualTo(40);
+        assertThat(histogram.getMax()).isEqualTo(30);
+        assertThat(histogram.getMean()).isEqualTo(20.0);
+    }
+
+    @Test
+    void valuesGoInPowerOfTwoBuckets() {
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(2);
+        histogram.record(3);
+        histogram.record(4);
+
+        long[] counts = histogram.getBucketCounts();
+        assertThat(counts[0]).isEqualTo(1);
+        assertThat(counts[1]).isEqualTo(1);
+        assertThat(counts[2]).isEqualTo(2);
+        assertThat(counts[3]).isEqualTo(1);
+    }
+
+    @Test
+    void bucketUpperBounds() {
+        assertThat(Histogram.getBucketUpperBound(0)).isZero();
+        assertThat(Histogram.getBucketUpperBound(3)).isEqualTo(7);
+        assertThat(Histogram.getBucketUpperBound(Histogram.BUCKETS - 1)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void percentileIsUpperBoundOfItsBucket() {
+        for (int i = 0; i < 90; i++) {
+            histogram.record(5);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(1000);
+        }
+
+        assertThat(histogram.getPercentile(50)).isEqualTo(7);
+        assertThat(histogram.getPercentile(95)).isEqualTo(1000);
+    }
+
+    @Test
+    void negativeValuesAreRecordedAsZero() {
+        histogram.record(-5);
+
+        assertThat(histogram.getBucketCounts()[0]).isEqualTo(1);
+        assertThat(histogram.getSum()).isZero();
+    }
+
+    @Test
+    void hugeValuesGoInLastBucket() {
+        histogram.record(Long.MAX_VALUE);
+
+        assertThat(histogram.getBucketCounts()[Histogram.BUCKETS - 1]).isEqualTo(1);
+    }
+}
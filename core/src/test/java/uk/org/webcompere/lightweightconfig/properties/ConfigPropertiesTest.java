@@ -0,0 +1,132 @@
+package uk.org.webcompere.lightweightconfig.properties;
+
+import org.junit.jupiter.api.Test;
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConfigPropertiesTest {
+
+    @Test
+    void emptyPropertiesHaveNoValues() {
+        ConfigProperties properties = ConfigProperties.from(emptyMap());
+
+        assertThat(properties.isEmpty()).isTrue();
+        assertThat(properties.getProperty("any")).isNull();
+        assertThat(properties.getProperty("any", "default")).isEqualTo("default");
+    }
+
+    @Test
+    void everyKeyCanBeFound() {
+        Properties source = new Properties();
+        for (int i = 0; i < 1000; i++) {
+            source.setProperty("server" + i, String.valueOf(i));
+        }
+
+        ConfigProperties properties = ConfigProperties.from(source);
+
+        assertThat(properties.size()).isEqualTo(1000);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(properties.getInt("server" + i)).isEqualTo(i);
+        }
+        assertThat(properties.containsKey("server1000")).isFalse();
+    }
+
+    @Test
+    void keysWithTheSameHashCodeAreKeptApart() {
+        Map<String, String> source = new HashMap<>();
+        source.put("Aa", "first");
+        source.put("BB", "second");
+
+        ConfigProperties properties = ConfigProperties.from(source);
+
+        assertThat(properties.getProperty("Aa")).isEqualTo("first");
+        assertThat(properties.getProperty("BB")).isEqualTo("second");
+    }
+
+    @Test
+    void nullsAreLeftOut() {
+        Map<String, String> source = new HashMap<>();
+        source.put("a", null);
+        source.put(null, "b");
+        source.put("c", "d");
+
+        assertThat(ConfigProperties.from(source).stringPropertyNames()).containsExactly("c");
+    }
+
+    @Test
+    void typedValuesAreParsed() {
+        Map<String, String> source = new HashMap<>();
+        source.put("int", " 12");
+        source.put("long", "5000000000");
+        source.put("double", "1.5");
+        source.put("boolean", "TRUE");
+
+        ConfigProperties properties = ConfigProperties.from(source);
+
+        assertThat(properties.getInt("int")).isEqualTo(12);
+        assertThat(properties.getLong("long")).isEqualTo(5_000_000_000L);
+        assertThat(properties.getDouble("double")).isEqualTo(1.5);
+        assertThat(properties.getBoolean("boolean")).isTrue();
+    }
+
+    @Test
+    void defaultsApplyToMissingValues() {
+        ConfigProperties properties = ConfigProperties.from(emptyMap());
+
+        assertThat(properties.getInt("int", 1)).isEqualTo(1);
+        assertThat(properties.getLong("long", 2L)).isEqualTo(2L);
+        assertThat(properties.getDouble("double", 3.5)).isEqualTo(3.5);
+        assertThat(properties.getBoolean("boolean", true)).isTrue();
+    }
+
+    @Test
+    void missingRequiredValueIsAnError() {
+        assertThatThrownBy(() -> ConfigProperties.from(emptyMap()).getInt("port"))
+            .isInstanceOf(ConfigLoaderException.class)
+            .hasMessage("No property port");
+    }
+
+    @Test
+    void valueOfTheWrongTypeIsAnError() {
+        ConfigProperties properties = ConfigProperties.from(singletonMap("port", "eighty"));
+
+        assertThatThrownBy(() -> properties.getInt("port", 80))
+            .isInstanceOf(ConfigLoaderException.class)
+            .hasMessage("Cannot convert eighty to int at port");
+        assertThatThrownBy(() -> properties.getBoolean("port"))
+            .isInstanceOf(ConfigLoaderException.class);
+    }
+
+    @Test
+    void canConvertToProperties() {
+        Properties source = new Properties();
+        source.setProperty("a", "1");
+        source.setProperty("b", "2");
+
+        Properties copy = ConfigProperties.from(source).toProperties();
+        copy.setProperty("c", "3");
+
+        assertThat(copy).containsEntry("a", "1").containsEntry("b", "2").containsEntry("c", "3");
+    }
+
+    @Test
+    void equalPropertiesAreEqual() {
+        Map<String, String> source = new HashMap<>();
+        source.put("a", "1");
+        source.put("b", "2");
+
+        assertThat(ConfigProperties.from(source))
+            .isEqualTo(ConfigProperties.from(source))
+            .hasSameHashCodeAs(ConfigProperties.from(source))
+            .isNotEqualTo(ConfigProperties.from(singletonMap("a", "1")));
+        assertThat(ConfigProperties.from(singletonMap("a", "1"))).hasToString("{a=1}");
+    }
+}
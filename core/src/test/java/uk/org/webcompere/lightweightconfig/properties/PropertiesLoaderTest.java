@@ -2,12 +2,14 @@ package uk.org.webcompere.lightweightconfig.properties;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import uk.org.webcompere.lightweightconfig.ConfigLoader;
 import uk.org.webcompere.systemstubs.environment.EnvironmentVariables;
 import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
 
 import java.nio.file.Paths;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -16,7 +18,7 @@ class PropertiesLoaderTest {
 
     @Test
     void canLoadUninterpolatedPropertiesFile() {
-        Properties properties = ConfigLoader.loadPropertiesFromResource("examples/no-interpolation.properties");
+        Properties properties = PropertiesLoader.load("examples/no-interpolation.properties");
         assertThat(properties.get("color"))
             .isEqualTo("red");
         assertThat(properties.get("age"))
@@ -27,7 +29,7 @@ class PropertiesLoaderTest {
 
     @Test
     void importingPropertiesLoadsTwoFiles() {
-        Properties properties = ConfigLoader.loadPropertiesFromResource("examples/importing.properties");
+        Properties properties = PropertiesLoader.load("examples/importing.properties");
         assertThat(properties.get("color"))
             .isEqualTo("red");
         assertThat(properties.get("age"))
@@ -41,7 +43,7 @@ class PropertiesLoaderTest {
     @Test
     void canLoadInterpolatingProperties(EnvironmentVariables variables) {
         variables.set("PLAYER_COUNT", "13");
-        Properties properties = ConfigLoader.loadPropertiesFromResource("examples/interpolation.properties");
+        Properties properties = PropertiesLoader.load("examples/interpolation.properties");
         assertThat(properties.get("score"))
             .isEqualTo("0");
         assertThat(properties.get("player.count"))
@@ -54,7 +56,7 @@ class PropertiesLoaderTest {
     void canLoadInterpolatingPropertiesByFile(EnvironmentVariables variables) {
         variables.set("PLAYER_COUNT", "15")
             .set("SCORE", "1-1");
-        Properties properties = ConfigLoader.loadProperties(Paths.get("src", "test", "resources",
+        Properties properties = PropertiesLoader.load(Paths.get("src", "test", "resources",
             "examples", "interpolation.properties"));
         assertThat(properties.get("score"))
             .isEqualTo("1-1");
@@ -66,7 +68,7 @@ class PropertiesLoaderTest {
 
     @Test
     void importingPropertiesLoadsTwoFilesByRelativePath() {
-        Properties properties = ConfigLoader.loadProperties(Paths.get("src", "test", "resources",
+        Properties properties = PropertiesLoader.load(Paths.get("src", "test", "resources",
             "examples", "importing-by-file.properties"));
         assertThat(properties.get("color"))
             .isEqualTo("red");
@@ -77,4 +79,33 @@ class PropertiesLoaderTest {
         assertThat(properties.get("excellence.ratio"))
             .isEqualTo("1.0");
     }
+
+    @Test
+    void canLoadImmutablePropertiesWithImports() {
+        ConfigProperties properties = PropertiesLoader.loadConfigProperties(Paths.get("src", "test", "resources",
+            "examples", "importing-by-file.properties"));
+        assertThat(properties.getProperty("color"))
+            .isEqualTo("red");
+        assertThat(properties.getInt("age"))
+            .isEqualTo(32);
+        assertThat(properties.getDouble("excellence.ratio"))
+            .isEqualTo(1.0);
+        assertThat(PropertiesLoader.loadConfigProperties("examples/importing.properties"))
+            .isEqualTo(properties);
+    }
+
+    @Test
+    void canLoadPropertiesAsynchronously() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Properties properties = PropertiesLoader.loadAsync("examples/importing.properties", executor)
+                .get(5, TimeUnit.SECONDS);
+            assertThat(properties.get("color"))
+                .isEqualTo("red");
+            assertThat(properties.get("excellence.ratio"))
+                .isEqualTo("1.0");
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
@@ -0,0 +1,47 @@
+package uk.org.webcompere.lightweightconfig.properties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Loads properties with only the core classes on the class path, so that loading properties never comes to
+ * need SnakeYAML
+ */
+class PropertiesWithoutYamlTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void propertiesAreLoadedWithoutYaml() throws Exception {
+        Files.write(tempDir.resolve("common.properties"), "region=eu-west-1\n".getBytes(UTF_8));
+        Path file = Files.write(tempDir.resolve("sidecar.properties"),
+            "#import common.properties\nname=${LIGHTWEIGHT_CONFIG_UNSET:-sidecar}\n".getBytes(UTF_8));
+
+        try (URLClassLoader withoutYaml = coreOnly()) {
+            assertThatThrownBy(() -> withoutYaml.loadClass("org.yaml.snakeyaml.Yaml"))
+                .isInstanceOf(ClassNotFoundException.class);
+
+            Properties properties = (Properties) withoutYaml.loadClass(PropertiesLoader.class.getName())
+                .getMethod("load", Path.class)
+                .invoke(null, file);
+            assertThat(properties.getProperty("name")).isEqualTo("sidecar");
+            assertThat(properties.getProperty("region")).isEqualTo("eu-west-1");
+        }
+    }
+
+    private static URLClassLoader coreOnly() {
+        URL classes = ConfigLoaderException.class.getProtectionDomain().getCodeSource().getLocation();
+        return new URLClassLoader(new URL[] {classes}, null);
+    }
+}
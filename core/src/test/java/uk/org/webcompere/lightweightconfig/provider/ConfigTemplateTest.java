@@ -0,0 +1,107 @@
+package uk.org.webcompere.lightweightconfig.provider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.org.webcompere.lightweightconfig.data.PlaceholderResolver;
+import uk.org.webcompere.lightweightconfig.data.PlaceholderSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.org.webcompere.lightweightconfig.TestFiles.write;
+
+class ConfigTemplateTest {
+    @TempDir
+    Path tempDir;
+
+    private Map<String, String> values = new HashMap<>();
+
+    @Test
+    void renderingMatchesReadingTheResource() {
+        values.put("foo", "one");
+        values.put("profile", "PlaceholderReplace.txt");
+
+        for (String resource : new String[] {"PlaceholderReplace.txt", "FileWithHardcodedImport.txt",
+            "FileWithSymbolicImport.txt", "EscapedPlaceholder.txt", "examples/importing.properties"}) {
+            assertThat(ConfigTemplate.compileResource(resource, new LoadContext()).render(resolver()))
+                .describedAs(resource)
+                .isEqualTo(ResourceProvider.readAndProcessResource(resource, new LoadContext(resolver())));
+        }
+    }
+
+    @Test
+    void templateRendersNewValuesEachTime() {
+        ConfigTemplate template = ConfigTemplate.compileResource("PlaceholderReplace.txt", new LoadContext());
+
+        values.put("foo", "one");
+        assertThat(template.render(resolver())).isEqualTo("Foo: one\nBar: \nDefault: default");
+
+        values.put("BAR", "two");
+        values.put("something", "else");
+        assertThat(template.render(resolver())).isEqualTo("Foo: one\nBar: two\nDefault: else");
+    }
+
+    @Test
+    void fixedImportsAreNotReadWhenRendering() throws IOException {
+        Path common = write(tempDir, "common.yml", "name: ${name}");
+        Path config = write(tempDir, "config.yml", "#import common.yml\nage: 42");
+
+        ConfigTemplate template = ConfigTemplate.compileFile(config, new LoadContext());
+        Files.delete(common);
+        Files.delete(config);
+
+        values.put("name", "Bill");
+        assertThat(template.render(resolver())).isEqualTo("name: Bill\nage: 42");
+    }
+
+    @Test
+    void placeholderImportsAreReadOncePerPath() throws IOException {
+        Path dev = write(tempDir, "dev.yml", "url: dev");
+        write(tempDir, "prod.yml", "url: prod");
+        Path config = write(tempDir, "config.yml", "#import ${PROFILE}.yml");
+
+        ConfigTemplate template = ConfigTemplate.compileFile(config, new LoadContext());
+
+        values.put("PROFILE", "dev");
+        assertThat(template.render(resolver())).isEqualTo("url: dev");
+
+        values.put("PROFILE", "prod");
+        assertThat(template.render(resolver())).isEqualTo("url: prod");
+
+        Files.delete(dev);
+        values.put("PROFILE", "dev");
+        assertThat(template.render(resolver())).isEqualTo("url: dev");
+    }
+
+    @Test
+    void onlyRecentlyRenderedImportPathsAreKept() throws IOException {
+        int paths = ConfigTemplate.MAXIMUM_IMPORTS_PER_LINE + 1;
+        for (int i = 0; i < paths; i++) {
+            write(tempDir, "import" + i + ".yml", "index: " + i);
+        }
+        Path config = write(tempDir, "config.yml", "#import import${INDEX}.yml");
+        ConfigTemplate template = ConfigTemplate.compileFile(config, new LoadContext());
+
+        for (int i = 0; i < paths; i++) {
+            values.put("INDEX", Integer.toString(i));
+            template.render(resolver());
+        }
+        write(tempDir, "import0.yml", "index: edited");
+        write(tempDir, "import" + (paths - 1) + ".yml", "index: edited");
+
+        values.put("INDEX", "0");
+        assertThat(template.render(resolver())).isEqualTo("index: edited");
+
+        values.put("INDEX", Integer.toString(paths - 1));
+        assertThat(template.render(resolver())).isEqualTo("index: " + (paths - 1));
+    }
+
+    private PlaceholderResolver resolver() {
+        return PlaceholderResolver.snapshot(singletonList(PlaceholderSource.fromMap(values)));
+    }
+}
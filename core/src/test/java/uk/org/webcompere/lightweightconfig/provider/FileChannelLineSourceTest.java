@@ -0,0 +1,156 @@
+package uk.org.webcompere.lightweightconfig.provider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+import uk.org.webcompere.systemstubs.properties.SystemProperties;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(SystemStubsExtension.class)
+class FileChannelLineSourceTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void literalLinesAreReadAsOneRun() throws IOException {
+        FileChannelLineSource source = sourceOf("a: 1\nb: 2\nc: $3\n");
+
+        assertThat(source.readLines()).isEqualTo("a: 1\nb: 2\nc: $3");
+        assertThat(source.isLiteral()).isTrue();
+        assertThat(source.readLines()).isNull();
+    }
+
+    @Test
+    void placeholderLineIsReadOnItsOwn() throws IOException {
+        FileChannelLineSource source = sourceOf("a: 1\nb: ${b}\nc: 3");
+
+        assertThat(readAll(source)).containsExactly("a: 1", "!b: ${b}", "c: 3");
+    }
+
+    @Test
+    void importLineIsReadOnItsOwn() throws IOException {
+        FileChannelLineSource source = sourceOf("a: 1\n#import other.yml\nc: 3");
+
+        assertThat(readAll(source)).containsExactly("a: 1", "!#import other.yml", "c: 3");
+    }
+
+    @Test
+    void carriageReturnsEndRuns() throws IOException {
+        FileChannelLineSource source = sourceOf("a: 1\r\nb: 2\rc: 3\n\nd: 4");
+
+        assertThat(readAll(source)).containsExactly("a: 1", "b: 2", "c: 3\n\nd: 4");
+    }
+
+    @Test
+    void runsAreLimitedInSize() throws IOException {
+        StringBuilder content = new StringBuilder();
+        while (content.length() < FileChannelLineSource.MAXIMUM_RUN_BYTES * 2) {
+            content.append("key: value\n");
+        }
+
+        List<String> runs = readAll(sourceOf(content.toString()));
+
+        assertThat(runs).hasSizeGreaterThan(1);
+        assertThat(String.join("\n", runs)).isEqualTo(content.substring(0, content.length() - 1));
+    }
+
+    @Test
+    void multiByteCharactersAreDecoded() throws IOException {
+        assertThat(sourceOf("name: caf\u00e9").readLines()).isEqualTo("name: caf\u00e9");
+    }
+
+    @Test
+    void malformedContentIsAnError() {
+        FileChannelLineSource source = new FileChannelLineSource(ByteBuffer.wrap(new byte[] {'a', (byte) 0xff}));
+
+        assertThatThrownBy(source::readLines)
+            .isInstanceOf(CharacterCodingException.class);
+    }
+
+    @Test
+    void readsSameAsLineByLine(SystemProperties properties) throws IOException {
+        properties.set("name", "Bill");
+        String content = "first: 1\r\n\nname: ${name}\n#importish: true\ncost: $5\rlast: ${missing:-x}\n";
+
+        try (InterpolatingReader fast = new InterpolatingReader(sourceOf(content), new LoadContext(), path -> null);
+             InterpolatingReader lineByLine = new InterpolatingReader(
+                 new BufferedReader(new StringReader(content)), path -> null)) {
+            assertThat(fast.readAll()).isEqualTo(lineByLine.readAll());
+        }
+    }
+
+    @Test
+    void largeFileIsReadThroughFileProvider(SystemProperties properties) throws IOException {
+        properties.set("name", "Bill");
+        Path file = tempDir.resolve("large.yml");
+        StringBuilder content = new StringBuilder("name: ${name}\n");
+        for (int i = 0; content.length() < FileChannelLineSource.MAPPING_THRESHOLD + 1; i++) {
+            content.append("key").append(i).append(": value\n");
+        }
+        Files.write(file, content.toString().getBytes(UTF_8));
+
+        String result = new FileProvider(file).readAndProcess();
+
+        assertThat(result).startsWith("name: Bill\nkey0: value\n");
+        assertThat(result).hasSize(content.length() - "${name}".length() + "Bill".length() - 1);
+    }
+
+    @Test
+    void largeFileIsReadOntoHeapWhenMappingIsNotAllowed() throws IOException {
+        Path file = tempDir.resolve("large.yml");
+        StringBuilder content = new StringBuilder();
+        while (content.length() < FileChannelLineSource.MAPPING_THRESHOLD + 1) {
+            content.append("key: value\n");
+        }
+        Files.write(file, content.toString().getBytes(UTF_8));
+
+        List<String> runs = readAll(FileChannelLineSource.open(file, false));
+        Files.delete(file);
+
+        assertThat(String.join("\n", runs)).isEqualTo(content.substring(0, content.length() - 1));
+    }
+
+    @Test
+    void filesAreNotMappedOnWindows() {
+        assertThat(FileChannelLineSource.isMappingAllowed("Windows 10")).isFalse();
+        assertThat(FileChannelLineSource.isMappingAllowed("Linux")).isTrue();
+        assertThat(FileChannelLineSource.isMappingAllowed("Mac OS X")).isTrue();
+    }
+
+    @Test
+    void suitability() {
+        assertThat(FileChannelLineSource.isSuitable(100)).isFalse();
+        assertThat(FileChannelLineSource.isSuitable(FileChannelLineSource.MINIMUM_FILE_SIZE)).isTrue();
+        assertThat(FileChannelLineSource.isSuitable(Integer.MAX_VALUE + 1L)).isFalse();
+    }
+
+    private static FileChannelLineSource sourceOf(String content) {
+        return new FileChannelLineSource(ByteBuffer.wrap(content.getBytes(UTF_8)));
+    }
+
+    /**
+     * Read all the text, marking the non-literal lines with <code>!</code>
+     */
+    private static List<String> readAll(FileChannelLineSource source) throws IOException {
+        List<String> result = new ArrayList<>();
+        String text;
+        while ((text = source.readLines()) != null) {
+            result.add(source.isLiteral() ? text : "!" + text);
+        }
+        return result;
+    }
+}
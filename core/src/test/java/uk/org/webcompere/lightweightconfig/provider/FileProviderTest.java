@@ -0,0 +1,160 @@
+package uk.org.webcompere.lightweightconfig.provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.org.webcompere.lightweightconfig.TestFiles.write;
+
+class FileProviderTest {
+    @TempDir
+    Path tempDir;
+
+    private Path mainFile;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        mainFile = tempDir.resolve("main.yml");
+        write(mainFile, "first: 1\n#import conf.d/*.yml\nlast: 2");
+
+        Files.createDirectories(tempDir.resolve("conf.d"));
+        write(tempDir.resolve("conf.d/b.yml"), "b: 1\n#import ../shared/b.yml");
+        write(tempDir.resolve("conf.d/a.yml"), "a: 1");
+        write(tempDir.resolve("conf.d/c.txt"), "c: 1");
+
+        Files.createDirectories(tempDir.resolve("shared"));
+        write(tempDir.resolve("shared/b.yml"), "sharedB: 1");
+    }
+
+    @Test
+    void globImportsMatchingFilesInOrder() {
+        assertThat(new FileProvider(mainFile).readAndProcess())
+            .isEqualTo("first: 1\na: 1\nb: 1\nsharedB: 1\nlast: 2");
+    }
+
+    @Test
+    void globWithNoMatchesImportsNothing() throws IOException {
+        write(mainFile, "first: 1\n#import conf.d/*.json\nlast: 2");
+
+        assertThat(new FileProvider(mainFile).readAndProcess())
+            .isEqualTo("first: 1\nlast: 2");
+    }
+
+    @Test
+    void globInMissingDirectoryImportsNothing() throws IOException {
+        write(mainFile, "first: 1\n#import missing/*.yml");
+
+        assertThat(new FileProvider(mainFile).readAndProcess())
+            .isEqualTo("first: 1");
+    }
+
+    @Test
+    void globDirectoryIsRecordedEvenWhenNothingMatches() throws IOException {
+        write(mainFile, "first: 1\n#import conf.d/*.json\n#import missing/*.yml");
+        LoadContext context = new LoadContext();
+        new FileProvider(mainFile, context).readAndProcess();
+
+        assertThat(context.getGlobs())
+            .containsEntry(tempDir.resolve("conf.d").toAbsolutePath(), Collections.singleton("*.json"))
+            .containsEntry(tempDir.resolve("missing").toAbsolutePath(), Collections.singleton("*.yml"));
+    }
+
+    @Test
+    void globImportsAreRecordedAsFiles() {
+        LoadContext context = new LoadContext();
+        new FileProvider(mainFile, context).readAndProcess();
+
+        assertThat(context.getFiles())
+            .containsExactlyInAnyOrder(mainFile,
+                tempDir.resolve("conf.d/a.yml"),
+                tempDir.resolve("conf.d/b.yml"),
+                tempDir.resolve("shared/b.yml"));
+    }
+
+    @Test
+    void concurrentImportsGiveSameResultAsSequential() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            LoadContext context = new LoadContext().withImportExecutor(executor);
+
+            assertThat(new FileProvider(mainFile, context).readAndProcess())
+                .isEqualTo(new FileProvider(mainFile).readAndProcess());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void concurrentImportsWithDefaultExecutor() {
+        LoadContext context = new LoadContext().withImportExecutor(ImportExecutors.defaultExecutor());
+
+        assertThat(new FileProvider(mainFile, context).readAndProcess())
+            .isEqualTo("first: 1\na: 1\nb: 1\nsharedB: 1\nlast: 2");
+    }
+
+    @Test
+    void missingImportIsAnErrorWhenReadConcurrently() throws IOException {
+        write(mainFile, "first: 1\n#import missing.yml");
+        LoadContext context = new LoadContext().withImportExecutor(ImportExecutors.defaultExecutor());
+
+        assertThatThrownBy(() -> new FileProvider(mainFile, context).readAndProcess())
+            .isInstanceOf(ConfigLoaderException.class);
+    }
+
+    @Test
+    void importsAreReadWhenExecutorRejectsThem() {
+        AtomicInteger accepted = new AtomicInteger();
+        Executor firstTaskOnly = task -> {
+            if (accepted.getAndIncrement() > 0) {
+                throw new RejectedExecutionException("saturated");
+            }
+            new Thread(task).start();
+        };
+        LoadContext context = new LoadContext().withImportExecutor(firstTaskOnly);
+
+        assertThat(new FileProvider(mainFile, context).readAndProcess())
+            .isEqualTo("first: 1\na: 1\nb: 1\nsharedB: 1\nlast: 2");
+    }
+
+    @Test
+    void importsAreReadWhenExecutorIsShutDown() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        LoadContext context = new LoadContext().withImportExecutor(executor);
+
+        assertThat(new FileProvider(mainFile, context).readAndProcess())
+            .isEqualTo("first: 1\na: 1\nb: 1\nsharedB: 1\nlast: 2");
+    }
+
+    @Test
+    void errorReadingFileCompletesThePrefetch() {
+        LoadContext context = new LoadContext().withImportExecutor(Runnable::run);
+
+        CompletableFuture<String> text = context.prefetch(mainFile, () -> {
+            throw new StackOverflowError();
+        });
+
+        assertThatThrownBy(text::join)
+            .hasCauseInstanceOf(StackOverflowError.class);
+    }
+
+    @Test
+    void compiledTemplateExpandsGlob() {
+        assertThat(ConfigTemplate.compileFile(mainFile, new LoadContext()).render(new LoadContext().getResolver()))
+            .isEqualTo("first: 1\na: 1\nb: 1\nsharedB: 1\nlast: 2");
+    }
+}
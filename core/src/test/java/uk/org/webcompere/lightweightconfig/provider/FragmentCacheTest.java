@@ -0,0 +1,109 @@
+package uk.org.webcompere.lightweightconfig.provider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.org.webcompere.lightweightconfig.TestFiles.write;
+
+class FragmentCacheTest {
+    private static final ClassLoader CLASS_LOADER = FragmentCacheTest.class.getClassLoader();
+
+    @TempDir
+    Path tempDir;
+
+    private FragmentCache cache = new FragmentCache(1000);
+
+    @Test
+    void resourceIsOnlyReadOnce() {
+        assertThat(cache.readResource(CLASS_LOADER, "Example.yml")).isEqualTo("name: ${name}\nage: ${AGE}\n");
+        assertThat(cache.readResource(CLASS_LOADER, "Example.yml")).isEqualTo("name: ${name}\nage: ${AGE}\n");
+
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void missingResourceIsAnError() {
+        assertThatThrownBy(() -> cache.readResource(CLASS_LOADER, "nonexistent"))
+            .isInstanceOf(ConfigLoaderException.class);
+    }
+
+    @Test
+    void unchangedFileIsOnlyReadOnce() throws IOException {
+        Path file = write(tempDir, "config.yml", "name: Bill");
+
+        assertThat(cache.readFile(file)).isEqualTo("name: Bill");
+        assertThat(cache.readFile(file)).isEqualTo("name: Bill");
+
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void changedFileIsReadAgain() throws IOException {
+        Path file = write(tempDir, "config.yml", "name: Bill");
+        cache.readFile(file);
+
+        write(tempDir, "config.yml", "name: Audrey");
+
+        assertThat(cache.readFile(file)).isEqualTo("name: Audrey");
+        assertThat(cache.getMisses()).isEqualTo(2);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidatedFileIsReadAgain() throws IOException {
+        Path file = write(tempDir, "config.yml", "name: Bill");
+        cache.readFile(file);
+
+        cache.invalidate(file);
+        cache.readFile(file);
+
+        assertThat(cache.getMisses()).isEqualTo(2);
+        assertThat(cache.getHits()).isZero();
+    }
+
+    @Test
+    void invalidateAllEmptiesTheCache() throws IOException {
+        cache.readFile(write(tempDir, "config.yml", "name: Bill"));
+        cache.readResource(CLASS_LOADER, "Example.yml");
+
+        cache.invalidateAll();
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvictedWhenFull() throws IOException {
+        FragmentCache smallCache = new FragmentCache(20);
+        Path first = write(tempDir, "first.yml", "0123456789");
+        Path second = write(tempDir, "second.yml", "0123456789");
+        Path third = write(tempDir, "third.yml", "0123456789");
+
+        smallCache.readFile(first);
+        smallCache.readFile(second);
+        smallCache.readFile(first);
+        smallCache.readFile(third);
+
+        assertThat(smallCache.size()).isEqualTo(2);
+
+        // second was evicted, first was kept
+        smallCache.readFile(first);
+        smallCache.readFile(second);
+        assertThat(smallCache.getHits()).isEqualTo(2);
+        assertThat(smallCache.getMisses()).isEqualTo(4);
+    }
+
+    @Test
+    void fragmentLargerThanCacheIsNotCached() throws IOException {
+        FragmentCache smallCache = new FragmentCache(5);
+        assertThat(smallCache.readFile(write(tempDir, "config.yml", "name: Bill"))).isEqualTo("name: Bill");
+        assertThat(smallCache.size()).isZero();
+    }
+}
@@ -0,0 +1,86 @@
+package uk.org.webcompere.lightweightconfig.provider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+import uk.org.webcompere.systemstubs.properties.SystemProperties;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Paths;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(SystemStubsExtension.class)
+class InterpolatingReaderTest {
+
+    @Test
+    void emptySourceIsImmediatelyAtEnd() throws IOException {
+        try (InterpolatingReader reader = readerOf("")) {
+            assertThat(reader.read(new char[10], 0, 10)).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void linesAreJoinedWithoutTrailingDelimiter() throws IOException {
+        try (InterpolatingReader reader = readerOf("a\nb\r\nc\n")) {
+            assertThat(reader.readAll()).isEqualTo("a\nb\nc");
+        }
+    }
+
+    @Test
+    void placeholdersAreInterpolatedAsRead(SystemProperties properties) throws IOException {
+        properties.set("name", "Bill");
+
+        try (InterpolatingReader reader = readerOf("name: ${name}\nage: ${age:-42}")) {
+            assertThat(reader.readAll()).isEqualTo("name: Bill\nage: 42");
+        }
+    }
+
+    @Test
+    void canReadInSmallChunks(SystemProperties properties) throws IOException {
+        properties.set("foo", "one");
+
+        StringBuilder result = new StringBuilder();
+        try (InterpolatingReader reader = ResourceProvider.openResource("FileWithHardcodedImport.txt")) {
+            char[] buffer = new char[3];
+            int read;
+            while ((read = reader.read(buffer, 0, buffer.length)) != -1) {
+                result.append(buffer, 0, read);
+            }
+        }
+
+        assertThat(result.toString()).isEqualTo("Foo: one\nBar: \nDefault: default");
+    }
+
+    @Test
+    void importsAreSplicedBetweenSurroundingLines() throws IOException {
+        try (InterpolatingReader reader = new InterpolatingReader(
+            new BufferedReader(new StringReader("before\n#import PlaceholderReplace.txt\nafter")),
+            ResourceProvider::openResource)) {
+            assertThat(reader.readAll()).isEqualTo("before\nFoo: \nBar: \nDefault: default\nafter");
+        }
+    }
+
+    @Test
+    void fileImportsAreStreamedRelativeToTheFile() throws IOException {
+        try (InterpolatingReader reader = new FileProvider(Paths.get("src", "test", "resources",
+            "subdir", "import.properties")).openReader()) {
+            assertThat(reader.readAll()).isEqualTo("color=red\nage=32\nstatus=brilliant");
+        }
+    }
+
+    @Test
+    void missingImportIsAnError() {
+        assertThatThrownBy(() -> readerOf("#import nonexistent").readAll())
+            .isInstanceOf(ConfigLoaderException.class);
+    }
+
+    private static InterpolatingReader readerOf(String content) {
+        return new InterpolatingReader(new BufferedReader(new StringReader(content)),
+            ResourceProvider::openResource);
+    }
+}
@@ -40,4 +40,10 @@ class ResourceProviderTest {
         assertThat(ResourceProvider.readAndProcessResource("FileWithSymbolicImport.txt"))
             .isEqualTo("Foo: \nBar: \nDefault: default");
     }
+
+    @Test
+    void escapedPlaceholderSurvivesProcessing() {
+        assertThat(ResourceProvider.readAndProcessResource("EscapedPlaceholder.txt"))
+            .isEqualTo("Literal: ${value}");
+    }
 }
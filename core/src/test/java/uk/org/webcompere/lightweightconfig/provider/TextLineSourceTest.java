@@ -0,0 +1,89 @@
+package uk.org.webcompere.lightweightconfig.provider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+import uk.org.webcompere.systemstubs.properties.SystemProperties;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SystemStubsExtension.class)
+class TextLineSourceTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void literalLinesAreReadAsOneRun() {
+        TextLineSource source = new TextLineSource("a: 1\nb: 2\nc: $3\n");
+
+        assertThat(source.readLines()).isEqualTo("a: 1\nb: 2\nc: $3");
+        assertThat(source.isLiteral()).isTrue();
+        assertThat(source.readLines()).isNull();
+    }
+
+    @Test
+    void placeholderAndImportLinesAreReadOnTheirOwn() {
+        assertThat(readAll(new TextLineSource("a: 1\nb: ${b}\n#import other.yml\nc: 3")))
+            .containsExactly("a: 1", "!b: ${b}", "!#import other.yml", "c: 3");
+    }
+
+    @Test
+    void carriageReturnsEndRuns() {
+        assertThat(readAll(new TextLineSource("a: 1\r\nb: 2\rc: 3\n\nd: 4")))
+            .containsExactly("a: 1", "b: 2", "c: 3\n\nd: 4");
+    }
+
+    @Test
+    void readsSameAsLineByLine(SystemProperties properties) throws IOException {
+        properties.set("name", "Bill");
+        String content = "first: 1\r\n\nname: ${name}\n#importish: true\ncost: $5\rlast: ${missing:-x}\n";
+
+        try (InterpolatingReader fast = new InterpolatingReader(new TextLineSource(content), new LoadContext(),
+                path -> null);
+             InterpolatingReader lineByLine = new InterpolatingReader(
+                 new BufferedReader(new StringReader(content)), path -> null)) {
+            assertThat(fast.readAll()).isEqualTo(lineByLine.readAll());
+        }
+    }
+
+    @Test
+    void cachedAndPrefetchedFilesAreReadSameAsDirectly(SystemProperties properties) throws IOException {
+        properties.set("name", "Bill");
+        Path file = tempDir.resolve("large.yml");
+        StringBuilder content = new StringBuilder("name: ${name}\n#import small.yml\n");
+        for (int i = 0; content.length() < FileChannelLineSource.MINIMUM_FILE_SIZE * 2; i++) {
+            content.append("key").append(i).append(": value\n");
+        }
+        Files.write(file, content.toString().getBytes(UTF_8));
+        Files.write(tempDir.resolve("small.yml"), "small: ${name}".getBytes(UTF_8));
+
+        String direct = new FileProvider(file).readAndProcess();
+
+        assertThat(new FileProvider(file, new LoadContext().withFragmentCache(new FragmentCache(1_000_000)))
+            .readAndProcess()).isEqualTo(direct);
+        assertThat(new FileProvider(file, new LoadContext().withImportExecutor(Runnable::run))
+            .readAndProcess()).isEqualTo(direct);
+    }
+
+    /**
+     * Read all the text, marking the non-literal lines with <code>!</code>
+     */
+    private static List<String> readAll(TextLineSource source) {
+        List<String> result = new ArrayList<>();
+        String text;
+        while ((text = source.readLines()) != null) {
+            result.add(source.isLiteral() ? text : "!" + text);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,357 @@
+package uk.org.webcompere.lightweightconfig.processor;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A class annotated as a config type, with the properties its binder sets. The properties are found the
+ * way SnakeYAML finds them - public setters, then public fields - so the generated binder sets the same ones.
+ */
+class BindableType {
+    private static final String CONVERSIONS = "uk.org.webcompere.lightweightconfig.binding.Conversions";
+
+    private static final Map<String, String> SCALAR_CONVERSIONS = new LinkedHashMap<>();
+
+    static {
+        SCALAR_CONVERSIONS.put("java.lang.String", "toStringValue");
+        SCALAR_CONVERSIONS.put("java.lang.Integer", "toInt");
+        SCALAR_CONVERSIONS.put("java.lang.Long", "toLong");
+        SCALAR_CONVERSIONS.put("java.lang.Short", "toShort");
+        SCALAR_CONVERSIONS.put("java.lang.Byte", "toByte");
+        SCALAR_CONVERSIONS.put("java.lang.Double", "toDouble");
+        SCALAR_CONVERSIONS.put("java.lang.Float", "toFloat");
+        SCALAR_CONVERSIONS.put("java.lang.Boolean", "toBoolean");
+        SCALAR_CONVERSIONS.put("java.lang.Character", "toChar");
+        SCALAR_CONVERSIONS.put("java.math.BigDecimal", "toBigDecimal");
+        SCALAR_CONVERSIONS.put("java.math.BigInteger", "toBigInteger");
+    }
+
+    private final TypeElement element;
+    private final List<Property> properties = new ArrayList<>();
+    private final Set<TypeElement> dependencies = new LinkedHashSet<>();
+    private final Types types;
+    private final Elements elements;
+
+    private BindableType(TypeElement element, Types types, Elements elements) {
+        this.element = element;
+        this.types = types;
+        this.elements = elements;
+    }
+
+    /**
+     * Find the properties of a config type
+     * @param element the annotated class
+     * @param types the type utilities of the compiler
+     * @param elements the element utilities of the compiler
+     * @return the type and its properties
+     * @throws UnsupportedTypeException if a binder can't be generated for the type
+     */
+    static BindableType analyse(TypeElement element, Types types, Elements elements) {
+        BindableType bindable = new BindableType(element, types, elements);
+        bindable.checkInstantiable();
+        bindable.findProperties();
+        return bindable;
+    }
+
+    /**
+     * Whether an element is annotated as a config type
+     * @param element the element
+     * @return true if it's annotated
+     */
+    static boolean isConfigType(Element element) {
+        return element.getAnnotationMirrors().stream()
+            .anyMatch(annotation -> ((TypeElement) annotation.getAnnotationType().asElement())
+                .getQualifiedName().contentEquals(ConfigTypeProcessor.CONFIG_TYPE));
+    }
+
+    /**
+     * The fully qualified name of the binder generated for a type - in the same package, named after
+     * the type and any classes it's nested in
+     * @param element the type
+     * @param elements the element utilities of the compiler
+     * @return the name of the binder
+     */
+    static String binderName(TypeElement element, Elements elements) {
+        PackageElement packageElement = elements.getPackageOf(element);
+        String packageName = packageElement.getQualifiedName().toString();
+        String nestedName = element.getQualifiedName().toString();
+        if (!packageName.isEmpty()) {
+            nestedName = nestedName.substring(packageName.length() + 1);
+        }
+        String binder = nestedName.replace('.', '_') + ConfigTypeProcessor.BINDER_SUFFIX;
+        return packageName.isEmpty() ? binder : packageName + "." + binder;
+    }
+
+    TypeElement getElement() {
+        return element;
+    }
+
+    List<Property> getProperties() {
+        return Collections.unmodifiableList(properties);
+    }
+
+    /**
+     * The other config types whose binders this type's binder calls
+     * @return the config types
+     */
+    Set<TypeElement> getDependencies() {
+        return Collections.unmodifiableSet(dependencies);
+    }
+
+    private void checkInstantiable() {
+        if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new UnsupportedTypeException("it is not a concrete class");
+        }
+        if (!element.getTypeParameters().isEmpty()) {
+            throw new UnsupportedTypeException("it has type parameters");
+        }
+        for (Element enclosing = element; enclosing.getKind().isClass() || enclosing.getKind().isInterface();
+             enclosing = enclosing.getEnclosingElement()) {
+            if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new UnsupportedTypeException("it is private");
+            }
+            if (enclosing.getEnclosingElement().getKind() != ElementKind.PACKAGE &&
+                !enclosing.getModifiers().contains(Modifier.STATIC)) {
+                throw new UnsupportedTypeException("it is an inner class, rather than a static nested class");
+            }
+        }
+        boolean hasDefaultConstructor = ElementFilter.constructorsIn(element.getEnclosedElements()).stream()
+            .anyMatch(constructor -> constructor.getParameters().isEmpty() &&
+                !constructor.getModifiers().contains(Modifier.PRIVATE));
+        if (!hasDefaultConstructor) {
+            throw new UnsupportedTypeException("it has no constructor without parameters");
+        }
+    }
+
+    private void findProperties() {
+        DeclaredType declaredType = (DeclaredType) element.asType();
+        Map<String, List<ExecutableElement>> setters = new LinkedHashMap<>();
+        List<VariableElement> fields = new ArrayList<>();
+        for (Element member : elements.getAllMembers(element)) {
+            Set<Modifier> modifiers = member.getModifiers();
+            if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC)) {
+                continue;
+            }
+            if (member.getKind() == ElementKind.METHOD && isSetter((ExecutableElement) member)) {
+                setters.computeIfAbsent(propertyName(member.getSimpleName().toString()), name -> new ArrayList<>())
+                    .add((ExecutableElement) member);
+            } else if (member.getKind() == ElementKind.FIELD && !modifiers.contains(Modifier.FINAL) &&
+                !modifiers.contains(Modifier.TRANSIENT)) {
+                fields.add((VariableElement) member);
+            }
+        }
+
+        setters.forEach((name, methods) -> {
+            if (methods.size() > 1) {
+                throw new UnsupportedTypeException("property " + name + " has more than one setter");
+            }
+            ExecutableElement setter = methods.get(0);
+            TypeMirror type = ((ExecutableType) types.asMemberOf(declaredType, setter)).getParameterTypes().get(0);
+            properties.add(new Property(name, "target." + setter.getSimpleName() + "(%s)",
+                conversion(name, type, "value", childPath(name), 1), type.getKind().isPrimitive()));
+        });
+        for (VariableElement field : fields) {
+            String name = field.getSimpleName().toString();
+            if (!setters.containsKey(name)) {
+                TypeMirror type = types.asMemberOf(declaredType, field);
+                properties.add(new Property(name, "target." + name + " = %s",
+                    conversion(name, type, "value", childPath(name), 1), type.getKind().isPrimitive()));
+            }
+        }
+    }
+
+    private static String childPath(String name) {
+        return CONVERSIONS + ".child(path, \"" + name + "\")";
+    }
+
+    private static boolean isSetter(ExecutableElement method) {
+        String name = method.getSimpleName().toString();
+        return name.length() > 3 && name.startsWith("set") && method.getParameters().size() == 1 &&
+            method.getReturnType().getKind() == TypeKind.VOID;
+    }
+
+    /**
+     * The bean property name of a setter, as {@link java.beans.Introspector#decapitalize} would give it
+     * @param setterName the name of the setter
+     * @return the property name
+     */
+    static String propertyName(String setterName) {
+        String name = setterName.substring(3);
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(0)) && Character.isUpperCase(name.charAt(1))) {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * The expression which converts a loaded value to a type
+     * @param property the property, for error messages
+     * @param type the target type
+     * @param value the expression of the value
+     * @param path the expression of the path of the value
+     * @param depth how deeply nested in collections the value is, to name lambda parameters
+     * @return the expression
+     */
+    private String conversion(String property, TypeMirror type, String value, String path, int depth) {
+        switch (type.getKind()) {
+            case INT:
+                return CONVERSIONS + ".toInt(" + value + ", " + path + ")";
+            case LONG:
+                return CONVERSIONS + ".toLong(" + value + ", " + path + ")";
+            case SHORT:
+                return CONVERSIONS + ".toShort(" + value + ", " + path + ")";
+            case BYTE:
+                return CONVERSIONS + ".toByte(" + value + ", " + path + ")";
+            case DOUBLE:
+                return CONVERSIONS + ".toDouble(" + value + ", " + path + ")";
+            case FLOAT:
+                return CONVERSIONS + ".toFloat(" + value + ", " + path + ")";
+            case BOOLEAN:
+                return CONVERSIONS + ".toBoolean(" + value + ", " + path + ")";
+            case CHAR:
+                return CONVERSIONS + ".toChar(" + value + ", " + path + ")";
+            case DECLARED:
+                return declaredConversion(property, (DeclaredType) type, value, path, depth);
+            default:
+                throw unsupported(property, type);
+        }
+    }
+
+    private String declaredConversion(String property, DeclaredType type, String value, String path, int depth) {
+        TypeElement typeElement = (TypeElement) type.asElement();
+        String name = typeElement.getQualifiedName().toString();
+        List<? extends TypeMirror> arguments = type.getTypeArguments();
+
+        if (SCALAR_CONVERSIONS.containsKey(name)) {
+            return CONVERSIONS + "." + SCALAR_CONVERSIONS.get(name) + "(" + value + ", " + path + ")";
+        }
+        if (name.equals("java.lang.Object")) {
+            return value;
+        }
+        if (typeElement.getKind() == ElementKind.ENUM) {
+            return CONVERSIONS + ".toEnum(" + name + ".class, " + value + ", " + path + ")";
+        }
+        if (name.equals("java.util.List") || name.equals("java.util.Collection")) {
+            return collectionConversion(property, "toList", arguments, value, path, depth);
+        }
+        if (name.equals("java.util.Set")) {
+            return collectionConversion(property, "toSet", arguments, value, path, depth);
+        }
+        if (name.equals("java.util.Map")) {
+            if (!arguments.isEmpty() && !isString(arguments.get(0))) {
+                throw new UnsupportedTypeException("property " + property + " is a map without String keys");
+            }
+            return collectionConversion(property, "toMap", arguments.isEmpty() ? arguments : arguments.subList(1, 2),
+                value, path, depth);
+        }
+        if (isConfigType(typeElement)) {
+            dependencies.add(typeElement);
+            return CONVERSIONS + ".toObject(" + value + ", " + path + ", " + binderName(typeElement, elements) +
+                ".INSTANCE)";
+        }
+        throw unsupported(property, type);
+    }
+
+    private String collectionConversion(String property, String method, List<? extends TypeMirror> arguments,
+                                        String value, String path, int depth) {
+        TypeMirror elementType = arguments.isEmpty() ?
+            elements.getTypeElement("java.lang.Object").asType() :
+            arguments.get(arguments.size() - 1);
+        if (elementType.getKind() != TypeKind.DECLARED) {
+            throw unsupported(property, elementType);
+        }
+        String elementValue = "v" + depth;
+        String elementPath = "p" + depth;
+        return CONVERSIONS + ".<" + types.erasure(elementType) + typeArguments(elementType) + ">" + method +
+            "(" + value + ", " + path + ", (" + elementValue + ", " + elementPath + ") -> " +
+            conversion(property, elementType, elementValue, elementPath, depth + 1) + ")";
+    }
+
+    private String typeArguments(TypeMirror type) {
+        List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+        if (arguments.isEmpty()) {
+            return "";
+        }
+        List<String> names = new ArrayList<>();
+        for (TypeMirror argument : arguments) {
+            if (argument.getKind() != TypeKind.DECLARED) {
+                throw new UnsupportedTypeException("type argument " + argument + " is not a class");
+            }
+            names.add(types.erasure(argument) + typeArguments(argument));
+        }
+        return "<" + String.join(", ", names) + ">";
+    }
+
+    private boolean isString(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED &&
+            ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals("java.lang.String");
+    }
+
+    private static UnsupportedTypeException unsupported(String property, TypeMirror type) {
+        return new UnsupportedTypeException("property " + property + " has unsupported type " + type);
+    }
+
+    /**
+     * A property the binder sets
+     */
+    static class Property {
+        private final String name;
+        private final String assignment;
+        private final String conversion;
+        private final boolean primitive;
+
+        Property(String name, String assignment, String conversion, boolean primitive) {
+            this.name = name;
+            this.assignment = assignment;
+            this.conversion = conversion;
+            this.primitive = primitive;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        /**
+         * Whether the property can't be set to <code>null</code>
+         * @return true for primitive properties
+         */
+        boolean isPrimitive() {
+            return primitive;
+        }
+
+        /**
+         * The statement which sets the property from the converted <code>value</code>
+         * @return the statement
+         */
+        String getStatement() {
+            return String.format(assignment, conversion) + ";";
+        }
+
+        /**
+         * The statement which sets the property to <code>null</code>
+         * @return the statement
+         */
+        String getNullStatement() {
+            return String.format(assignment, "null") + ";";
+        }
+    }
+}
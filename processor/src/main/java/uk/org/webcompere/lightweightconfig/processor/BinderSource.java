@@ -0,0 +1,77 @@
+package uk.org.webcompere.lightweightconfig.processor;
+
+/**
+ * Writes the source of the binder of a config type
+ */
+class BinderSource {
+    private static final String INDENT = "    ";
+
+    private final StringBuilder source = new StringBuilder();
+
+    /**
+     * Render the binder
+     * @param bindable the type and its properties
+     * @param binderName the fully qualified name of the binder
+     * @return the source of the binder
+     */
+    static String render(BindableType bindable, String binderName) {
+        return new BinderSource().write(bindable, binderName);
+    }
+
+    private String write(BindableType bindable, String binderName) {
+        int lastDot = binderName.lastIndexOf('.');
+        String simpleName = binderName.substring(lastDot + 1);
+        String type = bindable.getElement().getQualifiedName().toString();
+
+        if (lastDot > 0) {
+            line(0, "package " + binderName.substring(0, lastDot) + ";");
+            line(0, "");
+        }
+        line(0, "/**");
+        line(0, " * Binds {@link " + type + "} from loaded configuration, without reflection.");
+        line(0, " * Generated by " + ConfigTypeProcessor.class.getName() + " - do not edit.");
+        line(0, " */");
+        line(0, "public final class " + simpleName + " implements " + ConfigTypeProcessor.BINDER_INTERFACE +
+            "<" + type + "> {");
+        line(1, "public static final " + simpleName + " INSTANCE = new " + simpleName + "();");
+        line(0, "");
+        line(1, "@Override");
+        line(1, "public Class<" + type + "> getType() {");
+        line(2, "return " + type + ".class;");
+        line(1, "}");
+        line(0, "");
+        line(1, "@Override");
+        line(1, "public " + type + " bind(java.util.Map<String, Object> values, String path) {");
+        line(2, type + " target = new " + type + "();");
+        if (!bindable.getProperties().isEmpty()) {
+            line(2, "Object value;");
+        }
+        // as with SnakeYAML, a property which is present but null sets the field to null - or fails to
+        // convert, for a primitive - and one which is absent leaves the field as it is
+        for (BindableType.Property property : bindable.getProperties()) {
+            String present = "values.containsKey(\"" + property.getName() + "\")";
+            line(2, "value = values.get(\"" + property.getName() + "\");");
+            if (property.isPrimitive()) {
+                line(2, "if (value != null || " + present + ") {");
+                line(3, property.getStatement());
+            } else {
+                line(2, "if (value != null) {");
+                line(3, property.getStatement());
+                line(2, "} else if (" + present + ") {");
+                line(3, property.getNullStatement());
+            }
+            line(2, "}");
+        }
+        line(2, "return target;");
+        line(1, "}");
+        line(0, "}");
+        return source.toString();
+    }
+
+    private void line(int depth, String text) {
+        for (int i = 0; i < depth; i++) {
+            source.append(INDENT);
+        }
+        source.append(text).append('\n');
+    }
+}
@@ -0,0 +1,144 @@
+package uk.org.webcompere.lightweightconfig.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Generates a <code>ConfigBinder</code> for each class annotated with <code>ConfigType</code>, and registers
+ * them all as services, so that <code>ConfigLoader</code> binds those classes without reflection. A class
+ * whose binder can't be generated - e.g. it has a property of a type which has no conversion - gets a
+ * warning, and is still bound by reflection.<br>
+ * The processor refers to the library only by name, so it needs nothing but the JDK to run.
+ */
+@SupportedAnnotationTypes(ConfigTypeProcessor.CONFIG_TYPE)
+public class ConfigTypeProcessor extends AbstractProcessor {
+    static final String CONFIG_TYPE = "uk.org.webcompere.lightweightconfig.binding.ConfigType";
+    static final String BINDER_INTERFACE = "uk.org.webcompere.lightweightconfig.binding.ConfigBinder";
+    static final String BINDER_SUFFIX = "_ConfigBinder";
+    static final String SERVICE_FILE = "META-INF/services/" + BINDER_INTERFACE;
+
+    private final Set<String> binders = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        Map<TypeElement, BindableType> bindables = new LinkedHashMap<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : round.getElementsAnnotatedWith(annotation)) {
+                analyse((TypeElement) element, bindables);
+            }
+        }
+        dropUnboundDependents(bindables);
+        bindables.values().forEach(this::writeBinder);
+
+        if (round.processingOver() && !binders.isEmpty()) {
+            writeServiceFile();
+        }
+        return false;
+    }
+
+    private void analyse(TypeElement element, Map<TypeElement, BindableType> bindables) {
+        try {
+            bindables.put(element, BindableType.analyse(element, processingEnv.getTypeUtils(),
+                processingEnv.getElementUtils()));
+        } catch (UnsupportedTypeException e) {
+            warn(element, e.getMessage());
+            bindables.put(element, null);
+        }
+    }
+
+    /**
+     * A binder can't call the binder of a type in this round which has none, so types which depend on them
+     * are bound by reflection too
+     * @param bindables the types of this round, mapped to <code>null</code> where they have no binder
+     */
+    private void dropUnboundDependents(Map<TypeElement, BindableType> bindables) {
+        boolean dropped;
+        do {
+            dropped = false;
+            for (Map.Entry<TypeElement, BindableType> entry : bindables.entrySet()) {
+                BindableType bindable = entry.getValue();
+                if (bindable == null) {
+                    continue;
+                }
+                for (TypeElement dependency : bindable.getDependencies()) {
+                    if (bindables.containsKey(dependency) && bindables.get(dependency) == null) {
+                        warn(entry.getKey(), "it refers to " + dependency.getQualifiedName() +
+                            ", which has no binder");
+                        entry.setValue(null);
+                        dropped = true;
+                        break;
+                    }
+                }
+            }
+        } while (dropped);
+        bindables.values().removeIf(bindable -> bindable == null);
+    }
+
+    private void writeBinder(BindableType bindable) {
+        String binderName = BindableType.binderName(bindable.getElement(), processingEnv.getElementUtils());
+        try (Writer writer = processingEnv.getFiler().createSourceFile(binderName, bindable.getElement())
+            .openWriter()) {
+            writer.write(BinderSource.render(bindable, binderName));
+            binders.add(binderName);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Cannot write " + binderName + ": " + e.getMessage(), bindable.getElement());
+        }
+    }
+
+    /**
+     * Register the binders as services, keeping any registered by an earlier, incremental, compilation
+     */
+    private void writeServiceFile() {
+        Set<String> services = new TreeSet<>(binders);
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+                SERVICE_FILE);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(),
+                UTF_8))) {
+                reader.lines().map(String::trim).filter(line -> !line.isEmpty()).forEach(services::add);
+            }
+        } catch (IOException e) {
+            // no earlier compilation
+        }
+
+        try (Writer writer = new OutputStreamWriter(processingEnv.getFiler()
+            .createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE).openOutputStream(), UTF_8)) {
+            for (String service : services) {
+                writer.write(service + "\n");
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Cannot write " + SERVICE_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private void warn(TypeElement element, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+            "No binder generated for " + element.getQualifiedName() + ", which will be bound by reflection, as " +
+            reason, element);
+    }
+}
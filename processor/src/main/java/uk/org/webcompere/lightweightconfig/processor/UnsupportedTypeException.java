@@ -0,0 +1,10 @@
+package uk.org.webcompere.lightweightconfig.processor;
+
+/**
+ * Thrown when a binder can't be generated for a config type, which is then bound by reflection instead
+ */
+class UnsupportedTypeException extends RuntimeException {
+    UnsupportedTypeException(String reason) {
+        super(reason);
+    }
+}
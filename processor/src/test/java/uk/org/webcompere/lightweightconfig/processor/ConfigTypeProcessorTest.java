@@ -0,0 +1,230 @@
+package uk.org.webcompere.lightweightconfig.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+import uk.org.webcompere.lightweightconfig.binding.ConfigBinder;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConfigTypeProcessorTest {
+    private static final String SERVER = "package com.example;\n" +
+        "import uk.org.webcompere.lightweightconfig.binding.ConfigType;\n" +
+        "import java.util.List;\n" +
+        "import java.util.Map;\n" +
+        "@ConfigType\n" +
+        "public class Server {\n" +
+        "    public enum Mode { FAST, SAFE }\n" +
+        "    @ConfigType\n" +
+        "    public static class Endpoint {\n" +
+        "        public String path;\n" +
+        "        public List<Mode> modes;\n" +
+        "    }\n" +
+        "    private String host;\n" +
+        "    private int port;\n" +
+        "    public List<Endpoint> endpoints;\n" +
+        "    public Map<String, List<Integer>> limits;\n" +
+        "    public String getHost() { return host; }\n" +
+        "    public void setHost(String host) { this.host = host; }\n" +
+        "    public int getPort() { return port; }\n" +
+        "    public void setPort(int port) { this.port = port; }\n" +
+        "    public String toString() {\n" +
+        "        Endpoint endpoint = endpoints.get(0);\n" +
+        "        return host + \":\" + port + \" \" + endpoint.path + endpoint.modes + \" \" + limits;\n" +
+        "    }\n" +
+        "}\n";
+
+    private static final String UNSUPPORTED = "package com.example;\n" +
+        "import uk.org.webcompere.lightweightconfig.binding.ConfigType;\n" +
+        "@ConfigType\n" +
+        "public class Unsupported {\n" +
+        "    public java.time.Duration timeout;\n" +
+        "}\n";
+
+    private static final String DEPENDENT = "package com.example;\n" +
+        "import uk.org.webcompere.lightweightconfig.binding.ConfigType;\n" +
+        "@ConfigType\n" +
+        "public class Dependent {\n" +
+        "    public Unsupported unsupported;\n" +
+        "}\n";
+
+    private static final String DEFAULTS = "package com.example;\n" +
+        "import uk.org.webcompere.lightweightconfig.binding.ConfigType;\n" +
+        "import java.util.Collections;\n" +
+        "import java.util.List;\n" +
+        "@ConfigType\n" +
+        "public class Defaults {\n" +
+        "    public String name = \"default\";\n" +
+        "    public String kept = \"default\";\n" +
+        "    public int count = 1;\n" +
+        "    private List<String> tags = Collections.singletonList(\"default\");\n" +
+        "    public List<String> getTags() { return tags; }\n" +
+        "    public void setTags(List<String> tags) { this.tags = tags; }\n" +
+        "    public String toString() { return name + \" \" + kept + \" \" + tags + \" \" + count; }\n" +
+        "}\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void generatesBinderWhichConvertsValues() throws Exception {
+        Path output = compile(Collections.singletonMap("Server", SERVER)).output;
+
+        try (URLClassLoader classLoader = classLoader(output)) {
+            ConfigBinder<?> binder = binder(classLoader, "com.example.Server_ConfigBinder");
+            Map<String, Object> endpoint = new LinkedHashMap<>();
+            endpoint.put("path", "/api");
+            endpoint.put("modes", Arrays.asList("FAST", "SAFE"));
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("host", "localhost");
+            values.put("port", "8080");
+            values.put("endpoints", Collections.singletonList(endpoint));
+            values.put("limits", Collections.singletonMap("requests", Arrays.asList(1, "2")));
+            values.put("unknown", "ignored");
+
+            assertThat(binder.getType().getName()).isEqualTo("com.example.Server");
+            assertThat(binder.bind(values, "").toString())
+                .isEqualTo("localhost:8080 /api[FAST, SAFE] {requests=[1, 2]}");
+        }
+    }
+
+    @Test
+    void conversionErrorsNameThePath() throws Exception {
+        Path output = compile(Collections.singletonMap("Server", SERVER)).output;
+
+        try (URLClassLoader classLoader = classLoader(output)) {
+            ConfigBinder<?> binder = binder(classLoader, "com.example.Server_ConfigBinder");
+            Map<String, Object> endpoint = Collections.singletonMap("modes", Collections.singletonList("SLOW"));
+
+            assertThatThrownBy(() -> binder.bind(Collections.singletonMap("endpoints",
+                Collections.singletonList(endpoint)), "server"))
+                .isInstanceOf(ConfigLoaderException.class)
+                .hasMessage("Cannot convert SLOW to Mode at server.endpoints[0].modes[0]");
+        }
+    }
+
+    @Test
+    void nullValuesAreBoundAsSnakeYamlBindsThem() throws Exception {
+        Path output = compile(Collections.singletonMap("Defaults", DEFAULTS)).output;
+
+        try (URLClassLoader classLoader = classLoader(output)) {
+            ConfigBinder<?> binder = binder(classLoader, "com.example.Defaults_ConfigBinder");
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("name", null);
+            values.put("tags", null);
+
+            assertThat(binder.bind(values, "").toString()).isEqualTo("null default null 1");
+
+            values.put("count", null);
+            assertThatThrownBy(() -> binder.bind(values, "defaults"))
+                .isInstanceOf(ConfigLoaderException.class)
+                .hasMessage("Cannot convert null to int at defaults.count");
+        }
+    }
+
+    @Test
+    void bindersAreRegisteredAsServices() throws Exception {
+        Path output = compile(Collections.singletonMap("Server", SERVER)).output;
+
+        assertThat(Files.readAllLines(output.resolve(ConfigTypeProcessor.SERVICE_FILE), UTF_8))
+            .containsExactly("com.example.Server_ConfigBinder", "com.example.Server_Endpoint_ConfigBinder");
+    }
+
+    @Test
+    void typesWithUnsupportedPropertiesAreLeftToReflection() throws Exception {
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("Unsupported", UNSUPPORTED);
+        sources.put("Dependent", DEPENDENT);
+        Compilation compilation = compile(sources);
+
+        assertThat(compilation.warnings)
+            .anyMatch(warning -> warning.contains("com.example.Unsupported") && warning.contains("timeout"))
+            .anyMatch(warning -> warning.contains("com.example.Dependent") && warning.contains("no binder"));
+        assertThat(compilation.output.resolve("com/example/Unsupported_ConfigBinder.class")).doesNotExist();
+        assertThat(compilation.output.resolve("com/example/Dependent_ConfigBinder.class")).doesNotExist();
+    }
+
+    @Test
+    void propertyNamesFollowBeanConventions() {
+        assertThat(BindableType.propertyName("setHost")).isEqualTo("host");
+        assertThat(BindableType.propertyName("setURL")).isEqualTo("URL");
+        assertThat(BindableType.propertyName("setX")).isEqualTo("x");
+    }
+
+    private Compilation compile(Map<String, String> sources) throws IOException {
+        Path sourceDir = Files.createDirectories(tempDir.resolve("src/com/example"));
+        Path output = Files.createDirectories(tempDir.resolve("classes"));
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            Files.write(sourceDir.resolve(source.getKey() + ".java"), source.getValue().getBytes(UTF_8));
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, UTF_8)) {
+            List<File> sourceFiles = sources.keySet().stream()
+                .map(name -> sourceDir.resolve(name + ".java").toFile())
+                .collect(Collectors.toList());
+            List<String> options = Arrays.asList("-d", output.toString(),
+                "-classpath", location(ConfigBinder.class) + File.pathSeparator +
+                    location(ConfigLoaderException.class));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics, options, null,
+                files.getJavaFileObjectsFromFiles(sourceFiles));
+            task.setProcessors(Collections.singletonList(new ConfigTypeProcessor()));
+
+            assertThat(task.call()).as("compilation: %s", diagnostics.getDiagnostics()).isTrue();
+        }
+
+        List<String> warnings = diagnostics.getDiagnostics().stream()
+            .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.WARNING)
+            .map(diagnostic -> diagnostic.getMessage(null))
+            .collect(Collectors.toList());
+        return new Compilation(output, warnings);
+    }
+
+    private static String location(Class<?> type) {
+        try {
+            return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot find " + type.getName(), e);
+        }
+    }
+
+    private static URLClassLoader classLoader(Path output) throws IOException {
+        return new URLClassLoader(new URL[] {output.toUri().toURL()}, ConfigTypeProcessorTest.class.getClassLoader());
+    }
+
+    private static ConfigBinder<?> binder(ClassLoader classLoader, String name) throws Exception {
+        return (ConfigBinder<?>) classLoader.loadClass(name).getDeclaredConstructor().newInstance();
+    }
+
+    private static class Compilation {
+        private final Path output;
+        private final List<String> warnings;
+
+        Compilation(Path output, List<String> warnings) {
+            this.output = output;
+            this.warnings = warnings;
+        }
+    }
+}
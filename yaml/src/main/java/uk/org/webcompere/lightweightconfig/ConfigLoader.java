@@ -0,0 +1,955 @@
+package uk.org.webcompere.lightweightconfig;
+
+import uk.org.webcompere.lightweightconfig.binding.ConfigBinder;
+import uk.org.webcompere.lightweightconfig.binding.ConfigBinders;
+import uk.org.webcompere.lightweightconfig.compact.ConfigCompactor;
+import uk.org.webcompere.lightweightconfig.data.PlaceholderResolver;
+import uk.org.webcompere.lightweightconfig.data.PlaceholderSource;
+import uk.org.webcompere.lightweightconfig.listener.ConfigLoadListener;
+import uk.org.webcompere.lightweightconfig.listener.LoadPhase;
+import uk.org.webcompere.lightweightconfig.listener.LoadRecorder;
+import uk.org.webcompere.lightweightconfig.listener.LoadTracer;
+import uk.org.webcompere.lightweightconfig.properties.ConfigProperties;
+import uk.org.webcompere.lightweightconfig.properties.PropertiesLoader;
+import uk.org.webcompere.lightweightconfig.provider.ConfigTemplate;
+import uk.org.webcompere.lightweightconfig.provider.FileProvider;
+import uk.org.webcompere.lightweightconfig.provider.Fragment;
+import uk.org.webcompere.lightweightconfig.provider.FragmentCache;
+import uk.org.webcompere.lightweightconfig.provider.ImportExecutors;
+import uk.org.webcompere.lightweightconfig.provider.LoadContext;
+import uk.org.webcompere.lightweightconfig.provider.ResourceProvider;
+import uk.org.webcompere.lightweightconfig.snapshot.ConfigSnapshot;
+import uk.org.webcompere.lightweightconfig.tags.BatchTagResolver;
+import uk.org.webcompere.lightweightconfig.tags.TagCache;
+import uk.org.webcompere.lightweightconfig.tags.TagExecution;
+import uk.org.webcompere.lightweightconfig.view.ConfigView;
+import uk.org.webcompere.lightweightconfig.yaml.ParsedFragmentCache;
+import uk.org.webcompere.lightweightconfig.yaml.YamlPool;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Facade for the configuration library. Use to load a configuration into an object.
+ */
+public class ConfigLoader {
+    private static final BiFunction<String, LoadContext, Reader> DEFAULT_RESOURCE_READER =
+        ResourceProvider::openResource;
+
+    /**
+     * Shared by the static methods, so that the YAML engine is built once and reused
+     */
+    private static final ConfigLoader DEFAULT_LOADER = new ConfigLoader();
+
+    private BiFunction<String, LoadContext, Reader> resourceReader = DEFAULT_RESOURCE_READER;
+    private List<PlaceholderSource> placeholderSources = PlaceholderResolver.defaultSources();
+    private FragmentCache fragmentCache;
+    private Executor importExecutor;
+    private Executor bindingExecutor;
+    private List<ConfigLoadListener> listeners = Collections.emptyList();
+    private Map<String, Function<String, ?>> tags = new ConcurrentHashMap<>();
+    private Map<String, BatchTagResolver> batchTags = new ConcurrentHashMap<>();
+    private TagExecution tagExecution;
+    private TagCache tagCache;
+    private ParsedFragmentCache parsedFragmentCache;
+    private ConfigCompactor compactor;
+    private Executor asyncExecutor;
+    private volatile YamlPool yamlPool;
+
+    /**
+     * Read a YAML file from the classpath resources, interpolate placeholders and convert it
+     * to an object. Placeholders are in the format <code>${placeholder:-default}</code>. They're
+     * interpolated from environment variables first, then system properties. Any non-null value is
+     * treated as the value to interpolate.<br>
+     * Files may also contain <code>#import &lt;resourcePath&gt;</code> comments which are replaced
+     * by the copies of that file from the resources. Placeholders in the <code>#import</code> statement
+     * are also resolved, allowing a file to be selected according to a system property - e.g.
+     * <code>#import ${profile}-config.yml</code>.
+     * @param resourceName the location of the source yml within the classpath resources
+     * @param type the target type - for the YML to load the values into
+     * @param <T> the target type
+     * @return the loaded file with placeholders resolved, loaded into the target type
+     */
+    public static <T> T loadYmlConfigFromResource(String resourceName, Class<T> type) {
+        return DEFAULT_LOADER.loadAs(resourceName, type);
+    }
+
+    /**
+     * Read a YAML file from the classpath resources and return a {@link Map}.
+     * @param resourceName the location of the source yml within the classpath resources
+     * @return the loaded file with placeholders resolved, loaded into a map
+     * @see ConfigLoader#loadYmlConfigFromResource(String, Class)
+     */
+    public static Map<String, Object> loadYmlConfigFromResource(String resourceName) {
+        return DEFAULT_LOADER.load(resourceName);
+    }
+
+    /**
+     * Read a YAML file, interpolate placeholders and convert it
+     * to an object. Placeholders are in the format <code>${placeholder:-default}</code>. They're
+     * interpolated from environment variables first, then system properties. Any non-null value is
+     * treated as the value to interpolate.<br>
+     * Files may also contain <code>#import &lt;resourcePath&gt;</code> comments which are replaced
+     * by the copies of that file from the resources. Placeholders in the <code>#import</code> statement
+     * are also resolved, allowing a file to be selected according to a system property - e.g.
+     * <code>#import ${profile}-config.yml</code>.
+     * @param file the location of the source yml
+     * @param type the target type - for the YML to load the values into
+     * @param <T> the target type
+     * @return the loaded file with placeholders resolved, loaded into the target type
+     */
+    public static <T> T loadYmlConfig(Path file, Class<T> type) {
+        return DEFAULT_LOADER.loadAs(file, type);
+    }
+
+    /**
+     * Read a YAML file and return a {@link Map}.
+     * @param file the location of the source yml
+     * @return the loaded file with placeholders resolved, loaded into a map
+     * @see ConfigLoader#loadYmlConfigFromResource(String, Class)
+     */
+    public static Map<String, Object> loadYmlConfig(Path file) {
+        return DEFAULT_LOADER.load(file);
+    }
+
+    /**
+     * Read a <code>.properties</code> file from the resources, and interpolate
+     * placeholders into it
+     * @param resourceName the name of the resource to load
+     * @return the {@link Properties} object with the values in
+     */
+    public static Properties loadPropertiesFromResource(String resourceName) {
+        return PropertiesLoader.load(resourceName);
+    }
+
+    /**
+     * Read a <code>.properties</code> file from the file system, and interpolate
+     * placeholders into it
+     * @param file the file to load
+     * @return the {@link Properties} object with the values in
+     */
+    public static Properties loadProperties(Path file) {
+        return PropertiesLoader.load(file);
+    }
+
+    /**
+     * Read a <code>.properties</code> file from the resources, and interpolate
+     * placeholders into it, returning properties which can be read without locking
+     * @param resourceName the name of the resource to load
+     * @return the immutable {@link ConfigProperties} object with the values in
+     */
+    public static ConfigProperties loadConfigPropertiesFromResource(String resourceName) {
+        return PropertiesLoader.loadConfigProperties(resourceName);
+    }
+
+    /**
+     * Read a <code>.properties</code> file from the file system, and interpolate
+     * placeholders into it, returning properties which can be read without locking
+     * @param file the file to load
+     * @return the immutable {@link ConfigProperties} object with the values in
+     */
+    public static ConfigProperties loadConfigProperties(Path file) {
+        return PropertiesLoader.loadConfigProperties(file);
+    }
+
+    /**
+     * Read a YAML file from the resource loader, interpolate placeholders and convert it
+     * to an object. Placeholders are in the format <code>${placeholder:-default}</code>. They're
+     * interpolated from environment variables first, then system properties. Any non-null value is
+     * treated as the value to interpolate.<br>
+     * @param resource the source config within the resources
+     * @param type the target type - for the YML to load the values into
+     * @param <T> the target type
+     * @return the loaded file with placeholders resolved, loaded into the target type
+     */
+    public <T> T loadAs(String resource, Class<T> type) {
+        LoadContext context = createLoadContext();
+        if (parsedFragmentCache != null) {
+            if (resourceReader != DEFAULT_RESOURCE_READER) {
+                throw new ConfigLoaderException("Merged imports cannot be used with a custom resource reader, " +
+                    "which splices the imports of " + resource);
+            }
+            return loadMerged(context, resource, () -> ResourceProvider.readFragment(resource, context), type);
+        }
+        return loadFrom(context, resource, LoadPhase.READ, () -> resourceReader.apply(resource, context), type);
+    }
+
+    /**
+     * Read a YAML file from the file loader, interpolate placeholders and convert it
+     * to an object. Placeholders are in the format <code>${placeholder:-default}</code>. They're
+     * interpolated from environment variables first, then system properties. Any non-null value is
+     * treated as the value to interpolate.<br>
+     * @param file the source config within the resources
+     * @param type the target type - for the YML to load the values into
+     * @param <T> the target type
+     * @return the loaded file with placeholders resolved, loaded into the target type
+     */
+    public <T> T loadAs(Path file, Class<T> type) {
+        return loadAs(file, type, createLoadContext());
+    }
+
+    /**
+     * Read a YAML file with a given load context. The context can be inspected afterwards - e.g. to find which
+     * files were imported.
+     * @param file the source config
+     * @param type the target type - for the YML to load the values into
+     * @param context the context, created by {@link #createLoadContext()}
+     * @param <T> the target type
+     * @return the loaded file with placeholders resolved, loaded into the target type
+     * @see #loadAs(Path, Class)
+     */
+    public <T> T loadAs(Path file, Class<T> type, LoadContext context) {
+        if (parsedFragmentCache != null) {
+            return loadMerged(context, file.toString(), () -> new FileProvider(file, context).readFragment(), type);
+        }
+        return loadFrom(context, file.toString(), LoadPhase.READ, () -> new FileProvider(file, context).openReader(),
+            type);
+    }
+
+    /**
+     * Render a compiled template with the current placeholder values and convert it to an object. This
+     * involves no reading of files or resources, unless an import whose path depends on a placeholder
+     * is rendered with a path for the first time.
+     * @param template the template compiled by {@link #compile(String)} or {@link #compile(Path)}
+     * @param type the target type - for the YML to load the values into
+     * @param <T> the target type
+     * @return the rendered template, loaded into the target type
+     */
+    public <T> T loadAs(ConfigTemplate template, Class<T> type) {
+        requireSplicedImports("compiled templates");
+        LoadContext context = createLoadContext();
+        return loadFrom(context, "compiled template", LoadPhase.INTERPOLATE,
+            () -> new StringReader(template.render(context.getResolver())), type);
+    }
+
+    /**
+     * Read a YAML file from the resources and return a {@link Map}.
+     * @param resource the source config
+     * @return the loaded file with placeholders resolved, loaded into a map
+     * @see ConfigLoader#loadAs(String, Class)
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> load(String resource) {
+        return loadAs(resource, Map.class);
+    }
+
+    /**
+     * Read a YAML file and return a {@link Map}.
+     * @param file the source config
+     * @return the loaded file with placeholders resolved, loaded into a map
+     * @see ConfigLoader#loadAs(String, Class)
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> load(Path file) {
+        return loadAs(file, Map.class);
+    }
+
+    /**
+     * Render a compiled template and return a {@link Map}.
+     * @param template the compiled template
+     * @return the rendered template, loaded into a map
+     * @see ConfigLoader#loadAs(ConfigTemplate, Class)
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> load(ConfigTemplate template) {
+        return loadAs(template, Map.class);
+    }
+
+    /**
+     * Read a YAML resource, interpolate placeholders and index it by the path of every value, for configuration
+     * which is read many times - e.g. by key on each request
+     * @param resource the source config within the resources
+     * @return a view of the loaded resource
+     * @see ConfigView
+     */
+    public ConfigView loadView(String resource) {
+        return ConfigView.of(load(resource));
+    }
+
+    /**
+     * Read a YAML file, interpolate placeholders and index it by the path of every value, for configuration
+     * which is read many times - e.g. by key on each request
+     * @param file the source config
+     * @return a view of the loaded file
+     * @see ConfigView
+     */
+    public ConfigView loadView(Path file) {
+        return ConfigView.of(load(file));
+    }
+
+    /**
+     * Read a YAML file and return a {@link Map}, from a binary snapshot of an earlier load if the snapshot
+     * is still valid - i.e. the file, its imports and the placeholders it used are unchanged. Otherwise, the
+     * file is loaded as with {@link #load(Path)}, and the snapshot is written for next time. Reading a snapshot
+     * doesn't involve parsing YAML, and processes which share a snapshot share the pages it's mapped into.<br>
+     * The values of custom tags are stored in the snapshot, so tags whose values change between loads, without
+     * the file or placeholders changing, should not be used with snapshots. Files which would newly match a glob
+     * import do not make the snapshot stale.
+     * @param file the source config
+     * @param snapshot the snapshot file, which is created if it doesn't exist
+     * @return the loaded file with placeholders resolved, loaded into a map
+     * @throws ConfigLoaderException if the file can't be loaded, or it loads values which can't be stored in a
+     *     snapshot
+     */
+    public Map<String, Object> loadWithSnapshot(Path file, Path snapshot) {
+        Map<String, Object> snapshotted = readSnapshot(file, snapshot);
+        if (snapshotted != null) {
+            return compacted(snapshotted);
+        }
+
+        LoadContext context = createLoadContext();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> loaded = loadAs(file, Map.class, context);
+        ConfigSnapshot.write(snapshot, loaded, context.getFiles(), context.getResolver().getResolvedValues());
+        return loaded;
+    }
+
+    /**
+     * Read a multi-document YAML resource, with documents separated by <code>---</code>, as a lazy stream of
+     * objects. Placeholders and imports are processed as with {@link #loadAs(String, Class)}, but each document is
+     * only parsed and bound when the stream reaches it, so a source with many documents is never held in memory
+     * at once. The stream holds the resource open, so should be closed - e.g. with try-with-resources. Use
+     * {@link Stream#iterator()} to consume it as an iterator.
+     * @param resource the source config within the resources
+     * @param type the target type of every document
+     * @param <T> the target type
+     * @return a stream of the documents, in the order of the source
+     * @see #withBindingExecutor(Executor)
+     */
+    public <T> Stream<T> loadAll(String resource, Class<T> type) {
+        requireSplicedImports("multi-document streams");
+        LoadContext context = createLoadContext();
+        return streamFrom(context, resource, () -> resourceReader.apply(resource, context), type);
+    }
+
+    /**
+     * Read a multi-document YAML file as a lazy stream of objects
+     * @param file the source config
+     * @param type the target type of every document
+     * @param <T> the target type
+     * @return a stream of the documents, in the order of the source, which should be closed after use
+     * @see #loadAll(String, Class)
+     */
+    public <T> Stream<T> loadAll(Path file, Class<T> type) {
+        requireSplicedImports("multi-document streams");
+        LoadContext context = createLoadContext();
+        return streamFrom(context, file.toString(), () -> new FileProvider(file, context).openReader(), type);
+    }
+
+    /**
+     * Read a YAML resource and bind each value at a path in it, one at a time, passing each to a consumer -
+     * e.g. every route of <code>routes[*]</code>. The rest of the configuration is skipped as it's parsed, and
+     * only one value is held at a time, so configurations which hold very long lists of data can be processed
+     * in memory proportional to a single item. Placeholders and imports are processed as with
+     * {@link #loadAs(String, Class)}.<br>
+     * A path names values as {@link ConfigView} does - e.g. <code>servers.primary.ports[0]</code> - and
+     * <code>*</code> matches any key of a map, and <code>[*]</code> any item of a list. Aliases within a value
+     * may only refer to anchors within the same value.
+     * @param resource the source config within the resources
+     * @param path the path of the values
+     * @param type the target type of each value
+     * @param consumer receives each value, in the order of the source, on the calling thread
+     * @param <T> the target type
+     * @return the number of values visited
+     * @throws IllegalArgumentException if the path is malformed
+     */
+    public <T> long visit(String resource, String path, Class<T> type, Consumer<? super T> consumer) {
+        requireSplicedImports("visiting");
+        LoadContext context = createLoadContext();
+        return visitFrom(context, resource, () -> resourceReader.apply(resource, context), path, type, consumer);
+    }
+
+    /**
+     * Read a YAML file and bind each value at a path in it, one at a time, passing each to a consumer
+     * @param file the source config
+     * @param path the path of the values - e.g. <code>routes[*]</code>
+     * @param type the target type of each value
+     * @param consumer receives each value, in the order of the source, on the calling thread
+     * @param <T> the target type
+     * @return the number of values visited
+     * @see #visit(String, String, Class, Consumer)
+     */
+    public <T> long visit(Path file, String path, Class<T> type, Consumer<? super T> consumer) {
+        requireSplicedImports("visiting");
+        LoadContext context = createLoadContext();
+        return visitFrom(context, file.toString(), () -> new FileProvider(file, context).openReader(), path, type,
+            consumer);
+    }
+
+    /**
+     * Load a YAML resource on another thread, as {@link #loadAs(String, Class)} does, so that independent
+     * configurations can be loaded at the same time, or the caller can continue without waiting
+     * @param resource the source config within the resources
+     * @param type the target type - for the YML to load the values into
+     * @param <T> the target type
+     * @return a future of the loaded object, which completes exceptionally if the load fails
+     * @see #withAsyncExecutor(Executor)
+     */
+    public <T> CompletableFuture<T> loadAsync(String resource, Class<T> type) {
+        return CompletableFuture.supplyAsync(() -> loadAs(resource, type), getAsyncExecutor());
+    }
+
+    /**
+     * Load a YAML file on another thread
+     * @param file the source config
+     * @param type the target type - for the YML to load the values into
+     * @param <T> the target type
+     * @return a future of the loaded object, which completes exceptionally if the load fails
+     * @see #loadAsync(String, Class)
+     */
+    public <T> CompletableFuture<T> loadAsync(Path file, Class<T> type) {
+        return CompletableFuture.supplyAsync(() -> loadAs(file, type), getAsyncExecutor());
+    }
+
+    /**
+     * Load a YAML resource into a {@link Map} on another thread
+     * @param resource the source config within the resources
+     * @return a future of the loaded map
+     * @see #loadAsync(String, Class)
+     */
+    public CompletableFuture<Map<String, Object>> loadAsync(String resource) {
+        return CompletableFuture.supplyAsync(() -> load(resource), getAsyncExecutor());
+    }
+
+    /**
+     * Load a YAML file into a {@link Map} on another thread
+     * @param file the source config
+     * @return a future of the loaded map
+     * @see #loadAsync(String, Class)
+     */
+    public CompletableFuture<Map<String, Object>> loadAsync(Path file) {
+        return CompletableFuture.supplyAsync(() -> load(file), getAsyncExecutor());
+    }
+
+    /**
+     * Load a properties resource on another thread, with this loader's placeholder sources and listeners
+     * @param resource the properties resource within the classpath
+     * @return a future of the loaded properties
+     * @see PropertiesLoader#load(String, LoadContext)
+     */
+    public CompletableFuture<Properties> loadPropertiesAsync(String resource) {
+        return CompletableFuture.supplyAsync(() -> PropertiesLoader.load(resource, createLoadContext()),
+            getAsyncExecutor());
+    }
+
+    /**
+     * Load a properties file on another thread, with this loader's placeholder sources and listeners
+     * @param file the properties file
+     * @return a future of the loaded properties
+     * @see PropertiesLoader#load(Path, LoadContext)
+     */
+    public CompletableFuture<Properties> loadPropertiesAsync(Path file) {
+        return CompletableFuture.supplyAsync(() -> PropertiesLoader.load(file, createLoadContext()),
+            getAsyncExecutor());
+    }
+
+    /**
+     * Read a resource and its imports and compile them into a template, which can be loaded many times
+     * with {@link #loadAs(ConfigTemplate, Class)}, without repeating the reading and scanning of the source.
+     * The resource is read directly, rather than through any custom resource provider. The template is a
+     * snapshot of the source and its imports, so compile again to see any edits to them.
+     * @param resource the source config within the resources
+     * @return the compiled template
+     */
+    public ConfigTemplate compile(String resource) {
+        requireSplicedImports("compiled templates");
+        return ConfigTemplate.compileResource(resource, createLoadContext());
+    }
+
+    /**
+     * Read a file and its imports and compile them into a template
+     * @param file the source config
+     * @return the compiled template
+     * @see #compile(String)
+     */
+    public ConfigTemplate compile(Path file) {
+        requireSplicedImports("compiled templates");
+        return ConfigTemplate.compileFile(file, createLoadContext());
+    }
+
+
+    /**
+     * Fluent setter for resource loading - allows a plugin of a resource provider that converts the input
+     * resource details into a string with the resource in it. The provider isn't given the context of the load,
+     * so it doesn't see this loader's placeholder sources, fragment cache or listeners - use
+     * {@link #withResourceReader(BiFunction)} for a provider which should.
+     * @param resourceProvider the resource provider to use in place of the default {@link ResourceProvider}
+     * @return <code>this</code> for fluent use
+     */
+    public ConfigLoader withResourceProvider(UnaryOperator<String> resourceProvider) {
+        this.resourceReader = (resource, context) -> new StringReader(resourceProvider.apply(resource));
+        return this;
+    }
+
+    /**
+     * Fluent setter for streamed resource loading - allows a plugin of a resource provider that converts the
+     * input resource details into a {@link Reader} of the resource, which is then parsed as it is read. As with
+     * {@link #withResourceProvider(UnaryOperator)}, the reader isn't given the context of the load.
+     * @param resourceReader opens a reader of the processed resource - the reader is closed after loading
+     * @return <code>this</code> for fluent use
+     */
+    public ConfigLoader withResourceReader(Function<String, Reader> resourceReader) {
+        this.resourceReader = (resource, context) -> resourceReader.apply(resource);
+        return this;
+    }
+
+    /**
+     * Fluent setter for streamed resource loading with the context of each load. The context holds the
+     * placeholder values of the load, from this loader's placeholder sources, along with its fragment cache,
+     * import executor and recorder, so a reader which passes it to
+     * {@link uk.org.webcompere.lightweightconfig.provider.InterpolatingReader} or
+     * {@link ResourceProvider#openResource(String, LoadContext)} is processed as the default reader is.
+     * @param resourceReader opens a reader of the processed resource with the context of the load - the reader
+     *                       is closed after loading
+     * @return <code>this</code> for fluent use
+     */
+    public ConfigLoader withResourceReader(BiFunction<String, LoadContext, Reader> resourceReader) {
+        this.resourceReader = resourceReader;
+        return this;
+    }
+
+    /**
+     * Set the sources of placeholder values, in order of priority. These replace the default of
+     * environment variables followed by system properties. A snapshot of the sources is taken at the start
+     * of each load, and each placeholder name is looked up at most once per load.
+     * @param sources the sources to use - e.g. {@link PlaceholderSource#fromMap(Map)} for a fixed set of values
+     * @return <code>this</code> for fluent use
+     */
+    public ConfigLoader withPlaceholderSources(PlaceholderSource... sources) {
+        this.placeholderSources = Collections.unmodifiableList(new ArrayList<>(Arrays.asList(sources)));
+        return this;
+    }
+
+    /**
+     * Fluent setter for an executor on which files imported by a file are read concurrently. The
+     * imports are still spliced in the order they're listed, so the result is the same as reading them
+     * one after another.
+     * @param importExecutor the executor, or <code>null</code> to read each import when it's reached
+     * @return <code>this</code> for fluent use
+     * @see ImportExecutors#defaultExecutor()
+     */
+    public ConfigLoader withImportExecutor(Executor importExecutor) {
+        this.importExecutor = importExecutor;
+        return this;
+    }
+
+    /**
+     * Fluent setter for an executor on which the documents of {@link #loadAll(String, Class)} are bound to
+     * objects in parallel - e.g. {@link java.util.concurrent.ForkJoinPool#commonPool()}. The documents are
+     * still parsed in order, and the stream returns them in order, with a few bound ahead of the consumer.
+     * @param bindingExecutor the executor, or <code>null</code> to bind each document on the consuming thread
+     * @return <code>this</code> for fluent use
+     */
+    public ConfigLoader withBindingExecutor(Executor bindingExecutor) {
+        this.bindingExecutor = bindingExecutor;
+        return this;
+    }
+
+    /**
+     * Fluent setter for the executor on which the <code>loadAsync</code> methods load
+     * @param asyncExecutor the executor, or <code>null</code> for {@link ImportExecutors#defaultExecutor()}, which
+     *                      uses a virtual thread per load where they're available
+     * @return <code>this</code> for fluent use
+     */
+    public ConfigLoader withAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+        return this;
+    }
+
+    /**
+     * Fluent setter for a cache of the raw text of the files and resources which are loaded and imported. This
+     * saves reading a shared fragment many times. Placeholders are still resolved on every load.
+     * @param fragmentCache the cache, which may be shared between loaders
+     * @return <code>this</code> for fluent use
+     */
+    public ConfigLoader withFragmentCache(FragmentCache fragmentCache) {
+        this.fragmentCache = fragmentCache;
+        return this;
+    }
+
+    /**
+     * Add a scalar tag resolver. This allows a custom tag - e.g. <code>!password</code> to be specified in the
+     * YML. In the example of <code>!password</code>, the tag name is <code>password</code>. A scalar resolver
+     * is passed the data to the right of the tag in order to produce the appropriate object to insert into
+     * the configuration
+     * @param tagName the name of the tag (does not include <code>!</code>)
+     * @param scalarTagResolver a function that can process the string to the right of the tag to produce the
+     *                          input to be placed into the configuration object
+     * @return <code>this</code> for fluent use
+     */
+    public ConfigLoader withTag(String tagName, Function<String, ?> scalarTagResolver) {
+        synchronized (this) {
+            tags.put(tagName, scalarTagResolver);
+            batchTags.remove(tagName);
+
+            // the engines were built with the previous tags
+            yamlPool = null;
+        }
+        return this;
+    }
+
+    /**
+     * Add a batch tag resolver. Like {@link #withTag(String, Function)}, this allows a custom tag, but every
+     * value of the tag in a document is passed to the resolver in one call, before the document is bound - e.g.
+     * so all the secrets a file refers to can be fetched in one request.
+     * @param tagName the name of the tag (does not include <code>!</code>)
+     * @param batchTagResolver resolves all the values of the tag in a document
+     * @return <code>this</code> for fluent use
+     */
+    public ConfigLoader withBatchTag(String tagName, BatchTagResolver batchTagResolver) {
+        synchronized (this) {
+            batchTags.put(tagName, batchTagResolver);
+            tags.remove(tagName);
+            yamlPool = null;
+        }
+        return this;
+    }
+
+    /**
+     * Fluent setter for a cache of the values of the scalar tags, so that they're not resolved again on every
+     * load. Cached values are refreshed in the background before they expire.
+     * @param tagCache the cache, or <code>null</code> to call the resolvers on every load
+     * @return <code>this</code> for fluent use
+     */
+    public ConfigLoader withTagCache(TagCache tagCache) {
+        synchronized (this) {
+            this.tagCache = tagCache;
+            yamlPool = null;
+        }
+        return this;
+    }
+
+    /**
+     * Fluent setter to merge imports as parsed trees, rather than splicing their text into the importing file.
+     * Each file or resource is parsed on its own, and its parsed form is cached, so a base file imported by many
+     * configurations is parsed once. The importing file overrides its imports wherever its <code>#import</code>
+     * statements are, maps are merged key by key, and any other value, including a list, is replaced. Anchors
+     * can't be shared between files.<br>
+     * Only {@link #loadAs(String, Class)}, {@link #loadAs(Path, Class)} and the loads built on them can merge
+     * imports - streaming with <code>loadAll</code>, visiting and compiling templates read the source as text, so
+     * they throw {@link ConfigLoaderException} rather than quietly splicing. Resources can only be merged with the
+     * default resource reader, so loading a resource with a custom reader throws too.
+     * @param parsedFragmentCache the cache of parsed files and resources, or <code>null</code> to splice imports
+     * @return <code>this</code> for fluent use
+     */
+    public ConfigLoader withMergedImports(ParsedFragmentCache parsedFragmentCache) {
+        this.parsedFragmentCache = parsedFragmentCache;
+        return this;
+    }
+
+    /**
+     * Fluent setter to compact the maps this loader loads, for processes which hold many similar configurations.
+     * Keys and repeated values are pooled, and maps at the same path share their keys, so each configuration
+     * retains less memory. The compacted maps and their lists can't be modified. Objects bound to other types
+     * are not compacted.
+     * @param compactor the compactor, whose pools are shared by every configuration it compacts, or
+     *                  <code>null</code> to return maps as they're loaded
+     * @return <code>this</code> for fluent use
+     * @see ConfigCompactor
+     */
+    public ConfigLoader withCompactor(ConfigCompactor compactor) {
+        this.compactor = compactor;
+        return this;
+    }
+
+    /**
+     * Fluent setter to resolve the custom tags of each document concurrently. All the values of the tags are
+     * found before the document is bound, and each call to a scalar resolver, or a batch resolver, runs as a
+     * task on the executor - e.g. {@link ImportExecutors#defaultExecutor()} for resolvers which wait on the
+     * network. The load fails if any call fails, or takes longer than the timeout.
+     * @param executor the executor, or <code>null</code> to call the resolvers on the loading thread
+     * @param parallelism the most calls to run at once
+     * @param timeout the longest each call may take, from when the executor starts it
+     * @return <code>this</code> for fluent use
+     */
+    public ConfigLoader withTagExecutor(Executor executor, int parallelism, Duration timeout) {
+        TagExecution execution = executor == null ? null : new TagExecution(executor, parallelism, timeout);
+        synchronized (this) {
+            tagExecution = execution;
+            yamlPool = null;
+        }
+        return this;
+    }
+
+    /**
+     * Fluent setter to add a listener, which receives the timings and counts of each load. When
+     * there are no listeners, nothing is measured.
+     * @param listener the listener to add
+     * @return <code>this</code> for fluent use
+     * @see uk.org.webcompere.lightweightconfig.listener.AggregatingLoadListener
+     */
+    public ConfigLoader withLoadListener(ConfigLoadListener listener) {
+        List<ConfigLoadListener> updated = new ArrayList<>(listeners);
+        updated.add(listener);
+        this.listeners = Collections.unmodifiableList(updated);
+        return this;
+    }
+
+    /**
+     * Create the context for a single load, with a snapshot of the placeholder sources, and a recorder
+     * if there are listeners or a flight recording is running. The context may also be passed to
+     * {@link PropertiesLoader}.
+     * @return a new load context
+     */
+    public LoadContext createLoadContext() {
+        LoadTracer tracer = LoadTracer.flightRecorder();
+        LoadRecorder recorder = listeners.isEmpty() && !tracer.isEnabled() ?
+            null : new LoadRecorder(listeners, tracer);
+        return new LoadContext(PlaceholderResolver.snapshot(placeholderSources, recorder))
+            .withRecorder(recorder)
+            .withFragmentCache(fragmentCache)
+            .withImportExecutor(importExecutor);
+    }
+
+    /**
+     * Open the content and parse it, recording the load if it has a recorder
+     * @param context the context of the load
+     * @param source the name of what's being loaded
+     * @param openPhase the phase which opening the content counts towards
+     * @param opener opens the processed content
+     * @param type the target type
+     * @param <T> the target type
+     * @return the loaded object
+     */
+    private <T> T loadFrom(LoadContext context, String source, LoadPhase openPhase, Supplier<Reader> opener,
+                           Class<T> type) {
+        LoadRecorder recorder = context.getRecorder();
+        if (recorder == null) {
+            return parse(opener.get(), type, null);
+        }
+        return recorder.recordLoad(source, () -> parse(recorder.timed(openPhase, opener), type, recorder));
+    }
+
+    /**
+     * Load the content from the parsed trees of its fragments
+     * @param context the context of the load
+     * @param source the name of what's being loaded
+     * @param reader reads the fragments
+     * @param type the target type
+     * @param <T> the target type
+     * @return the loaded object
+     */
+    private <T> T loadMerged(LoadContext context, String source, Supplier<Fragment> reader, Class<T> type) {
+        LoadRecorder recorder = context.getRecorder();
+        if (recorder == null) {
+            return parseMerged(reader.get(), type, null);
+        }
+        return recorder.recordLoad(source,
+            () -> parseMerged(recorder.timed(LoadPhase.READ, reader), type, recorder));
+    }
+
+    /**
+     * Fail an operation which needs the imports spliced into the text, when imports are merged instead
+     * @param operation what can't be done, for the message
+     */
+    private void requireSplicedImports(String operation) {
+        if (parsedFragmentCache != null) {
+            throw new ConfigLoaderException("Merged imports cannot be used with " + operation);
+        }
+    }
+
+    /**
+     * Read a snapshot, if it's valid for the current placeholder values. Only a valid snapshot is reported
+     * to the listeners, as a load which began when the read did; the time spent finding a snapshot missing or
+     * stale is not reported, and the full load which follows is reported on its own.
+     * @param file the configuration file the snapshot was taken of
+     * @param snapshot the snapshot file
+     * @return the snapshotted configuration, or <code>null</code> if it's missing or stale
+     */
+    private Map<String, Object> readSnapshot(Path file, Path snapshot) {
+        LoadContext context = createLoadContext();
+        LoadRecorder recorder = context.getRecorder();
+        if (recorder == null) {
+            return ConfigSnapshot.read(snapshot, file, context.getResolver()).orElse(null);
+        }
+
+        // the load only begins once the snapshot is known to be valid, so there's never one left unfinished
+        long start = System.nanoTime();
+        Map<String, Object> snapshotted = ConfigSnapshot.read(snapshot, file, context.getResolver()).orElse(null);
+        if (snapshotted != null) {
+            recorder.beginLoad(snapshot.toString(), start);
+            recorder.addNanos(LoadPhase.READ, System.nanoTime() - start);
+            recorder.addBytesRead(snapshot.toFile().length());
+            recorder.endLoad(null);
+        }
+        return snapshotted;
+    }
+
+    /**
+     * Open the content as a stream of documents. When the load is recorded, it's reported to the listeners
+     * when the stream is closed, or when it fails.
+     * @param context the context of the load
+     * @param source the name of what's being loaded
+     * @param opener opens the processed content
+     * @param type the target type
+     * @param <T> the target type
+     * @return the stream of documents
+     */
+    private <T> Stream<T> streamFrom(LoadContext context, String source, Supplier<Reader> opener, Class<T> type) {
+        LoadRecorder recorder = context.getRecorder();
+        if (recorder == null) {
+            return getYamlPool().loadAll(opener.get(), type, null, bindingExecutor).map(this::compacted);
+        }
+
+        recorder.beginLoad(source);
+        try {
+            return getYamlPool().loadAll(recorder.timed(LoadPhase.READ, opener), type, recorder, bindingExecutor)
+                .map(this::compacted)
+                .onClose(() -> recorder.endLoad(null));
+        } catch (RuntimeException e) {
+            recorder.endLoad(e);
+            throw e;
+        }
+    }
+
+    private <T> long visitFrom(LoadContext context, String source, Supplier<Reader> opener, String path,
+                               Class<T> type, Consumer<? super T> consumer) {
+        LoadRecorder recorder = context.getRecorder();
+        if (recorder == null) {
+            return visitContent(opener.get(), path, type, consumer, null);
+        }
+        return recorder.recordLoad(source,
+            () -> visitContent(recorder.timed(LoadPhase.READ, opener), path, type, consumer, recorder));
+    }
+
+    private <T> long visitContent(Reader source, String path, Class<T> type, Consumer<? super T> consumer,
+                                  LoadRecorder recorder) {
+        Optional<ConfigBinder<T>> binder = ConfigBinders.find(type);
+        try (Reader reader = source) {
+            if (binder.isPresent()) {
+                return getYamlPool().visit(reader, path, Object.class,
+                    values -> consumer.accept(bindGenerated(values, binder.get(), recorder)), recorder);
+            }
+            return getYamlPool().visit(reader, path, type, value -> consumer.accept(compacted(value)), recorder);
+        } catch (IOException e) {
+            throw new ConfigLoaderException("Cannot read the content: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parse the content of a reader as it is read, closing it afterwards. If the target type has a generated
+     * {@link ConfigBinder}, the content is loaded as a map and bound by that, rather than by reflection.
+     * @param source the processed content
+     * @param type the target type
+     * @param recorder the recorder of the load, or <code>null</code>
+     * @param <T> the target type
+     * @return the loaded object
+     */
+    private <T> T parse(Reader source, Class<T> type, LoadRecorder recorder) {
+        Optional<ConfigBinder<T>> binder = ConfigBinders.find(type);
+        try (Reader reader = source) {
+            if (binder.isPresent()) {
+                return bindGenerated(getYamlPool().loadAs(reader, Object.class, recorder), binder.get(), recorder);
+            }
+            return compacted(getYamlPool().loadAs(reader, type, recorder));
+        } catch (IOException e) {
+            throw new ConfigLoaderException("Cannot read the content: " + e.getMessage(), e);
+        }
+    }
+
+    private <T> T parseMerged(Fragment fragment, Class<T> type, LoadRecorder recorder) {
+        Optional<ConfigBinder<T>> binder = ConfigBinders.find(type);
+        if (binder.isPresent()) {
+            Object values = getYamlPool().loadMerged(fragment, parsedFragmentCache, Object.class, recorder);
+            return bindGenerated(values, binder.get(), recorder);
+        }
+        return compacted(getYamlPool().loadMerged(fragment, parsedFragmentCache, type, recorder));
+    }
+
+    /**
+     * Bind loaded values with a generated binder
+     * @param values the values loaded from the content
+     * @param binder the binder of the target type
+     * @param recorder the recorder of the load, or <code>null</code>
+     * @param <T> the target type
+     * @return the loaded object, or <code>null</code> if the content is empty
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T bindGenerated(Object values, ConfigBinder<T> binder, LoadRecorder recorder) {
+        if (values == null) {
+            return null;
+        }
+        if (!(values instanceof Map)) {
+            throw new ConfigLoaderException("Cannot bind " + binder.getType().getName() +
+                " from content which is not a map");
+        }
+
+        Map<String, Object> map = (Map<String, Object>) values;
+        if (recorder == null) {
+            return binder.bind(map, "");
+        }
+        return recorder.timed(LoadPhase.BIND, () -> binder.bind(map, ""));
+    }
+
+    /**
+     * Compact a loaded map, if there's a compactor
+     * @param loaded the loaded value
+     * @param <T> the type of the value
+     * @return the compacted map, or the value as it was loaded
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T compacted(T loaded) {
+        if (compactor == null || !(loaded instanceof Map)) {
+            return loaded;
+        }
+        return (T) compactor.compact((Map<String, ?>) loaded);
+    }
+
+    /**
+     * Get the pool of YAML engines, building it if the tags have changed since it was last used
+     * @return the yaml pool
+     */
+    private YamlPool getYamlPool() {
+        YamlPool pool = yamlPool;
+        if (pool == null) {
+            synchronized (this) {
+                if (yamlPool == null) {
+                    yamlPool = new YamlPool(cachedTags(), batchTags, tagExecution);
+                }
+                pool = yamlPool;
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * The scalar tags, reading through the tag cache if there is one
+     * @return the tag resolvers, keyed by tag name
+     */
+    private Map<String, Function<String, ?>> cachedTags() {
+        if (tagCache == null) {
+            return tags;
+        }
+        Map<String, Function<String, ?>> cached = new HashMap<>();
+        tags.forEach((name, resolver) -> cached.put(name, tagCache.cached(name, resolver)));
+        return cached;
+    }
+
+    /**
+     * The executor of the <code>loadAsync</code> methods
+     * @return the executor set by {@link #withAsyncExecutor(Executor)}, or the default
+     */
+    private Executor getAsyncExecutor() {
+        return asyncExecutor == null ? ImportExecutors.defaultExecutor() : asyncExecutor;
+    }
+}
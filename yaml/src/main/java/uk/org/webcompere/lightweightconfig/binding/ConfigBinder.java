@@ -0,0 +1,27 @@
+package uk.org.webcompere.lightweightconfig.binding;
+
+import java.util.Map;
+
+/**
+ * Binds the loaded values of a configuration file into an object, without reflection. Binders are generated
+ * for classes annotated with {@link ConfigType}, and are found through the {@link java.util.ServiceLoader},
+ * which native images support without any extra configuration.
+ * @param <T> the type which is bound
+ */
+public interface ConfigBinder<T> {
+    /**
+     * Get the type this binds
+     * @return the type
+     */
+    Class<T> getType();
+
+    /**
+     * Create an object from the loaded values. Values with no matching property are ignored, and properties
+     * with no value are left as they are.
+     * @param values the values, as loaded by {@link uk.org.webcompere.lightweightconfig.ConfigLoader#load}
+     * @param path the path of the values within the file, for error messages - empty at the top level
+     * @return the new object
+     * @throws uk.org.webcompere.lightweightconfig.ConfigLoaderException if a value can't be converted
+     */
+    T bind(Map<String, Object> values, String path);
+}
@@ -0,0 +1,88 @@
+package uk.org.webcompere.lightweightconfig.binding;
+
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.WeakHashMap;
+
+/**
+ * Finds the generated {@link ConfigBinder} of a type, if it has one. The binders of a class loader are indexed
+ * by type the first time a type from it is looked up, and each type is only looked up once.
+ */
+public final class ConfigBinders {
+    private static final ClassValue<Optional<ConfigBinder<?>>> BINDERS = new ClassValue<Optional<ConfigBinder<?>>>() {
+        @Override
+        protected Optional<ConfigBinder<?>> computeValue(Class<?> type) {
+            return lookUp(type);
+        }
+    };
+
+    /**
+     * The names of the binder classes of each class loader, by the name of the type they bind. Only names are
+     * kept, so that the index doesn't stop a class loader from being unloaded.
+     */
+    private static final Map<ClassLoader, Map<String, String>> INDEX = new WeakHashMap<>();
+
+    private ConfigBinders() {
+    }
+
+    /**
+     * Find the binder of a type
+     * @param type the type
+     * @param <T> the type
+     * @return the binder, or empty if none was generated for the type
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Optional<ConfigBinder<T>> find(Class<T> type) {
+        return BINDERS.get(type).map(binder -> (ConfigBinder<T>) binder);
+    }
+
+    private static Optional<ConfigBinder<?>> lookUp(Class<?> type) {
+        ClassLoader classLoader = type.getClassLoader();
+        if (classLoader == null) {
+            // a JDK type, such as Map
+            return Optional.empty();
+        }
+
+        String binderName = index(classLoader).get(type.getName());
+        if (binderName == null) {
+            return Optional.empty();
+        }
+        ConfigBinder<?> binder = create(classLoader, binderName);
+        // a type of the same name from another class loader has its own binder
+        return binder.getType() == type ? Optional.of(binder) : Optional.empty();
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static synchronized Map<String, String> index(ClassLoader classLoader) {
+        Map<String, String> binders = INDEX.get(classLoader);
+        if (binders == null) {
+            binders = new HashMap<>();
+            try {
+                for (ConfigBinder binder : ServiceLoader.load(ConfigBinder.class, classLoader)) {
+                    binders.putIfAbsent(binder.getType().getName(), binder.getClass().getName());
+                }
+            } catch (ServiceConfigurationError e) {
+                throw new ConfigLoaderException("Cannot load the config binders: " + e.getMessage(), e);
+            }
+            INDEX.put(classLoader, binders);
+        }
+        return binders;
+    }
+
+    private static ConfigBinder<?> create(ClassLoader classLoader, String binderName) {
+        try {
+            return Class.forName(binderName, true, classLoader)
+                .asSubclass(ConfigBinder.class)
+                .getDeclaredConstructor()
+                .newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new ConfigLoaderException("Cannot create the config binder " + binderName + ": " +
+                e.getMessage(), e);
+        }
+    }
+}
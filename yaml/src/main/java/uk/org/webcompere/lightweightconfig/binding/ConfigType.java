@@ -0,0 +1,19 @@
+package uk.org.webcompere.lightweightconfig.binding;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a class which configuration is loaded into. When the <code>lightweight-config-processor</code>
+ * annotation processor is on the compiler's path, it generates a {@link ConfigBinder} for the class, which
+ * {@link uk.org.webcompere.lightweightconfig.ConfigLoader#loadAs} then uses instead of reflection.
+ * Without the processor, the annotation has no effect.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface ConfigType {
+}
@@ -0,0 +1,335 @@
+package uk.org.webcompere.lightweightconfig.binding;
+
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converts loaded values to the types of the properties they're bound to. Used by generated
+ * {@link ConfigBinder}s. Numbers may be given as strings, and are converted to smaller types
+ * as long as they fit; anything else which can't be converted fails with a {@link ConfigLoaderException}
+ * naming the path of the value.
+ */
+public final class Conversions {
+    private Conversions() {
+    }
+
+    /**
+     * Converts one value
+     * @param <T> the type it's converted to
+     */
+    @FunctionalInterface
+    public interface Converter<T> {
+        /**
+         * Convert a value
+         * @param value the value, which is not <code>null</code>
+         * @param path the path of the value
+         * @return the converted value
+         */
+        T convert(Object value, String path);
+    }
+
+    /**
+     * Get the path of a property of an object
+     * @param path the path of the object
+     * @param name the name of the property
+     * @return the path of the property
+     */
+    public static String child(String path, String name) {
+        return path.isEmpty() ? name : path + "." + name;
+    }
+
+    /**
+     * Convert to a string. Scalars, such as numbers, are converted to their string form
+     * @param value the value
+     * @param path the path of the value
+     * @return the string
+     */
+    public static String toStringValue(Object value, String path) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return value.toString();
+        }
+        throw cannotConvert(value, "String", path);
+    }
+
+    /**
+     * Convert to an <code>int</code>
+     * @param value the value
+     * @param path the path of the value
+     * @return the converted value
+     */
+    public static int toInt(Object value, String path) {
+        if (value instanceof Integer) {
+            return (Integer) value;
+        }
+        try {
+            return toNumber(value, "int", path).intValueExact();
+        } catch (ArithmeticException e) {
+            throw cannotConvert(value, "int", path);
+        }
+    }
+
+    /**
+     * Convert to a <code>long</code>
+     * @param value the value
+     * @param path the path of the value
+     * @return the converted value
+     */
+    public static long toLong(Object value, String path) {
+        if (value instanceof Long || value instanceof Integer) {
+            return ((Number) value).longValue();
+        }
+        try {
+            return toNumber(value, "long", path).longValueExact();
+        } catch (ArithmeticException e) {
+            throw cannotConvert(value, "long", path);
+        }
+    }
+
+    /**
+     * Convert to a <code>short</code>
+     * @param value the value
+     * @param path the path of the value
+     * @return the converted value
+     */
+    public static short toShort(Object value, String path) {
+        try {
+            return toNumber(value, "short", path).shortValueExact();
+        } catch (ArithmeticException e) {
+            throw cannotConvert(value, "short", path);
+        }
+    }
+
+    /**
+     * Convert to a <code>byte</code>
+     * @param value the value
+     * @param path the path of the value
+     * @return the converted value
+     */
+    public static byte toByte(Object value, String path) {
+        try {
+            return toNumber(value, "byte", path).byteValueExact();
+        } catch (ArithmeticException e) {
+            throw cannotConvert(value, "byte", path);
+        }
+    }
+
+    /**
+     * Convert to a <code>double</code>
+     * @param value the value
+     * @param path the path of the value
+     * @return the converted value
+     */
+    public static double toDouble(Object value, String path) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Double.parseDouble(((String) value).trim());
+            } catch (NumberFormatException e) {
+                throw cannotConvert(value, "double", path);
+            }
+        }
+        throw cannotConvert(value, "double", path);
+    }
+
+    /**
+     * Convert to a <code>float</code>
+     * @param value the value
+     * @param path the path of the value
+     * @return the converted value
+     */
+    public static float toFloat(Object value, String path) {
+        return (float) toDouble(value, path);
+    }
+
+    /**
+     * Convert to a <code>boolean</code>
+     * @param value the value, which may be the string <code>true</code> or <code>false</code>
+     * @param path the path of the value
+     * @return the converted value
+     */
+    public static boolean toBoolean(Object value, String path) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if ("true".equalsIgnoreCase(String.valueOf(value).trim())) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(String.valueOf(value).trim())) {
+            return false;
+        }
+        throw cannotConvert(value, "boolean", path);
+    }
+
+    /**
+     * Convert to a <code>char</code>
+     * @param value the value, which must be a single character
+     * @param path the path of the value
+     * @return the converted value
+     */
+    public static char toChar(Object value, String path) {
+        if (value instanceof Character) {
+            return (Character) value;
+        }
+        if (value instanceof String && ((String) value).length() == 1) {
+            return ((String) value).charAt(0);
+        }
+        throw cannotConvert(value, "char", path);
+    }
+
+    /**
+     * Convert to a {@link BigDecimal}
+     * @param value the value
+     * @param path the path of the value
+     * @return the converted value
+     */
+    public static BigDecimal toBigDecimal(Object value, String path) {
+        return toNumber(value, "BigDecimal", path);
+    }
+
+    /**
+     * Convert to a {@link BigInteger}
+     * @param value the value
+     * @param path the path of the value
+     * @return the converted value
+     */
+    public static BigInteger toBigInteger(Object value, String path) {
+        if (value instanceof BigInteger) {
+            return (BigInteger) value;
+        }
+        try {
+            return toNumber(value, "BigInteger", path).toBigIntegerExact();
+        } catch (ArithmeticException e) {
+            throw cannotConvert(value, "BigInteger", path);
+        }
+    }
+
+    /**
+     * Convert the name of a constant to an enum
+     * @param type the type of the enum
+     * @param value the value
+     * @param path the path of the value
+     * @param <E> the type of the enum
+     * @return the constant
+     */
+    public static <E extends Enum<E>> E toEnum(Class<E> type, Object value, String path) {
+        try {
+            return Enum.valueOf(type, toStringValue(value, path));
+        } catch (IllegalArgumentException e) {
+            throw cannotConvert(value, type.getSimpleName(), path);
+        }
+    }
+
+    /**
+     * Bind a nested object
+     * @param value the value, which must be a map
+     * @param path the path of the value
+     * @param binder the binder of the object's type
+     * @param <T> the type of the object
+     * @return the bound object
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T toObject(Object value, String path, ConfigBinder<T> binder) {
+        if (value instanceof Map) {
+            return binder.bind((Map<String, Object>) value, path);
+        }
+        throw cannotConvert(value, binder.getType().getSimpleName(), path);
+    }
+
+    /**
+     * Convert to a list, converting each element
+     * @param value the value, which must be a list
+     * @param path the path of the value
+     * @param element the converter of the elements
+     * @param <T> the type of the elements
+     * @return the list
+     */
+    public static <T> List<T> toList(Object value, String path, Converter<T> element) {
+        return addAll(new ArrayList<>(), value, path, element);
+    }
+
+    /**
+     * Convert to a set, converting each element, and keeping the order of the file
+     * @param value the value, which must be a list
+     * @param path the path of the value
+     * @param element the converter of the elements
+     * @param <T> the type of the elements
+     * @return the set
+     */
+    public static <T> Set<T> toSet(Object value, String path, Converter<T> element) {
+        return addAll(new LinkedHashSet<>(), value, path, element);
+    }
+
+    /**
+     * Convert to a map with string keys, converting each value, and keeping the order of the file
+     * @param value the value, which must be a map
+     * @param path the path of the value
+     * @param entry the converter of the values
+     * @param <T> the type of the values
+     * @return the map
+     */
+    public static <T> Map<String, T> toMap(Object value, String path, Converter<T> entry) {
+        if (!(value instanceof Map)) {
+            throw cannotConvert(value, "Map", path);
+        }
+        Map<String, T> result = new LinkedHashMap<>();
+        ((Map<?, ?>) value).forEach((key, item) -> {
+            String name = String.valueOf(key);
+            result.put(name, item == null ? null : entry.convert(item, child(path, name)));
+        });
+        return result;
+    }
+
+    private static BigDecimal toNumber(Object value, String type, String path) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        }
+        if (value instanceof Number) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        if (value instanceof String) {
+            try {
+                return new BigDecimal(((String) value).trim());
+            } catch (NumberFormatException e) {
+                throw cannotConvert(value, type, path);
+            }
+        }
+        throw cannotConvert(value, type, path);
+    }
+
+    private static <T, C extends Collection<T>> C addAll(C result, Object value, String path, Converter<T> element) {
+        if (!(value instanceof Collection)) {
+            throw cannotConvert(value, "List", path);
+        }
+        int index = 0;
+        for (Object item : (Collection<?>) value) {
+            result.add(item == null ? null : element.convert(item, path + "[" + index + "]"));
+            index++;
+        }
+        return result;
+    }
+
+    private static ConfigLoaderException cannotConvert(Object value, String type, String path) {
+        return new ConfigLoaderException("Cannot convert " + value + " to " + type + " at " +
+            (path.isEmpty() ? "the top level" : path));
+    }
+}
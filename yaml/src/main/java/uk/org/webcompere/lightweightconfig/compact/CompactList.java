@@ -0,0 +1,25 @@
+package uk.org.webcompere.lightweightconfig.compact;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of a loaded configuration, made by {@link ConfigCompactor}, which holds only an array
+ */
+final class CompactList extends AbstractList<Object> implements RandomAccess {
+    private final Object[] items;
+
+    CompactList(Object[] items) {
+        this.items = items;
+    }
+
+    @Override
+    public Object get(int index) {
+        return items[index];
+    }
+
+    @Override
+    public int size() {
+        return items.length;
+    }
+}
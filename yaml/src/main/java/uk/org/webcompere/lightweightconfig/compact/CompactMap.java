@@ -0,0 +1,76 @@
+package uk.org.webcompere.lightweightconfig.compact;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable map of a loaded configuration, made by {@link ConfigCompactor}. It holds only an array of its
+ * values - its keys are in a {@link Shape} shared with every other map at the same path with the same keys.
+ * Entries are iterated in the order they were loaded.
+ */
+public final class CompactMap extends AbstractMap<String, Object> {
+    private final Shape shape;
+    private final Object[] values;
+
+    CompactMap(Shape shape, Object[] values) {
+        this.shape = shape;
+        this.values = values;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return shape.indexOf(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int position = shape.indexOf(key);
+        return position < 0 ? null : values[position];
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Object>>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return new Iterator<Map.Entry<String, Object>>() {
+                    private int position;
+
+                    @Override
+                    public boolean hasNext() {
+                        return position < values.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, Object> next() {
+                        if (position == values.length) {
+                            throw new NoSuchElementException();
+                        }
+                        Map.Entry<String, Object> entry =
+                            new SimpleImmutableEntry<>(shape.key(position), values[position]);
+                        position++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+
+    Shape getShape() {
+        return shape;
+    }
+}
@@ -0,0 +1,144 @@
+package uk.org.webcompere.lightweightconfig.compact;
+
+import uk.org.webcompere.lightweightconfig.properties.ConfigProperties;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts loaded configurations into a compact, immutable form, for processes which hold many similar
+ * configurations - e.g. one per tenant. Keys and repeated values such as host names, flags and enum-like
+ * strings are held once, in a pool shared by every configuration the compactor converts, and each map's keys
+ * are in an array shared by every map at the same path with the same keys, found through a trie of the key
+ * paths. Each map then holds just an array of its values. Compacted maps and lists can't be modified.<br>
+ * A compactor can be shared between threads and loaders. It holds the values it pools for as long as it's
+ * reachable, up to its limits, so should be scoped to the configurations which share values.
+ */
+public class ConfigCompactor {
+    private static final int DEFAULT_MAXIMUM_VALUES = 100_000;
+    private static final int DEFAULT_MAXIMUM_PATHS = 10_000;
+
+    private final InternPool pool;
+    private final KeyTrie paths;
+
+    /**
+     * Construct a compactor with the default limits of 100,000 pooled values and 10,000 key paths
+     */
+    public ConfigCompactor() {
+        this(DEFAULT_MAXIMUM_VALUES, DEFAULT_MAXIMUM_PATHS);
+    }
+
+    /**
+     * Construct a compactor with limits. Once a limit is reached, new values or paths are no longer shared, but
+     * configurations are still compacted.
+     * @param maximumValues the most keys and values to pool
+     * @param maximumPaths the most key paths to share the keys of maps for
+     */
+    public ConfigCompactor(int maximumValues, int maximumPaths) {
+        if (maximumPaths < 1) {
+            throw new IllegalArgumentException("The maximum number of paths must be at least 1");
+        }
+        this.pool = new InternPool(maximumValues);
+        this.paths = new KeyTrie(maximumPaths);
+    }
+
+    /**
+     * Compact a loaded configuration - e.g. as loaded by <code>ConfigLoader.load</code>
+     * @param loaded the configuration
+     * @return an immutable copy, with its maps and lists compacted and its values pooled, or <code>null</code>
+     *     if the configuration is <code>null</code>, as an empty file loads
+     */
+    public Map<String, Object> compact(Map<String, ?> loaded) {
+        if (loaded == null) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> compacted = loaded instanceof CompactMap ?
+            (CompactMap) loaded : (Map<String, Object>) compactMap(loaded, paths);
+        return compacted;
+    }
+
+    /**
+     * Compact a set of properties - e.g. as loaded by <code>ConfigLoader.loadProperties</code>
+     * @param properties the properties
+     * @return immutable properties, with their keys and values pooled
+     */
+    public ConfigProperties compactProperties(Map<?, ?> properties) {
+        return ConfigProperties.from(properties, pool::intern);
+    }
+
+    /**
+     * The number of keys and values which are pooled
+     * @return the pool size
+     */
+    public int getPooledValues() {
+        return pool.size();
+    }
+
+    /**
+     * The number of key paths whose maps share their keys
+     * @return the number of paths, including the root
+     */
+    public int getPaths() {
+        return paths.size();
+    }
+
+    /**
+     * Compact a value
+     * @param value the value
+     * @param parent the path of the map or list which holds it
+     * @param key its key in the parent, or {@link KeyTrie#ITEMS} for an item of a list
+     * @return the compacted value
+     */
+    private Object compactValue(Object value, KeyTrie parent, String key) {
+        if (value instanceof CompactMap || value instanceof CompactList) {
+            return value;
+        }
+        if (value instanceof Map) {
+            return compactMap((Map<?, ?>) value, parent.child(key));
+        }
+        if (value instanceof List) {
+            return compactList((List<?>) value, parent.child(key));
+        }
+        return pool.intern(value);
+    }
+
+    private Object compactMap(Map<?, ?> map, KeyTrie path) {
+        String[] keys = new String[map.size()];
+        Object[] values = new Object[map.size()];
+        int position = 0;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!(entry.getKey() instanceof String)) {
+                return copyMap(map, path);
+            }
+            keys[position] = pool.intern((String) entry.getKey());
+            values[position] = compactValue(entry.getValue(), path, keys[position]);
+            position++;
+        }
+        return new CompactMap(path.shape(keys), values);
+    }
+
+    private Object compactList(List<?> list, KeyTrie path) {
+        Object[] items = new Object[list.size()];
+        int position = 0;
+        for (Object item : list) {
+            items[position++] = compactValue(item, path, KeyTrie.ITEMS);
+        }
+        return new CompactList(items);
+    }
+
+    /**
+     * Copy a map which has keys which are not strings - e.g. numbers - as a {@link CompactMap} can't hold them
+     * @param map the map
+     * @param path its path
+     * @return an immutable copy with its keys and values pooled
+     */
+    private Map<Object, Object> copyMap(Map<?, ?> map, KeyTrie path) {
+        Map<Object, Object> copy = new LinkedHashMap<>();
+        map.forEach((key, value) ->
+            copy.put(pool.intern(key), compactValue(value, path, String.valueOf(key))));
+        return Collections.unmodifiableMap(copy);
+    }
+}
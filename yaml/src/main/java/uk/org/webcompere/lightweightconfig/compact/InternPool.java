@@ -0,0 +1,69 @@
+package uk.org.webcompere.lightweightconfig.compact;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A pool of canonical copies of immutable values - strings, boxed numbers and characters - so that equal
+ * values loaded into many configurations are held once. Unlike {@link String#intern()}, the pool belongs to
+ * its owner, so it's collected with it, and it's bounded: once full, values which aren't already pooled are
+ * returned as they are. Long strings are never pooled, as they're rarely repeated.
+ */
+public class InternPool {
+    static final int MAXIMUM_INTERNED_LENGTH = 256;
+
+    private final int maximumSize;
+    private final ConcurrentHashMap<Object, Object> values = new ConcurrentHashMap<>();
+
+    /**
+     * Construct a pool with a size limit
+     * @param maximumSize the most values to hold
+     */
+    public InternPool(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be at least 1");
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Get the canonical copy of a value
+     * @param value the value, which may be of any type
+     * @param <T> the type of the value
+     * @return the pooled copy of an equal value, or the value itself if it's the first of its kind, can't be
+     *     pooled, or the pool is full
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T intern(T value) {
+        if (!isInternable(value)) {
+            return value;
+        }
+        Object pooled = values.get(value);
+        if (pooled != null) {
+            return (T) pooled;
+        }
+        if (values.size() >= maximumSize) {
+            return value;
+        }
+        pooled = values.putIfAbsent(value, value);
+        return pooled == null ? value : (T) pooled;
+    }
+
+    /**
+     * The number of values in the pool
+     * @return the number of pooled values
+     */
+    public int size() {
+        return values.size();
+    }
+
+    private static boolean isInternable(Object value) {
+        if (value instanceof String) {
+            return ((String) value).length() <= MAXIMUM_INTERNED_LENGTH;
+        }
+        return value instanceof Integer || value instanceof Long || value instanceof Double ||
+            value instanceof Float || value instanceof Short || value instanceof Byte ||
+            value instanceof Character || value instanceof BigInteger || value instanceof BigDecimal;
+    }
+}
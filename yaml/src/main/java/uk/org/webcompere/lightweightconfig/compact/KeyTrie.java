@@ -0,0 +1,84 @@
+package uk.org.webcompere.lightweightconfig.compact;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A trie of the paths of the maps in the configurations compacted by one {@link ConfigCompactor}, where each
+ * node is a key, or <code>[]</code> for the items of a list. Each node holds the {@link Shape shapes} of the
+ * maps found at its path, so that e.g. the <code>database</code> maps of many tenants' configurations share
+ * one array of keys. The number of nodes, and of shapes per node, is bounded - beyond the bounds, paths and
+ * shapes are still built, but not shared.
+ */
+final class KeyTrie {
+    static final String ITEMS = "[]";
+    static final int MAXIMUM_SHAPES_PER_PATH = 16;
+
+    private final AtomicInteger nodes;
+    private final int maximumNodes;
+    private final ConcurrentHashMap<String, KeyTrie> children = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<List<String>, Shape> shapes = new ConcurrentHashMap<>();
+
+    /**
+     * Construct the root of a trie
+     * @param maximumNodes the most nodes to hold
+     */
+    KeyTrie(int maximumNodes) {
+        this(new AtomicInteger(1), maximumNodes);
+    }
+
+    private KeyTrie(AtomicInteger nodes, int maximumNodes) {
+        this.nodes = nodes;
+        this.maximumNodes = maximumNodes;
+    }
+
+    /**
+     * Get the node of a key below this one
+     * @param key the key, or {@link #ITEMS} for the items of a list
+     * @return the child node
+     */
+    KeyTrie child(String key) {
+        KeyTrie child = children.get(key);
+        if (child != null) {
+            return child;
+        }
+        if (nodes.get() >= maximumNodes) {
+            return new KeyTrie(nodes, maximumNodes);
+        }
+
+        KeyTrie created = new KeyTrie(nodes, maximumNodes);
+        child = children.putIfAbsent(key, created);
+        if (child != null) {
+            return child;
+        }
+        nodes.incrementAndGet();
+        return created;
+    }
+
+    /**
+     * Get the shared shape of a map at this path
+     * @param keys the keys of the map, in order, which are kept if this is the first map with them
+     * @return the shape
+     */
+    Shape shape(String[] keys) {
+        List<String> identity = Arrays.asList(keys);
+        Shape shape = shapes.get(identity);
+        if (shape != null) {
+            return shape;
+        }
+        if (shapes.size() >= MAXIMUM_SHAPES_PER_PATH) {
+            return new Shape(keys);
+        }
+        return shapes.computeIfAbsent(identity, unused -> new Shape(keys));
+    }
+
+    /**
+     * The number of nodes in the trie
+     * @return the node count
+     */
+    int size() {
+        return nodes.get();
+    }
+}
@@ -0,0 +1,77 @@
+package uk.org.webcompere.lightweightconfig.compact;
+
+/**
+ * The keys of a {@link CompactMap}, in order, shared by every map at the same path with the same keys. A
+ * small map's keys are searched in order, as that's quicker than hashing; a larger one's are indexed by an
+ * open-addressing table.
+ */
+final class Shape {
+    private static final int INDEXED_SIZE = 8;
+    private static final int FIBONACCI_MULTIPLIER = 0x9E37_79B9;
+
+    private final String[] keys;
+    private final int[] index;
+    private final int shift;
+
+    Shape(String[] keys) {
+        this.keys = keys;
+        if (keys.length <= INDEXED_SIZE) {
+            index = null;
+            shift = 0;
+            return;
+        }
+
+        int capacity = Integer.highestOneBit(keys.length * 2 - 1) << 1;
+        index = new int[capacity];
+        shift = Integer.numberOfLeadingZeros(capacity - 1);
+        for (int i = 0; i < keys.length; i++) {
+            int slot = slot(keys[i]);
+            while (index[slot] != 0) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            // stored one higher, so that 0 marks an empty slot
+            index[slot] = i + 1;
+        }
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    String key(int position) {
+        return keys[position];
+    }
+
+    /**
+     * Find the position of a key
+     * @param key the key
+     * @return its position, or -1 if it's not one of the keys
+     */
+    int indexOf(Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        if (index == null) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        int slot = slot((String) key);
+        while (index[slot] != 0) {
+            int position = index[slot] - 1;
+            if (keys[position].equals(key)) {
+                return position;
+            }
+            slot = (slot + 1) & (index.length - 1);
+        }
+        return -1;
+    }
+
+    private int slot(String key) {
+        return (key.hashCode() * FIBONACCI_MULTIPLIER) >>> shift;
+    }
+}
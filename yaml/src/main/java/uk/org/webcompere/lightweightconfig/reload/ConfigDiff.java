@@ -0,0 +1,294 @@
+package uk.org.webcompere.lightweightconfig.reload;
+
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The differences between two loads of a configuration, as the paths of the values which were changed, added
+ * or removed - e.g. <code>server.http.port</code> or <code>routes[3].url</code>, as {@code ConfigView} names
+ * them. Maps and lists are compared entry by entry, as are the fields of bound objects, so only the values
+ * which differ are reported. When a whole map or list is added or removed, only its own path is reported.<br>
+ * A value which refers back to a map, list or object containing it - e.g. through a YAML alias of an enclosing
+ * anchor - is not followed again, as its differences are reported at the path where it was first reached.
+ */
+public final class ConfigDiff {
+    private static final ClassValue<List<Field>> FIELDS = new ClassValue<List<Field>>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            return findFields(type);
+        }
+    };
+
+    private final Set<String> changed = new TreeSet<>();
+    private final Set<String> added = new TreeSet<>();
+    private final Set<String> removed = new TreeSet<>();
+
+    // the maps, lists and objects on the path being compared, to stop at a back-reference to one of them
+    private final Set<Object> previousAncestors = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Object> nextAncestors = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private ConfigDiff() {
+    }
+
+    /**
+     * Compare two loads of a configuration
+     * @param previous the earlier configuration - a map, as loaded by <code>ConfigLoader.load</code>, or an
+     *                 object it was bound to
+     * @param next the later configuration
+     * @return the differences
+     */
+    public static ConfigDiff between(Object previous, Object next) {
+        ConfigDiff diff = new ConfigDiff();
+        diff.compare("", previous, next);
+        return diff;
+    }
+
+    /**
+     * Whether the two configurations were the same
+     * @return true if nothing was changed, added or removed
+     */
+    public boolean isEmpty() {
+        return changed.isEmpty() && added.isEmpty() && removed.isEmpty();
+    }
+
+    /**
+     * The paths of values which are in both configurations, but differ
+     * @return the paths, in order
+     */
+    public Set<String> getChanged() {
+        return Collections.unmodifiableSet(changed);
+    }
+
+    /**
+     * The paths of values which are only in the later configuration
+     * @return the paths, in order
+     */
+    public Set<String> getAdded() {
+        return Collections.unmodifiableSet(added);
+    }
+
+    /**
+     * The paths of values which are only in the earlier configuration
+     * @return the paths, in order
+     */
+    public Set<String> getRemoved() {
+        return Collections.unmodifiableSet(removed);
+    }
+
+    /**
+     * Whether anything at or within a path differs - e.g. a change to <code>database.pool.size</code> affects
+     * <code>database</code>. A path within a map which was added or removed as a whole is affected too.
+     * @param path the path, which is empty for the whole configuration
+     * @return true if the path is affected
+     */
+    public boolean affects(String path) {
+        return affects(changed, path) || affects(added, path) || affects(removed, path);
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigDiff{changed=" + changed + ", added=" + added + ", removed=" + removed + "}";
+    }
+
+    private static boolean affects(Set<String> paths, String path) {
+        if (path.isEmpty()) {
+            return !paths.isEmpty();
+        }
+        for (String candidate : paths) {
+            if (isWithin(candidate, path) || isWithin(path, candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWithin(String path, String parent) {
+        if (parent.isEmpty()) {
+            return true;
+        }
+        if (!path.startsWith(parent)) {
+            return false;
+        }
+        return path.length() == parent.length() ||
+            path.charAt(parent.length()) == '.' ||
+            path.charAt(parent.length()) == '[';
+    }
+
+    private void compare(String path, Object previous, Object next) {
+        if (previous == next) {
+            return;
+        }
+
+        Map<String, Object> previousEntries = entries(previous);
+        Map<String, Object> nextEntries = entries(next);
+        if (previousEntries != null && nextEntries != null) {
+            descend(path, previous, next, () -> compareEntries(path, previousEntries, nextEntries));
+            return;
+        }
+
+        List<Object> previousItems = items(previous);
+        List<Object> nextItems = items(next);
+        if (previousItems != null && nextItems != null) {
+            descend(path, previous, next, () -> compareItems(path, previousItems, nextItems));
+            return;
+        }
+
+        if (!Objects.deepEquals(previous, next)) {
+            changed.add(path);
+        }
+    }
+
+    /**
+     * Compare the contents of two maps, lists or objects, unless either is already being compared further up
+     * the path. Back-references on both sides lead to contents which are compared already; one on only one side
+     * means the shape of the configuration has changed there.
+     * @param path the path of the values
+     * @param previous the earlier value
+     * @param next the later value
+     * @param comparison compares their contents
+     */
+    private void descend(String path, Object previous, Object next, Runnable comparison) {
+        boolean previousRepeats = !previousAncestors.add(previous);
+        boolean nextRepeats = !nextAncestors.add(next);
+        try {
+            if (previousRepeats || nextRepeats) {
+                if (previousRepeats != nextRepeats) {
+                    changed.add(path);
+                }
+                return;
+            }
+            comparison.run();
+        } finally {
+            if (!previousRepeats) {
+                previousAncestors.remove(previous);
+            }
+            if (!nextRepeats) {
+                nextAncestors.remove(next);
+            }
+        }
+    }
+
+    private void compareEntries(String path, Map<String, Object> previous, Map<String, Object> next) {
+        for (Map.Entry<String, Object> entry : previous.entrySet()) {
+            String childPath = path.isEmpty() ? entry.getKey() : path + "." + entry.getKey();
+            if (next.containsKey(entry.getKey())) {
+                compare(childPath, entry.getValue(), next.get(entry.getKey()));
+            } else {
+                removed.add(childPath);
+            }
+        }
+        for (String key : next.keySet()) {
+            if (!previous.containsKey(key)) {
+                added.add(path.isEmpty() ? key : path + "." + key);
+            }
+        }
+    }
+
+    private void compareItems(String path, List<Object> previous, List<Object> next) {
+        int common = Math.min(previous.size(), next.size());
+        for (int i = 0; i < common; i++) {
+            compare(path + "[" + i + "]", previous.get(i), next.get(i));
+        }
+        for (int i = common; i < previous.size(); i++) {
+            removed.add(path + "[" + i + "]");
+        }
+        for (int i = common; i < next.size(); i++) {
+            added.add(path + "[" + i + "]");
+        }
+    }
+
+    /**
+     * The entries of a map, or the fields of a bound object
+     * @param value the value
+     * @return the entries keyed by name, or <code>null</code> if the value has none
+     */
+    private static Map<String, Object> entries(Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> entries = new LinkedHashMap<>();
+            ((Map<?, ?>) value).forEach((key, child) -> entries.put(String.valueOf(key), child));
+            return entries;
+        }
+        if (value == null || isValue(value.getClass())) {
+            return null;
+        }
+
+        List<Field> fields = FIELDS.get(value.getClass());
+        if (fields == null) {
+            return null;
+        }
+        Map<String, Object> entries = new LinkedHashMap<>();
+        for (Field field : fields) {
+            try {
+                entries.put(field.getName(), field.get(value));
+            } catch (IllegalAccessException e) {
+                throw new ConfigLoaderException("Cannot read " + field.getName() + " of " +
+                    value.getClass().getName(), e);
+            }
+        }
+        return entries;
+    }
+
+    private static List<Object> items(Object value) {
+        if (value instanceof Collection && !(value instanceof Set)) {
+            return new ArrayList<>((Collection<?>) value);
+        }
+        if (value != null && value.getClass().isArray()) {
+            List<Object> items = new ArrayList<>();
+            for (int i = 0; i < Array.getLength(value); i++) {
+                items.add(Array.get(value, i));
+            }
+            return items;
+        }
+        return null;
+    }
+
+    /**
+     * Whether a type is compared as a whole - the types of the JDK, such as strings, numbers and dates, and
+     * enums. Sets are too, as their items have no paths.
+     * @param type the type
+     * @return true if its fields are not compared
+     */
+    private static boolean isValue(Class<?> type) {
+        String name = type.getName();
+        return type.isEnum() || type.isArray() || Collection.class.isAssignableFrom(type) ||
+            name.startsWith("java.") || name.startsWith("javax.");
+    }
+
+    /**
+     * Find the fields of a bound type, including those of its superclasses
+     * @param type the type
+     * @return the fields, or <code>null</code> if they can't be read, so the objects are compared as a whole
+     */
+    private static List<Field> findFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> current = type; current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                } catch (RuntimeException e) {
+                    // a class in a module which isn't open to this library
+                    return null;
+                }
+                fields.add(field);
+            }
+        }
+        return Collections.unmodifiableList(fields);
+    }
+}
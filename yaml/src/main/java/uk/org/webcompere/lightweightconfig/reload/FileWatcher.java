@@ -0,0 +1,255 @@
+package uk.org.webcompere.lightweightconfig.reload;
+
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Shares one {@link WatchService} per file system between all the configurations which are watching
+ * files on it. A {@link WatchService} watches directories, so the watcher registers each directory once,
+ * and passes events on to the listeners for the files within it, and to the listeners for globs which
+ * a file created in, or deleted from, the directory matches.
+ */
+class FileWatcher {
+    private static final Map<FileSystem, FileWatcher> WATCHERS = new ConcurrentHashMap<>();
+
+    private final WatchService watchService;
+    private final Map<Path, WatchedDirectory> directories = new HashMap<>();
+
+    private FileWatcher(WatchService watchService) {
+        this.watchService = watchService;
+    }
+
+    /**
+     * Get the watcher for the file system of a file
+     * @param file the file to be watched
+     * @return the shared watcher
+     */
+    static FileWatcher forFile(Path file) {
+        return WATCHERS.computeIfAbsent(file.getFileSystem(), FileWatcher::start);
+    }
+
+    /**
+     * Watch some files
+     * @param files the absolute paths of the files to watch
+     * @param onChange called, on the watcher's thread, whenever any of the files is created, changed or deleted
+     * @return a registration to close in order to stop watching
+     */
+    synchronized Closeable watch(Set<Path> files, Runnable onChange) {
+        return watch(files, Collections.emptyMap(), onChange);
+    }
+
+    /**
+     * Watch some files, and the files which come to match some globs
+     * @param files the absolute paths of the files to watch
+     * @param globs the absolute paths of directories, with the globs to match against the names of files which
+     *              are created in, or deleted from, them
+     * @param onChange called, on the watcher's thread, whenever any of the files is created, changed or deleted,
+     *                 or a file which matches a glob is created or deleted
+     * @return a registration to close in order to stop watching
+     */
+    synchronized Closeable watch(Set<Path> files, Map<Path, Set<String>> globs, Runnable onChange) {
+        List<Path> registered = new ArrayList<>();
+        for (Path file : files) {
+            Path directory = file.getParent();
+            if (directory == null) {
+                continue;
+            }
+            WatchedDirectory watched = register(directory);
+            if (watched != null) {
+                watched.add(file.getFileName(), onChange);
+                registered.add(file);
+            }
+        }
+
+        List<Path> registeredGlobs = new ArrayList<>();
+        globs.forEach((directory, patterns) -> {
+            WatchedDirectory watched = register(directory);
+            if (watched != null) {
+                for (String pattern : patterns) {
+                    watched.addGlob(directory.getFileSystem().getPathMatcher("glob:" + pattern), onChange);
+                }
+                registeredGlobs.add(directory);
+            }
+        });
+        return () -> unwatch(registered, registeredGlobs, onChange);
+    }
+
+    /**
+     * Is a file being watched
+     * @param file the absolute path of the file
+     * @return true if there is a listener for changes to the file
+     */
+    synchronized boolean isWatching(Path file) {
+        WatchedDirectory watched = directories.get(file.getParent());
+        return watched != null && watched.files.containsKey(file.getFileName());
+    }
+
+    /**
+     * Get the watch of a directory, registering it if it's not yet watched
+     * @param directory the directory
+     * @return the watch, or <code>null</code> if the directory can't be watched - e.g. as it doesn't exist
+     */
+    private WatchedDirectory register(Path directory) {
+        WatchedDirectory watched = directories.get(directory);
+        if (watched == null) {
+            try {
+                watched = new WatchedDirectory(directory.register(watchService,
+                    ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE));
+            } catch (IOException e) {
+                // it's still possible to watch the other files
+                return null;
+            }
+            directories.put(directory, watched);
+        }
+        return watched;
+    }
+
+    private synchronized void unwatch(List<Path> files, List<Path> globDirectories, Runnable onChange) {
+        for (Path file : files) {
+            Path directory = file.getParent();
+            WatchedDirectory watched = directories.get(directory);
+            if (watched != null) {
+                watched.remove(file.getFileName(), onChange);
+                cancelIfUnused(directory, watched);
+            }
+        }
+        for (Path directory : globDirectories) {
+            WatchedDirectory watched = directories.get(directory);
+            if (watched != null) {
+                watched.removeGlobs(onChange);
+                cancelIfUnused(directory, watched);
+            }
+        }
+    }
+
+    private void cancelIfUnused(Path directory, WatchedDirectory watched) {
+        if (watched.isEmpty()) {
+            watched.key.cancel();
+            directories.remove(directory);
+        }
+    }
+
+    private static FileWatcher start(FileSystem fileSystem) {
+        try {
+            FileWatcher watcher = new FileWatcher(fileSystem.newWatchService());
+            Thread thread = new Thread(watcher::run, "lightweight-config-file-watcher");
+            thread.setDaemon(true);
+            thread.start();
+            return watcher;
+        } catch (IOException e) {
+            throw new ConfigLoaderException("Cannot watch files: " + e.getMessage(), e);
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (Runnable listener : changedListeners(key)) {
+                    listener.run();
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // stop watching
+        }
+    }
+
+    private synchronized Set<Runnable> changedListeners(WatchKey key) {
+        Set<Runnable> listeners = new LinkedHashSet<>();
+        WatchedDirectory watched = directories.get((Path) key.watchable());
+        if (watched == null) {
+            key.pollEvents();
+            return listeners;
+        }
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                watched.files.values().forEach(listeners::addAll);
+                watched.globs.forEach(glob -> listeners.add(glob.listener));
+                continue;
+            }
+            Path fileName = (Path) event.context();
+            listeners.addAll(watched.files.getOrDefault(fileName, new ArrayList<>()));
+            if (event.kind() != ENTRY_MODIFY) {
+                // a file which is already imported is watched by name, so only its creation or deletion is new
+                watched.globs.stream()
+                    .filter(glob -> glob.matcher.matches(fileName))
+                    .forEach(glob -> listeners.add(glob.listener));
+            }
+        }
+        return listeners;
+    }
+
+    private static class WatchedDirectory {
+        private final WatchKey key;
+        private final Map<Path, List<Runnable>> files = new HashMap<>();
+        private final List<WatchedGlob> globs = new ArrayList<>();
+
+        WatchedDirectory(WatchKey key) {
+            this.key = key;
+        }
+
+        void add(Path fileName, Runnable listener) {
+            files.computeIfAbsent(fileName, name -> new ArrayList<>()).add(listener);
+        }
+
+        void addGlob(PathMatcher matcher, Runnable listener) {
+            globs.add(new WatchedGlob(matcher, listener));
+        }
+
+        void remove(Path fileName, Runnable listener) {
+            List<Runnable> listeners = files.get(fileName);
+            if (listeners != null) {
+                listeners.remove(listener);
+                if (listeners.isEmpty()) {
+                    files.remove(fileName);
+                }
+            }
+        }
+
+        void removeGlobs(Runnable listener) {
+            globs.removeIf(glob -> glob.listener == listener);
+        }
+
+        /**
+         * Whether the directory has nothing left to watch
+         * @return true if there are no listeners
+         */
+        boolean isEmpty() {
+            return files.isEmpty() && globs.isEmpty();
+        }
+    }
+
+    private static class WatchedGlob {
+        private final PathMatcher matcher;
+        private final Runnable listener;
+
+        WatchedGlob(PathMatcher matcher, Runnable listener) {
+            this.matcher = matcher;
+            this.listener = listener;
+        }
+    }
+}
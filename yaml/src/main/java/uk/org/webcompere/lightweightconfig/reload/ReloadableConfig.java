@@ -0,0 +1,304 @@
+package uk.org.webcompere.lightweightconfig.reload;
+
+import uk.org.webcompere.lightweightconfig.ConfigLoader;
+import uk.org.webcompere.lightweightconfig.provider.ImportExecutors;
+import uk.org.webcompere.lightweightconfig.provider.LoadContext;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * A configuration loaded from a file, which is reloaded whenever the file or any of the files
+ * it imports changes. A glob import, such as <code>#import conf.d/*.yml</code>, also reloads when a file which
+ * matches it is created in, or deleted from, its directory - even if the glob matched nothing before. Only the
+ * glob's directory itself is watched, so a file created in one of its subdirectories, or in a directory which
+ * didn't exist at the last load, is not noticed until something else causes a reload.<br>
+ * The files are watched with a {@link java.nio.file.WatchService} shared with other
+ * reloadable configurations. Bursts of changes are debounced into a single reload, which happens on the
+ * reload executor - by default {@link ImportExecutors#defaultExecutor()} - so that a slow reload of one
+ * configuration doesn't hold up the others.<br>
+ * Readers call {@link #get()}, which returns the latest successfully loaded object without locking. A
+ * reload which fails leaves the previous object in place and reports the error to the error handler.
+ * Reloads of a configuration take turns, but its listeners are called after each reload has finished, in
+ * the order of the reloads, so a slow listener doesn't hold up the next reload or the file watcher.<br>
+ * Each reload is compared with the previous load, and change listeners are only called when something
+ * at or within their path changed - e.g. a listener which rebuilds a connection pool from <code>database</code>
+ * is not called when only <code>logging.level</code> changes.
+ * @param <T> the type of the configuration object
+ */
+public class ReloadableConfig<T> implements Closeable {
+    // only times the debounce - the reloads themselves run on each configuration's reload executor
+    private static final ScheduledExecutorService DEBOUNCER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "lightweight-config-reload-debouncer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ConfigLoader loader;
+    private final Path file;
+    private final Class<T> type;
+    private final AtomicReference<T> current = new AtomicReference<>();
+    private final List<ChangeListener<T>> changeListeners = new CopyOnWriteArrayList<>();
+    private final AtomicReference<ScheduledFuture<?>> pendingReload = new AtomicReference<>();
+    private final Queue<Runnable> notifications = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean notifying = new AtomicBoolean();
+
+    private volatile Duration debounce = Duration.ofMillis(100);
+    private volatile Executor reloadExecutor = ImportExecutors.defaultExecutor();
+    private volatile Consumer<T> reloadListener = config -> { };
+    private volatile Consumer<Exception> errorHandler = error -> { };
+    private volatile boolean closed;
+
+    private Set<Path> watchedFiles = new HashSet<>();
+    private Map<Path, Set<String>> watchedGlobs = new HashMap<>();
+    private Closeable watch;
+
+    /**
+     * Load the configuration and start watching its files
+     * @param loader the loader to use for each load
+     * @param file the configuration file
+     * @param type the target type
+     * @throws uk.org.webcompere.lightweightconfig.ConfigLoaderException if the first load fails
+     */
+    public ReloadableConfig(ConfigLoader loader, Path file, Class<T> type) {
+        this.loader = loader;
+        this.file = file;
+        this.type = type;
+
+        // a failed first load throws, so there is nothing to close its watch - only watch once loaded
+        LoadContext context = loader.createLoadContext();
+        current.set(loader.loadAs(file, type, context));
+        watch(context.getFiles(), context.getGlobs());
+    }
+
+    /**
+     * Get the current configuration
+     * @return the most recently loaded configuration
+     */
+    public T get() {
+        return current.get();
+    }
+
+    /**
+     * Fluent setter for the time to wait after a change before reloading. Further changes during that
+     * time restart the wait.
+     * @param debounce the delay
+     * @return <code>this</code> for fluent use
+     */
+    public ReloadableConfig<T> withDebounce(Duration debounce) {
+        this.debounce = debounce;
+        return this;
+    }
+
+    /**
+     * Fluent setter for the executor on which reloads run after a change
+     * @param reloadExecutor the executor
+     * @return <code>this</code> for fluent use
+     */
+    public ReloadableConfig<T> withReloadExecutor(Executor reloadExecutor) {
+        this.reloadExecutor = Objects.requireNonNull(reloadExecutor);
+        return this;
+    }
+
+    /**
+     * Fluent setter for a listener which receives each newly loaded configuration
+     * @param reloadListener the listener, called on the reloading thread
+     * @return <code>this</code> for fluent use
+     */
+    public ReloadableConfig<T> withReloadListener(Consumer<T> reloadListener) {
+        this.reloadListener = reloadListener;
+        return this;
+    }
+
+    /**
+     * Fluent setter to add a listener which is only called when a reload changes something at or within a path
+     * @param path the path of the part of the configuration the listener uses - e.g. <code>database</code> - or
+     *             the empty path to be told of any change
+     * @param changeListener receives the newly loaded configuration and the differences from the previous
+     *                       one, on the reloading thread
+     * @return <code>this</code> for fluent use
+     */
+    public ReloadableConfig<T> withChangeListener(String path, BiConsumer<T, ConfigDiff> changeListener) {
+        changeListeners.add(new ChangeListener<>(path, changeListener));
+        return this;
+    }
+
+    /**
+     * Fluent setter for a handler of reload errors
+     * @param errorHandler receives the reason a reload failed - the previous configuration is kept - or the
+     *                     exception a listener threw
+     * @return <code>this</code> for fluent use
+     */
+    public ReloadableConfig<T> withErrorHandler(Consumer<Exception> errorHandler) {
+        this.errorHandler = errorHandler;
+        return this;
+    }
+
+    /**
+     * Reload the configuration now, on the calling thread. The listeners are called on this thread too, unless
+     * another thread is already calling them for an earlier reload, in which case it calls them for this one.
+     */
+    public void reload() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+
+            LoadContext context = loader.createLoadContext();
+            try {
+                T loaded = loader.loadAs(file, type, context);
+                T previous = current.getAndSet(loaded);
+                watch(context.getFiles(), context.getGlobs());
+                ConfigDiff diff = changeListeners.isEmpty() ? null : ConfigDiff.between(previous, loaded);
+                notifications.add(() -> notifyListeners(loaded, diff));
+            } catch (RuntimeException e) {
+                // keep watching the old files too, so that the fix to whichever was broken is noticed
+                Set<Path> files = new HashSet<>(watchedFiles);
+                files.addAll(context.getFiles());
+                Map<Path, Set<String>> globs = new HashMap<>(watchedGlobs);
+                context.getGlobs().forEach((directory, patterns) ->
+                    globs.merge(directory, patterns, ReloadableConfig::union));
+                watch(files, globs);
+                notifications.add(() -> errorHandler.accept(e));
+            }
+        }
+        callListeners();
+    }
+
+    /**
+     * Get the files which are being watched
+     * @return the absolute paths of the configuration file and its imports
+     */
+    public synchronized Set<Path> getWatchedFiles() {
+        return new HashSet<>(watchedFiles);
+    }
+
+    /**
+     * Stop watching for changes
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        ScheduledFuture<?> pending = pendingReload.getAndSet(null);
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        closeWatch();
+    }
+
+    /**
+     * Call the listeners for each finished reload in turn, unless another thread is already doing so
+     */
+    private void callListeners() {
+        while (!notifications.isEmpty() && notifying.compareAndSet(false, true)) {
+            try {
+                Runnable notification;
+                while ((notification = notifications.poll()) != null) {
+                    notification.run();
+                }
+            } finally {
+                notifying.set(false);
+            }
+        }
+    }
+
+    private void notifyListeners(T loaded, ConfigDiff diff) {
+        callSafely(() -> reloadListener.accept(loaded));
+        if (diff == null || diff.isEmpty()) {
+            return;
+        }
+        for (ChangeListener<T> listener : changeListeners) {
+            if (diff.affects(listener.path)) {
+                callSafely(() -> listener.listener.accept(loaded, diff));
+            }
+        }
+    }
+
+    private void callSafely(Runnable listener) {
+        try {
+            listener.run();
+        } catch (RuntimeException e) {
+            errorHandler.accept(e);
+        }
+    }
+
+    /**
+     * Called on the file watcher's thread, so it only schedules the reload, without taking any lock
+     */
+    private void onChange() {
+        if (closed) {
+            return;
+        }
+        ScheduledFuture<?> previous = pendingReload.getAndSet(
+            DEBOUNCER.schedule(this::startReload, debounce.toMillis(), TimeUnit.MILLISECONDS));
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    private void startReload() {
+        try {
+            reloadExecutor.execute(this::reload);
+        } catch (RejectedExecutionException e) {
+            errorHandler.accept(e);
+        }
+    }
+
+    private synchronized void watch(Set<Path> files, Map<Path, Set<String>> globs) {
+        if (files.equals(watchedFiles) && globs.equals(watchedGlobs) && watch != null) {
+            return;
+        }
+        closeWatch();
+        watchedFiles = files;
+        watchedGlobs = globs;
+        watch = FileWatcher.forFile(file).watch(files, globs, this::onChange);
+    }
+
+    private static Set<String> union(Set<String> first, Set<String> second) {
+        Set<String> both = new HashSet<>(first);
+        both.addAll(second);
+        return both;
+    }
+
+    private void closeWatch() {
+        if (watch != null) {
+            try {
+                watch.close();
+            } catch (IOException e) {
+                // unwatching does not perform IO
+            }
+            watch = null;
+        }
+    }
+
+    private static class ChangeListener<T> {
+        private final String path;
+        private final BiConsumer<T, ConfigDiff> listener;
+
+        ChangeListener(String path, BiConsumer<T, ConfigDiff> listener) {
+            this.path = path;
+            this.listener = listener;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package uk.org.webcompere.lightweightconfig.snapshot;
+
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+import uk.org.webcompere.lightweightconfig.data.PlaceholderResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+
+/**
+ * A binary snapshot of the fully resolved result of a load, which can be read back without parsing YAML.
+ * The snapshot holds a hash of each file the load read, and the value of each placeholder it used, and is
+ * only read back while those are unchanged. It's read through a memory-mapped file, so processes on the same
+ * host which read the same snapshot share its pages.<br>
+ * Values returned by custom tags are stored as they were when the snapshot was written.
+ */
+public final class ConfigSnapshot {
+    private ConfigSnapshot() {
+    }
+
+    /**
+     * Write a snapshot. It's written to a temporary file which then replaces the snapshot, so other processes
+     * never read part of one.
+     * @param snapshot the snapshot file
+     * @param config the loaded configuration
+     * @param sources the files the configuration was loaded from, including its imports and any which were missing
+     * @param placeholders the placeholders it used, with their values
+     * @return whether the snapshot was written - it's skipped if the file can't be written, e.g. in a read-only
+     *     directory, as the configuration can still be loaded without it
+     * @throws ConfigLoaderException if the configuration holds a type which can't be stored
+     */
+    public static boolean write(Path snapshot, Map<String, Object> config, Set<Path> sources,
+                                Map<String, String> placeholders) {
+        Map<String, byte[]> hashes = new TreeMap<>();
+        for (Path source : sources) {
+            hashes.put(key(source), hash(source));
+        }
+        byte[] content = SnapshotWriter.encode(config, hashes, placeholders);
+
+        Path directory = snapshot.toAbsolutePath().getParent();
+        if (directory == null) {
+            return false;
+        }
+        Path temporary = null;
+        try {
+            Files.createDirectories(directory);
+            temporary = Files.createTempFile(directory, String.valueOf(snapshot.getFileName()), ".tmp");
+            Files.write(temporary, content);
+            Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            deleteQuietly(temporary);
+            return false;
+        }
+    }
+
+    /**
+     * Read a snapshot, if it's still valid
+     * @param snapshot the snapshot file
+     * @param resolver the placeholder values to check the snapshot against
+     * @return the configuration, or empty if there's no snapshot, or it's stale or can't be read
+     */
+    public static Optional<Map<String, Object>> read(Path snapshot, PlaceholderResolver resolver) {
+        return read(snapshot, null, resolver);
+    }
+
+    /**
+     * Read a snapshot, if it's still valid, and was written from a load of the given file
+     * @param snapshot the snapshot file
+     * @param source the file which was loaded
+     * @param resolver the placeholder values to check the snapshot against
+     * @return the configuration, or empty if there's no snapshot, or it's stale, from another file, or can't be read
+     */
+    @SuppressWarnings("unchecked")
+    public static Optional<Map<String, Object>> read(Path snapshot, Path source, PlaceholderResolver resolver) {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            SnapshotReader reader = new SnapshotReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            if (!isCurrent(reader, source, resolver)) {
+                return Optional.empty();
+            }
+            Object config = reader.readValue();
+            return config instanceof Map ? Optional.of((Map<String, Object>) config) : Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            // missing, unreadable, truncated or from another version - it'll be replaced by the next write
+            return Optional.empty();
+        }
+    }
+
+    private static boolean isCurrent(SnapshotReader reader, Path loaded, PlaceholderResolver resolver) {
+        Map<String, byte[]> sources = reader.readSources();
+        if (loaded != null && !sources.containsKey(key(loaded))) {
+            return false;
+        }
+        for (Map.Entry<String, byte[]> source : sources.entrySet()) {
+            if (!Arrays.equals(source.getValue(), hash(Paths.get(source.getKey())))) {
+                return false;
+            }
+        }
+        for (Map.Entry<String, String> placeholder : reader.readPlaceholders().entrySet()) {
+            if (!Objects.equals(placeholder.getValue(), resolver.resolve(placeholder.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String key(Path source) {
+        return source.toAbsolutePath().normalize().toString();
+    }
+
+    /**
+     * Hash the content of a file
+     * @param file the file
+     * @return the hash, or an empty array if there's no such file
+     */
+    static byte[] hash(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return new byte[0];
+        }
+        try (InputStream input = Files.newInputStream(file)) {
+            CRC32 crc = new CRC32();
+            Adler32 adler = new Adler32();
+            byte[] buffer = new byte[8192];
+            long length = 0;
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                crc.update(buffer, 0, read);
+                adler.update(buffer, 0, read);
+                length += read;
+            }
+            return ByteBuffer.allocate(SnapshotFormat.HASH_LENGTH)
+                .putLong(length)
+                .putInt((int) crc.getValue())
+                .putInt((int) adler.getValue())
+                .array();
+        } catch (IOException e) {
+            throw new ConfigLoaderException("Cannot hash " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // left for the next write to replace
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package uk.org.webcompere.lightweightconfig.snapshot;
+
+/**
+ * The layout of a snapshot file. All numbers are big-endian.
+ * <pre>
+ * int    magic, version
+ * int    string count, then (count + 1) offsets into the string bytes, then the length and UTF-8 string bytes
+ * int    source count, then for each: path string, present flag byte and, if present, the content's hash
+ * int    placeholder count, then for each: name string and value string, or -1 when there was no value
+ * value  the root of the configuration
+ * </pre>
+ * Strings are referred to by their index in the string table, so each distinct key and value is stored once.
+ * A value is a type byte followed by its content. The hash of a source is its length, CRC-32 and Adler-32,
+ * which detects any edit without the start-up cost of a cryptographic digest - snapshots are not protected
+ * against deliberate tampering, any more than the source files are.
+ */
+final class SnapshotFormat {
+    static final int MAGIC = 0x4C57_4353;
+    static final int VERSION = 1;
+    static final int NO_STRING = -1;
+    static final int HASH_LENGTH = 16;
+
+    static final byte NULL = 0;
+    static final byte STRING = 1;
+    static final byte INT = 2;
+    static final byte LONG = 3;
+    static final byte DOUBLE = 4;
+    static final byte TRUE = 5;
+    static final byte FALSE = 6;
+    static final byte BIG_INTEGER = 7;
+    static final byte BIG_DECIMAL = 8;
+    static final byte DATE = 9;
+    static final byte BYTES = 10;
+    static final byte LIST = 11;
+    static final byte SET = 12;
+    static final byte MAP = 13;
+
+    private SnapshotFormat() {
+    }
+}
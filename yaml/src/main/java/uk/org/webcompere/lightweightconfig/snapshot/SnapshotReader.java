@@ -0,0 +1,149 @@
+package uk.org.webcompere.lightweightconfig.snapshot;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Decodes a snapshot from a buffer, which is usually a memory-mapped file. The sources and placeholders
+ * are read first, so that a stale snapshot can be rejected before its configuration is decoded. Strings are
+ * decoded from the table the first time they're used.
+ */
+class SnapshotReader {
+    private final ByteBuffer buffer;
+    private final int[] stringOffsets;
+    private final int stringBytesStart;
+    private final String[] strings;
+
+    /**
+     * Open a snapshot and read its string table
+     * @param buffer the content of the snapshot
+     * @throws IllegalArgumentException if it's not a snapshot of this version
+     */
+    SnapshotReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt() != SnapshotFormat.MAGIC || buffer.getInt() != SnapshotFormat.VERSION) {
+            throw new IllegalArgumentException("Not a snapshot of version " + SnapshotFormat.VERSION);
+        }
+        int count = buffer.getInt();
+        stringOffsets = new int[count + 1];
+        for (int i = 0; i <= count; i++) {
+            stringOffsets[i] = buffer.getInt();
+        }
+        int stringBytesLength = buffer.getInt();
+        stringBytesStart = buffer.position();
+        buffer.position(stringBytesStart + stringBytesLength);
+        strings = new String[count];
+    }
+
+    /**
+     * Read the source files
+     * @return the path of each source, with the hash of its content, which is empty if it was missing
+     */
+    Map<String, byte[]> readSources() {
+        int count = buffer.getInt();
+        Map<String, byte[]> sources = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String path = string(buffer.getInt());
+            byte[] hash = new byte[buffer.get() != 0 ? SnapshotFormat.HASH_LENGTH : 0];
+            buffer.get(hash);
+            sources.put(path, hash);
+        }
+        return sources;
+    }
+
+    /**
+     * Read the placeholders
+     * @return the name of each placeholder with its value, or <code>null</code> if it had none
+     */
+    Map<String, String> readPlaceholders() {
+        int count = buffer.getInt();
+        Map<String, String> placeholders = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String name = string(buffer.getInt());
+            int value = buffer.getInt();
+            placeholders.put(name, value == SnapshotFormat.NO_STRING ? null : string(value));
+        }
+        return placeholders;
+    }
+
+    /**
+     * Read the configuration, after the sources and placeholders
+     * @return the configuration
+     */
+    Object readValue() {
+        byte type = buffer.get();
+        switch (type) {
+            case SnapshotFormat.NULL:
+                return null;
+            case SnapshotFormat.STRING:
+                return string(buffer.getInt());
+            case SnapshotFormat.INT:
+                return buffer.getInt();
+            case SnapshotFormat.LONG:
+                return buffer.getLong();
+            case SnapshotFormat.DOUBLE:
+                return buffer.getDouble();
+            case SnapshotFormat.TRUE:
+                return Boolean.TRUE;
+            case SnapshotFormat.FALSE:
+                return Boolean.FALSE;
+            case SnapshotFormat.BIG_INTEGER:
+                return new BigInteger(string(buffer.getInt()));
+            case SnapshotFormat.BIG_DECIMAL:
+                return new BigDecimal(string(buffer.getInt()));
+            case SnapshotFormat.DATE:
+                return new Date(buffer.getLong());
+            case SnapshotFormat.BYTES:
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                return bytes;
+            case SnapshotFormat.LIST:
+                return readItems(new ArrayList<>());
+            case SnapshotFormat.SET:
+                return readItems(new LinkedHashSet<>());
+            case SnapshotFormat.MAP:
+                int size = buffer.getInt();
+                Map<Object, Object> map = new LinkedHashMap<>(capacity(size));
+                for (int i = 0; i < size; i++) {
+                    map.put(readValue(), readValue());
+                }
+                return map;
+            default:
+                throw new IllegalArgumentException("Unknown value type " + type + " at " + (buffer.position() - 1));
+        }
+    }
+
+    private Collection<Object> readItems(Collection<Object> items) {
+        int size = buffer.getInt();
+        for (int i = 0; i < size; i++) {
+            items.add(readValue());
+        }
+        return items;
+    }
+
+    private String string(int index) {
+        String string = strings[index];
+        if (string == null) {
+            byte[] bytes = new byte[stringOffsets[index + 1] - stringOffsets[index]];
+            ByteBuffer source = buffer.duplicate();
+            source.position(stringBytesStart + stringOffsets[index]);
+            source.get(bytes);
+            string = new String(bytes, UTF_8);
+            strings[index] = string;
+        }
+        return string;
+    }
+
+    private static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+}
@@ -0,0 +1,138 @@
+package uk.org.webcompere.lightweightconfig.snapshot;
+
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Encodes a snapshot. The body is written first, collecting the string table, which is then put in front of it.
+ */
+class SnapshotWriter {
+    private final Map<String, Integer> stringIndex = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    private final ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+    private final DataOutputStream body = new DataOutputStream(bodyBytes);
+
+    /**
+     * Encode a snapshot
+     * @param config the loaded configuration
+     * @param sources the paths of the source files, with the hash of each, which is empty if it was missing
+     * @param placeholders the placeholders the configuration used, with their values
+     * @return the snapshot
+     * @throws ConfigLoaderException if the configuration holds a type which can't be stored
+     */
+    static byte[] encode(Object config, Map<String, byte[]> sources, Map<String, String> placeholders) {
+        try {
+            return new SnapshotWriter().write(config, sources, placeholders);
+        } catch (IOException e) {
+            throw new ConfigLoaderException("Cannot encode snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    private byte[] write(Object config, Map<String, byte[]> sources, Map<String, String> placeholders)
+        throws IOException {
+        body.writeInt(sources.size());
+        for (Map.Entry<String, byte[]> source : sources.entrySet()) {
+            body.writeInt(intern(source.getKey()));
+            body.writeBoolean(source.getValue().length > 0);
+            body.write(source.getValue());
+        }
+        body.writeInt(placeholders.size());
+        for (Map.Entry<String, String> placeholder : placeholders.entrySet()) {
+            body.writeInt(intern(placeholder.getKey()));
+            String value = placeholder.getValue();
+            body.writeInt(value == null ? SnapshotFormat.NO_STRING : intern(value));
+        }
+        writeValue(config);
+        body.flush();
+
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream(bodyBytes.size() + strings.size() * 16);
+        DataOutputStream output = new DataOutputStream(snapshot);
+        output.writeInt(SnapshotFormat.MAGIC);
+        output.writeInt(SnapshotFormat.VERSION);
+        writeStringTable(output);
+        bodyBytes.writeTo(output);
+        output.flush();
+        return snapshot.toByteArray();
+    }
+
+    private void writeStringTable(DataOutputStream output) throws IOException {
+        ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+        output.writeInt(strings.size());
+        output.writeInt(0);
+        for (String string : strings) {
+            stringBytes.write(string.getBytes(UTF_8));
+            output.writeInt(stringBytes.size());
+        }
+        output.writeInt(stringBytes.size());
+        stringBytes.writeTo(output);
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            body.writeByte(SnapshotFormat.NULL);
+        } else if (value instanceof String) {
+            body.writeByte(SnapshotFormat.STRING);
+            body.writeInt(intern((String) value));
+        } else if (value instanceof Integer) {
+            body.writeByte(SnapshotFormat.INT);
+            body.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            body.writeByte(SnapshotFormat.LONG);
+            body.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            body.writeByte(SnapshotFormat.DOUBLE);
+            body.writeDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            body.writeByte((Boolean) value ? SnapshotFormat.TRUE : SnapshotFormat.FALSE);
+        } else if (value instanceof BigInteger) {
+            body.writeByte(SnapshotFormat.BIG_INTEGER);
+            body.writeInt(intern(value.toString()));
+        } else if (value instanceof BigDecimal) {
+            body.writeByte(SnapshotFormat.BIG_DECIMAL);
+            body.writeInt(intern(value.toString()));
+        } else if (value instanceof Date) {
+            body.writeByte(SnapshotFormat.DATE);
+            body.writeLong(((Date) value).getTime());
+        } else if (value instanceof byte[]) {
+            body.writeByte(SnapshotFormat.BYTES);
+            body.writeInt(((byte[]) value).length);
+            body.write((byte[]) value);
+        } else if (value instanceof Map) {
+            body.writeByte(SnapshotFormat.MAP);
+            body.writeInt(((Map<?, ?>) value).size());
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                writeValue(entry.getKey());
+                writeValue(entry.getValue());
+            }
+        } else if (value instanceof List || value instanceof Set) {
+            body.writeByte(value instanceof Set ? SnapshotFormat.SET : SnapshotFormat.LIST);
+            body.writeInt(((Collection<?>) value).size());
+            for (Object item : (Collection<?>) value) {
+                writeValue(item);
+            }
+        } else {
+            throw new ConfigLoaderException("Cannot store a " + value.getClass().getName() + " in a snapshot");
+        }
+    }
+
+    private int intern(String string) {
+        return stringIndex.computeIfAbsent(string, key -> {
+            strings.add(key);
+            return strings.size() - 1;
+        });
+    }
+}
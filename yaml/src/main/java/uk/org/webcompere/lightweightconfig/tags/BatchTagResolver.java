@@ -0,0 +1,19 @@
+package uk.org.webcompere.lightweightconfig.tags;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves every use of a custom tag in a document in one call - e.g. fetching all the secrets named by
+ * <code>!password</code> tags in one request to a secrets manager, rather than one request per secret.
+ */
+@FunctionalInterface
+public interface BatchTagResolver {
+    /**
+     * Resolve the values of a tag
+     * @param values the distinct values to the right of the tag, in the order they first appear
+     * @return the object to insert into the configuration for each value, keyed by the value - every value
+     *     must have an entry, though it may be <code>null</code>
+     */
+    Map<String, ?> resolveAll(Set<String> values);
+}
@@ -0,0 +1,323 @@
+package uk.org.webcompere.lightweightconfig.tags;
+
+import uk.org.webcompere.lightweightconfig.provider.ImportExecutors;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * A cache of the values of scalar tags, keyed by tag name and the value to the right of the tag, so that
+ * reloading a configuration doesn't call the resolvers - e.g. a secrets manager - again for values which
+ * rarely change. Each value is kept for a time to live, which may be set per tag. Once most of that time has
+ * passed, the next read of the value still returns it, but also starts a refresh in the background, so a
+ * value which is read regularly is replaced before it expires, and loads don't wait for the resolver. If the
+ * resolver fails when a value has expired, the expired value is used instead. Concurrent reads of a value which
+ * isn't cached share a single call to the resolver.<br>
+ * A cache may be shared between loaders, as long as they use the same resolver for each tag name.
+ */
+public class TagCache {
+    private static final double DEFAULT_REFRESH_AHEAD = 0.75;
+
+    private final int maximumSize;
+    private final Duration defaultTimeToLive;
+    private final LongSupplier clock;
+    private final Map<String, Duration> timesToLive = new ConcurrentHashMap<>();
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Key, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+    private volatile Executor refreshExecutor = ImportExecutors.defaultExecutor();
+    private volatile double refreshAhead = DEFAULT_REFRESH_AHEAD;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    /**
+     * Construct a cache
+     * @param maximumSize the most values to hold - when exceeded, the least recently used values are evicted
+     * @param timeToLive how long to keep a value, for tags which have no time to live of their own
+     */
+    public TagCache(int maximumSize, Duration timeToLive) {
+        this(maximumSize, timeToLive, System::nanoTime);
+    }
+
+    TagCache(int maximumSize, Duration timeToLive, LongSupplier clock) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be at least 1");
+        }
+        this.maximumSize = maximumSize;
+        this.defaultTimeToLive = requirePositive(timeToLive);
+        this.clock = clock;
+    }
+
+    /**
+     * Fluent setter for the time to live of the values of one tag
+     * @param tagName the name of the tag (does not include <code>!</code>)
+     * @param timeToLive how long to keep its values
+     * @return <code>this</code> for fluent use
+     */
+    public TagCache withTimeToLive(String tagName, Duration timeToLive) {
+        timesToLive.put(tagName, requirePositive(timeToLive));
+        return this;
+    }
+
+    /**
+     * Fluent setter for the executor on which values are refreshed in the background. The default is
+     * {@link ImportExecutors#defaultExecutor()}.
+     * @param refreshExecutor the executor
+     * @return <code>this</code> for fluent use
+     */
+    public TagCache withRefreshExecutor(Executor refreshExecutor) {
+        this.refreshExecutor = Objects.requireNonNull(refreshExecutor);
+        return this;
+    }
+
+    /**
+     * Fluent setter for how early values are refreshed. The default is <code>0.75</code>, so a value is refreshed
+     * when it's read after three quarters of its time to live.
+     * @param refreshAhead the proportion of the time to live after which a read refreshes the value, greater
+     *                     than 0 - a value of 1 or more turns off refreshing, so values are only replaced when
+     *                     they've expired
+     * @return <code>this</code> for fluent use
+     */
+    public TagCache withRefreshAhead(double refreshAhead) {
+        if (!(refreshAhead > 0)) {
+            throw new IllegalArgumentException("The refresh ahead must be greater than 0");
+        }
+        this.refreshAhead = refreshAhead;
+        return this;
+    }
+
+    /**
+     * Wrap a scalar tag resolver with this cache
+     * @param tagName the name of the tag (does not include <code>!</code>)
+     * @param resolver the resolver
+     * @return a resolver which reads through the cache
+     */
+    public Function<String, ?> cached(String tagName, Function<String, ?> resolver) {
+        return value -> get(tagName, value, resolver);
+    }
+
+    /**
+     * Get the resolved value of a tag, from the cache if it hasn't expired
+     * @param tagName the name of the tag (does not include <code>!</code>)
+     * @param value the value to the right of the tag
+     * @param resolver resolves the value if it's not cached
+     * @return the resolved value
+     * @throws RuntimeException from the resolver, if it fails and there's no expired value to use instead
+     */
+    public Object get(String tagName, String value, Function<String, ?> resolver) {
+        Key key = new Key(tagName, value);
+        Entry entry = lookup(key);
+        long now = clock.getAsLong();
+        if (entry == null) {
+            misses.increment();
+            return load(key, resolver, now);
+        }
+
+        if (now - entry.expiresAt < 0) {
+            hits.increment();
+            if (now - entry.refreshAt >= 0) {
+                refresh(key, entry, resolver);
+            }
+            return entry.value;
+        }
+
+        misses.increment();
+        try {
+            return load(key, resolver, now);
+        } catch (RuntimeException e) {
+            staleHits.increment();
+            return entry.value;
+        }
+    }
+
+    /**
+     * Remove the values of one tag
+     * @param tagName the name of the tag
+     */
+    public synchronized void invalidate(String tagName) {
+        entries.keySet().removeIf(key -> key.tagName.equals(tagName));
+    }
+
+    /**
+     * Remove all values
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * The number of values currently cached
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Take a snapshot of the counts of the cache
+     * @return the statistics
+     */
+    public TagCacheStatistics getStatistics() {
+        return new TagCacheStatistics(hits.sum(), misses.sum(), staleHits.sum(), refreshes.sum(),
+            loadFailures.sum(), evictions.sum(), loads.sum(), loadNanos.sum());
+    }
+
+    /**
+     * Load a value, or wait for the load which another thread has already started
+     */
+    private Object load(Key key, Function<String, ?> resolver, long now) {
+        CompletableFuture<Entry> load = new CompletableFuture<>();
+        CompletableFuture<Entry> inFlight = loading.putIfAbsent(key, load);
+        if (inFlight != null) {
+            return await(inFlight).value;
+        }
+
+        try {
+            // another thread may have loaded the value since it was looked up
+            Entry current = lookup(key);
+            Entry loaded = current != null && now - current.expiresAt < 0 ? current : resolve(key, resolver);
+            if (loaded != current) {
+                store(key, loaded);
+            }
+            load.complete(loaded);
+            return loaded.value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    private static Entry await(CompletableFuture<Entry> inFlight) {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private synchronized void store(Key key, Entry loaded) {
+        entries.put(key, loaded);
+        Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+        while (entries.size() > maximumSize) {
+            leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+            evictions.increment();
+        }
+    }
+
+    private void refresh(Key key, Entry entry, Function<String, ?> resolver) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    Entry refreshed = resolve(key, resolver);
+                    synchronized (this) {
+                        // the entry may have been invalidated or evicted while it was refreshed
+                        if (entries.get(key) == entry) {
+                            entries.put(key, refreshed);
+                            refreshes.increment();
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    // the current value is used until it expires, and the next read tries again
+                    entry.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.refreshing.set(false);
+        }
+    }
+
+    private Entry resolve(Key key, Function<String, ?> resolver) {
+        long start = clock.getAsLong();
+        Object value;
+        try {
+            value = resolver.apply(key.value);
+        } catch (RuntimeException e) {
+            loadFailures.increment();
+            throw e;
+        }
+        long end = clock.getAsLong();
+        loads.increment();
+        loadNanos.add(end - start);
+
+        long timeToLive = timesToLive.getOrDefault(key.tagName, defaultTimeToLive).toNanos();
+        return new Entry(value, end + (long) (timeToLive * Math.min(refreshAhead, 1)), end + timeToLive);
+    }
+
+    private synchronized Entry lookup(Key key) {
+        return entries.get(key);
+    }
+
+    private static Duration requirePositive(Duration timeToLive) {
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("The time to live must be positive");
+        }
+        return timeToLive;
+    }
+
+    private static class Key {
+        private final String tagName;
+        private final String value;
+
+        Key(String tagName, String value) {
+            this.tagName = tagName;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return tagName.equals(key.tagName) && Objects.equals(value, key.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * tagName.hashCode() + Objects.hashCode(value);
+        }
+    }
+
+    private static class Entry {
+        private final Object value;
+        private final long refreshAt;
+        private final long expiresAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(Object value, long refreshAt, long expiresAt) {
+            this.value = value;
+            this.refreshAt = refreshAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
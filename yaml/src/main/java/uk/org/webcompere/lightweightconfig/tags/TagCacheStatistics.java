@@ -0,0 +1,117 @@
+package uk.org.webcompere.lightweightconfig.tags;
+
+import java.time.Duration;
+
+/**
+ * A snapshot of the counts of a {@link TagCache}, since it was created
+ */
+public class TagCacheStatistics {
+    private final long hits;
+    private final long misses;
+    private final long staleHits;
+    private final long refreshes;
+    private final long loadFailures;
+    private final long evictions;
+    private final long loads;
+    private final long totalLoadNanos;
+
+    TagCacheStatistics(long hits, long misses, long staleHits, long refreshes, long loadFailures, long evictions,
+                       long loads, long totalLoadNanos) {
+        this.hits = hits;
+        this.misses = misses;
+        this.staleHits = staleHits;
+        this.refreshes = refreshes;
+        this.loadFailures = loadFailures;
+        this.evictions = evictions;
+        this.loads = loads;
+        this.totalLoadNanos = totalLoadNanos;
+    }
+
+    /**
+     * The number of values served from the cache before they expired
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * The number of values which were not cached, or had expired, so the loading thread called the resolver
+     * @return the miss count
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * The number of expired values served because the resolver failed
+     * @return the count of stale values served
+     */
+    public long getStaleHits() {
+        return staleHits;
+    }
+
+    /**
+     * The number of background refreshes which replaced a value before it expired
+     * @return the refresh count
+     */
+    public long getRefreshes() {
+        return refreshes;
+    }
+
+    /**
+     * The number of calls to the resolver which failed, whether on the loading thread or in the background
+     * @return the failure count
+     */
+    public long getLoadFailures() {
+        return loadFailures;
+    }
+
+    /**
+     * The number of values removed to keep the cache within its maximum size
+     * @return the eviction count
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * The number of calls to the resolver which succeeded
+     * @return the load count
+     */
+    public long getLoads() {
+        return loads;
+    }
+
+    /**
+     * The total time spent in calls to the resolver which succeeded
+     * @return the total time, in nanoseconds
+     */
+    public long getTotalLoadNanos() {
+        return totalLoadNanos;
+    }
+
+    /**
+     * The mean time of a call to the resolver which succeeded
+     * @return the mean time, or zero if there have been no loads
+     */
+    public Duration getAverageLoadTime() {
+        return Duration.ofNanos(loads == 0 ? 0 : totalLoadNanos / loads);
+    }
+
+    /**
+     * The proportion of requests served from the cache without calling the resolver
+     * @return the hit rate, between 0 and 1, or 1 if there have been no requests
+     */
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 1 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "TagCacheStatistics{hits=" + hits + ", misses=" + misses + ", staleHits=" + staleHits +
+            ", refreshes=" + refreshes + ", loadFailures=" + loadFailures + ", evictions=" + evictions +
+            ", averageLoadTime=" + getAverageLoadTime() + "}";
+    }
+}
@@ -0,0 +1,56 @@
+package uk.org.webcompere.lightweightconfig.tags;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * How the calls to tag resolvers are spread across threads. Each call to a scalar resolver, and each
+ * call to a batch resolver, is one task.
+ */
+public final class TagExecution {
+    private final Executor executor;
+    private final int parallelism;
+    private final Duration timeout;
+
+    /**
+     * Construct the settings
+     * @param executor the executor to run the calls on
+     * @param parallelism the most calls to run at once
+     * @param timeout the longest a call may take, from when the executor starts it, before the load fails
+     */
+    public TagExecution(Executor executor, int parallelism, Duration timeout) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, not " + parallelism);
+        }
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Timeout must be positive, not " + timeout);
+        }
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.timeout = timeout;
+    }
+
+    /**
+     * The executor to run the calls on
+     * @return the executor
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * The most calls to run at once
+     * @return the parallelism
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * The longest a call may take
+     * @return the timeout
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+}
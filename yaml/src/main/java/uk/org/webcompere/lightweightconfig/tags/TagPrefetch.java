@@ -0,0 +1,199 @@
+package uk.org.webcompere.lightweightconfig.tags;
+
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+import uk.org.webcompere.lightweightconfig.listener.LoadRecorder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Resolves the custom tags of a document before it's bound, rather than one at a time as each is reached.
+ * Batch tags are always resolved this way, with one call per tag. When there's a {@link TagExecution}, scalar
+ * tags are too, and the calls are run on its executor - even a single call - with a limit on how many run at
+ * once and how long each may take. A call's time starts when the executor starts it, so time spent waiting
+ * in a busy executor's queue doesn't count towards the timeout.
+ */
+public final class TagPrefetch {
+    private final Map<String, Function<String, ?>> scalarTags;
+    private final Map<String, BatchTagResolver> batchTags;
+    private final TagExecution execution;
+    private final Set<String> prefetchedTags;
+
+    /**
+     * Construct the prefetch for a set of tags
+     * @param scalarTags the scalar tag resolvers, keyed by tag name
+     * @param batchTags the batch tag resolvers, keyed by tag name
+     * @param execution how to run the calls concurrently, or <code>null</code> to resolve the batch tags on the
+     *                  loading thread, and leave the scalar tags to be resolved as they're reached
+     */
+    public TagPrefetch(Map<String, Function<String, ?>> scalarTags, Map<String, BatchTagResolver> batchTags,
+                       TagExecution execution) {
+        this.scalarTags = new HashMap<>(scalarTags);
+        this.batchTags = new HashMap<>(batchTags);
+        this.execution = execution;
+
+        Set<String> prefetched = new HashSet<>(batchTags.keySet());
+        if (execution != null) {
+            prefetched.addAll(scalarTags.keySet());
+        }
+        this.prefetchedTags = Collections.unmodifiableSet(prefetched);
+    }
+
+    /**
+     * The names of the tags which are resolved before the document is bound
+     * @return the tag names
+     */
+    public Set<String> getPrefetchedTags() {
+        return prefetchedTags;
+    }
+
+    /**
+     * Resolve the values of the prefetched tags in a document
+     * @param values the distinct values of each tag, keyed by tag name
+     * @param recorder the recorder of the load, or <code>null</code> if it's not being recorded
+     * @return the resolved object for each value, keyed by tag name, then by value
+     * @throws ConfigLoaderException if a resolver fails, returns too few values, or takes too long
+     */
+    public Map<String, Map<String, Object>> resolve(Map<String, Set<String>> values, LoadRecorder recorder) {
+        List<Call> calls = new ArrayList<>();
+        values.forEach((tag, tagValues) -> {
+            BatchTagResolver batch = batchTags.get(tag);
+            if (batch != null) {
+                calls.add(new Call(tag, () -> resolveBatch(tag, batch, tagValues)));
+            } else {
+                Function<String, ?> scalar = scalarTags.get(tag);
+                for (String value : tagValues) {
+                    calls.add(new Call(tag, () -> Collections.singletonMap(value, scalar.apply(value))));
+                }
+            }
+        });
+
+        Map<String, Map<String, Object>> results = new HashMap<>();
+        if (execution == null) {
+            for (Call call : calls) {
+                merge(results, call.tag, call.run(recorder));
+            }
+        } else {
+            resolveConcurrently(calls, recorder, results);
+        }
+        return results;
+    }
+
+    private static Map<String, ?> resolveBatch(String tag, BatchTagResolver batch, Set<String> values) {
+        Map<String, ?> resolved = batch.resolveAll(Collections.unmodifiableSet(new LinkedHashSet<>(values)));
+        long missing = values.stream().filter(value -> resolved == null || !resolved.containsKey(value)).count();
+        if (missing > 0) {
+            // the values aren't named, as they may be the keys of secrets
+            throw new ConfigLoaderException("The resolver of !" + tag + " returned no value for " + missing +
+                " of " + values.size() + " values");
+        }
+        return resolved;
+    }
+
+    private void resolveConcurrently(List<Call> calls, LoadRecorder recorder,
+                                     Map<String, Map<String, Object>> results) {
+        CompletionService<Map<String, ?>> completion = new ExecutorCompletionService<>(execution.getExecutor());
+        Map<Future<Map<String, ?>>, Call> running = new IdentityHashMap<>();
+        Iterator<Call> queued = calls.iterator();
+        long timeout = execution.getTimeout().toNanos();
+
+        try {
+            while (running.size() < execution.getParallelism() && queued.hasNext()) {
+                start(queued.next(), completion, running, recorder, timeout);
+            }
+            while (!running.isEmpty()) {
+                // until one of the calls has started, there's no deadline, so check again after the timeout
+                Call first = firstToExpire(running);
+                long wait = first == null ? timeout : first.deadline - System.nanoTime();
+                Future<Map<String, ?>> done = completion.poll(wait, TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    if (first != null && first.deadline - System.nanoTime() <= 0) {
+                        throw new ConfigLoaderException("Resolving !" + first.tag + " took longer than " +
+                            execution.getTimeout().toMillis() + "ms");
+                    }
+                    continue;
+                }
+
+                Call call = running.remove(done);
+                merge(results, call.tag, getResult(call, done));
+                if (queued.hasNext()) {
+                    start(queued.next(), completion, running, recorder, timeout);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConfigLoaderException("Interrupted while resolving tags", e);
+        } finally {
+            running.keySet().forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static void start(Call call, CompletionService<Map<String, ?>> completion,
+                              Map<Future<Map<String, ?>>, Call> running, LoadRecorder recorder, long timeout) {
+        running.put(completion.submit(() -> {
+            call.deadline = System.nanoTime() + timeout;
+            call.started = true;
+            return call.run(recorder);
+        }), call);
+    }
+
+    private static Call firstToExpire(Map<Future<Map<String, ?>>, Call> running) {
+        Call first = null;
+        for (Call call : running.values()) {
+            if (call.started && (first == null || call.deadline - first.deadline < 0)) {
+                first = call;
+            }
+        }
+        return first;
+    }
+
+    private static Map<String, ?> getResult(Call call, Future<Map<String, ?>> done) throws InterruptedException {
+        try {
+            return done.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ConfigLoaderException("Cannot resolve !" + call.tag + ": " + e.getCause().getMessage(),
+                e.getCause());
+        }
+    }
+
+    private static void merge(Map<String, Map<String, Object>> results, String tag, Map<String, ?> resolved) {
+        results.computeIfAbsent(tag, name -> new HashMap<>()).putAll(resolved);
+    }
+
+    /**
+     * One call to a resolver
+     */
+    private static class Call {
+        private final String tag;
+        private final Supplier<Map<String, ?>> resolver;
+        private volatile long deadline;
+        private volatile boolean started;
+
+        Call(String tag, Supplier<Map<String, ?>> resolver) {
+            this.tag = tag;
+            this.resolver = resolver;
+        }
+
+        Map<String, ?> run(LoadRecorder recorder) {
+            return recorder == null ? resolver.get() : recorder.recordTagInvocation(tag, resolver);
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package uk.org.webcompere.lightweightconfig.view;
+
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+import uk.org.webcompere.lightweightconfig.binding.Conversions;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only access to a loaded configuration by path - e.g. <code>server.http.port</code> or
+ * <code>routes[3].url</code>. The configuration is indexed by the path of every value once, when the view is
+ * created, so each lookup is a single probe of the index, rather than a walk through the nested maps, and
+ * neither lookups nor the primitive getters allocate. A view of part of the configuration shares the index
+ * of the whole.<br>
+ * The view reads the maps and lists it was created from, so they should not be modified afterwards.
+ */
+public final class ConfigView {
+    private static final int MINIMUM_CAPACITY = 2;
+    private static final int FIBONACCI_MULTIPLIER = 0x9E37_79B9;
+    private static final int HASH_MULTIPLIER = 31;
+
+    private final Index index;
+    private final int slot;
+    private final String prefix;
+    private final int prefixHash;
+
+    private ConfigView(Index index, int slot) {
+        this.index = index;
+        this.slot = slot;
+        this.prefix = index.paths[slot];
+        this.prefixHash = prefix.hashCode();
+    }
+
+    /**
+     * Index a loaded configuration
+     * @param config the configuration, as loaded by <code>ConfigLoader.load</code>
+     * @return a view of the whole configuration
+     */
+    public static ConfigView of(Map<String, Object> config) {
+        Index index = new Index(config);
+        return new ConfigView(index, index.findPath("", 0));
+    }
+
+    /**
+     * The path of this view within the whole configuration
+     * @return the path, which is empty for the whole configuration
+     */
+    public String getPath() {
+        return prefix;
+    }
+
+    /**
+     * Whether there's a value at a path, which may be <code>null</code>
+     * @param path the path, relative to this view
+     * @return true if the path is in the configuration
+     */
+    public boolean contains(String path) {
+        return find(path) >= 0;
+    }
+
+    /**
+     * Get the value at a path
+     * @param path the path, relative to this view - the empty path is the value of the view itself
+     * @return the value, which is a <code>Map</code> or <code>List</code> for a path which has children, or
+     *     <code>null</code> if there's no value
+     */
+    public Object get(String path) {
+        int slot = find(path);
+        return slot < 0 ? null : index.values[slot];
+    }
+
+    /**
+     * Get a view of part of the configuration, which shares this view's index
+     * @param path the path of the part, relative to this view
+     * @return the view of the part, whose paths are relative to it
+     * @throws ConfigLoaderException if there's no map or list at the path
+     */
+    public ConfigView getView(String path) {
+        int slot = find(path);
+        if (slot < 0 || !(index.values[slot] instanceof Map || index.values[slot] instanceof List)) {
+            throw new ConfigLoaderException("No map or list at " + describe(path));
+        }
+        return new ConfigView(index, slot);
+    }
+
+    /**
+     * Get the value at a path as a string
+     * @param path the path, relative to this view
+     * @return the value
+     * @throws ConfigLoaderException if there's no value, or it's a map or list
+     */
+    public String getString(String path) {
+        return Conversions.toStringValue(getRequired(path), describe(path));
+    }
+
+    /**
+     * Get the value at a path as a string
+     * @param path the path, relative to this view
+     * @param defaultValue the value to use if there's no value at the path
+     * @return the value, or the default
+     * @throws ConfigLoaderException if the value is a map or list
+     */
+    public String getString(String path, String defaultValue) {
+        Object value = get(path);
+        return value == null ? defaultValue : Conversions.toStringValue(value, describe(path));
+    }
+
+    /**
+     * Get the value at a path as an <code>int</code>
+     * @param path the path, relative to this view
+     * @return the value
+     * @throws ConfigLoaderException if there's no value, or it's not an <code>int</code>
+     */
+    public int getInt(String path) {
+        return toInt(getRequired(path), path);
+    }
+
+    /**
+     * Get the value at a path as an <code>int</code>
+     * @param path the path, relative to this view
+     * @param defaultValue the value to use if there's no value at the path
+     * @return the value, or the default
+     * @throws ConfigLoaderException if the value is not an <code>int</code>
+     */
+    public int getInt(String path, int defaultValue) {
+        Object value = get(path);
+        return value == null ? defaultValue : toInt(value, path);
+    }
+
+    /**
+     * Get the value at a path as a <code>long</code>
+     * @param path the path, relative to this view
+     * @return the value
+     * @throws ConfigLoaderException if there's no value, or it's not a <code>long</code>
+     */
+    public long getLong(String path) {
+        return toLong(getRequired(path), path);
+    }
+
+    /**
+     * Get the value at a path as a <code>long</code>
+     * @param path the path, relative to this view
+     * @param defaultValue the value to use if there's no value at the path
+     * @return the value, or the default
+     * @throws ConfigLoaderException if the value is not a <code>long</code>
+     */
+    public long getLong(String path, long defaultValue) {
+        Object value = get(path);
+        return value == null ? defaultValue : toLong(value, path);
+    }
+
+    /**
+     * Get the value at a path as a <code>double</code>
+     * @param path the path, relative to this view
+     * @return the value
+     * @throws ConfigLoaderException if there's no value, or it's not a number
+     */
+    public double getDouble(String path) {
+        return toDouble(getRequired(path), path);
+    }
+
+    /**
+     * Get the value at a path as a <code>double</code>
+     * @param path the path, relative to this view
+     * @param defaultValue the value to use if there's no value at the path
+     * @return the value, or the default
+     * @throws ConfigLoaderException if the value is not a number
+     */
+    public double getDouble(String path, double defaultValue) {
+        Object value = get(path);
+        return value == null ? defaultValue : toDouble(value, path);
+    }
+
+    /**
+     * Get the value at a path as a <code>boolean</code>
+     * @param path the path, relative to this view
+     * @return the value
+     * @throws ConfigLoaderException if there's no value, or it's not <code>true</code> or <code>false</code>
+     */
+    public boolean getBoolean(String path) {
+        return toBoolean(getRequired(path), path);
+    }
+
+    /**
+     * Get the value at a path as a <code>boolean</code>
+     * @param path the path, relative to this view
+     * @param defaultValue the value to use if there's no value at the path
+     * @return the value, or the default
+     * @throws ConfigLoaderException if the value is not <code>true</code> or <code>false</code>
+     */
+    public boolean getBoolean(String path, boolean defaultValue) {
+        Object value = get(path);
+        return value == null ? defaultValue : toBoolean(value, path);
+    }
+
+    @Override
+    public String toString() {
+        return prefix.isEmpty() ? "ConfigView" : "ConfigView(" + prefix + ")";
+    }
+
+    // the common cases don't allocate - other values are converted as generated binders convert them
+
+    private int toInt(Object value, String path) {
+        return value instanceof Integer ? (Integer) value : Conversions.toInt(value, describe(path));
+    }
+
+    private long toLong(Object value, String path) {
+        return value instanceof Long || value instanceof Integer ?
+            ((Number) value).longValue() : Conversions.toLong(value, describe(path));
+    }
+
+    private double toDouble(Object value, String path) {
+        return value instanceof Number ? ((Number) value).doubleValue() : Conversions.toDouble(value, describe(path));
+    }
+
+    private boolean toBoolean(Object value, String path) {
+        return value instanceof Boolean ? (Boolean) value : Conversions.toBoolean(value, describe(path));
+    }
+
+    private Object getRequired(String path) {
+        Object value = get(path);
+        if (value == null) {
+            throw new ConfigLoaderException("No value at " + describe(path));
+        }
+        return value;
+    }
+
+    private String describe(String path) {
+        if (prefix.isEmpty() || path.isEmpty()) {
+            return prefix.isEmpty() ? path : prefix;
+        }
+        return prefix + (path.charAt(0) == '[' ? "" : ".") + path;
+    }
+
+    /**
+     * Find the slot of a path, relative to this view, without building the full path. The hash of the full
+     * path is worked out from the hashes of the prefix and the path, as {@link String#hashCode()} would, and
+     * a path of one key is matched by its parent and key, rather than comparing the whole path.
+     * @param path the relative path
+     * @return the slot, or -1 if the path is not in the index
+     */
+    private int find(String path) {
+        if (prefix.isEmpty()) {
+            return index.findPath(path, path.hashCode());
+        }
+        if (path.isEmpty()) {
+            return slot;
+        }
+
+        int separator = path.charAt(0) == '[' ? 0 : 1;
+        int hash = prefixHash;
+        if (separator == 1) {
+            hash = hash * HASH_MULTIPLIER + '.';
+        }
+        for (int i = 0; i < path.length(); i++) {
+            hash *= HASH_MULTIPLIER;
+        }
+        hash += path.hashCode();
+        if (path.indexOf('.') < 0 && path.indexOf('[', 1) < 0) {
+            return index.findChild(slot, path, hash);
+        }
+        return index.findRelative(prefix, separator, path, hash);
+    }
+
+    /**
+     * Every value of the configuration, in an open-addressing table keyed by its full path. Each slot also
+     * holds the slot of its parent, and its own key - or index, for an item of a list.
+     */
+    private static final class Index {
+        private final String[] paths;
+        private final Object[] values;
+        private final int[] hashes;
+        private final int[] parents;
+        private final String[] names;
+        private final int mask;
+        private final int shift;
+
+        Index(Map<String, Object> config) {
+            int capacity = MINIMUM_CAPACITY;
+            int count = count(config);
+            while (capacity < count * 2) {
+                capacity <<= 1;
+            }
+            paths = new String[capacity];
+            values = new Object[capacity];
+            hashes = new int[capacity];
+            parents = new int[capacity];
+            names = new String[capacity];
+            mask = capacity - 1;
+            shift = Integer.numberOfLeadingZeros(mask);
+
+            add("", "", -1, config);
+        }
+
+        int findPath(String path, int hash) {
+            for (int slot = slot(hash); paths[slot] != null; slot = (slot + 1) & mask) {
+                if (hashes[slot] == hash && paths[slot].equals(path)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        int findChild(int parent, String name, int hash) {
+            for (int slot = slot(hash); paths[slot] != null; slot = (slot + 1) & mask) {
+                if (hashes[slot] == hash && parents[slot] == parent && names[slot].equals(name)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        int findRelative(String prefix, int separator, String path, int hash) {
+            int length = prefix.length() + separator + path.length();
+            for (int slot = slot(hash); paths[slot] != null; slot = (slot + 1) & mask) {
+                String candidate = paths[slot];
+                if (hashes[slot] == hash &&
+                    candidate.length() == length &&
+                    candidate.startsWith(prefix) &&
+                    (separator == 0 || candidate.charAt(prefix.length()) == '.') &&
+                    candidate.regionMatches(prefix.length() + separator, path, 0, path.length())) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private void add(String path, String name, int parent, Object value) {
+            int slot = put(path, name, parent, value);
+            if (value instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    String key = String.valueOf(entry.getKey());
+                    add(path.isEmpty() ? key : path + "." + key, key, slot, entry.getValue());
+                }
+            } else if (value instanceof List) {
+                List<?> list = (List<?>) value;
+                for (int i = 0; i < list.size(); i++) {
+                    String item = "[" + i + "]";
+                    add(path + item, item, slot, list.get(i));
+                }
+            }
+        }
+
+        private int put(String path, String name, int parent, Object value) {
+            int hash = path.hashCode();
+            int slot = slot(hash);
+            while (paths[slot] != null) {
+                if (hashes[slot] == hash && paths[slot].equals(path)) {
+                    // a key containing dots which matches the path of a nested value - the first wins
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            paths[slot] = path;
+            values[slot] = value;
+            hashes[slot] = hash;
+            parents[slot] = parent;
+            names[slot] = name;
+            return slot;
+        }
+
+        private int slot(int hash) {
+            return (hash * FIBONACCI_MULTIPLIER) >>> shift;
+        }
+
+        private static int count(Object value) {
+            int count = 1;
+            if (value instanceof Map) {
+                for (Object child : ((Map<?, ?>) value).values()) {
+                    count += count(child);
+                }
+            } else if (value instanceof List) {
+                for (Object child : (List<?>) value) {
+                    count += count(child);
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package uk.org.webcompere.lightweightconfig.yaml;
+
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.introspector.BeanAccess;
+import org.yaml.snakeyaml.introspector.FieldProperty;
+import org.yaml.snakeyaml.introspector.MethodProperty;
+import org.yaml.snakeyaml.introspector.Property;
+import org.yaml.snakeyaml.introspector.PropertyUtils;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * {@link PropertyUtils} which introspects each class once for the life of the class, rather than once per
+ * {@link org.yaml.snakeyaml.Yaml} engine. The properties are held in static {@link ClassValue}s, so they're
+ * shared by every engine of every loader, and a class's metadata can still be unloaded with it. Each engine
+ * has its own instance, so an engine reached through {@link YamlPool#withYaml} can be reconfigured without
+ * affecting the others - an instance which allows read only properties works out its own readable properties.
+ * Properties which can be reached by a {@link MethodHandle} are bound through one.
+ */
+class CachingPropertyUtils extends PropertyUtils {
+    private static final Map<BeanAccess, ClassValue<Map<String, Property>>> PROPERTIES =
+        new EnumMap<>(BeanAccess.class);
+    private static final Map<BeanAccess, ClassValue<Set<Property>>> WRITABLE_PROPERTIES =
+        new EnumMap<>(BeanAccess.class);
+
+    static {
+        for (BeanAccess access : BeanAccess.values()) {
+            PROPERTIES.put(access, new ClassValue<Map<String, Property>>() {
+                @Override
+                protected Map<String, Property> computeValue(Class<?> type) {
+                    return introspect(type, access);
+                }
+            });
+            WRITABLE_PROPERTIES.put(access, new ClassValue<Set<Property>>() {
+                @Override
+                protected Set<Property> computeValue(Class<?> type) {
+                    return readableProperties(type, access, false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Construct for an engine, skipping missing properties
+     */
+    CachingPropertyUtils() {
+        super.setSkipMissingProperties(true);
+    }
+
+    @Override
+    protected Map<String, Property> getPropertiesMap(Class<?> type, BeanAccess access) {
+        return PROPERTIES.get(access).get(type);
+    }
+
+    @Override
+    public Set<Property> getProperties(Class<?> type, BeanAccess access) {
+        if (isAllowReadOnlyProperties()) {
+            // cached by this instance, which clears them if the setting changes
+            return super.getProperties(type, access);
+        }
+        return WRITABLE_PROPERTIES.get(access).get(type);
+    }
+
+    @Override
+    protected Set<Property> createPropertySet(Class<?> type, BeanAccess access) {
+        return readableProperties(type, access, isAllowReadOnlyProperties());
+    }
+
+    private static Set<Property> readableProperties(Class<?> type, BeanAccess access, boolean allowReadOnly) {
+        Set<Property> readable = new TreeSet<>();
+        for (Property property : PROPERTIES.get(access).get(type).values()) {
+            if (property.isReadable() && (allowReadOnly || property.isWritable())) {
+                readable.add(property);
+            }
+        }
+        return Collections.unmodifiableSet(readable);
+    }
+
+    private static Map<String, Property> introspect(Class<?> type, BeanAccess access) {
+        Map<String, Property> found = new Introspection().getPropertiesMap(type, access);
+        Map<String, PropertyDescriptor> descriptors = null;
+
+        Map<String, Property> bound = new LinkedHashMap<>();
+        for (Map.Entry<String, Property> entry : found.entrySet()) {
+            Property property = entry.getValue();
+            if (property instanceof MethodProperty) {
+                if (descriptors == null) {
+                    descriptors = getDescriptors(type);
+                }
+                property = bindMethods(property, descriptors.get(entry.getKey()));
+            } else if (property instanceof FieldProperty) {
+                property = bindField(property, findField(type, entry.getKey()));
+            }
+            bound.put(entry.getKey(), property);
+        }
+        return Collections.unmodifiableMap(bound);
+    }
+
+    private static Map<String, PropertyDescriptor> getDescriptors(Class<?> type) {
+        try {
+            Map<String, PropertyDescriptor> descriptors = new HashMap<>();
+            for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+                descriptors.put(descriptor.getName(), descriptor);
+            }
+            return descriptors;
+        } catch (IntrospectionException e) {
+            throw new YAMLException(e);
+        }
+    }
+
+    private static Property bindMethods(Property property, PropertyDescriptor descriptor) {
+        if (descriptor == null) {
+            return property;
+        }
+        MethodHandle getter = unreflect(descriptor.getReadMethod());
+        MethodHandle setter = unreflect(descriptor.getWriteMethod());
+        return getter == null && setter == null ? property : new HandleProperty(property, getter, setter);
+    }
+
+    private static Property bindField(Property property, Field field) {
+        if (field == null) {
+            return property;
+        }
+        try {
+            // the field property has already made the field accessible
+            field.setAccessible(true);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            return new HandleProperty(property, lookup.unreflectGetter(field),
+                Modifier.isFinal(field.getModifiers()) ? null : lookup.unreflectSetter(field));
+        } catch (IllegalAccessException | RuntimeException e) {
+            return property;
+        }
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        if (method == null) {
+            return null;
+        }
+        try {
+            return MethodHandles.publicLookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            // e.g. a public method of a class which isn't public - reflection is used instead
+            return null;
+        }
+    }
+
+    private static Field findField(Class<?> type, String name) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.getName().equals(name)) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A throwaway {@link PropertyUtils} for finding a class's properties, with SnakeYAML's own rules
+     */
+    private static class Introspection extends PropertyUtils {
+        @Override
+        protected Map<String, Property> getPropertiesMap(Class<?> type, BeanAccess access) {
+            return super.getPropertiesMap(type, access);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package uk.org.webcompere.lightweightconfig.yaml;
+
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.introspector.GenericProperty;
+import org.yaml.snakeyaml.introspector.Property;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What's needed to create instances of a class, worked out once per class and shared by every engine.
+ * A class with a no-argument constructor is created through a {@link MethodHandle} to it. A Java record
+ * is created through its canonical constructor, with a value for each component. Records are detected by
+ * reflection, so that this works on Java 8, where there are none.
+ */
+final class ClassBinding {
+    private static final Method IS_RECORD = findMethod(Class.class, "isRecord");
+    private static final Method GET_RECORD_COMPONENTS = findMethod(Class.class, "getRecordComponents");
+
+    private static final ClassValue<ClassBinding> BINDINGS = new ClassValue<ClassBinding>() {
+        @Override
+        protected ClassBinding computeValue(Class<?> type) {
+            return new ClassBinding(type);
+        }
+    };
+
+    private final MethodHandle defaultConstructor;
+    private final List<Property> components;
+    private final Map<String, Integer> componentIndexes = new HashMap<>();
+    private final MethodHandle canonicalConstructor;
+
+    private ClassBinding(Class<?> type) {
+        if (isRecord(type)) {
+            components = Collections.unmodifiableList(findComponents(type));
+            for (int i = 0; i < components.size(); i++) {
+                componentIndexes.put(components.get(i).getName(), i);
+            }
+            canonicalConstructor = findCanonicalConstructor(type, components);
+            defaultConstructor = null;
+        } else {
+            components = Collections.emptyList();
+            canonicalConstructor = null;
+            defaultConstructor = findDefaultConstructor(type);
+        }
+    }
+
+    /**
+     * Get the binding of a class
+     * @param type the class
+     * @return its binding
+     */
+    static ClassBinding of(Class<?> type) {
+        return BINDINGS.get(type);
+    }
+
+    /**
+     * Whether the class is a record, which must be created from its components
+     * @return true for a record
+     */
+    boolean isRecord() {
+        return canonicalConstructor != null;
+    }
+
+    /**
+     * Whether the class can be created with {@link #newInstance()}
+     * @return true if there's an accessible, no-argument constructor
+     */
+    boolean hasDefaultConstructor() {
+        return defaultConstructor != null;
+    }
+
+    /**
+     * Create an instance with the no-argument constructor
+     * @return the new instance
+     */
+    Object newInstance() {
+        try {
+            return (Object) defaultConstructor.invokeExact();
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new YAMLException(e);
+        }
+    }
+
+    /**
+     * Get the components of a record, in the order of its canonical constructor
+     * @return the components, which have their types and generic types, but cannot be read or written
+     */
+    List<Property> getComponents() {
+        return components;
+    }
+
+    /**
+     * Find a component by name
+     * @param name the name of the component
+     * @return its position in the constructor, or -1 if the record has no such component
+     */
+    int indexOf(String name) {
+        Integer index = componentIndexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Create a record from its component values
+     * @param values a value for each component, in order
+     * @return the new record
+     */
+    Object newRecord(Object[] values) {
+        try {
+            return (Object) canonicalConstructor.invokeExact(values);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new YAMLException(e);
+        }
+    }
+
+    /**
+     * Get the value of a component which isn't in the source
+     * @param type the type of the component
+     * @return <code>null</code>, or zero for a primitive
+     */
+    static Object getDefaultValue(Class<?> type) {
+        return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+    }
+
+    private static MethodHandle findDefaultConstructor(Class<?> type) {
+        if (type.isInterface() || type.isPrimitive() || type.isArray() || Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor)
+                .asType(MethodType.methodType(Object.class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // SnakeYAML will report that it can't create the class
+            return null;
+        }
+    }
+
+    private static List<Property> findComponents(Class<?> type) {
+        try {
+            List<Property> found = new ArrayList<>();
+            for (Object component : (Object[]) GET_RECORD_COMPONENTS.invoke(type)) {
+                Class<?> componentClass = component.getClass();
+                found.add(new ComponentProperty(
+                    (String) componentClass.getMethod("getName").invoke(component),
+                    (Class<?>) componentClass.getMethod("getType").invoke(component),
+                    (Type) componentClass.getMethod("getGenericType").invoke(component)));
+            }
+            return found;
+        } catch (ReflectiveOperationException e) {
+            throw new YAMLException("Cannot read the components of record " + type.getName(), e);
+        }
+    }
+
+    private static MethodHandle findCanonicalConstructor(Class<?> type, List<Property> components) {
+        Class<?>[] parameterTypes = components.stream()
+            .map(Property::getType)
+            .toArray(Class<?>[]::new);
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor(parameterTypes);
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor)
+                .asSpreader(Object[].class, parameterTypes.length)
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            throw new YAMLException("Cannot access the constructor of record " + type.getName(), e);
+        }
+    }
+
+    private static boolean isRecord(Class<?> type) {
+        try {
+            return IS_RECORD != null && (Boolean) IS_RECORD.invoke(type);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    private static Method findMethod(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            // not available on this version of Java
+            return null;
+        }
+    }
+
+    /**
+     * A record component, which is only used for its type information
+     */
+    private static class ComponentProperty extends GenericProperty {
+        ComponentProperty(String name, Class<?> type, Type genericType) {
+            super(name, type, genericType);
+        }
+
+        @Override
+        public void set(Object object, Object value) {
+            throw new UnsupportedOperationException("Record components are set by the constructor");
+        }
+
+        @Override
+        public Object get(Object object) {
+            throw new UnsupportedOperationException("Record components are not read");
+        }
+
+        @Override
+        public List<Annotation> getAnnotations() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public <A extends Annotation> A getAnnotation(Class<A> annotationType) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package uk.org.webcompere.lightweightconfig.yaml;
+
+import org.yaml.snakeyaml.constructor.Construct;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+
+/**
+ * Constructs YAML integers which are plain decimals that fit in an <code>int</code> directly, which
+ * is most of them, and passes anything else - octal, hex, sexagesimal or with <code>_</code> separators -
+ * to SnakeYAML's own construct. SnakeYAML compiles a regular expression for every integer it reads.
+ */
+class DecimalIntConstruct implements Construct {
+    /**
+     * The most digits a decimal can have and always fit in an <code>int</code>
+     */
+    private static final int MAXIMUM_DIGITS = 9;
+
+    private final Construct standard;
+
+    /**
+     * Construct around SnakeYAML's integer construct
+     * @param standard the construct for integers which aren't plain decimals
+     */
+    DecimalIntConstruct(Construct standard) {
+        this.standard = standard;
+    }
+
+    @Override
+    public Object construct(Node node) {
+        String value = ((ScalarNode) node).getValue();
+        return isPlainDecimal(value) ? Integer.valueOf(Integer.parseInt(value)) : standard.construct(node);
+    }
+
+    @Override
+    public void construct2ndStep(Node node, Object object) {
+        standard.construct2ndStep(node, object);
+    }
+
+    /**
+     * Whether the value is an optional sign followed by digits, short enough to be an <code>int</code>
+     * and without the leading zero which would make it octal
+     * @param value the scalar value
+     * @return true if it can be parsed directly
+     */
+    static boolean isPlainDecimal(String value) {
+        int length = value.length();
+        int start = length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+') ? 1 : 0;
+        if (length == start || length - start > MAXIMUM_DIGITS) {
+            return false;
+        }
+        if (value.charAt(start) == '0' && length > start + 1) {
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            char next = value.charAt(i);
+            if (next < '0' || next > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,125 @@
+package uk.org.webcompere.lightweightconfig.yaml;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.composer.Composer;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.resolver.Resolver;
+import uk.org.webcompere.lightweightconfig.provider.Fragment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds the tree of a configuration from the separately parsed trees of its fragments. The rules are:
+ * <ul>
+ *     <li>the imports of a fragment are merged in the order they're listed, so a later import overrides an
+ *     earlier one</li>
+ *     <li>the fragment itself overrides its imports, wherever its <code>#import</code> statements are</li>
+ *     <li>two maps are merged key by key, recursively - any other value, including a list, replaces the value
+ *     it overrides</li>
+ * </ul>
+ * Anchors are local to the fragment they're in, so an alias can't refer to an anchor in another fragment.
+ */
+class FragmentMerger {
+    private final ParsedFragmentCache cache;
+    private final Function<String, List<Event>> parser;
+    private final Resolver resolver;
+    private final LoaderOptions options;
+
+    /**
+     * Construct for a single load
+     * @param cache the cache of parsed fragments
+     * @param parser parses the text of a fragment into events
+     * @param resolver resolves the implicit tags of scalars
+     * @param options the options of the loader
+     */
+    FragmentMerger(ParsedFragmentCache cache, Function<String, List<Event>> parser, Resolver resolver,
+                   LoaderOptions options) {
+        this.cache = cache;
+        this.parser = parser;
+        this.resolver = resolver;
+        this.options = options;
+    }
+
+    /**
+     * Build the tree of a fragment and its imports
+     * @param fragment the fragment
+     * @return the root node of the merged tree, or <code>null</code> if every fragment is empty
+     */
+    Node compose(Fragment fragment) {
+        Node merged = null;
+        for (Fragment imported : fragment.getImports()) {
+            merged = merge(merged, compose(imported));
+        }
+
+        // a new tree for each load, as binding a tree changes it
+        List<Event> events = cache.getEvents(fragment.getSource(), fragment.getText(), parser);
+        Node own = new Composer(new ReplayParser(events), resolver, options).getSingleNode();
+        return merge(merged, own);
+    }
+
+    /**
+     * Merge one tree over another. Both trees are only used by this load, so the overriding tree is reused.
+     * @param base the tree which is overridden, or <code>null</code> if there is none
+     * @param override the overriding tree, or <code>null</code> if it's empty
+     * @return the merged tree
+     */
+    static Node merge(Node base, Node override) {
+        if (base == null) {
+            return override;
+        }
+        if (override == null) {
+            return base;
+        }
+        if (!(base instanceof MappingNode) || !(override instanceof MappingNode)) {
+            return override;
+        }
+
+        List<NodeTuple> tuples = new ArrayList<>(((MappingNode) base).getValue());
+        Map<List<Object>, Integer> positions = new HashMap<>();
+        for (int i = 0; i < tuples.size(); i++) {
+            List<Object> key = key(tuples.get(i).getKeyNode());
+            if (key != null) {
+                positions.put(key, i);
+            }
+        }
+
+        MappingNode merged = (MappingNode) override;
+        for (NodeTuple tuple : merged.getValue()) {
+            List<Object> key = key(tuple.getKeyNode());
+            Integer position = key == null ? null : positions.get(key);
+            if (position == null) {
+                if (key != null) {
+                    positions.put(key, tuples.size());
+                }
+                tuples.add(tuple);
+            } else {
+                NodeTuple overridden = tuples.get(position);
+                tuples.set(position, new NodeTuple(overridden.getKeyNode(),
+                    merge(overridden.getValueNode(), tuple.getValueNode())));
+            }
+        }
+        merged.setValue(tuples);
+        return merged;
+    }
+
+    /**
+     * The identity of a key - keys which are not scalars are never matched, so are all kept
+     * @param keyNode the node of the key
+     * @return the tag and value of a scalar key, or <code>null</code>
+     */
+    private static List<Object> key(Node keyNode) {
+        if (!(keyNode instanceof ScalarNode)) {
+            return null;
+        }
+        return Arrays.asList(keyNode.getTag(), ((ScalarNode) keyNode).getValue());
+    }
+}
@@ -0,0 +1,94 @@
+package uk.org.webcompere.lightweightconfig.yaml;
+
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.introspector.Property;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+/**
+ * A {@link Property} which reads and writes its value through {@link MethodHandle}s, adapted once to
+ * <code>Object</code> parameters, rather than through reflection on every call. The handles are built
+ * by {@link CachingPropertyUtils} from the property SnakeYAML found, which still supplies the generic
+ * types and annotations.
+ */
+class HandleProperty extends Property {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Property delegate;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    /**
+     * Construct around a property
+     * @param delegate the property SnakeYAML found
+     * @param getter reads the property, or <code>null</code> to use the delegate
+     * @param setter writes the property, or <code>null</code> to use the delegate
+     */
+    HandleProperty(Property delegate, MethodHandle getter, MethodHandle setter) {
+        super(delegate.getName(), delegate.getType());
+        this.delegate = delegate;
+        this.getter = getter == null ? null : getter.asType(GETTER_TYPE);
+        this.setter = setter == null ? null : setter.asType(SETTER_TYPE);
+    }
+
+    @Override
+    public Class<?>[] getActualTypeArguments() {
+        return delegate.getActualTypeArguments();
+    }
+
+    @Override
+    public void set(Object object, Object value) throws Exception {
+        if (setter == null) {
+            delegate.set(object, value);
+            return;
+        }
+
+        try {
+            setter.invokeExact(object, value);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new YAMLException("Unable to set property '" + getName() + "' on object " + object, e);
+        }
+    }
+
+    @Override
+    public Object get(Object object) {
+        if (getter == null) {
+            return delegate.get(object);
+        }
+
+        try {
+            return (Object) getter.invokeExact(object);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new YAMLException("Unable to find getter for property '" + getName() + "' on object " + object,
+                e);
+        }
+    }
+
+    @Override
+    public List<Annotation> getAnnotations() {
+        return delegate.getAnnotations();
+    }
+
+    @Override
+    public <A extends Annotation> A getAnnotation(Class<A> annotationType) {
+        return delegate.getAnnotation(annotationType);
+    }
+
+    @Override
+    public boolean isWritable() {
+        return delegate.isWritable();
+    }
+
+    @Override
+    public boolean isReadable() {
+        return delegate.isReadable();
+    }
+}
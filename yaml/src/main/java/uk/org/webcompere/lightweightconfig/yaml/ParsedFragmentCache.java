@@ -0,0 +1,137 @@
+package uk.org.webcompere.lightweightconfig.yaml;
+
+import org.yaml.snakeyaml.events.Event;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A least-recently-used cache of parsed configuration fragments, for loaders which merge imports as parsed
+ * trees rather than splicing their text. Each fragment is keyed by where it was read from and a hash of its
+ * interpolated text, so a fragment is parsed again when it changes, or when it's interpolated with different
+ * placeholder values. A base fragment shared by many configurations is then parsed once, rather than once
+ * per configuration. The cache holds the parser's events, from which a fresh tree is built for every load, so
+ * loads can't affect one another through it. A cache may be shared between loaders.
+ */
+public class ParsedFragmentCache {
+    private final int maximumFragments;
+    private final LinkedHashMap<Key, List<Event>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits;
+    private long misses;
+
+    /**
+     * Construct a cache with a size limit
+     * @param maximumFragments the most fragments to hold - when exceeded, the least recently used are evicted
+     */
+    public ParsedFragmentCache(int maximumFragments) {
+        if (maximumFragments < 1) {
+            throw new IllegalArgumentException("The maximum number of fragments must be at least 1");
+        }
+        this.maximumFragments = maximumFragments;
+    }
+
+    /**
+     * Remove all entries from the cache
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * The number of fragments served from the cache
+     * @return the hit count
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * The number of fragments which had to be parsed
+     * @return the miss count
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * The number of fragments currently cached
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the parsed events of a fragment, parsing it if it's not cached. Concurrent loads which miss the same
+     * fragment may both parse it.
+     * @param source where the fragment was read from
+     * @param text the interpolated text of the fragment
+     * @param parser parses the text into events
+     * @return the events, which must not be modified
+     */
+    List<Event> getEvents(String source, String text, Function<String, List<Event>> parser) {
+        Key key = new Key(source, digest(text));
+        synchronized (this) {
+            List<Event> events = entries.get(key);
+            if (events != null) {
+                hits++;
+                return events;
+            }
+            misses++;
+        }
+
+        List<Event> events = Collections.unmodifiableList(parser.apply(text));
+        synchronized (this) {
+            entries.put(key, events);
+            Iterator<List<Event>> leastRecentlyUsed = entries.values().iterator();
+            while (entries.size() > maximumFragments) {
+                leastRecentlyUsed.next();
+                leastRecentlyUsed.remove();
+            }
+        }
+        return events;
+    }
+
+    private static byte[] digest(String text) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(text.getBytes(UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // every JVM supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Key {
+        private final String source;
+        private final byte[] digest;
+        private final int hashCode;
+
+        Key(String source, byte[] digest) {
+            this.source = source;
+            this.digest = digest;
+            this.hashCode = 31 * source.hashCode() + Arrays.hashCode(digest);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return source.equals(key.source) && Arrays.equals(digest, key.digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package uk.org.webcompere.lightweightconfig.yaml;
+
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.parser.Parser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Finds the nodes at a path in a stream of parse events, without building the rest of the tree. A path is
+ * made of keys and indexes, as {@code ConfigView} names values - e.g. <code>routes[*]</code>,
+ * <code>servers.*.ports[0]</code> or <code>tenants[*].users[*]</code>, where <code>*</code> matches any key
+ * of a map and <code>[*]</code> any item of a list. An empty path matches the root of each document. Only
+ * the events of one matching node are held at a time, and everything else is skipped as it's read.
+ */
+class PathVisitor {
+    private final List<Segment> segments;
+    private final Parser parser;
+    private final Deque<Frame> frames = new ArrayDeque<>();
+
+    /**
+     * Construct over a stream of events
+     * @param segments the parsed path
+     * @param parser the parser of the stream, which is read as the matches are found
+     */
+    PathVisitor(List<Segment> segments, Parser parser) {
+        this.segments = segments;
+        this.parser = parser;
+    }
+
+    /**
+     * Parse a path
+     * @param path the path, such as <code>routes[*]</code>
+     * @return the segments of the path
+     * @throws IllegalArgumentException if the path is malformed
+     */
+    static List<Segment> parse(String path) {
+        List<Segment> segments = new ArrayList<>();
+        int position = 0;
+        while (position < path.length()) {
+            if (path.charAt(position) == '[') {
+                int end = path.indexOf(']', position);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unclosed index in path: " + path);
+                }
+                segments.add(Segment.index(path.substring(position + 1, end), path));
+                position = end + 1;
+            } else {
+                int end = position;
+                while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                    end++;
+                }
+                if (end == position) {
+                    throw new IllegalArgumentException("Empty key in path: " + path);
+                }
+                segments.add(Segment.key(path.substring(position, end)));
+                position = end;
+            }
+
+            if (position < path.length() && path.charAt(position) == '.') {
+                position++;
+                if (position == path.length()) {
+                    throw new IllegalArgumentException("Empty key in path: " + path);
+                }
+            }
+        }
+        return Collections.unmodifiableList(segments);
+    }
+
+    /**
+     * Read on to the next node which matches the path
+     * @return the events of the node, from its first to its last, or <code>null</code> if there are no more
+     */
+    List<Event> next() {
+        while (true) {
+            if (frames.isEmpty()) {
+                Event event = parser.getEvent();
+                if (event == null || event.is(Event.ID.StreamEnd)) {
+                    return null;
+                }
+                if (event.is(Event.ID.DocumentStart)) {
+                    List<Event> match = enter(parser.getEvent());
+                    if (match != null) {
+                        return match;
+                    }
+                }
+                continue;
+            }
+
+            Frame frame = frames.peek();
+            Segment segment = segments.get(frames.size() - 1);
+            Event event = parser.getEvent();
+            if (event.is(Event.ID.MappingEnd) || event.is(Event.ID.SequenceEnd)) {
+                frames.pop();
+                continue;
+            }
+
+            Event value = event;
+            boolean matches;
+            if (frame.mapping) {
+                matches = event.is(Event.ID.Scalar) && segment.matchesKey(((ScalarEvent) event).getValue());
+                if (!matches) {
+                    skip(event);
+                }
+                value = parser.getEvent();
+            } else {
+                matches = segment.matchesIndex(frame.index++);
+            }
+
+            if (!matches) {
+                skip(value);
+                continue;
+            }
+            List<Event> match = enter(value);
+            if (match != null) {
+                return match;
+            }
+        }
+    }
+
+    /**
+     * Enter a node which is on the path
+     * @param first the first event of the node
+     * @return the events of the node if it's the end of the path, otherwise <code>null</code>
+     */
+    private List<Event> enter(Event first) {
+        int depth = frames.size();
+        if (depth == segments.size()) {
+            return collect(first);
+        }
+
+        boolean sequence = segments.get(depth).sequence;
+        if (first.is(Event.ID.MappingStart) && !sequence) {
+            frames.push(new Frame(true));
+        } else if (first.is(Event.ID.SequenceStart) && sequence) {
+            frames.push(new Frame(false));
+        } else {
+            skip(first);
+        }
+        return null;
+    }
+
+    private List<Event> collect(Event first) {
+        List<Event> collected = new ArrayList<>();
+        collected.add(first);
+        int depth = opens(first) ? 1 : 0;
+        while (depth > 0) {
+            Event event = parser.getEvent();
+            collected.add(event);
+            if (opens(event)) {
+                depth++;
+            } else if (closes(event)) {
+                depth--;
+            }
+        }
+        return collected;
+    }
+
+    private void skip(Event first) {
+        int depth = opens(first) ? 1 : 0;
+        while (depth > 0) {
+            Event event = parser.getEvent();
+            if (opens(event)) {
+                depth++;
+            } else if (closes(event)) {
+                depth--;
+            }
+        }
+    }
+
+    private static boolean opens(Event event) {
+        return event.is(Event.ID.MappingStart) || event.is(Event.ID.SequenceStart);
+    }
+
+    private static boolean closes(Event event) {
+        return event.is(Event.ID.MappingEnd) || event.is(Event.ID.SequenceEnd);
+    }
+
+    /**
+     * A step of the path - a key of a map or an index of a list, either of which may be any
+     */
+    static final class Segment {
+        private final boolean sequence;
+        private final String key;
+        private final int index;
+
+        private Segment(boolean sequence, String key, int index) {
+            this.sequence = sequence;
+            this.key = key;
+            this.index = index;
+        }
+
+        static Segment key(String key) {
+            return new Segment(false, "*".equals(key) ? null : key, -1);
+        }
+
+        static Segment index(String index, String path) {
+            if ("*".equals(index)) {
+                return new Segment(true, null, -1);
+            }
+            try {
+                int parsed = Integer.parseInt(index);
+                if (parsed >= 0) {
+                    return new Segment(true, null, parsed);
+                }
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+            throw new IllegalArgumentException("Invalid index [" + index + "] in path: " + path);
+        }
+
+        boolean matchesKey(String candidate) {
+            return key == null || key.equals(candidate);
+        }
+
+        boolean matchesIndex(int candidate) {
+            return index < 0 || index == candidate;
+        }
+    }
+
+    private static final class Frame {
+        private final boolean mapping;
+        private int index;
+
+        Frame(boolean mapping) {
+            this.mapping = mapping;
+        }
+    }
+}
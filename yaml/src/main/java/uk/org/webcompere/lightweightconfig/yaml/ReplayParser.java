@@ -0,0 +1,61 @@
+package uk.org.webcompere.lightweightconfig.yaml;
+
+import org.yaml.snakeyaml.events.DocumentEndEvent;
+import org.yaml.snakeyaml.events.DocumentStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.StreamEndEvent;
+import org.yaml.snakeyaml.events.StreamStartEvent;
+import org.yaml.snakeyaml.parser.Parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Plays back events which were parsed earlier, so that they can be composed into a new tree of nodes
+ */
+class ReplayParser implements Parser {
+    private final List<Event> events;
+    private int position;
+
+    /**
+     * Construct over the events of a whole stream
+     * @param events the events, from the start of the stream to its end
+     */
+    ReplayParser(List<Event> events) {
+        this.events = events;
+    }
+
+    /**
+     * Play back the events of a single node as a stream of one document
+     * @param nodeEvents the events of the node, from its first event to its last
+     * @return the parser
+     */
+    static ReplayParser ofNode(List<Event> nodeEvents) {
+        Event first = nodeEvents.get(0);
+        Event last = nodeEvents.get(nodeEvents.size() - 1);
+        List<Event> events = new ArrayList<>(nodeEvents.size() + 4);
+        events.add(new StreamStartEvent(first.getStartMark(), first.getStartMark()));
+        events.add(new DocumentStartEvent(first.getStartMark(), first.getStartMark(), false, null,
+            Collections.emptyMap()));
+        events.addAll(nodeEvents);
+        events.add(new DocumentEndEvent(last.getEndMark(), last.getEndMark(), false));
+        events.add(new StreamEndEvent(last.getEndMark(), last.getEndMark()));
+        return new ReplayParser(events);
+    }
+
+    @Override
+    public boolean checkEvent(Event.ID choice) {
+        return position < events.size() && events.get(position).is(choice);
+    }
+
+    @Override
+    public Event peekEvent() {
+        return position < events.size() ? events.get(position) : null;
+    }
+
+    @Override
+    public Event getEvent() {
+        return position < events.size() ? events.get(position++) : null;
+    }
+}
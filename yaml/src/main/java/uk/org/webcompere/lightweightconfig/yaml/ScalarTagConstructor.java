@@ -0,0 +1,28 @@
+package uk.org.webcompere.lightweightconfig.yaml;
+
+import org.yaml.snakeyaml.constructor.AbstractConstruct;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+
+import java.util.function.Function;
+
+/**
+ * Converts the scalar value to the right of a custom tag into the object to insert into the configuration
+ */
+class ScalarTagConstructor extends AbstractConstruct {
+    private final Function<String, ?> converter;
+
+    ScalarTagConstructor(Function<String, ?> converter) {
+        this.converter = converter;
+    }
+
+    @Override
+    public Object construct(Node node) {
+        if (!(node instanceof ScalarNode)) {
+            throw new ConfigLoaderException("Cannot load non scalar node with scalar function: " +
+                node.getAnchor());
+        }
+        return converter.apply(((ScalarNode)node).getValue());
+    }
+}
@@ -0,0 +1,641 @@
+package uk.org.webcompere.lightweightconfig.yaml;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.composer.Composer;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.introspector.Property;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.SequenceNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.representer.Representer;
+import org.yaml.snakeyaml.resolver.Resolver;
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+import uk.org.webcompere.lightweightconfig.listener.LoadPhase;
+import uk.org.webcompere.lightweightconfig.listener.LoadRecorder;
+import uk.org.webcompere.lightweightconfig.provider.Fragment;
+import uk.org.webcompere.lightweightconfig.tags.BatchTagResolver;
+import uk.org.webcompere.lightweightconfig.tags.TagExecution;
+import uk.org.webcompere.lightweightconfig.tags.TagPrefetch;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A pool of {@link Yaml} engines, all built with the same set of custom tags. A {@link Yaml} object
+ * is expensive to build and is not thread-safe, so each engine is lent to one load at a time and
+ * then returned for reuse. The pool grows to the number of loads which have run concurrently.
+ */
+public class YamlPool {
+    /**
+     * Engines which have bound a single document of more nodes than this are not reused
+     */
+    static final int MAXIMUM_POOLED_NODES = 10_000;
+
+    private final Map<String, Function<String, ?>> tags;
+    private final TagPrefetch prefetch;
+    private final Queue<Engine> idle = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Construct a pool for a set of tags
+     * @param tags the scalar tag resolvers, keyed by tag name - these are copied, so later changes
+     *             to the map do not affect the pool
+     */
+    public YamlPool(Map<String, Function<String, ?>> tags) {
+        this(tags, Collections.emptyMap(), null);
+    }
+
+    /**
+     * Construct a pool for a set of tags, some of which are resolved before each document is bound
+     * @param tags the scalar tag resolvers, keyed by tag name - these are copied, so later changes
+     *             to the map do not affect the pool
+     * @param batchTags the batch tag resolvers, keyed by tag name, which are also copied
+     * @param tagExecution how to run the calls to the resolvers concurrently, or <code>null</code> to call
+     *                     them on the loading thread
+     */
+    public YamlPool(Map<String, Function<String, ?>> tags, Map<String, BatchTagResolver> batchTags,
+                    TagExecution tagExecution) {
+        this.tags = new HashMap<>(tags);
+        this.prefetch = new TagPrefetch(tags, batchTags, tagExecution);
+    }
+
+    /**
+     * Perform an operation with exclusive use of a {@link Yaml} engine
+     * @param operation the operation to perform
+     * @param <T> the type of result
+     * @return the result of the operation
+     */
+    public <T> T withYaml(Function<Yaml, T> operation) {
+        return withEngine(engine -> operation.apply(engine.yaml));
+    }
+
+    /**
+     * Load a document into an object. When the load is being recorded, the document is composed into
+     * nodes and then constructed, so that the time of parsing and of binding can be told apart.
+     * @param reader the document
+     * @param type the target type
+     * @param recorder the recorder of the load, or <code>null</code> if it's not being recorded
+     * @param <T> the target type
+     * @return the loaded object
+     */
+    public <T> T loadAs(Reader reader, Class<T> type, LoadRecorder recorder) {
+        if (recorder == null) {
+            if (prefetch.getPrefetchedTags().isEmpty()) {
+                return withYaml(yaml -> yaml.loadAs(reader, type));
+            }
+            return withEngine(engine -> bind(engine, engine.yaml.compose(reader), type, null));
+        }
+
+        return withEngine(engine -> {
+            Node node = recorder.timedExcludingStream(LoadPhase.PARSE, () -> engine.yaml.compose(reader));
+            return bind(engine, node, type, recorder);
+        });
+    }
+
+    /**
+     * Load a configuration from the parsed trees of its fragments, merged as {@link FragmentMerger} describes,
+     * rather than from their spliced text. Each fragment is parsed once while it's in the cache.
+     * @param fragment the fragment loaded, with its imports
+     * @param cache the cache of parsed fragments
+     * @param type the target type
+     * @param recorder the recorder of the load, or <code>null</code> if it's not being recorded
+     * @param <T> the target type
+     * @return the loaded object
+     */
+    public <T> T loadMerged(Fragment fragment, ParsedFragmentCache cache, Class<T> type, LoadRecorder recorder) {
+        return withEngine(engine -> {
+            FragmentMerger merger = new FragmentMerger(cache, text -> parseEvents(engine, text), engine.resolver,
+                engine.constructor.getLoadingConfig());
+            Node node = recorder == null ?
+                merger.compose(fragment) : recorder.timed(LoadPhase.PARSE, () -> merger.compose(fragment));
+            return bind(engine, node, type, recorder);
+        });
+    }
+
+    /**
+     * Load the documents of a multi-document source, separated by <code>---</code>, as a lazy stream. Each
+     * document is only parsed and bound when the stream reaches it, so only one is held at a time. The
+     * stream holds an engine and the reader until it's closed, so should be used in a try-with-resources block.
+     * @param reader the documents - closed when the stream is closed
+     * @param type the target type of every document
+     * @param recorder the recorder of the load, or <code>null</code> if it's not being recorded
+     * @param bindingExecutor an executor on which to bind documents in parallel, or <code>null</code> to
+     *                        bind each document on the thread which consumes the stream
+     * @param <T> the target type
+     * @return a stream of the documents, in the order of the source
+     */
+    public <T> Stream<T> loadAll(Reader reader, Class<T> type, LoadRecorder recorder, Executor bindingExecutor) {
+        Documents<T> documents = bindingExecutor == null ?
+            new Documents<>(reader, type, recorder) :
+            new ParallelDocuments<>(reader, type, recorder, bindingExecutor);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(documents, Spliterator.ORDERED), false)
+            .onClose(documents::close);
+    }
+
+    /**
+     * Bind each node at a path in the source, one at a time, and pass it to a consumer, without building the
+     * rest of the tree. Only one matching node is held at a time, so a source with a very long list can be
+     * processed in bounded memory. Aliases within a node may only refer to anchors within the same node.
+     * @param reader the source, which is read as the nodes are found
+     * @param path the path of the nodes, as described by {@link PathVisitor} - e.g. <code>routes[*]</code>
+     * @param type the target type of each node
+     * @param consumer receives each bound node, in the order of the source
+     * @param recorder the recorder of the load, or <code>null</code> if it's not being recorded
+     * @param <T> the target type
+     * @return the number of nodes visited
+     * @throws IllegalArgumentException if the path is malformed
+     */
+    public <T> long visit(Reader reader, String path, Class<T> type, Consumer<? super T> consumer,
+                          LoadRecorder recorder) {
+        List<PathVisitor.Segment> segments = PathVisitor.parse(path);
+        return withEngine(engine -> {
+            LoaderOptions options = engine.constructor.getLoadingConfig();
+            PathVisitor visitor = new PathVisitor(segments,
+                new ParserImpl(new StreamReader(reader), unlimitedSize(options)));
+            Supplier<Node> nextNode = () -> {
+                List<Event> events = visitor.next();
+                return events == null ? null :
+                    new Composer(ReplayParser.ofNode(events), engine.resolver, options).getSingleNode();
+            };
+
+            long visited = 0;
+            while (true) {
+                Node node = recorder == null ? nextNode.get() :
+                    recorder.timedExcludingStream(LoadPhase.PARSE, nextNode);
+                if (node == null) {
+                    return visited;
+                }
+                consumer.accept(bind(engine, node, type, recorder));
+                visited++;
+            }
+        });
+    }
+
+    private <T> T withEngine(Function<Engine, T> operation) {
+        Engine engine = borrow();
+
+        // an engine which failed mid-load may be left holding state, so it's only
+        // returned to the pool on success
+        T result = operation.apply(engine);
+        giveBack(engine);
+        return result;
+    }
+
+    /**
+     * Options for a parser of a source which is never held whole, so need not be limited in size
+     * @param options the options of the engine
+     * @return a copy of the options without a limit on the size of a document
+     */
+    private static LoaderOptions unlimitedSize(LoaderOptions options) {
+        LoaderOptions unlimited = new LoaderOptions();
+        unlimited.setAllowDuplicateKeys(options.isAllowDuplicateKeys());
+        unlimited.setMaxAliasesForCollections(options.getMaxAliasesForCollections());
+        unlimited.setNestingDepthLimit(options.getNestingDepthLimit());
+        unlimited.setCodePointLimit(Integer.MAX_VALUE);
+        return unlimited;
+    }
+
+    private static List<Event> parseEvents(Engine engine, String text) {
+        List<Event> events = new ArrayList<>();
+        engine.yaml.parse(new StringReader(text)).forEach(events::add);
+        return events;
+    }
+
+    private Engine borrow() {
+        Engine engine = idle.poll();
+        return engine == null ? new Engine() : engine;
+    }
+
+    /**
+     * Return an engine to the pool, unless it has bound a very large document. SnakeYAML clears a table of
+     * the constructed nodes after every document, and the table never shrinks, so an engine which has bound
+     * a large document would slow every small one after it. The table is only as large as the largest single
+     * document, so a stream of many small documents doesn't retire the engine. A new engine is cheap, as the
+     * metadata of the bound classes is shared.
+     * @param engine the engine
+     */
+    private void giveBack(Engine engine) {
+        if (engine.constructor.getLargestDocumentNodes() <= MAXIMUM_POOLED_NODES) {
+            engine.constructor.resetNodeCounts();
+            idle.offer(engine);
+        }
+    }
+
+    private static <T> T bind(Engine engine, Node node, Class<T> type, LoadRecorder recorder) {
+        if (recorder == null) {
+            return engine.constructor.construct(node, type);
+        }
+
+        engine.constructor.recorder = recorder;
+        try {
+            return recorder.timed(LoadPhase.BIND, () -> engine.constructor.construct(node, type));
+        } finally {
+            engine.constructor.recorder = null;
+        }
+    }
+
+    /**
+     * Composes the documents one at a time and binds each as it's reached
+     * @param <T> the target type
+     */
+    private class Documents<T> implements Iterator<T> {
+        private final Engine engine = borrow();
+        private final Reader reader;
+        private final Iterator<Node> nodes;
+        private final Class<T> type;
+        private final LoadRecorder recorder;
+        private boolean failed;
+
+        Documents(Reader reader, Class<T> type, LoadRecorder recorder) {
+            this.reader = reader;
+            this.nodes = engine.yaml.composeAll(reader).iterator();
+            this.type = type;
+            this.recorder = recorder;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return guard(this::hasNextNode);
+        }
+
+        @Override
+        public T next() {
+            return guard(() -> bind(engine, nextNode(), type, recorder));
+        }
+
+        Class<T> getType() {
+            return type;
+        }
+
+        LoadRecorder getRecorder() {
+            return recorder;
+        }
+
+        boolean hasNextNode() {
+            return recorder == null ? nodes.hasNext() :
+                recorder.timedExcludingStream(LoadPhase.PARSE, nodes::hasNext);
+        }
+
+        Node nextNode() {
+            return recorder == null ? nodes.next() :
+                recorder.timedExcludingStream(LoadPhase.PARSE, nodes::next);
+        }
+
+        /**
+         * Perform a step of the iteration, noting if it fails
+         * @param step the step
+         * @param <R> the result of the step
+         * @return the result
+         */
+        <R> R guard(Supplier<R> step) {
+            try {
+                return step.get();
+            } catch (RuntimeException e) {
+                failed = true;
+                if (recorder != null) {
+                    recorder.endLoad(e);
+                }
+                throw e;
+            }
+        }
+
+        void close() {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new ConfigLoaderException("Cannot close the content: " + e.getMessage(), e);
+            } finally {
+                if (!failed) {
+                    giveBack(engine);
+                }
+            }
+        }
+    }
+
+    /**
+     * Composes the documents in order, and binds several ahead of the consumer on an executor, each with
+     * its own engine. The results are returned in the order of the source.
+     * @param <T> the target type
+     */
+    private class ParallelDocuments<T> extends Documents<T> {
+        private final Executor executor;
+        private final int window;
+        private final Deque<CompletableFuture<T>> pending = new ArrayDeque<>();
+
+        ParallelDocuments(Reader reader, Class<T> type, LoadRecorder recorder, Executor executor) {
+            super(reader, type, recorder);
+            this.executor = executor;
+            int parallelism = executor instanceof ForkJoinPool ?
+                ((ForkJoinPool) executor).getParallelism() : Runtime.getRuntime().availableProcessors();
+            this.window = 2 * Math.max(1, parallelism);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return guard(() -> !pending.isEmpty() || hasNextNode());
+        }
+
+        @Override
+        public T next() {
+            return guard(() -> {
+                while (pending.size() < window && hasNextNode()) {
+                    Node node = nextNode();
+                    pending.add(CompletableFuture.supplyAsync(() -> bindElsewhere(node), executor));
+                }
+                if (pending.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                return await(pending.poll());
+            });
+        }
+
+        private T bindElsewhere(Node node) {
+            return withEngine(other -> bind(other, node, getType(), getRecorder()));
+        }
+
+        private T await(CompletableFuture<T> document) {
+            try {
+                return document.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private class Engine {
+        private final CachingPropertyUtils propertyUtils = new CachingPropertyUtils();
+        private final TagConstructor constructor = new TagConstructor(propertyUtils);
+        private final Resolver resolver = new Resolver();
+        private final Yaml yaml;
+
+        Engine() {
+            DumperOptions dumperOptions = new DumperOptions();
+            Representer representer = new Representer(dumperOptions);
+            representer.setPropertyUtils(propertyUtils);
+
+            yaml = new Yaml(constructor, representer, dumperOptions, resolver);
+        }
+    }
+
+    private class TagConstructor extends Constructor {
+        private final Map<Tag, String> prefetchedTags = new HashMap<>();
+        private LoadRecorder recorder;
+        private int documentNodes;
+        private int largestDocumentNodes;
+        private Map<String, Map<String, Object>> resolvedTags;
+
+        TagConstructor(CachingPropertyUtils propertyUtils) {
+            super(new LoaderOptions());
+            setPropertyUtils(propertyUtils);
+            yamlClassConstructors.put(NodeId.mapping, new BindingMapping());
+            yamlConstructors.put(Tag.INT, new DecimalIntConstruct(yamlConstructors.get(Tag.INT)));
+
+            // apply scalar conversion tags to the Yaml loader
+            tags.forEach((tag, function) ->
+                this.yamlConstructors.put(new Tag("!" + tag),
+                    new ScalarTagConstructor(value -> resolveTag(tag, function, value))));
+
+            // tags resolved before the document is bound are looked up instead
+            prefetch.getPrefetchedTags().forEach(tag -> {
+                prefetchedTags.put(new Tag("!" + tag), tag);
+                this.yamlConstructors.put(new Tag("!" + tag),
+                    new ScalarTagConstructor(value -> getPrefetched(tag, value)));
+            });
+        }
+
+        /**
+         * Construct a composed document, as {@link Yaml#loadAs(Reader, Class)} would
+         * @param node the root node, or <code>null</code> for an empty document
+         * @param type the target type
+         * @param <T> the target type
+         * @return the constructed object
+         */
+        @SuppressWarnings("unchecked")
+        <T> T construct(Node node, Class<T> type) {
+            beginDocument();
+            if (node == null || Tag.NULL.equals(node.getTag())) {
+                return (T) yamlConstructors.get(Tag.NULL).construct(node);
+            }
+            if (Object.class != type) {
+                node.setTag(new Tag(type));
+            } else if (rootTag != null) {
+                node.setTag(rootTag);
+            }
+            if (prefetchedTags.isEmpty()) {
+                return (T) constructDocument(node);
+            }
+
+            resolvedTags = prefetch.resolve(collectTagValues(node), recorder);
+            try {
+                return (T) constructDocument(node);
+            } finally {
+                resolvedTags = null;
+            }
+        }
+
+        /**
+         * Find the values of the prefetched tags in a document, in the order they appear
+         * @param root the root node of the document
+         * @return the distinct values of each tag, keyed by tag name
+         */
+        private Map<String, Set<String>> collectTagValues(Node root) {
+            Map<String, Set<String>> values = new LinkedHashMap<>();
+            Set<Node> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                if (!visited.add(node)) {
+                    // an alias of an anchor which has been visited
+                    continue;
+                }
+                if (node instanceof ScalarNode) {
+                    String tag = prefetchedTags.get(node.getTag());
+                    if (tag != null) {
+                        values.computeIfAbsent(tag, name -> new LinkedHashSet<>()).add(((ScalarNode) node).getValue());
+                    }
+                } else if (node instanceof SequenceNode) {
+                    List<Node> items = ((SequenceNode) node).getValue();
+                    for (int i = items.size() - 1; i >= 0; i--) {
+                        pending.push(items.get(i));
+                    }
+                } else if (node instanceof MappingNode) {
+                    List<NodeTuple> tuples = ((MappingNode) node).getValue();
+                    for (int i = tuples.size() - 1; i >= 0; i--) {
+                        pending.push(tuples.get(i).getValueNode());
+                        pending.push(tuples.get(i).getKeyNode());
+                    }
+                }
+            }
+            return values;
+        }
+
+        private Object getPrefetched(String tag, String value) {
+            Map<String, Object> resolved = resolvedTags == null ? null : resolvedTags.get(tag);
+            if (resolved != null && resolved.containsKey(value)) {
+                return resolved.get(value);
+            }
+
+            // the document wasn't bound by construct - e.g. it was loaded through withYaml - so it's resolved alone
+            return prefetch.resolve(Collections.singletonMap(tag, Collections.singleton(value)), recorder)
+                .get(tag).get(value);
+        }
+
+        @Override
+        public Object getData() {
+            beginDocument();
+            return super.getData();
+        }
+
+        @Override
+        public Object getSingleData(Class<?> type) {
+            beginDocument();
+            return super.getSingleData(type);
+        }
+
+        @Override
+        protected Object constructObject(Node node) {
+            documentNodes++;
+            return super.constructObject(node);
+        }
+
+        /**
+         * Start counting the nodes of the next document, keeping the count of the largest so far
+         */
+        private void beginDocument() {
+            largestDocumentNodes = Math.max(largestDocumentNodes, documentNodes);
+            documentNodes = 0;
+        }
+
+        int getLargestDocumentNodes() {
+            return Math.max(largestDocumentNodes, documentNodes);
+        }
+
+        void resetNodeCounts() {
+            documentNodes = 0;
+            largestDocumentNodes = 0;
+        }
+
+        @Override
+        protected Object newInstance(Class<?> ancestor, Node node, boolean tryDefault) {
+            Class<?> type = node.getType();
+            if (tryDefault && !typeDefinitions.containsKey(type) && ancestor.isAssignableFrom(type)) {
+                ClassBinding binding = ClassBinding.of(type);
+                if (binding.hasDefaultConstructor()) {
+                    return binding.newInstance();
+                }
+            }
+            return super.newInstance(ancestor, node, tryDefault);
+        }
+
+        private Object resolveTag(String tag, Function<String, ?> function, String value) {
+            LoadRecorder current = recorder;
+            if (current == null) {
+                return function.apply(value);
+            }
+
+            return current.recordTagInvocation(tag, () -> function.apply(value));
+        }
+
+        /**
+         * Constructs mappings as SnakeYAML does, except for records, which are created from their components
+         */
+        private class BindingMapping extends ConstructMapping {
+            @Override
+            public Object construct(Node node) {
+                ClassBinding binding = ClassBinding.of(node.getType());
+                if (!binding.isRecord()) {
+                    return super.construct(node);
+                }
+
+                MappingNode mapping = (MappingNode) node;
+                flattenMapping(mapping);
+
+                List<Property> components = binding.getComponents();
+                Object[] values = new Object[components.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = ClassBinding.getDefaultValue(components.get(i).getType());
+                }
+
+                for (NodeTuple tuple : mapping.getValue()) {
+                    Node keyNode = tuple.getKeyNode();
+                    keyNode.setType(String.class);
+                    int index = binding.indexOf((String) constructObject(keyNode));
+
+                    // as with beans, keys with nowhere to go are skipped
+                    if (index >= 0) {
+                        values[index] = constructComponent(components.get(index), tuple.getValueNode());
+                    }
+                }
+                return binding.newRecord(values);
+            }
+
+            /**
+             * Construct the value of a record component, applying its type to the node as SnakeYAML does for
+             * bean properties
+             * @param component the component
+             * @param valueNode the node of its value
+             * @return the value
+             */
+            private Object constructComponent(Property component, Node valueNode) {
+                valueNode.setType(component.getType());
+                Class<?>[] arguments = component.getActualTypeArguments();
+                if (valueNode.getNodeId() != NodeId.scalar && arguments != null && arguments.length > 0) {
+                    if (valueNode.getNodeId() == NodeId.sequence) {
+                        ((SequenceNode) valueNode).setListType(arguments[0]);
+                    } else if (Map.class.isAssignableFrom(valueNode.getType())) {
+                        ((MappingNode) valueNode).setTypes(arguments[0], arguments[1]);
+                    } else if (Collection.class.isAssignableFrom(valueNode.getType())) {
+                        ((MappingNode) valueNode).setOnlyKeyType(arguments[0]);
+                    }
+                }
+
+                Object value = constructObject(valueNode);
+                if ((component.getType() == Float.TYPE || component.getType() == Float.class) &&
+                    value instanceof Double) {
+                    return ((Double) value).floatValue();
+                }
+                return value;
+            }
+        }
+    }
+}
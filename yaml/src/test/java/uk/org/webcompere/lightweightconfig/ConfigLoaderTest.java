@@ -0,0 +1,434 @@
+package uk.org.webcompere.lightweightconfig;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.yaml.snakeyaml.error.YAMLException;
+import uk.org.webcompere.lightweightconfig.data.PlaceholderSource;
+import uk.org.webcompere.lightweightconfig.properties.PropertiesLoader;
+import uk.org.webcompere.lightweightconfig.provider.ConfigTemplate;
+import uk.org.webcompere.lightweightconfig.provider.FragmentCache;
+import uk.org.webcompere.lightweightconfig.provider.InterpolatingReader;
+import uk.org.webcompere.lightweightconfig.provider.ResourceProvider;
+import uk.org.webcompere.lightweightconfig.provider.StringProvider;
+import uk.org.webcompere.systemstubs.jupiter.SystemStubsExtension;
+import uk.org.webcompere.systemstubs.properties.SystemProperties;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.org.webcompere.lightweightconfig.TestFiles.write;
+
+@ExtendWith(SystemStubsExtension.class)
+class ConfigLoaderTest {
+    @TempDir
+    Path tempDir;
+
+    public static class Example {
+        private String name;
+        private int age;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+    }
+
+    @Test
+    void loadConfigFromYaml(SystemProperties properties) {
+        properties.set("name", "Bill");
+        properties.set("AGE", "42");
+
+        Example example = ConfigLoader.loadYmlConfigFromResource("Example.yml", Example.class);
+        assertThat(example.getName()).isEqualTo("Bill");
+        assertThat(example.getAge()).isEqualTo(42);
+    }
+
+    @Test
+    void canLoadYmlLiteral(SystemProperties properties) {
+        properties.set("name", "Bill");
+        properties.set("AGE", "42");
+
+        Example example = new ConfigLoader()
+            .withResourceProvider(StringProvider::fromString)
+            .loadAs("name: ${name}\nage: ${AGE}", Example.class);
+
+        assertThat(example.getName()).isEqualTo("Bill");
+        assertThat(example.getAge()).isEqualTo(42);
+    }
+
+    @Test
+    void canLoadFromCustomResourceReader() {
+        Example example = new ConfigLoader()
+            .withResourceReader(StringReader::new)
+            .loadAs("name: Bill\nage: 42", Example.class);
+
+        assertThat(example.getName()).isEqualTo("Bill");
+        assertThat(example.getAge()).isEqualTo(42);
+    }
+
+    @Test
+    void customResourceReaderCanUseTheLoadContext() {
+        Map<String, String> values = new HashMap<>();
+        values.put("name", "Bill");
+
+        Example example = new ConfigLoader()
+            .withPlaceholderSources(PlaceholderSource.fromMap(values))
+            .withResourceReader((resource, context) -> new StringReader(StringProvider.fromString(resource, context)))
+            .loadAs("name: ${name}\nage: 42", Example.class);
+
+        assertThat(example.getName()).isEqualTo("Bill");
+        assertThat(example.getAge()).isEqualTo(42);
+    }
+
+    @Test
+    void canLoadLargeConfigAsStream() {
+        int entries = 50_000;
+        Map<String, Object> config = new ConfigLoader()
+            .withResourceReader(name -> new InterpolatingReader(new BufferedReader(new StringReader(
+                IntStream.range(0, entries)
+                    .mapToObj(i -> "key" + i + ": ${value:-" + i + "}")
+                    .collect(Collectors.joining("\n")))),
+                ResourceProvider::openResource))
+            .load("large");
+
+        assertThat(config).hasSize(entries)
+            .containsEntry("key0", 0)
+            .containsEntry("key49999", 49999);
+    }
+
+    @Test
+    void canLoadWithCustomPlaceholderSources() {
+        Map<String, String> values = new HashMap<>();
+        values.put("name", "Bill");
+        values.put("AGE", "42");
+
+        Example example = new ConfigLoader()
+            .withPlaceholderSources(PlaceholderSource.fromMap(values))
+            .loadAs("Example.yml", Example.class);
+
+        assertThat(example.getName()).isEqualTo("Bill");
+        assertThat(example.getAge()).isEqualTo(42);
+    }
+
+    @Test
+    void customPlaceholderSourcesApplyToImports() {
+        Map<String, String> values = new HashMap<>();
+        values.put("PROFILE", "prod");
+        values.put("password", "secret");
+
+        Map<String, Object> config = new ConfigLoader()
+            .withPlaceholderSources(PlaceholderSource.fromMap(values))
+            .load("examples/profile-config.yml");
+
+        assertThat(config).containsEntry("url", "http://www.prod.com")
+            .containsEntry("password", "secret");
+    }
+
+    @Test
+    void canLoadCustomYmlTag() {
+        Map<String, String> passwords = new HashMap<>();
+        passwords.put("mypassword", "supersecretpassword");
+
+        Map<String, Object> config = new ConfigLoader()
+            .withResourceProvider(StringProvider::fromString)
+            .withTag("password", passwords::get)
+            .load("password: !password mypassword");
+
+        assertThat(config).containsEntry("password", "supersecretpassword");
+    }
+
+    @Test
+    void cannotUseNonScalarWithScalar() {
+        Map<String, String> passwords = new HashMap<>();
+        passwords.put("mypassword", "supersecretpassword");
+
+        assertThatThrownBy(() -> new ConfigLoader()
+            .withResourceProvider(StringProvider::fromString)
+            .withTag("password", passwords::get)
+            .load("password: !password\n  - password"))
+            .isInstanceOf(YAMLException.class);
+    }
+
+    @Test
+    void tagAddedAfterLoadingIsUsedByNextLoad() {
+        ConfigLoader loader = new ConfigLoader()
+            .withResourceProvider(StringProvider::fromString);
+
+        assertThat(loader.load("name: bill")).containsEntry("name", "bill");
+
+        Map<String, Object> config = loader
+            .withTag("upper", String::toUpperCase)
+            .load("name: !upper bill");
+
+        assertThat(config).containsEntry("name", "BILL");
+    }
+
+    @Test
+    void loaderCanBeReusedAfterFailedLoad() {
+        ConfigLoader loader = new ConfigLoader()
+            .withResourceProvider(StringProvider::fromString);
+
+        assertThatThrownBy(() -> loader.load("name: [unclosed"))
+            .isInstanceOf(YAMLException.class);
+
+        assertThat(loader.load("name: bill")).containsEntry("name", "bill");
+    }
+
+    @Test
+    void loaderCanBeSharedAcrossThreads() throws Exception {
+        ConfigLoader loader = new ConfigLoader()
+            .withResourceProvider(StringProvider::fromString)
+            .withTag("double", value -> Integer.parseInt(value) * 2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Example>> futures = IntStream.range(0, 200)
+                .mapToObj(i -> executor.submit(() ->
+                    loader.loadAs("name: name" + i + "\nage: !double " + i, Example.class)))
+                .collect(Collectors.toList());
+
+            for (int i = 0; i < futures.size(); i++) {
+                Example example = futures.get(i).get();
+                assertThat(example.getName()).isEqualTo("name" + i);
+                assertThat(example.getAge()).isEqualTo(i * 2);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void canLoadAllDocumentsInOrder() {
+        try (Stream<Example> examples = new ConfigLoader()
+            .withResourceProvider(StringProvider::fromString)
+            .loadAll("name: a\nage: 1\n---\nname: b\nage: ${AGE:-2}\n---\nname: c\nage: 3", Example.class)) {
+
+            assertThat(examples.map(Example::getName)).containsExactly("a", "b", "c");
+        }
+    }
+
+    @Test
+    void loadAllOnlyBindsDocumentsWhenReached() {
+        AtomicInteger bound = new AtomicInteger();
+        String source = IntStream.range(0, 100)
+            .mapToObj(i -> "name: !count name" + i)
+            .collect(Collectors.joining("\n---\n"));
+
+        try (Stream<Example> examples = new ConfigLoader()
+            .withResourceProvider(StringProvider::fromString)
+            .withTag("count", value -> {
+                bound.incrementAndGet();
+                return value;
+            })
+            .loadAll(source, Example.class)) {
+
+            Iterator<Example> iterator = examples.iterator();
+            assertThat(iterator.next().getName()).isEqualTo("name0");
+            assertThat(iterator.next().getName()).isEqualTo("name1");
+            assertThat(bound).hasValue(2);
+        }
+    }
+
+    @Test
+    void canBindDocumentsInParallelInOrder() {
+        String source = IntStream.range(0, 500)
+            .mapToObj(i -> "name: name" + i + "\nage: !double " + i)
+            .collect(Collectors.joining("\n---\n"));
+
+        try (Stream<Example> examples = new ConfigLoader()
+            .withResourceProvider(StringProvider::fromString)
+            .withTag("double", value -> Integer.parseInt(value) * 2)
+            .withBindingExecutor(ForkJoinPool.commonPool())
+            .loadAll(source, Example.class)) {
+
+            List<Example> list = examples.collect(Collectors.toList());
+            assertThat(list).hasSize(500);
+            for (int i = 0; i < list.size(); i++) {
+                assertThat(list.get(i).getName()).isEqualTo("name" + i);
+                assertThat(list.get(i).getAge()).isEqualTo(i * 2);
+            }
+        }
+    }
+
+    @Test
+    void failureToBindDocumentIsThrownWhenReached() {
+        ConfigLoader loader = new ConfigLoader()
+            .withResourceProvider(StringProvider::fromString);
+
+        try (Stream<Example> examples = loader.loadAll("name: a\n---\nage: notanumber", Example.class)) {
+            Iterator<Example> iterator = examples.iterator();
+            assertThat(iterator.next().getName()).isEqualTo("a");
+            assertThatThrownBy(iterator::next).isInstanceOf(YAMLException.class);
+        }
+
+        assertThat(loader.load("name: bill")).containsEntry("name", "bill");
+    }
+
+    @Test
+    void failureToBindDocumentInParallelIsThrownWhenReached() {
+        try (Stream<Example> examples = new ConfigLoader()
+            .withResourceProvider(StringProvider::fromString)
+            .withBindingExecutor(ForkJoinPool.commonPool())
+            .loadAll("name: a\n---\nage: notanumber", Example.class)) {
+
+            assertThatThrownBy(() -> examples.collect(Collectors.toList()))
+                .isInstanceOf(YAMLException.class);
+        }
+    }
+
+    @Test
+    void canLoadIndependentConfigsConcurrently() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        ConfigLoader loader = new ConfigLoader()
+            .withResourceProvider(StringProvider::fromString)
+            .withTag("await", value -> {
+                bothStarted.countDown();
+                try {
+                    // only completes if the two loads run at once
+                    return bothStarted.await(5, TimeUnit.SECONDS) ? value : null;
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+        CompletableFuture<Example> first = loader.loadAsync("name: !await Bill\nage: 42", Example.class);
+        CompletableFuture<Map<String, Object>> second = loader.loadAsync("name: !await Ben");
+
+        assertThat(first.get(10, TimeUnit.SECONDS).getName()).isEqualTo("Bill");
+        assertThat(second.get(10, TimeUnit.SECONDS)).containsEntry("name", "Ben");
+    }
+
+    @Test
+    void asyncLoadRunsOnTheGivenExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "loader"));
+        try {
+            Map<String, Object> config = new ConfigLoader()
+                .withResourceProvider(StringProvider::fromString)
+                .withTag("thread", value -> Thread.currentThread().getName())
+                .withAsyncExecutor(executor)
+                .loadAsync("thread: !thread name")
+                .get(5, TimeUnit.SECONDS);
+
+            assertThat(config).containsEntry("thread", "loader");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void failedAsyncLoadCompletesExceptionally() {
+        CompletableFuture<Example> future = new ConfigLoader()
+            .withResourceProvider(StringProvider::fromString)
+            .loadAsync("age: notanumber", Example.class);
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(YAMLException.class);
+    }
+
+    @Test
+    void canLoadPropertiesAsyncWithLoaderPlaceholders() throws Exception {
+        Map<String, String> values = new HashMap<>();
+        values.put("SCORE", "99");
+
+        Properties properties = new ConfigLoader()
+            .withPlaceholderSources(PlaceholderSource.fromMap(values))
+            .loadPropertiesAsync("examples/interpolation.properties")
+            .get(5, TimeUnit.SECONDS);
+
+        assertThat(properties.get("score")).isEqualTo("99");
+    }
+
+    @Test
+    void configLoaderCanLoadTemplate() throws IOException {
+        Map<String, String> values = new HashMap<>();
+        Path config = write(tempDir, "config.yml", "name: ${name:-Bill}\nage: ${AGE:-42}");
+
+        ConfigLoader loader = new ConfigLoader()
+            .withPlaceholderSources(PlaceholderSource.fromMap(values));
+        ConfigTemplate template = loader.compile(config);
+
+        assertThat(loader.load(template)).containsEntry("name", "Bill")
+            .containsEntry("age", 42);
+
+        values.put("name", "Audrey");
+        assertThat(loader.load(template)).containsEntry("name", "Audrey");
+    }
+
+    @Test
+    void placeholdersAreResolvedOnEveryLoadWithCachedImports() throws IOException {
+        write(tempDir, "common.yml", "name: ${name}");
+        Path config = write(tempDir, "config.yml", "#import common.yml\nage: 42");
+
+        FragmentCache cache = new FragmentCache(1000);
+        Map<String, String> values = new HashMap<>();
+        ConfigLoader loader = new ConfigLoader()
+            .withFragmentCache(cache)
+            .withPlaceholderSources(PlaceholderSource.fromMap(values));
+
+        values.put("name", "Bill");
+        assertThat(loader.load(config)).containsEntry("name", "Bill")
+            .containsEntry("age", 42);
+
+        values.put("name", "Audrey");
+        assertThat(loader.load(config)).containsEntry("name", "Audrey");
+
+        assertThat(cache.getMisses()).isEqualTo(2);
+        assertThat(cache.getHits()).isEqualTo(2);
+    }
+
+    @Test
+    void propertiesCanBeLoadedWithoutYaml() throws Exception {
+        Path file = write(tempDir, "sidecar.properties", "name=${LIGHTWEIGHT_CONFIG_UNSET:-sidecar}\n");
+
+        // the core and yaml classes, without SnakeYAML
+        URL[] classes = {
+            PropertiesLoader.class.getProtectionDomain().getCodeSource().getLocation(),
+            ConfigLoader.class.getProtectionDomain().getCodeSource().getLocation()
+        };
+        try (URLClassLoader withoutYaml = new URLClassLoader(classes, null)) {
+            assertThatThrownBy(() -> withoutYaml.loadClass("org.yaml.snakeyaml.Yaml"))
+                .isInstanceOf(ClassNotFoundException.class);
+
+            Properties properties = (Properties) withoutYaml.loadClass(ConfigLoader.class.getName())
+                .getMethod("loadProperties", Path.class)
+                .invoke(null, file);
+            assertThat(properties.getProperty("name")).isEqualTo("sidecar");
+        }
+    }
+}
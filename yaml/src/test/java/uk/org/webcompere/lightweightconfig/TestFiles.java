@@ -0,0 +1,38 @@
+package uk.org.webcompere.lightweightconfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes the files which tests load, usually into their <code>@TempDir</code>
+ */
+public final class TestFiles {
+    private TestFiles() {
+    }
+
+    /**
+     * Write a file in a directory
+     * @param directory the directory
+     * @param name the name of the file, relative to the directory
+     * @param content the content, written as UTF-8
+     * @return the path of the file
+     * @throws IOException on error writing
+     */
+    public static Path write(Path directory, String name, String content) throws IOException {
+        return write(directory.resolve(name), content);
+    }
+
+    /**
+     * Write a file
+     * @param file the file
+     * @param content the content, written as UTF-8
+     * @return the file
+     * @throws IOException on error writing
+     */
+    public static Path write(Path file, String content) throws IOException {
+        return Files.write(file, content.getBytes(UTF_8));
+    }
+}
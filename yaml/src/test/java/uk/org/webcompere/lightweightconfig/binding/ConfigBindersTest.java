@@ -0,0 +1,121 @@
+package uk.org.webcompere.lightweightconfig.binding;
+
+import org.junit.jupiter.api.Test;
+import uk.org.webcompere.lightweightconfig.ConfigLoader;
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+
+import java.io.StringReader;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConfigBindersTest {
+    public static class Greeting {
+        private String message;
+        private int repeat;
+        private boolean boundByBinder;
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+
+        public int getRepeat() {
+            return repeat;
+        }
+
+        public void setRepeat(int repeat) {
+            this.repeat = repeat;
+        }
+    }
+
+    public static class NotGenerated {
+        private String message;
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+
+    /**
+     * Written as the processor would generate it, and registered in the test resources
+     */
+    public static final class GreetingBinder implements ConfigBinder<Greeting> {
+        @Override
+        public Class<Greeting> getType() {
+            return Greeting.class;
+        }
+
+        @Override
+        public Greeting bind(Map<String, Object> values, String path) {
+            Greeting target = new Greeting();
+            target.boundByBinder = true;
+            Object value = values.get("message");
+            if (value != null) {
+                target.setMessage(Conversions.toStringValue(value, Conversions.child(path, "message")));
+            } else if (values.containsKey("message")) {
+                target.setMessage(null);
+            }
+            value = values.get("repeat");
+            if (value != null || values.containsKey("repeat")) {
+                target.setRepeat(Conversions.toInt(value, Conversions.child(path, "repeat")));
+            }
+            return target;
+        }
+    }
+
+    private final ConfigLoader loader = new ConfigLoader()
+        .withResourceReader(StringReader::new);
+
+    @Test
+    void findsRegisteredBinder() {
+        assertThat(ConfigBinders.find(Greeting.class)).containsInstanceOf(GreetingBinder.class);
+    }
+
+    @Test
+    void typesWithoutBinderHaveNone() {
+        assertThat(ConfigBinders.find(NotGenerated.class)).isEmpty();
+        assertThat(ConfigBinders.find(Map.class)).isEmpty();
+    }
+
+    @Test
+    void loadAsUsesGeneratedBinder() {
+        Greeting greeting = loader.loadAs("message: hello\nrepeat: '3'\nunknown: ignored", Greeting.class);
+
+        assertThat(greeting.boundByBinder).isTrue();
+        assertThat(greeting.getMessage()).isEqualTo("hello");
+        assertThat(greeting.getRepeat()).isEqualTo(3);
+    }
+
+    @Test
+    void typesWithoutBinderAreStillBoundByReflection() {
+        assertThat(loader.loadAs("message: hello", NotGenerated.class).getMessage()).isEqualTo("hello");
+    }
+
+    @Test
+    void emptyContentIsNull() {
+        assertThat(loader.loadAs("", Greeting.class)).isNull();
+    }
+
+    @Test
+    void contentWhichIsNotMapCannotBeBound() {
+        assertThatThrownBy(() -> loader.loadAs("- a\n- b", Greeting.class))
+            .isInstanceOf(ConfigLoaderException.class)
+            .hasMessageContaining("not a map");
+    }
+
+    @Test
+    void conversionFailureNamesThePath() {
+        assertThatThrownBy(() -> loader.loadAs("repeat: lots", Greeting.class))
+            .isInstanceOf(ConfigLoaderException.class)
+            .hasMessage("Cannot convert lots to int at repeat");
+    }
+}
@@ -0,0 +1,84 @@
+package uk.org.webcompere.lightweightconfig.binding;
+
+import org.junit.jupiter.api.Test;
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class ConversionsTest {
+    enum Colour { RED, GREEN }
+
+    @Test
+    void childPathOfTopLevelIsItsName() {
+        assertThat(Conversions.child("", "name")).isEqualTo("name");
+        assertThat(Conversions.child("server", "name")).isEqualTo("server.name");
+    }
+
+    @Test
+    void numbersConvertToSmallerTypesWhenTheyFit() {
+        assertThat(Conversions.toInt(42L, "a")).isEqualTo(42);
+        assertThat(Conversions.toLong(42, "a")).isEqualTo(42L);
+        assertThat(Conversions.toShort(42, "a")).isEqualTo((short) 42);
+        assertThat(Conversions.toByte("42", "a")).isEqualTo((byte) 42);
+        assertThat(Conversions.toInt(2.0, "a")).isEqualTo(2);
+        assertThat(Conversions.toBigInteger(42, "a")).isEqualTo(BigInteger.valueOf(42));
+        assertThat(Conversions.toBigDecimal(1.5, "a")).isEqualTo(new BigDecimal("1.5"));
+        assertThat(Conversions.toFloat(1.5, "a")).isEqualTo(1.5f);
+    }
+
+    @Test
+    void numbersWhichDoNotFitAreRejected() {
+        assertThatThrownBy(() -> Conversions.toInt(5_000_000_000L, "a.b"))
+            .isInstanceOf(ConfigLoaderException.class)
+            .hasMessage("Cannot convert 5000000000 to int at a.b");
+        assertThatThrownBy(() -> Conversions.toLong(1.5, "a"))
+            .isInstanceOf(ConfigLoaderException.class);
+        assertThatThrownBy(() -> Conversions.toByte(300, "a"))
+            .isInstanceOf(ConfigLoaderException.class);
+    }
+
+    @Test
+    void scalarsConvert() {
+        assertThat(Conversions.toStringValue(42, "a")).isEqualTo("42");
+        assertThat(Conversions.toBoolean("TRUE", "a")).isTrue();
+        assertThat(Conversions.toChar("x", "a")).isEqualTo('x');
+        assertThat(Conversions.toEnum(Colour.class, "GREEN", "a")).isEqualTo(Colour.GREEN);
+    }
+
+    @Test
+    void mapsCannotBeScalars() {
+        assertThatThrownBy(() -> Conversions.toStringValue(new LinkedHashMap<>(), ""))
+            .isInstanceOf(ConfigLoaderException.class)
+            .hasMessage("Cannot convert {} to String at the top level");
+    }
+
+    @Test
+    void collectionsConvertEachElementWithItsPath() {
+        assertThat(Conversions.toList(Arrays.asList("1", null, 3), "a", Conversions::toInt))
+            .containsExactly(1, null, 3);
+        assertThat(Conversions.toSet(Arrays.asList("x", "y", "x"), "a", Conversions::toStringValue))
+            .containsExactly("x", "y");
+        assertThatThrownBy(() -> Conversions.toList(Arrays.asList(1, "x"), "a", Conversions::toInt))
+            .hasMessage("Cannot convert x to int at a[1]");
+    }
+
+    @Test
+    void mapsConvertEachValueWithItsPath() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("first", "1");
+        values.put("second", "two");
+
+        assertThat(Conversions.toMap(values, "a", Conversions::toStringValue))
+            .containsExactly(entry("first", "1"), entry("second", "two"));
+        assertThatThrownBy(() -> Conversions.toMap(values, "a", Conversions::toInt))
+            .hasMessage("Cannot convert two to int at a.second");
+    }
+}
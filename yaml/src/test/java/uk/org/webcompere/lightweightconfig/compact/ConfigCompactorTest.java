@@ -0,0 +1,171 @@
+package uk.org.webcompere.lightweightconfig.compact;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import uk.org.webcompere.lightweightconfig.ConfigLoader;
+import uk.org.webcompere.lightweightconfig.properties.ConfigProperties;
+import uk.org.webcompere.lightweightconfig.provider.StringProvider;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConfigCompactorTest {
+    private static final int TENANTS = 200;
+
+    private ConfigCompactor compactor = new ConfigCompactor();
+
+    @Test
+    void compactedConfigEqualsLoadedConfig() {
+        Map<String, Object> loaded = new ConfigLoader().load("examples/routes.yml");
+        Map<String, Object> compacted = compactor.compact(loaded);
+
+        assertThat(compacted).isEqualTo(loaded);
+        assertThat(loaded).isEqualTo(compacted);
+        assertThat(compacted.hashCode()).isEqualTo(loaded.hashCode());
+        assertThat(compacted.toString()).isEqualTo(loaded.toString());
+        assertThat(compacted).isInstanceOf(CompactMap.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void keysAndValuesAreSharedBetweenConfigs() {
+        ConfigLoader loader = tenantLoader();
+        Map<String, Object> first = loader.load(tenant(1));
+        Map<String, Object> second = loader.load(tenant(2));
+
+        Map<String, Object> firstDatabase = (Map<String, Object>) first.get("database");
+        Map<String, Object> secondDatabase = (Map<String, Object>) second.get("database");
+        assertThat(firstDatabase.get("host")).isSameAs(secondDatabase.get("host"));
+        assertThat(((CompactMap) firstDatabase).getShape()).isSameAs(((CompactMap) secondDatabase).getShape());
+        assertThat(first.get("tenant")).isNotEqualTo(second.get("tenant"));
+    }
+
+    @Test
+    void compactedMapsAndListsCannotBeModified() {
+        Map<String, Object> compacted = compactor.compact(new ConfigLoader().load("examples/routes.yml"));
+
+        assertThatThrownBy(() -> compacted.put("name", "value"))
+            .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> ((List<?>) compacted.get("routes")).clear())
+            .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void largeMapIsIndexed() {
+        Map<String, Object> loaded = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            loaded.put("key" + i, i);
+        }
+
+        Map<String, Object> compacted = compactor.compact(loaded);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(compacted.get("key" + i)).isEqualTo(i);
+        }
+        assertThat(compacted.containsKey("key100")).isFalse();
+        assertThat(compacted.get(1)).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mapsWithKeysWhichAreNotStringsAreKept() {
+        Map<String, Object> loaded = new ConfigLoader()
+            .withResourceProvider(StringProvider::fromString)
+            .load("codes:\n  200: ok\n  404: missing");
+
+        Map<Object, Object> codes = (Map<Object, Object>) compactor.compact(loaded).get("codes");
+
+        assertThat(codes).containsEntry(200, "ok").containsEntry(404, "missing");
+    }
+
+    @Test
+    void propertiesShareTheirStrings() {
+        Properties first = new Properties();
+        first.setProperty("db.host", new String("db.internal"));
+        Properties second = new Properties();
+        second.setProperty(new String("db.host"), new String("db.internal"));
+
+        ConfigProperties compactFirst = compactor.compactProperties(first);
+        ConfigProperties compactSecond = compactor.compactProperties(second);
+
+        assertThat(compactFirst.getProperty("db.host")).isSameAs(compactSecond.getProperty("db.host"));
+        assertThat(compactFirst.stringPropertyNames().iterator().next())
+            .isSameAs(compactSecond.stringPropertyNames().iterator().next());
+    }
+
+    @Test
+    void poolStopsGrowingAtItsLimit() {
+        ConfigCompactor small = new ConfigCompactor(3, 10);
+        Map<String, Object> loaded = new LinkedHashMap<>();
+        for (int i = 0; i < 10; i++) {
+            loaded.put("key" + i, "value" + i);
+        }
+
+        assertThat(small.compact(loaded)).isEqualTo(loaded);
+        assertThat(small.getPooledValues()).isEqualTo(3);
+    }
+
+    @Test
+    void retainedHeapPerConfigIsReduced(TestReporter reporter) {
+        ConfigLoader plainLoader = new ConfigLoader().withResourceProvider(StringProvider::fromString);
+        ConfigLoader compactLoader = tenantLoader();
+
+        List<Map<String, Object>> plain = new ArrayList<>();
+        List<Map<String, Object>> compact = new ArrayList<>();
+        for (int i = 0; i < TENANTS; i++) {
+            plain.add(plainLoader.load(tenant(i)));
+            compact.add(compactLoader.load(tenant(i)));
+        }
+
+        long plainBytes = new RetainedHeap().add(plain).getBytes() / TENANTS;
+
+        // the compactor's pools are charged to the configurations which share them
+        long compactBytes = new RetainedHeap().add(compact).add(compactor).getBytes() / TENANTS;
+
+        reporter.publishEntry("plainBytesPerConfig", Long.toString(plainBytes));
+        reporter.publishEntry("compactBytesPerConfig", Long.toString(compactBytes));
+        assertThat(compactBytes)
+            .describedAs("retained heap per config: plain %d bytes, compact %d bytes", plainBytes, compactBytes)
+            .isLessThan(plainBytes / 2);
+    }
+
+    private ConfigLoader tenantLoader() {
+        return new ConfigLoader()
+            .withResourceProvider(StringProvider::fromString)
+            .withCompactor(compactor);
+    }
+
+    private static String tenant(int number) {
+        return "tenant: tenant-" + number + "\n" +
+            "region: eu-west-1\n" +
+            "database:\n" +
+            "  host: db.internal.example.com\n" +
+            "  port: 5432\n" +
+            "  name: tenant_" + number + "\n" +
+            "  pool:\n" +
+            "    minimum: 2\n" +
+            "    maximum: 20\n" +
+            "    timeout: 30s\n" +
+            "cache:\n" +
+            "  enabled: true\n" +
+            "  mode: READ_THROUGH\n" +
+            "  ttl: 5m\n" +
+            "features:\n" +
+            "  - name: billing\n" +
+            "    enabled: true\n" +
+            "  - name: reports\n" +
+            "    enabled: " + (number % 2 == 0) + "\n" +
+            "  - name: audit\n" +
+            "    enabled: false\n" +
+            "endpoints:\n" +
+            "  api: https://api.example.com\n" +
+            "  auth: https://auth.example.com\n" +
+            "  metrics: https://metrics.example.com\n";
+    }
+}
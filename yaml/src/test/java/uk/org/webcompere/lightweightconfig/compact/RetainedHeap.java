@@ -0,0 +1,158 @@
+package uk.org.webcompere.lightweightconfig.compact;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Estimates the heap retained by a graph of objects, for a 64-bit JVM with compressed references and compact
+ * strings. The JDK's collections are sized from their documented structure, through their public API, as
+ * their fields can't be read on newer JVMs, and the library's own objects from their fields. Objects reached
+ * from more than one root are counted once, so the total of several roots is what they retain together.
+ */
+class RetainedHeap {
+    private static final int HEADER = 12;
+    private static final int REFERENCE = 4;
+
+    private final Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Deque<Object> pending = new ArrayDeque<>();
+    private long bytes;
+
+    /**
+     * Add the objects reachable from a root, which haven't already been counted
+     * @param root the root
+     * @return <code>this</code> for fluent use
+     */
+    RetainedHeap add(Object root) {
+        reach(root);
+        while (!pending.isEmpty()) {
+            bytes += size(pending.pop());
+        }
+        return this;
+    }
+
+    long getBytes() {
+        return bytes;
+    }
+
+    private void reach(Object value) {
+        if (value != null && seen.add(value)) {
+            pending.push(value);
+        }
+    }
+
+    private long size(Object value) {
+        Class<?> type = value.getClass();
+        if (value instanceof String) {
+            String string = (String) value;
+            boolean latin1 = string.chars().allMatch(character -> character < 256);
+            return align(HEADER + 12) + array(string.length() * (latin1 ? 1 : 2));
+        }
+        if (value instanceof Long || value instanceof Double) {
+            return align(HEADER + 8);
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character ||
+            value instanceof AtomicInteger) {
+            return align(HEADER + 4);
+        }
+        if (type.isArray()) {
+            return sizeArray(value);
+        }
+        if (value instanceof LinkedHashMap) {
+            return sizeMap((Map<?, ?>) value, 56, 40);
+        }
+        if (value instanceof ConcurrentHashMap) {
+            return sizeMap((Map<?, ?>) value, 64, 32);
+        }
+        if (type == ArrayList.class || type.getName().equals("java.util.Arrays$ArrayList")) {
+            List<?> list = (List<?>) value;
+            list.forEach(this::reach);
+            return align(HEADER + 12) + (type == ArrayList.class ? array(list.size() * REFERENCE) : 0);
+        }
+        if (type.getName().startsWith("java.")) {
+            throw new IllegalArgumentException("Cannot size " + type.getName());
+        }
+        return sizeFields(value);
+    }
+
+    private long sizeArray(Object array) {
+        Class<?> component = array.getClass().getComponentType();
+        if (!component.isPrimitive()) {
+            Object[] items = (Object[]) array;
+            for (Object item : items) {
+                reach(item);
+            }
+            return array(items.length * REFERENCE);
+        }
+        int length = Array.getLength(array);
+        int width = component == long.class || component == double.class ? 8 :
+            component == int.class || component == float.class ? 4 :
+            component == short.class || component == char.class ? 2 : 1;
+        return array(length * width);
+    }
+
+    /**
+     * Size a hash map - its object, its table, sized as the map would have grown it, and an entry per key
+     */
+    private long sizeMap(Map<?, ?> map, int objectSize, int entrySize) {
+        map.forEach((key, value) -> {
+            reach(key);
+            reach(value);
+        });
+        if (map.isEmpty()) {
+            return objectSize;
+        }
+        int capacity = Integer.highestOneBit(Math.max(1, map.size() - 1)) << 1;
+        while (map.size() > capacity * 3 / 4) {
+            capacity <<= 1;
+        }
+        return objectSize + array(capacity * REFERENCE) + (long) map.size() * entrySize;
+    }
+
+    private long sizeFields(Object value) {
+        long size = HEADER;
+        for (Class<?> type = value.getClass(); type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                Class<?> fieldType = field.getType();
+                size += fieldType == long.class || fieldType == double.class ? 8 :
+                    fieldType == int.class || fieldType == float.class || !fieldType.isPrimitive() ? 4 :
+                    fieldType == short.class || fieldType == char.class ? 2 : 1;
+                if (!fieldType.isPrimitive() && !type.getName().startsWith("java.")) {
+                    reach(read(field, value));
+                }
+            }
+        }
+        return align(size);
+    }
+
+    private static Object read(Field field, Object value) {
+        try {
+            field.setAccessible(true);
+            return field.get(value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long array(long contentBytes) {
+        return align(HEADER + 4 + contentBytes);
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,122 @@
+package uk.org.webcompere.lightweightconfig.jfr;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.org.webcompere.lightweightconfig.ConfigLoader;
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+import uk.org.webcompere.lightweightconfig.listener.LoadTracer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static uk.org.webcompere.lightweightconfig.TestFiles.write;
+
+class FlightRecorderTracerTest {
+    @TempDir
+    Path tempDir;
+
+    private ConfigLoader loader = new ConfigLoader()
+        .withTag("upper", value -> value.toUpperCase(Locale.ROOT));
+
+    @BeforeEach
+    void beforeEach() {
+        assumeTrue(FlightRecorder.isAvailable());
+    }
+
+    @Test
+    void flightRecorderTracerIsLoaded() {
+        assertThat(LoadTracer.flightRecorder()).isInstanceOf(FlightRecorderTracer.class);
+    }
+
+    @Test
+    void loadsAreNotRecordedWithoutARecording() {
+        assertThat(loader.createLoadContext().getRecorder()).isNull();
+    }
+
+    @Test
+    void tracerIsOnlyEnabledDuringARecording() throws IOException {
+        FlightRecorderTracer tracer = new FlightRecorderTracer();
+        boolean[] enabled = new boolean[1];
+
+        record(() -> enabled[0] = tracer.isEnabled());
+
+        assertThat(enabled[0]).isTrue();
+        assertThat(tracer.isEnabled()).isFalse();
+    }
+
+    @Test
+    void loadImportAndTagAreRecorded() throws IOException {
+        Path file = write(tempDir, "main.yml", "name: Bill\nshout: !upper hello\n#import extra.yml");
+        write(tempDir, "extra.yml", "extra: 1");
+
+        List<RecordedEvent> events = record(() -> loader.load(file));
+
+        RecordedEvent load = only(events, ConfigLoadEvent.NAME);
+        assertThat(load.getString("source")).isEqualTo(file.toString());
+        assertThat(load.getLong("bytesRead")).isEqualTo(Files.size(file) + Files.size(tempDir.resolve("extra.yml")));
+        assertThat(load.getString("failure")).isNull();
+        assertThat(load.getDuration()).isPositive();
+
+        RecordedEvent extra = only(events, ConfigImportEvent.NAME);
+        assertThat(extra.getString("path")).isEqualTo("extra.yml");
+        assertThat(extra.getLong("bytesRead")).isEqualTo(Files.size(tempDir.resolve("extra.yml")));
+
+        RecordedEvent tag = only(events, TagResolutionEvent.NAME);
+        assertThat(tag.getString("tag")).isEqualTo("upper");
+        assertThat(tag.getStartTime()).isAfterOrEqualTo(load.getStartTime());
+    }
+
+    @Test
+    void failedImportIsRecorded() throws IOException {
+        Path file = write(tempDir, "main.yml", "name: Bill\n#import missing.yml");
+
+        List<RecordedEvent> events = record(() -> assertThatThrownBy(() -> loader.load(file))
+            .isInstanceOf(ConfigLoaderException.class));
+
+        assertThat(only(events, ConfigImportEvent.NAME).getString("failure")).contains("missing.yml");
+        assertThat(only(events, ConfigLoadEvent.NAME).getString("failure")).contains("missing.yml");
+    }
+
+    @Test
+    void resourceLoadIsRecorded() throws IOException {
+        List<RecordedEvent> events = record(() -> loader.load("Example.yml"));
+
+        RecordedEvent load = only(events, ConfigLoadEvent.NAME);
+        assertThat(load.getString("source")).isEqualTo("Example.yml");
+        assertThat(load.getLong("bytesRead")).isPositive();
+    }
+
+    private List<RecordedEvent> record(Runnable action) throws IOException {
+        Path output = tempDir.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ConfigLoadEvent.NAME);
+            recording.enable(ConfigImportEvent.NAME);
+            recording.enable(TagResolutionEvent.NAME);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(output);
+        }
+        return RecordingFile.readAllEvents(output);
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream()
+            .filter(event -> event.getEventType().getName().equals(name))
+            .collect(Collectors.toList());
+        assertThat(matching).hasSize(1);
+        return matching.get(0);
+    }
+}
@@ -0,0 +1,213 @@
+package uk.org.webcompere.lightweightconfig.listener;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.yaml.snakeyaml.error.YAMLException;
+import uk.org.webcompere.lightweightconfig.ConfigLoader;
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+import uk.org.webcompere.lightweightconfig.data.PlaceholderSource;
+import uk.org.webcompere.lightweightconfig.properties.PropertiesLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.org.webcompere.lightweightconfig.TestFiles.write;
+
+class ConfigLoadListenerTest {
+    @TempDir
+    Path tempDir;
+
+    private List<LoadStatistics> completed = new ArrayList<>();
+    private List<LoadStatistics> failed = new ArrayList<>();
+    private AggregatingLoadListener aggregate = new AggregatingLoadListener();
+    private ConfigLoader loader;
+
+    @BeforeEach
+    void beforeEach() {
+        Map<String, String> values = new HashMap<>();
+        values.put("name", "Bill");
+
+        loader = new ConfigLoader()
+            .withPlaceholderSources(PlaceholderSource.fromMap(values))
+            .withTag("upper", value -> value.toUpperCase(Locale.ROOT))
+            .withLoadListener(new ConfigLoadListener() {
+                @Override
+                public void loadCompleted(LoadStatistics statistics) {
+                    completed.add(statistics);
+                }
+
+                @Override
+                public void loadFailed(LoadStatistics statistics, RuntimeException error) {
+                    failed.add(statistics);
+                }
+            })
+            .withLoadListener(aggregate);
+    }
+
+    @Test
+    void fileLoadIsRecorded() throws IOException {
+        Path file = write(tempDir, "main.yml", "name: ${name}\nother: ${other:-x}\nshout: !upper hello\n" +
+            "#import extra.yml\nagain: ${name}");
+        write(tempDir, "extra.yml", "extra: 1");
+
+        loader.load(file);
+
+        assertThat(completed).hasSize(1);
+        LoadStatistics statistics = completed.get(0);
+        assertThat(statistics.getSource()).isEqualTo(file.toString());
+        assertThat(statistics.getLinesProcessed()).isEqualTo(6);
+        assertThat(statistics.getBytesRead()).isEqualTo(Files.size(file) + Files.size(tempDir.resolve("extra.yml")));
+        assertThat(statistics.getPlaceholdersResolved()).isEqualTo(3);
+        assertThat(statistics.getPlaceholderSources())
+            .containsEntry("name", "map")
+            .containsEntry("other", LoadStatistics.UNRESOLVED);
+        assertThat(statistics.getImports()).extracting(TimedEvent::getName).containsExactly("extra.yml");
+        assertThat(statistics.getTagInvocations()).extracting(TimedEvent::getName).containsExactly("upper");
+        assertThat(statistics.getPhaseNanos(LoadPhase.PARSE)).isPositive();
+        assertThat(statistics.getPhaseNanos(LoadPhase.BIND)).isPositive();
+        assertThat(statistics.getTotalNanos()).isPositive();
+    }
+
+    @Test
+    void prefetchedImportsAreRecordedOnce() throws IOException {
+        Path file = write(tempDir, "main.yml", "name: ${name}\n#import ${part:-extra}.yml\nagain: ${name}");
+        write(tempDir, "extra.yml", "extra: ${name}");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            loader.withImportExecutor(executor).load(file);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(completed).hasSize(1);
+        assertThat(completed.get(0).getPlaceholdersResolved()).isEqualTo(4);
+        assertThat(completed.get(0).getPlaceholderSources())
+            .containsEntry("name", "map")
+            .containsEntry("part", LoadStatistics.UNRESOLVED);
+        assertThat(completed.get(0).getImports()).extracting(TimedEvent::getName).containsExactly("extra.yml");
+    }
+
+    @Test
+    void resourceLoadIsRecorded() {
+        loader.load("Example.yml");
+
+        assertThat(completed).hasSize(1);
+        assertThat(completed.get(0).getSource()).isEqualTo("Example.yml");
+        assertThat(completed.get(0).getBytesRead()).isEqualTo("name: ${name}\nage: ${AGE}\n".length());
+        assertThat(completed.get(0).getPlaceholderSources())
+            .containsEntry("name", "map")
+            .containsEntry("AGE", LoadStatistics.UNRESOLVED);
+    }
+
+    @Test
+    void failedLoadIsRecorded() {
+        assertThatThrownBy(() -> loader.load("missing.yml"))
+            .isInstanceOf(ConfigLoaderException.class);
+
+        assertThat(completed).isEmpty();
+        assertThat(failed).hasSize(1);
+        assertThat(aggregate.getFailures()).isEqualTo(1);
+    }
+
+    @Test
+    void compiledTemplateLoadIsRecorded() throws IOException {
+        Path file = write(tempDir, "main.yml", "name: ${name}");
+
+        loader.load(loader.compile(file));
+
+        assertThat(completed).hasSize(1);
+        assertThat(completed.get(0).getPlaceholdersResolved()).isEqualTo(1);
+        assertThat(completed.get(0).getBytesRead()).isZero();
+    }
+
+    @Test
+    void propertiesLoadIsRecordedWithLoadersContext() throws IOException {
+        Path file = write(tempDir, "config.properties", "name=${name}\nother=value");
+
+        assertThat(PropertiesLoader.load(file, loader.createLoadContext()))
+            .containsEntry("name", "Bill");
+
+        assertThat(completed).hasSize(1);
+        assertThat(completed.get(0).getLinesProcessed()).isEqualTo(2);
+        assertThat(completed.get(0).getPhaseNanos(LoadPhase.BIND)).isZero();
+    }
+
+    @Test
+    void streamedLoadIsRecordedWhenClosed() throws IOException {
+        Path file = write(tempDir, "main.yml", "name: ${name}\n---\nname: !upper two");
+
+        try (Stream<Object> documents = loader.loadAll(file, Object.class)) {
+            assertThat(documents.count()).isEqualTo(2);
+            assertThat(completed).isEmpty();
+        }
+
+        assertThat(completed).hasSize(1);
+        assertThat(completed.get(0).getTagInvocations()).hasSize(1);
+        assertThat(completed.get(0).getPhaseNanos(LoadPhase.BIND)).isPositive();
+    }
+
+    @Test
+    void failedStreamedLoadIsRecordedOnce() throws IOException {
+        Path file = write(tempDir, "main.yml", "name: a\n---\nname: [unclosed");
+
+        try (Stream<Object> documents = loader.loadAll(file, Object.class)) {
+            assertThatThrownBy(documents::count).isInstanceOf(YAMLException.class);
+        }
+
+        assertThat(failed).hasSize(1);
+        assertThat(completed).isEmpty();
+    }
+
+    @Test
+    void onlyValidSnapshotReadIsRecorded() throws IOException {
+        Path file = write(tempDir, "main.yml", "name: ${name}");
+        Path snapshot = tempDir.resolve("main.snapshot");
+
+        loader.loadWithSnapshot(file, snapshot);
+        long snapshotSize = Files.size(snapshot);
+        loader.loadWithSnapshot(file, snapshot);
+        write(tempDir, "main.yml", "name: ${name}\nchanged: true");
+        loader.loadWithSnapshot(file, snapshot);
+
+        assertThat(failed).isEmpty();
+        assertThat(completed).extracting(LoadStatistics::getSource)
+            .containsExactly(file.toString(), snapshot.toString(), file.toString());
+        LoadStatistics snapshotRead = completed.get(1);
+        assertThat(snapshotRead.getBytesRead()).isEqualTo(snapshotSize);
+        assertThat(snapshotRead.getPhaseNanos(LoadPhase.READ)).isPositive();
+        assertThat(snapshotRead.getTotalNanos()).isGreaterThanOrEqualTo(snapshotRead.getPhaseNanos(LoadPhase.READ));
+    }
+
+    @Test
+    void aggregateCollectsEveryLoad() throws IOException {
+        Path file = write(tempDir, "main.yml", "name: ${name}\nshout: !upper hello");
+
+        loader.load(file);
+        loader.load(file);
+
+        assertThat(aggregate.getLoads()).isEqualTo(2);
+        assertThat(aggregate.getTotalNanos().getCount()).isEqualTo(2);
+        assertThat(aggregate.getPhaseNanos(LoadPhase.PARSE).getCount()).isEqualTo(2);
+        assertThat(aggregate.getTagInvocationNanos().getCount()).isEqualTo(2);
+        assertThat(aggregate.getLinesProcessed().getSum()).isEqualTo(4);
+        assertThat(aggregate.getPlaceholderSourceCounts()).containsEntry("map", 2L);
+    }
+
+    @Test
+    void loaderWithoutListenersHasNoRecorder() {
+        assertThat(new ConfigLoader().createLoadContext().getRecorder()).isNull();
+    }
+}
@@ -0,0 +1,149 @@
+package uk.org.webcompere.lightweightconfig.reload;
+
+import org.junit.jupiter.api.Test;
+import uk.org.webcompere.lightweightconfig.ConfigLoader;
+import uk.org.webcompere.lightweightconfig.provider.StringProvider;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConfigDiffTest {
+    private ConfigLoader loader = new ConfigLoader()
+        .withResourceProvider(StringProvider::fromString);
+
+    @Test
+    void sameConfigHasNoDifferences() {
+        String yaml = "server:\n  port: 8080\nroutes: [a, b]";
+        ConfigDiff diff = ConfigDiff.between(loader.load(yaml), loader.load(yaml));
+
+        assertThat(diff.isEmpty()).isTrue();
+        assertThat(diff.affects("")).isFalse();
+    }
+
+    @Test
+    void changedAddedAndRemovedValuesAreReportedByPath() {
+        ConfigDiff diff = ConfigDiff.between(
+            loader.load("server:\n  port: 8080\n  host: a\nlogging:\n  level: INFO"),
+            loader.load("server:\n  port: 8081\n  timeout: 5\nlogging:\n  level: INFO"));
+
+        assertThat(diff.getChanged()).containsExactly("server.port");
+        assertThat(diff.getAdded()).containsExactly("server.timeout");
+        assertThat(diff.getRemoved()).containsExactly("server.host");
+    }
+
+    @Test
+    void listItemsAreComparedByIndex() {
+        ConfigDiff diff = ConfigDiff.between(
+            loader.load("routes:\n- url: /a\n- url: /b\n- url: /c"),
+            loader.load("routes:\n- url: /a\n- url: /x"));
+
+        assertThat(diff.getChanged()).containsExactly("routes[1].url");
+        assertThat(diff.getRemoved()).containsExactly("routes[2]");
+    }
+
+    @Test
+    void wholeSectionAddedIsReportedOnce() {
+        ConfigDiff diff = ConfigDiff.between(
+            loader.load("name: a"),
+            loader.load("name: a\ndatabase:\n  pool:\n    size: 5"));
+
+        assertThat(diff.getAdded()).containsExactly("database");
+        assertThat(diff.affects("database.pool")).isTrue();
+    }
+
+    @Test
+    void affectsPathsAtOrWithinPrefix() {
+        ConfigDiff diff = ConfigDiff.between(
+            loader.load("database:\n  pool:\n    size: 5\nlogging:\n  level: INFO"),
+            loader.load("database:\n  pool:\n    size: 5\nlogging:\n  level: DEBUG"));
+
+        assertThat(diff.affects("logging")).isTrue();
+        assertThat(diff.affects("logging.level")).isTrue();
+        assertThat(diff.affects("")).isTrue();
+        assertThat(diff.affects("database")).isFalse();
+        assertThat(diff.affects("log")).isFalse();
+    }
+
+    @Test
+    void boundObjectsAreComparedByField() {
+        ConfigDiff diff = ConfigDiff.between(
+            loader.loadAs("database:\n  url: db1\n  poolSize: 5\nlevels: [INFO]", Settings.class),
+            loader.loadAs("database:\n  url: db1\n  poolSize: 10\nlevels: [INFO, DEBUG]", Settings.class));
+
+        assertThat(diff.getChanged()).containsExactly("database.poolSize");
+        assertThat(diff.getAdded()).containsExactly("levels[1]");
+    }
+
+    @Test
+    void changeOfTypeIsAChange() {
+        Map<String, Object> previous = loader.load("value: [1, 2]");
+        Map<String, Object> next = loader.load("value: 1");
+
+        assertThat(ConfigDiff.between(previous, next).getChanged()).containsExactly("value");
+    }
+
+    @Test
+    void backReferencesAreNotFollowedAgain() {
+        ConfigDiff diff = ConfigDiff.between(
+            loader.load("server: &server\n  port: 8080\n  self: *server"),
+            loader.load("server: &server\n  port: 8081\n  self: *server"));
+
+        assertThat(diff.getChanged()).containsExactly("server.port");
+    }
+
+    @Test
+    void backReferenceOnOneSideIsAChange() {
+        Map<String, Object> previous = new HashMap<>();
+        previous.put("self", previous);
+        Map<String, Object> next = new HashMap<>();
+        next.put("self", new HashMap<>());
+
+        assertThat(ConfigDiff.between(previous, next).getChanged()).containsExactly("self");
+    }
+
+    public static class Settings {
+        private Database database;
+        private List<String> levels = new ArrayList<>();
+
+        public Database getDatabase() {
+            return database;
+        }
+
+        public void setDatabase(Database database) {
+            this.database = database;
+        }
+
+        public List<String> getLevels() {
+            return levels;
+        }
+
+        public void setLevels(List<String> levels) {
+            this.levels = levels;
+        }
+    }
+
+    public static class Database {
+        private String url;
+        private int poolSize;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package uk.org.webcompere.lightweightconfig.reload;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.org.webcompere.lightweightconfig.ConfigLoader;
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.org.webcompere.lightweightconfig.TestFiles.write;
+
+class ReloadableConfigTest {
+    private static final long TIMEOUT_MILLIS = 30_000;
+
+    @TempDir
+    Path tempDir;
+
+    private Path mainFile;
+    private Path importedFile;
+    private List<Exception> errors = new ArrayList<>();
+    private ReloadableConfig<Map> config;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        mainFile = tempDir.resolve("main.yml");
+        importedFile = tempDir.resolve("imported.yml");
+        write(importedFile, "imported: 1");
+        write(mainFile, "main: a\n#import imported.yml");
+
+        config = new ReloadableConfig<>(new ConfigLoader(), mainFile, Map.class)
+            .withDebounce(Duration.ofMillis(10))
+            .withErrorHandler(errors::add);
+    }
+
+    @AfterEach
+    void afterEach() {
+        config.close();
+    }
+
+    @Test
+    void initialLoad() {
+        assertThat(config.get())
+            .containsEntry("main", "a")
+            .containsEntry("imported", 1);
+    }
+
+    @Test
+    void importedFilesAreWatched() {
+        assertThat(config.getWatchedFiles())
+            .containsExactlyInAnyOrder(mainFile.toAbsolutePath(), importedFile.toAbsolutePath());
+    }
+
+    @Test
+    void manualReloadPicksUpChange() throws IOException {
+        write(mainFile, "main: b\n#import imported.yml");
+
+        config.reload();
+
+        assertThat(config.get()).containsEntry("main", "b");
+    }
+
+    @Test
+    void failedReloadKeepsLastGoodValue() throws IOException {
+        write(importedFile, "imported: [");
+
+        config.reload();
+
+        assertThat(config.get()).containsEntry("imported", 1);
+        assertThat(errors).hasSize(1);
+    }
+
+    @Test
+    void reloadListenerReceivesNewValue() throws IOException {
+        List<Map> reloaded = new ArrayList<>();
+        config.withReloadListener(reloaded::add);
+        write(importedFile, "imported: 2");
+
+        config.reload();
+
+        assertThat(reloaded).hasSize(1);
+        assertThat(reloaded.get(0)).containsEntry("imported", 2);
+    }
+
+    @Test
+    void slowListenerDoesNotHoldUpTheNextReload() throws Exception {
+        CountDownLatch inListener = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Object> reloaded = new CopyOnWriteArrayList<>();
+        config.withReloadListener(loaded -> {
+            reloaded.add(loaded.get("main"));
+            inListener.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        Thread firstReload = new Thread(config::reload);
+        firstReload.start();
+        assertThat(inListener.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+
+        write(mainFile, "main: b\n#import imported.yml");
+        config.reload();
+        assertThat(config.get()).containsEntry("main", "b");
+        assertThat(reloaded).containsExactly("a");
+
+        release.countDown();
+        firstReload.join(TIMEOUT_MILLIS);
+        assertThat(reloaded).containsExactly("a", "b");
+    }
+
+    @Test
+    void listenerFailureIsReported() throws IOException {
+        IllegalStateException failure = new IllegalStateException("listener failed");
+        config.withReloadListener(loaded -> {
+            throw failure;
+        });
+        write(importedFile, "imported: 2");
+
+        config.reload();
+
+        assertThat(config.get()).containsEntry("imported", 2);
+        assertThat(errors).containsExactly(failure);
+    }
+
+    @Test
+    void automaticReloadRunsOnTheReloadExecutor() throws Exception {
+        List<Runnable> tasks = new CopyOnWriteArrayList<>();
+        config.withReloadExecutor(task -> {
+            tasks.add(task);
+            task.run();
+        });
+        write(importedFile, "imported: 2");
+
+        long end = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (tasks.isEmpty() && System.currentTimeMillis() < end) {
+            Thread.sleep(20);
+        }
+
+        assertThat(tasks).isNotEmpty();
+        assertThat(config.get()).containsEntry("imported", 2);
+    }
+
+    @Test
+    void newImportIsWatchedAfterReload() throws IOException {
+        Path newFile = tempDir.resolve("new.yml");
+        write(newFile, "new: true");
+        write(mainFile, "main: a\n#import new.yml");
+
+        config.reload();
+
+        assertThat(config.getWatchedFiles())
+            .containsExactlyInAnyOrder(mainFile.toAbsolutePath(), newFile.toAbsolutePath());
+    }
+
+    @Test
+    void changeToImportedFileIsReloadedAutomatically() throws Exception {
+        write(importedFile, "imported: 2");
+
+        long end = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!Integer.valueOf(2).equals(config.get().get("imported")) && System.currentTimeMillis() < end) {
+            Thread.sleep(20);
+        }
+
+        assertThat(config.get()).containsEntry("imported", 2);
+    }
+
+    @Test
+    void fileAddedToAnEmptyGlobImportIsReloadedAutomatically() throws Exception {
+        Path confDir = Files.createDirectory(tempDir.resolve("conf.d"));
+        write(mainFile, "main: a\n#import conf.d/*.yml");
+        config.reload();
+        assertThat(config.get()).doesNotContainKey("extra");
+
+        write(confDir.resolve("extra.yml"), "extra: true");
+
+        long end = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!config.get().containsKey("extra") && System.currentTimeMillis() < end) {
+            Thread.sleep(20);
+        }
+
+        assertThat(config.get()).containsEntry("extra", true);
+    }
+
+    @Test
+    void changeListenersAreOnlyCalledForAffectedPaths() throws IOException {
+        List<ConfigDiff> mainChanges = new ArrayList<>();
+        List<ConfigDiff> importedChanges = new ArrayList<>();
+        List<ConfigDiff> allChanges = new ArrayList<>();
+        config.withChangeListener("main", (loaded, diff) -> mainChanges.add(diff))
+            .withChangeListener("imported", (loaded, diff) -> importedChanges.add(diff))
+            .withChangeListener("", (loaded, diff) -> allChanges.add(diff));
+
+        write(importedFile, "imported: 2");
+        config.reload();
+
+        assertThat(mainChanges).isEmpty();
+        assertThat(importedChanges).hasSize(1);
+        assertThat(importedChanges.get(0).getChanged()).containsExactly("imported");
+        assertThat(allChanges).hasSize(1);
+    }
+
+    @Test
+    void reloadWithoutChangesCallsNoChangeListener() {
+        List<ConfigDiff> changes = new ArrayList<>();
+        config.withChangeListener("", (loaded, diff) -> changes.add(diff));
+
+        config.reload();
+
+        assertThat(changes).isEmpty();
+    }
+
+    @Test
+    void initialLoadFailureIsAnError() {
+        Path missingFile = tempDir.resolve("missing.yml");
+
+        assertThatThrownBy(() -> new ReloadableConfig<>(new ConfigLoader(), missingFile, Map.class))
+            .isInstanceOf(ConfigLoaderException.class);
+    }
+
+    @Test
+    void failedInitialLoadLeavesNothingWatched() throws IOException {
+        Path brokenFile = Files.createDirectory(tempDir.resolve("broken")).resolve("broken.yml");
+        write(brokenFile, "broken: [");
+
+        assertThatThrownBy(() -> new ReloadableConfig<>(new ConfigLoader(), brokenFile, Map.class))
+            .isInstanceOf(RuntimeException.class);
+
+        assertThat(FileWatcher.forFile(brokenFile).isWatching(brokenFile.toAbsolutePath())).isFalse();
+    }
+}
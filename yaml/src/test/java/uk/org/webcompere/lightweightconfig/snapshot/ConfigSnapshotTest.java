@@ -0,0 +1,187 @@
+package uk.org.webcompere.lightweightconfig.snapshot;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.org.webcompere.lightweightconfig.ConfigLoader;
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+import uk.org.webcompere.lightweightconfig.data.PlaceholderResolver;
+import uk.org.webcompere.lightweightconfig.data.PlaceholderSource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.org.webcompere.lightweightconfig.TestFiles.write;
+
+class ConfigSnapshotTest {
+    @TempDir
+    Path tempDir;
+
+    private Map<String, String> values = new HashMap<>();
+    private List<String> sources = new ArrayList<>();
+    private ConfigLoader loader;
+    private Path snapshot;
+
+    @BeforeEach
+    void beforeEach() {
+        values.put("name", "Bill");
+
+        loader = new ConfigLoader()
+            .withPlaceholderSources(PlaceholderSource.fromMap(values))
+            .withLoadListener(statistics -> sources.add(statistics.getSource()));
+        snapshot = tempDir.resolve("cache").resolve("config.snapshot");
+    }
+
+    @Test
+    void firstLoadWritesSnapshotWhichServesTheNext() throws IOException {
+        Path file = write(tempDir, "main.yml", "name: ${name}\nlist: [1, 2]");
+
+        Map<String, Object> first = loader.loadWithSnapshot(file, snapshot);
+        Map<String, Object> second = loader.loadWithSnapshot(file, snapshot);
+
+        assertThat(snapshot).exists();
+        assertThat(second).isEqualTo(first);
+        assertThat(second).containsEntry("name", "Bill");
+        assertThat(sources).containsExactly(file.toString(), snapshot.toString());
+    }
+
+    @Test
+    void changedFileMakesSnapshotStale() throws IOException {
+        Path file = write(tempDir, "main.yml", "name: first");
+        loader.loadWithSnapshot(file, snapshot);
+
+        write(tempDir, "main.yml", "name: second");
+
+        assertThat(loader.loadWithSnapshot(file, snapshot)).containsEntry("name", "second");
+        assertThat(loader.loadWithSnapshot(file, snapshot)).containsEntry("name", "second");
+        assertThat(sources).containsExactly(file.toString(), file.toString(), snapshot.toString());
+    }
+
+    @Test
+    void changedImportMakesSnapshotStale() throws IOException {
+        Path file = write(tempDir, "main.yml", "#import extra.yml\nname: main");
+        write(tempDir, "extra.yml", "extra: 1");
+        loader.loadWithSnapshot(file, snapshot);
+
+        write(tempDir, "extra.yml", "extra: 2");
+
+        assertThat(loader.loadWithSnapshot(file, snapshot)).containsEntry("extra", 2);
+    }
+
+    @Test
+    void changedPlaceholderMakesSnapshotStale() throws IOException {
+        Path file = write(tempDir, "main.yml", "name: ${name}\nother: ${other:-default}");
+        loader.loadWithSnapshot(file, snapshot);
+
+        values.put("other", "set");
+
+        assertThat(loader.loadWithSnapshot(file, snapshot))
+            .containsEntry("name", "Bill")
+            .containsEntry("other", "set");
+    }
+
+    @Test
+    void snapshotOfAnotherFileIsReplaced() throws IOException {
+        Path first = write(tempDir, "first.yml", "name: first");
+        Path second = write(tempDir, "second.yml", "name: second");
+        loader.loadWithSnapshot(first, snapshot);
+
+        assertThat(loader.loadWithSnapshot(second, snapshot)).containsEntry("name", "second");
+        assertThat(ConfigSnapshot.read(snapshot, first, PlaceholderResolver.live())).isEmpty();
+    }
+
+    @Test
+    void corruptSnapshotIsReplaced() throws IOException {
+        Path file = write(tempDir, "main.yml", "name: ${name}");
+        Files.createDirectories(snapshot.getParent());
+        write(snapshot, "not a snapshot");
+
+        assertThat(loader.loadWithSnapshot(file, snapshot)).containsEntry("name", "Bill");
+        assertThat(loader.loadWithSnapshot(file, snapshot)).containsEntry("name", "Bill");
+        assertThat(sources).containsExactly(file.toString(), snapshot.toString());
+    }
+
+    @Test
+    void unwritableSnapshotStillLoads() throws IOException {
+        Path file = write(tempDir, "main.yml", "name: ${name}");
+        Path blocked = write(tempDir, "blocked", "a file, not a directory").resolve("config.snapshot");
+
+        assertThat(loader.loadWithSnapshot(file, blocked)).containsEntry("name", "Bill");
+        assertThat(ConfigSnapshot.write(blocked, emptyMap(), emptySet(), emptyMap())).isFalse();
+    }
+
+    @Test
+    void valueWhichCannotBeStoredIsAnError() throws IOException {
+        Path file = write(tempDir, "main.yml", "name: !builder ${name}");
+        loader.withTag("builder", StringBuilder::new);
+
+        assertThatThrownBy(() -> loader.loadWithSnapshot(file, snapshot))
+            .isInstanceOf(ConfigLoaderException.class)
+            .hasMessageContaining("java.lang.StringBuilder");
+    }
+
+    @Test
+    void allValueTypesRoundTrip() {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("string", "caf\u00e9");
+        config.put("empty", "");
+        config.put("null", null);
+        config.put("int", -12);
+        config.put("long", 5_000_000_000L);
+        config.put("double", 1.5);
+        config.put("true", true);
+        config.put("false", false);
+        config.put("bigInteger", new BigInteger("123456789012345678901234567890"));
+        config.put("bigDecimal", new BigDecimal("1.25"));
+        config.put("date", new Date(1_600_000_000_000L));
+        config.put("list", Arrays.asList(1, "two", singletonList(3)));
+        config.put("set", new LinkedHashSet<>(Arrays.asList("a", "b")));
+        config.put("map", singletonMap(1, singletonMap("nested", "value")));
+
+        assertThat(ConfigSnapshot.write(snapshot, config, emptySet(), emptyMap())).isTrue();
+        Optional<Map<String, Object>> read = ConfigSnapshot.read(snapshot, PlaceholderResolver.live());
+
+        assertThat(read).contains(config);
+    }
+
+    @Test
+    void binaryValuesRoundTrip() {
+        byte[] bytes = {0, 1, 2, -1};
+        Map<String, Object> config = singletonMap("bytes", bytes);
+
+        ConfigSnapshot.write(snapshot, config, emptySet(), emptyMap());
+
+        assertThat(ConfigSnapshot.read(snapshot, PlaceholderResolver.live()).get().get("bytes"))
+            .isEqualTo(bytes);
+    }
+
+    @Test
+    void missingSourceIsStaleOnceItExists() throws IOException {
+        Path missing = tempDir.resolve("missing.yml");
+        ConfigSnapshot.write(snapshot, singletonMap("a", 1), singleton(missing), emptyMap());
+        assertThat(ConfigSnapshot.read(snapshot, PlaceholderResolver.live())).isPresent();
+
+        write(tempDir, "missing.yml", "a: 2");
+
+        assertThat(ConfigSnapshot.read(snapshot, PlaceholderResolver.live())).isEmpty();
+    }
+}
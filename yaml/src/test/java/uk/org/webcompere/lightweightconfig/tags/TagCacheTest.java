@@ -0,0 +1,265 @@
+package uk.org.webcompere.lightweightconfig.tags;
+
+import org.junit.jupiter.api.Test;
+import uk.org.webcompere.lightweightconfig.ConfigLoader;
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+import uk.org.webcompere.lightweightconfig.provider.StringProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TagCacheTest {
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private AtomicLong now = new AtomicLong();
+    private AtomicInteger calls = new AtomicInteger();
+    private List<Runnable> refreshes = new ArrayList<>();
+    private TagCache cache = new TagCache(100, Duration.ofSeconds(10), now::get)
+        .withRefreshExecutor(refreshes::add);
+
+    private Function<String, Object> resolver = value -> value + calls.incrementAndGet();
+
+    @Test
+    void valueIsResolvedOnceWhileFresh() {
+        assertThat(cache.get("password", "db", resolver)).isEqualTo("db1");
+        now.addAndGet(5 * SECOND);
+        assertThat(cache.get("password", "db", resolver)).isEqualTo("db1");
+
+        assertThat(calls).hasValue(1);
+        assertThat(cache.getStatistics().getHits()).isEqualTo(1);
+        assertThat(cache.getStatistics().getMisses()).isEqualTo(1);
+        assertThat(refreshes).isEmpty();
+    }
+
+    @Test
+    void valuesAreKeyedByTagAndValue() {
+        assertThat(cache.get("password", "db", resolver)).isEqualTo("db1");
+        assertThat(cache.get("token", "db", resolver)).isEqualTo("db2");
+        assertThat(cache.get("password", "api", resolver)).isEqualTo("api3");
+        assertThat(cache.size()).isEqualTo(3);
+    }
+
+    @Test
+    void readNearExpiryRefreshesInBackground() {
+        cache.get("password", "db", resolver);
+        now.addAndGet(8 * SECOND);
+
+        assertThat(cache.get("password", "db", resolver)).isEqualTo("db1");
+        assertThat(cache.get("password", "db", resolver)).isEqualTo("db1");
+        assertThat(refreshes).hasSize(1);
+        assertThat(calls).hasValue(1);
+
+        refreshes.get(0).run();
+        now.addAndGet(5 * SECOND);
+        assertThat(cache.get("password", "db", resolver)).isEqualTo("db2");
+        assertThat(cache.getStatistics().getRefreshes()).isEqualTo(1);
+        assertThat(cache.getStatistics().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredValueIsResolvedAgain() {
+        cache.get("password", "db", resolver);
+        now.addAndGet(11 * SECOND);
+
+        assertThat(cache.get("password", "db", resolver)).isEqualTo("db2");
+        assertThat(cache.getStatistics().getMisses()).isEqualTo(2);
+    }
+
+    @Test
+    void expiredValueIsServedWhenResolverFails() {
+        cache.get("password", "db", resolver);
+        now.addAndGet(11 * SECOND);
+
+        Object value = cache.get("password", "db", failing -> {
+            throw new ConfigLoaderException("unavailable");
+        });
+
+        assertThat(value).isEqualTo("db1");
+        assertThat(cache.getStatistics().getStaleHits()).isEqualTo(1);
+        assertThat(cache.getStatistics().getLoadFailures()).isEqualTo(1);
+    }
+
+    @Test
+    void failureWithNothingCachedIsThrown() {
+        assertThatThrownBy(() -> cache.get("password", "db", failing -> {
+            throw new ConfigLoaderException("unavailable");
+        }))
+            .isInstanceOf(ConfigLoaderException.class)
+            .hasMessage("unavailable");
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void failedRefreshKeepsCurrentValueAndTriesAgain() {
+        AtomicInteger attempts = new AtomicInteger();
+        Function<String, Object> failing = value -> {
+            attempts.incrementAndGet();
+            throw new ConfigLoaderException("unavailable");
+        };
+        cache.get("password", "db", resolver);
+        now.addAndGet(8 * SECOND);
+
+        assertThat(cache.get("password", "db", failing)).isEqualTo("db1");
+        refreshes.get(0).run();
+        assertThat(cache.get("password", "db", failing)).isEqualTo("db1");
+
+        assertThat(refreshes).hasSize(2);
+        assertThat(attempts).hasValue(1);
+    }
+
+    @Test
+    void concurrentReadsShareOneCallToTheResolver() throws Exception {
+        CountDownLatch resolving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<String, Object> slow = value -> {
+            resolving.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return resolver.apply(value);
+        };
+
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        try {
+            Future<Object> first = readers.submit(() -> cache.get("password", "db", slow));
+            resolving.await();
+            List<Future<Object>> others = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                others.add(readers.submit(() -> cache.get("password", "db", slow)));
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            assertThat(first.get()).isEqualTo("db1");
+            for (Future<Object> other : others) {
+                assertThat(other.get()).isEqualTo("db1");
+            }
+            assertThat(calls).hasValue(1);
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentReadsShareTheFailureOfTheResolver() throws Exception {
+        CountDownLatch resolving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<String, Object> failing = value -> {
+            calls.incrementAndGet();
+            resolving.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new ConfigLoaderException("unavailable");
+        };
+
+        ExecutorService readers = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> first = readers.submit(() -> cache.get("password", "db", failing));
+            resolving.await();
+            Future<Object> second = readers.submit(() -> cache.get("password", "db", failing));
+            Thread.sleep(50);
+            release.countDown();
+
+            assertThatThrownBy(first::get).hasCauseInstanceOf(ConfigLoaderException.class);
+            assertThatThrownBy(second::get).hasCauseInstanceOf(ConfigLoaderException.class);
+            assertThat(calls).hasValue(1);
+            assertThat(cache.get("password", "db", resolver)).isEqualTo("db2");
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    @Test
+    void tagsMayHaveTheirOwnTimeToLive() {
+        cache.withTimeToLive("token", Duration.ofSeconds(1));
+        cache.get("password", "db", resolver);
+        cache.get("token", "db", resolver);
+        now.addAndGet(2 * SECOND);
+
+        assertThat(cache.get("password", "db", resolver)).isEqualTo("db1");
+        assertThat(cache.get("token", "db", resolver)).isEqualTo("db3");
+    }
+
+    @Test
+    void leastRecentlyUsedValuesAreEvicted() {
+        TagCache small = new TagCache(2, Duration.ofSeconds(10), now::get);
+        small.get("password", "a", resolver);
+        small.get("password", "b", resolver);
+        small.get("password", "a", resolver);
+        small.get("password", "c", resolver);
+
+        assertThat(small.size()).isEqualTo(2);
+        assertThat(small.get("password", "a", resolver)).isEqualTo("a1");
+        assertThat(small.get("password", "b", resolver)).isEqualTo("b4");
+        assertThat(small.getStatistics().getEvictions()).isEqualTo(2);
+    }
+
+    @Test
+    void refreshAheadOfOneOnlyReplacesExpiredValues() {
+        cache.withRefreshAhead(1);
+        cache.get("password", "db", resolver);
+        now.addAndGet(9 * SECOND);
+
+        assertThat(cache.get("password", "db", resolver)).isEqualTo("db1");
+        assertThat(refreshes).isEmpty();
+    }
+
+    @Test
+    void invalidatedTagIsResolvedAgain() {
+        cache.get("password", "db", resolver);
+        cache.get("token", "db", resolver);
+        cache.invalidate("password");
+
+        assertThat(cache.get("password", "db", resolver)).isEqualTo("db3");
+        assertThat(cache.get("token", "db", resolver)).isEqualTo("db2");
+    }
+
+    @Test
+    void loadTimeIsMeasured() {
+        cache.get("password", "db", value -> {
+            now.addAndGet(SECOND / 2);
+            return value;
+        });
+
+        assertThat(cache.getStatistics().getLoads()).isEqualTo(1);
+        assertThat(cache.getStatistics().getAverageLoadTime()).isEqualTo(Duration.ofMillis(500));
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        assertThatThrownBy(() -> new TagCache(0, Duration.ofSeconds(1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TagCache(1, Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cache.withRefreshAhead(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void loaderReadsTagsThroughCache() {
+        ConfigLoader loader = new ConfigLoader()
+            .withResourceProvider(StringProvider::fromString)
+            .withTag("password", resolver)
+            .withTagCache(cache);
+
+        assertThat(loader.load("db: !password db\napi: !password db")).containsEntry("api", "db1");
+        assertThat(loader.load("db: !password db")).containsEntry("db", "db1");
+        assertThat(calls).hasValue(1);
+    }
+}
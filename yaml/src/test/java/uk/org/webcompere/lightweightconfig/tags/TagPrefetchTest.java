@@ -0,0 +1,315 @@
+package uk.org.webcompere.lightweightconfig.tags;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import uk.org.webcompere.lightweightconfig.ConfigLoader;
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+import uk.org.webcompere.lightweightconfig.listener.LoadStatistics;
+import uk.org.webcompere.lightweightconfig.provider.StringProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TagPrefetchTest {
+    private static final String SECRETS = "db: !password db-key\n" +
+        "api: !password api-key\n" +
+        "cache: &cache !password cache-key\n" +
+        "copy: *cache\n" +
+        "list: [!password db-key, plain]\n";
+
+    private ExecutorService executor = Executors.newCachedThreadPool();
+    private List<Set<String>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    void afterEach() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void batchTagIsResolvedInOneCall() {
+        Map<String, Object> config = loader()
+            .withBatchTag("password", this::upperCase)
+            .load(SECRETS);
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).containsExactly("db-key", "api-key", "cache-key");
+        assertThat(config)
+            .containsEntry("db", "DB-KEY")
+            .containsEntry("copy", "CACHE-KEY")
+            .containsEntry("list", asList("DB-KEY", "plain"));
+    }
+
+    @Test
+    void documentWithoutTheTagDoesNotCallResolver() {
+        Map<String, Object> config = loader()
+            .withBatchTag("password", this::upperCase)
+            .load("name: bill");
+
+        assertThat(config).containsEntry("name", "bill");
+        assertThat(batches).isEmpty();
+    }
+
+    @Test
+    void batchTagCanBindToObjects() {
+        Credentials credentials = loader()
+            .withBatchTag("password", this::upperCase)
+            .loadAs("user: bill\npassword: !password bill-key", Credentials.class);
+
+        assertThat(credentials.getPassword()).isEqualTo("BILL-KEY");
+    }
+
+    @Test
+    void batchResolverMustReturnEveryValue() {
+        ConfigLoader loader = loader()
+            .withBatchTag("password", values -> singletonMap("db-key", "secret"));
+
+        assertThatThrownBy(() -> loader.load(SECRETS))
+            .isInstanceOf(ConfigLoaderException.class)
+            .hasMessage("The resolver of !password returned no value for 2 of 3 values");
+    }
+
+    @Test
+    void laterRegistrationOfTagReplacesEarlier() {
+        ConfigLoader loader = loader()
+            .withBatchTag("password", this::upperCase)
+            .withTag("password", value -> "scalar");
+
+        assertThat(loader.load(SECRETS)).containsEntry("db", "scalar");
+        assertThat(batches).isEmpty();
+    }
+
+    @Test
+    void scalarTagsAreResolvedConcurrently() {
+        CountDownLatch allStarted = new CountDownLatch(3);
+        Function<String, Object> waitForOthers = value -> {
+            allStarted.countDown();
+            try {
+                // only returns if the three values are resolved at once
+                return allStarted.await(5, TimeUnit.SECONDS) ? value.toUpperCase() : null;
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+
+        Map<String, Object> config = loader()
+            .withTag("password", waitForOthers)
+            .withTagExecutor(executor, 3, Duration.ofSeconds(10))
+            .load(SECRETS);
+
+        assertThat(config)
+            .containsEntry("db", "DB-KEY")
+            .containsEntry("api", "API-KEY")
+            .containsEntry("copy", "CACHE-KEY");
+    }
+
+    @Test
+    void parallelismIsLimited() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        Function<String, Object> slow = value -> {
+            mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+            return value;
+        };
+
+        StringBuilder document = new StringBuilder();
+        for (int i = 0; i < 12; i++) {
+            document.append("key").append(i).append(": !password value").append(i).append('\n');
+        }
+
+        Map<String, Object> config = loader()
+            .withTag("password", slow)
+            .withTagExecutor(executor, 2, Duration.ofSeconds(10))
+            .load(document.toString());
+
+        assertThat(config).hasSize(12).containsEntry("key11", "value11");
+        assertThat(mostRunning.get()).isBetween(1, 2);
+    }
+
+    @Test
+    void slowCallFailsTheLoad() {
+        ConfigLoader loader = loader()
+            .withTag("password", value -> {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return value;
+            })
+            .withTagExecutor(executor, 4, Duration.ofMillis(50));
+
+        assertThatThrownBy(() -> loader.load(SECRETS))
+            .isInstanceOf(ConfigLoaderException.class)
+            .hasMessage("Resolving !password took longer than 50ms");
+    }
+
+    @Test
+    void slowSingleCallFailsTheLoad() {
+        ConfigLoader loader = loader()
+            .withTag("password", value -> {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return value;
+            })
+            .withTagExecutor(executor, 4, Duration.ofMillis(50));
+
+        assertThatThrownBy(() -> loader.load("db: !password db-key"))
+            .isInstanceOf(ConfigLoaderException.class)
+            .hasMessage("Resolving !password took longer than 50ms");
+    }
+
+    @Test
+    void singleCallRunsOnTheExecutor() {
+        Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+        Map<String, Object> config = loader()
+            .withTag("password", value -> {
+                threads.add(Thread.currentThread().getName());
+                return value.toUpperCase();
+            })
+            .withTagExecutor(executor, 4, Duration.ofSeconds(10))
+            .load("db: !password db-key");
+
+        assertThat(config).containsEntry("db", "DB-KEY");
+        assertThat(threads).isNotEmpty().doesNotContain(Thread.currentThread().getName());
+    }
+
+    @Test
+    void timeQueuedInTheExecutorDoesNotCount() {
+        ExecutorService singleThread = Executors.newSingleThreadExecutor();
+        try {
+            Function<String, Object> takesAWhile = value -> {
+                try {
+                    Thread.sleep(150);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return value;
+            };
+
+            Map<String, Object> config = loader()
+                .withTag("password", takesAWhile)
+                .withTagExecutor(singleThread, 8, Duration.ofMillis(1000))
+                .load("a: !password a\nb: !password b\nc: !password c\nd: !password d\ne: !password e\n" +
+                    "f: !password f\ng: !password g\nh: !password h");
+
+            assertThat(config).hasSize(8).containsEntry("h", "h");
+        } finally {
+            singleThread.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedCallFailsTheLoad() {
+        ConfigLoader loader = loader()
+            .withTag("password", value -> {
+                throw new ConfigLoaderException("No secret " + value);
+            })
+            .withTagExecutor(executor, 4, Duration.ofSeconds(10));
+
+        assertThatThrownBy(() -> loader.load("db: !password db-key\napi: !password api-key"))
+            .isInstanceOf(ConfigLoaderException.class)
+            .hasMessageStartingWith("No secret");
+    }
+
+    @Test
+    void batchTagsRunOnTheExecutor() {
+        Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+        Map<String, Object> config = loader()
+            .withBatchTag("password", values -> {
+                threads.add(Thread.currentThread().getName());
+                return upperCase(values);
+            })
+            .withBatchTag("token", values -> {
+                threads.add(Thread.currentThread().getName());
+                return upperCase(values);
+            })
+            .withTagExecutor(executor, 4, Duration.ofSeconds(10))
+            .load("db: !password db-key\napi: !token api-key");
+
+        assertThat(config)
+            .containsEntry("db", "DB-KEY")
+            .containsEntry("api", "API-KEY");
+        assertThat(threads).isNotEmpty().doesNotContain(Thread.currentThread().getName());
+    }
+
+    @Test
+    void prefetchedTagsAreRecorded() {
+        List<LoadStatistics> statistics = new ArrayList<>();
+        loader()
+            .withBatchTag("password", this::upperCase)
+            .withLoadListener(statistics::add)
+            .load(SECRETS);
+
+        assertThat(statistics.get(0).getTagInvocations()).hasSize(1);
+    }
+
+    @Test
+    void invalidExecutionIsRejected() {
+        ConfigLoader loader = loader();
+
+        assertThatThrownBy(() -> loader.withTagExecutor(executor, 0, Duration.ofSeconds(1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> loader.withTagExecutor(executor, 1, Duration.ZERO))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ConfigLoader loader() {
+        return new ConfigLoader()
+            .withResourceProvider(StringProvider::fromString);
+    }
+
+    private Map<String, Object> upperCase(Set<String> values) {
+        batches.add(values);
+        Map<String, Object> resolved = new LinkedHashMap<>();
+        values.forEach(value -> resolved.put(value, value.toUpperCase()));
+        return resolved;
+    }
+
+    public static class Credentials {
+        private String user;
+        private String password;
+
+        public String getUser() {
+            return user;
+        }
+
+        public void setUser(String user) {
+            this.user = user;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package uk.org.webcompere.lightweightconfig.view;
+
+import org.junit.jupiter.api.Test;
+import uk.org.webcompere.lightweightconfig.ConfigLoader;
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConfigViewTest {
+    private ConfigView view = new ConfigLoader().loadView("examples/routes.yml");
+
+    @Test
+    void valuesAreFoundByPath() {
+        assertThat(view.getInt("server.http.port")).isEqualTo(8080);
+        assertThat(view.getLong("server.http.maxBytes")).isEqualTo(5_000_000_000L);
+        assertThat(view.getDouble("server.http.ratio")).isEqualTo(0.75);
+        assertThat(view.getBoolean("server.http.secure")).isTrue();
+        assertThat(view.getString("routes[1].url")).isEqualTo("/customers");
+        assertThat(view.getString("routes[1].tags[0]")).isEqualTo("read");
+    }
+
+    @Test
+    void mapsAndListsAreValuesToo() {
+        assertThat(view.get("server.http")).isInstanceOf(Map.class);
+        assertThat(view.get("routes[1].tags")).isEqualTo(asList("read", "write"));
+        assertThat(view.get("")).isInstanceOf(Map.class);
+    }
+
+    @Test
+    void missingValuesHaveDefaults() {
+        assertThat(view.contains("server.http.timeout")).isFalse();
+        assertThat(view.get("server.http.timeout")).isNull();
+        assertThat(view.getInt("server.http.timeout", 30)).isEqualTo(30);
+        assertThat(view.getString("routes[2].url", "none")).isEqualTo("none");
+    }
+
+    @Test
+    void nullValueIsContainedButHasNoValue() {
+        assertThat(view.contains("retired")).isTrue();
+        assertThat(view.getBoolean("retired", false)).isFalse();
+        assertThatThrownBy(() -> view.getBoolean("retired"))
+            .isInstanceOf(ConfigLoaderException.class)
+            .hasMessage("No value at retired");
+    }
+
+    @Test
+    void valuesAreConvertedAsBindersConvertThem() {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("count", "12");
+        config.put("enabled", "false");
+        config.put("big", 12);
+        config.put("name", 42);
+
+        ConfigView strings = ConfigView.of(config);
+
+        assertThat(strings.getInt("count")).isEqualTo(12);
+        assertThat(strings.getBoolean("enabled")).isFalse();
+        assertThat(strings.getLong("big")).isEqualTo(12L);
+        assertThat(strings.getString("name")).isEqualTo("42");
+    }
+
+    @Test
+    void valueOfTheWrongTypeIsAnError() {
+        assertThatThrownBy(() -> view.getInt("server.http.secure"))
+            .isInstanceOf(ConfigLoaderException.class)
+            .hasMessage("Cannot convert true to int at server.http.secure");
+        assertThatThrownBy(() -> view.getString("server"))
+            .isInstanceOf(ConfigLoaderException.class);
+    }
+
+    @Test
+    void subtreeViewsAreRelativeToTheirPath() {
+        ConfigView http = view.getView("server.http");
+
+        assertThat(http.getPath()).isEqualTo("server.http");
+        assertThat(http.getInt("port")).isEqualTo(8080);
+        assertThat(http.contains("routes")).isFalse();
+        assertThat(http.get("")).isSameAs(view.get("server.http"));
+        assertThatThrownBy(() -> http.getInt("missing"))
+            .isInstanceOf(ConfigLoaderException.class)
+            .hasMessage("No value at server.http.missing");
+    }
+
+    @Test
+    void subtreeViewsOfLists() {
+        ConfigView routes = view.getView("routes");
+
+        assertThat(routes.getString("[0].url")).isEqualTo("/orders");
+        assertThat(routes.getView("[1]").getString("tags[1]")).isEqualTo("write");
+        assertThat(routes.getView("[1].tags").getString("[1]")).isEqualTo("write");
+        assertThat(view.getView("routes[0]").getInt("weight")).isEqualTo(3);
+    }
+
+    @Test
+    void viewIsOnlyOfMapsAndLists() {
+        assertThatThrownBy(() -> view.getView("server.http.port"))
+            .isInstanceOf(ConfigLoaderException.class)
+            .hasMessage("No map or list at server.http.port");
+    }
+
+    @Test
+    void keyContainingDotsCanBeFound() {
+        ConfigView dotted = ConfigView.of(singletonMap("outer", singletonMap("a.b", 1)));
+
+        assertThat(dotted.getInt("outer.a.b")).isEqualTo(1);
+        assertThat(dotted.getView("outer").getInt("a.b")).isEqualTo(1);
+    }
+}
@@ -0,0 +1,218 @@
+package uk.org.webcompere.lightweightconfig.yaml;
+
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.introspector.BeanAccess;
+import org.yaml.snakeyaml.introspector.Property;
+import uk.org.webcompere.lightweightconfig.ConfigLoader;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BindingTest {
+    public static class Described {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getDescription() {
+            return "described " + name;
+        }
+    }
+
+    public static class Server {
+        private String host;
+        private int port;
+        private long timeout;
+        private List<Endpoint> endpoints;
+        private Map<String, Integer> limits;
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public long getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(long timeout) {
+            this.timeout = timeout;
+        }
+
+        public List<Endpoint> getEndpoints() {
+            return endpoints;
+        }
+
+        public void setEndpoints(List<Endpoint> endpoints) {
+            this.endpoints = endpoints;
+        }
+
+        public Map<String, Integer> getLimits() {
+            return limits;
+        }
+
+        public void setLimits(Map<String, Integer> limits) {
+            this.limits = limits;
+        }
+    }
+
+    public static class Endpoint {
+        public String path;
+        public List<String> methods;
+    }
+
+    private final ConfigLoader loader = new ConfigLoader()
+        .withResourceReader(StringReader::new);
+
+    @Test
+    void bindsNestedBeansAndGenericCollections() {
+        Server server = loader.loadAs("host: localhost\nport: 8080\ntimeout: 5000000000\n" +
+            "endpoints:\n" +
+            "  - path: /a\n    methods: [GET, POST]\n" +
+            "  - path: /b\n    methods: [DELETE]\n" +
+            "limits:\n  requests: 100\n", Server.class);
+
+        assertThat(server.getHost()).isEqualTo("localhost");
+        assertThat(server.getPort()).isEqualTo(8080);
+        assertThat(server.getTimeout()).isEqualTo(5_000_000_000L);
+        assertThat(server.getEndpoints()).extracting(endpoint -> endpoint.path).containsExactly("/a", "/b");
+        assertThat(server.getEndpoints().get(0).methods).containsExactly("GET", "POST");
+        assertThat(server.getLimits()).containsEntry("requests", 100);
+    }
+
+    @Test
+    void unknownPropertiesAreSkipped() {
+        Server server = loader.loadAs("host: localhost\nunknown: value\n", Server.class);
+
+        assertThat(server.getHost()).isEqualTo("localhost");
+    }
+
+    @Test
+    void integersWhichAreNotPlainDecimalsAreStillConverted() {
+        Map<String, Object> map = loader.loadAs("octal: 010\nhex: 0x1F\nseparated: 1_000\nnegative: -42\n" +
+            "long: 12345678901\nzero: 0\n", Map.class);
+
+        assertThat(map).containsEntry("octal", 8)
+            .containsEntry("hex", 31)
+            .containsEntry("separated", 1000)
+            .containsEntry("negative", -42)
+            .containsEntry("long", 12345678901L)
+            .containsEntry("zero", 0);
+    }
+
+    @Test
+    void integersAreTheSameAsSnakeYamlConstructs() {
+        for (String value : new String[] {"0", "7", "-7", "+7", "999999999", "-999999999", "2147483647",
+            "-2147483648", "2147483648", "0o17", "017", "0b101", "1:30", "-0"}) {
+            String document = "value: " + value + "\n";
+
+            assertThat(loader.loadAs(document, Map.class))
+                .as(value)
+                .isEqualTo(new Yaml().load(document));
+        }
+    }
+
+    @Test
+    void plainDecimalsAreRecognised() {
+        assertThat(DecimalIntConstruct.isPlainDecimal("123")).isTrue();
+        assertThat(DecimalIntConstruct.isPlainDecimal("-123")).isTrue();
+        assertThat(DecimalIntConstruct.isPlainDecimal("0")).isTrue();
+        assertThat(DecimalIntConstruct.isPlainDecimal("012")).isFalse();
+        assertThat(DecimalIntConstruct.isPlainDecimal("-")).isFalse();
+        assertThat(DecimalIntConstruct.isPlainDecimal("1_000")).isFalse();
+        assertThat(DecimalIntConstruct.isPlainDecimal("1234567890")).isFalse();
+    }
+
+    @Test
+    void propertiesAreIntrospectedOnceAndBoundThroughHandles() {
+        Property first = new CachingPropertyUtils().getProperty(Server.class, "host");
+        Property second = new CachingPropertyUtils().getProperty(Server.class, "host");
+
+        assertThat(first).isInstanceOf(HandleProperty.class);
+        assertThat(second).isSameAs(first);
+        assertThat(new CachingPropertyUtils().getProperties(Endpoint.class, BeanAccess.DEFAULT))
+            .allMatch(property -> property instanceof HandleProperty);
+    }
+
+    @Test
+    void reconfiguringOneEngineDoesNotAffectOthers() {
+        CachingPropertyUtils reconfigured = new CachingPropertyUtils();
+        reconfigured.setAllowReadOnlyProperties(true);
+        CachingPropertyUtils other = new CachingPropertyUtils();
+
+        assertThat(reconfigured.getProperties(Described.class, BeanAccess.DEFAULT)
+            .stream().map(Property::getName).collect(Collectors.toList()))
+            .containsExactly("description", "name");
+        assertThat(other.getProperties(Described.class, BeanAccess.DEFAULT)
+            .stream().map(Property::getName).collect(Collectors.toList()))
+            .containsExactly("name");
+    }
+
+    @Test
+    void smallLoadsStillWorkAfterLargeDocument() {
+        assertThat(loader.loadAs(largeDocument(), Server.class).getEndpoints())
+            .hasSize(YamlPool.MAXIMUM_POOLED_NODES);
+        assertThat(loader.loadAs("port: 1", Server.class).getPort()).isEqualTo(1);
+    }
+
+    @Test
+    void enginesWhichBoundLargeDocumentsAreNotReused() {
+        YamlPool pool = new YamlPool(emptyMap());
+        Yaml engine = pool.withYaml(yaml -> yaml);
+
+        pool.loadAs(new StringReader("port: 1"), Server.class, null);
+        Yaml afterSmallLoad = pool.withYaml(yaml -> yaml);
+        assertThat(afterSmallLoad).isSameAs(engine);
+
+        pool.loadAs(new StringReader(largeDocument()), Server.class, null);
+        Yaml afterLargeLoad = pool.withYaml(yaml -> yaml);
+        assertThat(afterLargeLoad).isNotSameAs(engine);
+    }
+
+    @Test
+    void streamOfManySmallDocumentsDoesNotRetireTheEngine() {
+        YamlPool pool = new YamlPool(emptyMap());
+        Yaml engine = pool.withYaml(yaml -> yaml);
+        String documents = IntStream.range(0, YamlPool.MAXIMUM_POOLED_NODES + 1)
+            .mapToObj(i -> "port: " + i)
+            .collect(Collectors.joining("\n---\n"));
+
+        try (Stream<Server> servers = pool.loadAll(new StringReader(documents), Server.class, null, null)) {
+            assertThat(servers.count()).isEqualTo(YamlPool.MAXIMUM_POOLED_NODES + 1);
+        }
+
+        Yaml afterStream = pool.withYaml(yaml -> yaml);
+        assertThat(afterStream).isSameAs(engine);
+    }
+
+    private static String largeDocument() {
+        return IntStream.range(0, YamlPool.MAXIMUM_POOLED_NODES)
+            .mapToObj(i -> "  - path: /p" + i)
+            .collect(Collectors.joining("\n", "endpoints:\n", "\n"));
+    }
+}
@@ -0,0 +1,169 @@
+package uk.org.webcompere.lightweightconfig.yaml;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.org.webcompere.lightweightconfig.ConfigLoader;
+import uk.org.webcompere.lightweightconfig.ConfigLoaderException;
+import uk.org.webcompere.lightweightconfig.data.PlaceholderSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.org.webcompere.lightweightconfig.TestFiles.write;
+
+class ParsedFragmentCacheTest {
+    public static class Example {
+        private String name;
+        private int age;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+    }
+
+    @TempDir
+    Path tempDir;
+
+    private Map<String, String> values = new HashMap<>();
+    private ParsedFragmentCache cache = new ParsedFragmentCache(100);
+    private ConfigLoader loader = new ConfigLoader()
+        .withPlaceholderSources(PlaceholderSource.fromMap(values))
+        .withMergedImports(cache);
+
+    @Test
+    void sharedImportIsParsedOnce() throws IOException {
+        write(tempDir, "base.yml", "timeout: 10\nretries: 3");
+        Path first = write(tempDir, "first.yml", "#import base.yml\nname: first");
+        Path second = write(tempDir, "second.yml", "#import base.yml\nname: second");
+
+        assertThat(loader.load(first)).containsEntry("name", "first").containsEntry("timeout", 10);
+        assertThat(loader.load(second)).containsEntry("name", "second").containsEntry("retries", 3);
+
+        assertThat(cache.getMisses()).isEqualTo(3);
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(3);
+    }
+
+    @Test
+    void fileOverridesImportsWhereverTheyAreListed() throws IOException {
+        write(tempDir, "base.yml", "name: base\nport: 80");
+        write(tempDir, "more.yml", "port: 8080");
+        Path config = write(tempDir, "config.yml", "name: config\n#import base.yml\n#import more.yml");
+
+        assertThat(loader.load(config))
+            .containsEntry("name", "config")
+            .containsEntry("port", 8080);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mapsAreMergedAndListsReplaced() throws IOException {
+        write(tempDir, "base.yml", "server:\n  host: localhost\n  port: 80\n  paths: [a, b]");
+        Path config = write(tempDir, "config.yml", "#import base.yml\nserver:\n  port: 8080\n  paths: [c]");
+
+        Map<String, Object> server = (Map<String, Object>) loader.load(config).get("server");
+
+        assertThat(server)
+            .containsEntry("host", "localhost")
+            .containsEntry("port", 8080)
+            .containsEntry("paths", Arrays.asList("c"));
+    }
+
+    @Test
+    void changedPlaceholderIsParsedAgain() throws IOException {
+        Path config = write(tempDir, "config.yml", "url: ${URL:-http://localhost}");
+
+        assertThat(loader.load(config)).containsEntry("url", "http://localhost");
+        assertThat(loader.load(config)).containsEntry("url", "http://localhost");
+
+        values.put("URL", "http://remote");
+        assertThat(loader.load(config)).containsEntry("url", "http://remote");
+        assertThat(cache.getMisses()).isEqualTo(2);
+        assertThat(cache.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void eachLoadHasItsOwnTree() throws IOException {
+        write(tempDir, "base.yml", "name: Bill\nage: 41");
+        Path config = write(tempDir, "config.yml", "#import base.yml\nage: 42");
+
+        Example first = loader.loadAs(config, Example.class);
+        Example second = loader.loadAs(config, Example.class);
+
+        assertThat(first.getName()).isEqualTo("Bill");
+        assertThat(first.getAge()).isEqualTo(42);
+        assertThat(second.getName()).isEqualTo("Bill");
+        assertThat(second.getAge()).isEqualTo(42);
+    }
+
+    @Test
+    void resourcesAreMerged() {
+        values.put("PROFILE", "dev");
+
+        assertThat(loader.load("examples/profile-config.yml"))
+            .containsEntry("url", "http://www.dev.com")
+            .containsEntry("retry", false);
+    }
+
+    @Test
+    void leastRecentlyUsedFragmentsAreEvicted() throws IOException {
+        ParsedFragmentCache small = new ParsedFragmentCache(1);
+        loader.withMergedImports(small);
+        Path first = write(tempDir, "first.yml", "name: first");
+        Path second = write(tempDir, "second.yml", "name: second");
+
+        loader.load(first);
+        loader.load(second);
+        loader.load(first);
+
+        assertThat(small.size()).isEqualTo(1);
+        assertThat(small.getMisses()).isEqualTo(3);
+    }
+
+    @Test
+    void loadsWhichCannotMergeImportsAreRejected() throws IOException {
+        Path config = write(tempDir, "config.yml", "name: Bill");
+
+        assertThatThrownBy(() -> loader.loadAll(config, Map.class))
+            .isInstanceOf(ConfigLoaderException.class);
+        assertThatThrownBy(() -> loader.visit(config, "name", String.class, name -> { }))
+            .isInstanceOf(ConfigLoaderException.class);
+        assertThatThrownBy(() -> loader.compile(config))
+            .isInstanceOf(ConfigLoaderException.class);
+        assertThatThrownBy(() -> loader.loadAs(new ConfigLoader().compile(config), Map.class))
+            .isInstanceOf(ConfigLoaderException.class);
+    }
+
+    @Test
+    void resourcesCannotBeMergedWithCustomReader() {
+        loader.withResourceReader(StringReader::new);
+
+        assertThatThrownBy(() -> loader.load("name: Bill"))
+            .isInstanceOf(ConfigLoaderException.class)
+            .hasMessageContaining("custom resource reader");
+    }
+
+    @Test
+    void sizeMustBePositive() {
+        assertThatThrownBy(() -> new ParsedFragmentCache(0))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,169 @@
+package uk.org.webcompere.lightweightconfig.yaml;
+
+import org.junit.jupiter.api.Test;
+import uk.org.webcompere.lightweightconfig.ConfigLoader;
+import uk.org.webcompere.lightweightconfig.provider.StringProvider;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PathVisitorTest {
+    public static class Route {
+        private String url;
+        private int weight;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private YamlPool pool = new YamlPool(Collections.emptyMap());
+    private List<Object> visited = new ArrayList<>();
+
+    @Test
+    void eachItemOfListIsVisited() {
+        List<Route> routes = new ArrayList<>();
+        long count = new ConfigLoader().visit("examples/routes.yml", "routes[*]", Route.class, routes::add);
+
+        assertThat(count).isEqualTo(2);
+        assertThat(routes.get(0).getUrl()).isEqualTo("/orders");
+        assertThat(routes.get(0).getWeight()).isEqualTo(3);
+        assertThat(routes.get(1).getUrl()).isEqualTo("/customers");
+    }
+
+    @Test
+    void nestedPathIsFollowed() {
+        visit("a:\n  b: [1, 2]\n  c: [3]\nb: [4]", "a.b[*]", Object.class);
+
+        assertThat(visited).containsExactly(1, 2);
+    }
+
+    @Test
+    void wildcardsMatchAnyKeyOrItem() {
+        visit("servers:\n  one:\n    ports: [80, 443]\n  two:\n    ports: [8080]", "servers.*.ports[0]",
+            Object.class);
+
+        assertThat(visited).containsExactly(80, 8080);
+    }
+
+    @Test
+    void itemsOfListsWithinListsAreVisited() {
+        visit("tenants:\n  - users: [a, b]\n  - users: [c]\n  - name: none", "tenants[*].users[*]", Object.class);
+
+        assertThat(visited).containsExactly("a", "b", "c");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void nodesWhichDoNotMatchTheShapeOfPathAreSkipped() {
+        visit("routes: 12\nother:\n  routes: [1]", "routes[*]", Object.class);
+        assertThat(visited).isEmpty();
+
+        visit("routes:\n  - {url: /a, nested: {deep: [1, 2]}}", "routes[*]", Map.class);
+        assertThat((Map<String, Object>) visited.get(0)).containsEntry("url", "/a");
+    }
+
+    @Test
+    void emptyPathVisitsEachDocument() {
+        visit("a: 1\n---\na: 2", "", Map.class);
+
+        assertThat(visited).hasSize(2);
+    }
+
+    @Test
+    void anchorsWithinItemAreResolved() {
+        visit("items:\n  - [&x 1, *x]", "items[*]", Object.class);
+
+        assertThat(visited).containsExactly(Arrays.asList(1, 1));
+    }
+
+    @Test
+    void placeholdersAreInterpolated() {
+        List<Object> urls = new ArrayList<>();
+        new ConfigLoader()
+            .withResourceProvider(StringProvider::fromString)
+            .visit("routes:\n  - ${MISSING:-/default}", "routes[*]", String.class, urls::add);
+
+        assertThat(urls).containsExactly("/default");
+    }
+
+    @Test
+    void veryLongListIsVisitedWithoutReadingItAllAtOnce() {
+        int items = 200_000;
+        long[] total = new long[1];
+        long count = pool.visit(new GeneratedRoutes(items), "routes[*]", Route.class,
+            route -> total[0] += route.getWeight(), null);
+
+        assertThat(count).isEqualTo(items);
+        assertThat(total[0]).isEqualTo((long) items * (items - 1) / 2);
+    }
+
+    @Test
+    void malformedPathIsRejected() {
+        for (String path : new String[] {"routes[", "routes[x]", "a..b", "a.", "routes[-1]"}) {
+            assertThatThrownBy(() -> PathVisitor.parse(path))
+                .describedAs(path)
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private void visit(String yaml, String path, Class<?> type) {
+        visited.clear();
+        pool.visit(new StringReader(yaml), path, type, visited::add, null);
+    }
+
+    /**
+     * Generates a list of routes as it's read, so the whole source never exists at once
+     */
+    private static class GeneratedRoutes extends Reader {
+        private final int items;
+        private int next = -1;
+        private String pending = "";
+        private int position;
+
+        GeneratedRoutes(int items) {
+            this.items = items;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position == pending.length()) {
+                if (next == items) {
+                    return -1;
+                }
+                pending = next < 0 ? "routes:\n" : "  - url: /route" + next + "\n    weight: " + next + "\n";
+                position = 0;
+                next++;
+            }
+            int count = Math.min(length, pending.length() - position);
+            pending.getChars(position, position + count, buffer, offset);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            // nothing to release
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package uk.org.webcompere.lightweightconfig.yaml;
+
+import org.junit.jupiter.api.Test;
+import uk.org.webcompere.lightweightconfig.ConfigLoader;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecordBindingTest {
+    public record Address(String street, int number) {
+    }
+
+    public record Person(String name, int age, boolean active, Address address, List<Address> previous,
+                         Map<String, Address> named) {
+    }
+
+    public record Port(int value) {
+        public Port {
+            if (value < 0) {
+                throw new IllegalArgumentException("negative port");
+            }
+        }
+    }
+
+    public static class Holder {
+        private Person person;
+
+        public Person getPerson() {
+            return person;
+        }
+
+        public void setPerson(Person person) {
+            this.person = person;
+        }
+    }
+
+    private final ConfigLoader loader = new ConfigLoader()
+        .withResourceReader(StringReader::new);
+
+    @Test
+    void bindsRecordThroughCanonicalConstructor() {
+        Person person = loader.loadAs("name: Bill\nage: 42\nactive: true\n" +
+            "address:\n  street: High Street\n  number: 1\n" +
+            "previous:\n  - street: Low Road\n    number: 2\n" +
+            "named:\n  work:\n    street: Office Park\n    number: 3\n", Person.class);
+
+        assertThat(person.name()).isEqualTo("Bill");
+        assertThat(person.age()).isEqualTo(42);
+        assertThat(person.active()).isTrue();
+        assertThat(person.address()).isEqualTo(new Address("High Street", 1));
+        assertThat(person.previous()).containsExactly(new Address("Low Road", 2));
+        assertThat(person.named()).containsEntry("work", new Address("Office Park", 3));
+    }
+
+    @Test
+    void missingComponentsTakeDefaultValues() {
+        Person person = loader.loadAs("name: Bill\nunknown: ignored\n", Person.class);
+
+        assertThat(person).isEqualTo(new Person("Bill", 0, false, null, null, null));
+    }
+
+    @Test
+    void recordCanBeNestedInBean() {
+        Holder holder = loader.loadAs("person:\n  name: Bill\n", Holder.class);
+
+        assertThat(holder.getPerson().name()).isEqualTo("Bill");
+    }
+
+    @Test
+    void compactConstructorValidationFailsTheLoad() {
+        assertThatThrownBy(() -> loader.loadAs("value: -1", Port.class))
+            .hasRootCauseInstanceOf(IllegalArgumentException.class);
+    }
+}